@@ -17,6 +17,17 @@ public class ConfigValues {
 
 	@ConfigProperty(category = "general", comment = "If enabled, external recipes and modules will be forcibly reset to default.\nDisable to allow custom recipes and module values.")
 	public static boolean useInternalValues = false;
+
+	@ConfigDoubleRange(min = 0, max = 0.1)
+	@ConfigProperty(category = "general", comment = "Changes of a player's mana or burnout smaller than this fraction of the maximum aren't synced to the client until they add up.")
+	public static double manaSyncThreshold = 0.002;
+
+	@ConfigProperty(category = "general", comment = "If enabled, the movement and render hooks of every entity post Wizardry's EntityMoveEvent, EntityTravelEvent, SlipperinessEvent, PlayerClipEvent and EntityRenderShadowAndFireEvent.\nOnly needed for addons listening to these events, as it costs an event per entity and tick.")
+	public static boolean legacyEntityHookEvents = false;
+
+	@ConfigIntRange(min = 1, max = 10000)
+	@ConfigProperty(category = "general", comment = "Maximum number of blocks a ray trace of a spell or item steps through before it gives up.\nRaise it if spells with a very long range stop short of their target.")
+	public static int rayTraceMaxSteps = 200;
 	
 	@ConfigProperty(category = "world", comment = "If true, mana pool dimension whitelist is instead a blacklist")
 	public static boolean isDimBlacklist = false;
@@ -40,6 +51,10 @@ public class ConfigValues {
 	@ConfigProperty(category = "world", comment = "The maximum possible distance required for 2 mana interacting blocks to link to each other")
 	public static int networkLinkDistance = 32;
 
+	@ConfigIntRange(min = 0, max = 100)
+	@ConfigProperty(category = "world", comment = "Number of ticks between two passes of the mana network solver. Each pass catches up on all ticks since the last one.\nSet to 0 to let every mana node poll its neighbours each tick instead.")
+	public static int manaNetworkSolverInterval = 5;
+
 	@ConfigProperty(category = "items", comment = "The buffer size a crude halo will give to a player.")
 	public static double crudeHaloBufferSize = 1000;
 
@@ -76,4 +91,30 @@ public class ConfigValues {
 	@ConfigIntRange(min = 1, max = Integer.MAX_VALUE)
 	@ConfigProperty(category = "spells", comment = "Maximum number of ticks between Beam activations. Minimum of 1.")
 	public static int beamTimer = 10;
+
+	@ConfigIntRange(min = 1, max = Integer.MAX_VALUE)
+	@ConfigProperty(category = "spells", comment = "Maximum number of compiled spells kept in memory. Least recently used spells are dropped first.")
+	public static int spellCacheSize = 256;
+
+	@ConfigProperty(category = "spells", comment = "If enabled, module overrides are dispatched through generated classes.\nDisable to fall back to the slower reflection proxy.")
+	public static boolean useGeneratedOverrideInvokers = true;
+
+	@ConfigProperty(category = "spells", comment = "If enabled, spell render events are sent in one compact packet per player and tick.\nDisable to fall back to one packet per event.")
+	public static boolean batchSpellRenderPackets = true;
+
+	@ConfigDoubleRange(min = 16, max = 512)
+	@ConfigProperty(category = "spells", comment = "Maximum distance in blocks from a spell target at which players receive its render events.")
+	public static double spellRenderRadius = 256;
+
+	@ConfigIntRange(min = 0, max = Integer.MAX_VALUE)
+	@ConfigProperty(category = "spells", comment = "Maximum number of bytes of spell render events sent to a single player per tick. Further events are dropped. Set to 0 to disable the limit.")
+	public static int spellRenderByteBudget = 32768;
+
+	@ConfigIntRange(min = 0, max = 1000)
+	@ConfigProperty(category = "spells", comment = "Milliseconds of server tick time spell work may take before further work is deferred to the next tick. Set to 0 to run all spell work right away.")
+	public static int spellTickBudget = 10;
+
+	@ConfigIntRange(min = 0, max = Integer.MAX_VALUE)
+	@ConfigProperty(category = "spells", comment = "Maximum number of spell work units, like the rays of a cone or the blocks of a substitution, run per server tick. Set to 0 to only limit by time.")
+	public static int spellTickOperations = 4096;
 }
@@ -6,30 +6,66 @@ import com.teamwizardry.wizardry.api.lifetimeobject.LifetimeObjectManager;
 import com.teamwizardry.wizardry.api.spell.IDelayedModule;
 import com.teamwizardry.wizardry.api.spell.SpellData;
 import com.teamwizardry.wizardry.api.spell.SpellRing;
+import com.teamwizardry.wizardry.api.spell.SpellScheduler;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.world.World;
+import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+/**
+ * Keeps the lingering and delayed spells of a world. <br/>
+ * Saves are versioned. The current format stores each distinct ring chain once, in a table keyed by the hash of its NBT,
+ * and the spell data of each object by the index of its fields in a table of field names, as the slots of
+ * {@link SpellData.DataField} are assigned at runtime and may differ between game starts. Saves without a version are
+ * the legacy format, with the full ring chain and named spell data in every object, and are migrated on load.
+ */
 public final class SpellObjectManager {
 
 	private static final ResourceLocation LINGERING = new ResourceLocation("wizardry", "lingering");
 	private static final ResourceLocation DELAYED = new ResourceLocation("wizardry", "delayed");
 	private static final String NBT_KEY_TYPE = "type";
 	private static final String NBT_KEY_DATA = "data";
+
+	/**
+	 * Version of the save format written by {@link #toNbt()}.
+	 */
+	public static final int FORMAT_VERSION = 2;
+	private static final String NBT_KEY_VERSION = "version";
+	private static final String NBT_KEY_RINGS = "rings";
+	private static final String NBT_KEY_RING_HASH = "hash";
+	private static final String NBT_KEY_RING = "ring";
+	private static final String NBT_KEY_FIELDS = "fields";
+	private static final String NBT_KEY_OBJECTS = "objects";
+
 	private final ImmutableMap<ResourceLocation, Supplier<SpellObject>> factories = ImmutableMap.<ResourceLocation, Supplier<SpellObject>>builder()
 			.put(LINGERING, LingeringObject::new)
 			.put(DELAYED, DelayedObject::new)
 			.build();
+
+	/**
+	 * The tables of the save being written or read, or null for the legacy format.
+	 */
+	@Nullable
+	private SaveTables tables = null;
+
 	public final LifetimeObjectManager<SpellObject> manager = new LifetimeObjectManager<>(new LifetimeObjectManager.Adapter<SpellObject>() {
 		@Override
 		public void toNbt(final SpellObject object, final Consumer<NBTTagCompound> consumer) {
 			final NBTTagCompound compound = new NBTTagCompound();
 			compound.setString(NBT_KEY_TYPE, object.getType().toString());
-			compound.setTag(NBT_KEY_DATA, object.serialize());
+			compound.setTag(NBT_KEY_DATA, object.serialize(tables));
 			consumer.accept(compound);
 		}
 
@@ -38,102 +74,180 @@ public final class SpellObjectManager {
 			final Supplier<SpellObject> factory = factories.get(new ResourceLocation(nbt.getString(NBT_KEY_TYPE)));
 			if (factory != null) {
 				final SpellObject obj = factory.get();
-				obj.deserialize(nbt.getCompoundTag(NBT_KEY_DATA));
+				obj.deserialize(nbt.getCompoundTag(NBT_KEY_DATA), tables);
 				consumer.accept(obj);
 			}
 		}
 	});
 
-	public void addLingering(final LingeringObject object, final int duration) {
-		this.manager.add(object, duration);
+	public LifetimeObjectManager.Handle addLingering(final LingeringObject object, final int duration) {
+		return this.manager.add(object, duration);
 	}
 
-	public void addDelayed(final DelayedObject object, final int delay) {
-		this.manager.add(object, delay);
+	public LifetimeObjectManager.Handle addDelayed(final DelayedObject object, final int delay) {
+		return this.manager.add(object, delay);
 	}
 
 	public void tick(Consumer<Boolean> onChange) {
 		this.manager.tick(onChange);
 	}
 
+	/**
+	 * @return the spells in the current save format.
+	 */
+	public NBTTagCompound toNbt() {
+		final SaveTables tables = new SaveTables();
+		this.tables = tables;
+		final NBTTagCompound objects;
+		try {
+			objects = this.manager.toNbt();
+		} finally {
+			this.tables = null;
+		}
+
+		final NBTTagCompound compound = new NBTTagCompound();
+		compound.setInteger(NBT_KEY_VERSION, FORMAT_VERSION);
+		compound.setTag(NBT_KEY_RINGS, tables.writeRings());
+		compound.setTag(NBT_KEY_FIELDS, tables.writeFields());
+		compound.setTag(NBT_KEY_OBJECTS, objects);
+		return compound;
+	}
+
+	/**
+	 * @return the spells in the legacy save format, as read by versions without {@link #FORMAT_VERSION}.
+	 */
+	public NBTTagCompound toLegacyNbt() {
+		return this.manager.toNbt();
+	}
+
+	/**
+	 * Replaces the spells with the saved ones, in either format.
+	 */
+	public void fromNbt(final NBTTagCompound compound) {
+		if (!compound.hasKey(NBT_KEY_VERSION)) {
+			this.manager.fromNbt(compound);
+			return;
+		}
+
+		this.tables = new SaveTables(compound.getTagList(NBT_KEY_RINGS, Constants.NBT.TAG_COMPOUND), compound.getTagList(NBT_KEY_FIELDS, Constants.NBT.TAG_STRING));
+		try {
+			this.manager.fromNbt(compound.getCompoundTag(NBT_KEY_OBJECTS));
+		} finally {
+			this.tables = null;
+		}
+	}
+
 	private interface SpellObject extends LifetimeObject {
 		ResourceLocation getType();
 
-		NBTTagCompound serialize();
+		NBTTagCompound serialize(@Nullable SaveTables tables);
 
-		void deserialize(NBTTagCompound nbt);
+		void deserialize(NBTTagCompound nbt, @Nullable SaveTables tables);
 	}
 
-	public static final class LingeringObject implements SpellObject {
+	/**
+	 * The spell, its ring and its world, saved the same way for all spell objects.
+	 */
+	private abstract static class SpellObjectBase implements SpellObject {
 
-		private World world;
-		private SpellData data;
-		private SpellRing ring;
+		World world;
+		SpellData data;
+		SpellRing ring;
 
-		LingeringObject() {
+		SpellObjectBase() {
 		}
 
-		public LingeringObject(World world, SpellData data, SpellRing ring) {
+		SpellObjectBase(World world, SpellData data, SpellRing ring) {
 			this.world = world;
 			this.data = data;
 			this.ring = ring;
 		}
 
 		@Override
-		public ResourceLocation getType() {
-			return LINGERING;
+		public NBTTagCompound serialize(@Nullable SaveTables tables) {
+			NBTTagCompound compound = new NBTTagCompound();
+			if (tables == null) {
+				if (ring != null)
+					compound.setTag("spell_ring", ring.serializeNBT());
+				if (data != null)
+					compound.setTag("spell_data", data.serializeNBT());
+			} else {
+				if (ring != null)
+					compound.setInteger("r", tables.putRing(ring));
+				if (data != null)
+					compound.setTag("d", tables.encodeData(data));
+			}
+			if (world != null) {
+				compound.setInteger(tables == null ? "world" : "w", world.provider.getDimension());
+			}
+			return compound;
 		}
 
 		@Override
-		public void start() {
+		public void deserialize(NBTTagCompound nbt, @Nullable SaveTables tables) {
+			if (tables == null) {
+				if (nbt.hasKey("spell_ring"))
+					ring = SpellRing.deserializeRing(nbt.getCompoundTag("spell_ring"));
+				if (nbt.hasKey("spell_data"))
+					data = SpellData.deserializeData(nbt.getCompoundTag("spell_data"));
+			} else {
+				if (nbt.hasKey("r"))
+					ring = tables.getRing(nbt.getInteger("r"));
+				if (nbt.hasKey("d"))
+					data = tables.decodeData(nbt.getCompoundTag("d"));
+			}
+			String worldKey = tables == null ? "world" : "w";
+			if (nbt.hasKey(worldKey))
+				world = FMLCommonHandler.instance().getMinecraftServerInstance().getWorld(nbt.getInteger(worldKey));
+		}
+	}
+
+	public static final class LingeringObject extends SpellObjectBase {
+
+		/**
+		 * Whether a run is waiting in the {@link SpellScheduler}. An over budget spell skips its runs until then.
+		 */
+		private boolean queued = false;
+
+		LingeringObject() {
+		}
+
+		public LingeringObject(World world, SpellData data, SpellRing ring) {
+			super(world, data, ring);
 		}
 
 		@Override
-		public void tick() {
-			ring.runSpellRing(world, data, false);
+		public ResourceLocation getType() {
+			return LINGERING;
 		}
 
 		@Override
-		public void stop() {
+		public void start() {
 		}
 
 		@Override
-		public NBTTagCompound serialize() {
-			NBTTagCompound compound = new NBTTagCompound();
-			if (ring != null)
-				compound.setTag("spell_ring", ring.serializeNBT());
-			if (data != null)
-				compound.setTag("spell_data", data.serializeNBT());
-			if (world != null) {
-				compound.setInteger("world", world.provider.getDimension());
-			}
-			return compound;
+		public void tick() {
+			if (queued) return;
+
+			queued = true;
+			SpellScheduler.run(world, data, SpellScheduler.Priority.LINGERING, () -> {
+				queued = false;
+				ring.runSpellRing(world, data, false);
+			});
 		}
 
 		@Override
-		public void deserialize(NBTTagCompound nbt) {
-			if (nbt.hasKey("spell_ring"))
-				ring = SpellRing.deserializeRing(nbt.getCompoundTag("spell_ring"));
-			if (nbt.hasKey("spell_data"))
-				data = SpellData.deserializeData(nbt.getCompoundTag("spell_data"));
-			if (nbt.hasKey("world"))
-				world = FMLCommonHandler.instance().getMinecraftServerInstance().getWorld(nbt.getInteger("world"));
+		public void stop() {
 		}
 	}
 
-	public static final class DelayedObject implements SpellObject {
-
-		private World world;
-		private SpellData data;
-		private SpellRing ring;
+	public static final class DelayedObject extends SpellObjectBase {
 
 		DelayedObject() {
 		}
 
 		public DelayedObject(World world, SpellData data, SpellRing ring) {
-			this.world = world;
-			this.data = data;
-			this.ring = ring;
+			super(world, data, ring);
 		}
 
 		@Override
@@ -149,33 +263,148 @@ public final class SpellObjectManager {
 		public void tick() {
 		}
 
+		@Override
+		public boolean isTicking() {
+			return false;
+		}
+
 		@Override
 		public void stop() {
 			if (ring.getModule() != null && ring.getModule().getModuleClass() instanceof IDelayedModule)
 				((IDelayedModule) ring.getModule().getModuleClass()).runDelayedEffect(world, data, ring);
 		}
+	}
 
-		@Override
-		public NBTTagCompound serialize() {
-			NBTTagCompound compound = new NBTTagCompound();
-			if (ring != null)
-				compound.setTag("spell_ring", ring.serializeNBT());
-			if (data != null)
-				compound.setTag("spell_data", data.serializeNBT());
-			if (world != null) {
-				compound.setInteger("world", world.provider.getDimension());
+	////////////////////
+
+	/**
+	 * The ring and field name tables of one save.
+	 */
+	static final class SaveTables {
+
+		private final HashMap<Integer, NBTTagCompound> ringsByHash = new HashMap<>();
+		private final IdentityHashMap<SpellRing, Integer> hashesByRing = new IdentityHashMap<>();
+		private final HashMap<Integer, SpellRing> loadedRings = new HashMap<>();
+
+		private final List<String> fieldNames = new ArrayList<>();
+		private final HashMap<String, Integer> fieldIndices = new HashMap<>();
+
+		SaveTables() {
+		}
+
+		SaveTables(NBTTagList rings, NBTTagList fields) {
+			for (int i = 0; i < rings.tagCount(); i++) {
+				NBTTagCompound entry = rings.getCompoundTagAt(i);
+				ringsByHash.put(entry.getInteger(NBT_KEY_RING_HASH), entry.getCompoundTag(NBT_KEY_RING));
 			}
-			return compound;
+			for (int i = 0; i < fields.tagCount(); i++)
+				fieldNames.add(fields.getStringTagAt(i));
 		}
 
-		@Override
-		public void deserialize(NBTTagCompound nbt) {
-			if (nbt.hasKey("spell_ring"))
-				ring = SpellRing.deserializeRing(nbt.getCompoundTag("spell_ring"));
-			if (nbt.hasKey("spell_data"))
-				data = SpellData.deserializeData(nbt.getCompoundTag("spell_data"));
-			if (nbt.hasKey("world"))
-				world = FMLCommonHandler.instance().getMinecraftServerInstance().getWorld(nbt.getInteger("world"));
+		/**
+		 * @return the key of the ring chain in the table. Equal chains share a key.
+		 */
+		int putRing(SpellRing ring) {
+			Integer known = hashesByRing.get(ring);
+			if (known != null) return known;
+
+			int hash = putRing(ring.serializeNBT());
+			hashesByRing.put(ring, hash);
+			return hash;
+		}
+
+		/**
+		 * @return the key of the saved ring chain in the table. Equal chains share a key.
+		 */
+		int putRing(NBTTagCompound nbt) {
+			int hash = nbt.hashCode();
+			// Probe past chains which only share the hash
+			NBTTagCompound existing;
+			while ((existing = ringsByHash.get(hash)) != null && !existing.equals(nbt)) hash++;
+			if (existing == null) ringsByHash.put(hash, nbt);
+			return hash;
+		}
+
+		/**
+		 * @return the ring chain of the key, shared by all objects referencing it.
+		 */
+		@Nullable
+		SpellRing getRing(int hash) {
+			SpellRing ring = loadedRings.get(hash);
+			if (ring == null && ringsByHash.containsKey(hash)) {
+				ring = SpellRing.deserializeRing(ringsByHash.get(hash));
+				loadedRings.put(hash, ring);
+			}
+			return ring;
+		}
+
+		/**
+		 * @return the saved ring chain of the key.
+		 */
+		@Nullable
+		NBTTagCompound getRingNbt(int hash) {
+			return ringsByHash.get(hash);
+		}
+
+		NBTTagCompound encodeData(SpellData data) {
+			return encodeFields(data.serializeNBT());
+		}
+
+		/**
+		 * @return the saved spell data with its field names replaced by their index in the field table.
+		 */
+		NBTTagCompound encodeFields(NBTTagCompound named) {
+			NBTTagCompound encoded = new NBTTagCompound();
+			for (String name : named.getKeySet()) {
+				Integer index = fieldIndices.get(name);
+				if (index == null) {
+					index = fieldNames.size();
+					fieldNames.add(name);
+					fieldIndices.put(name, index);
+				}
+				encoded.setTag(Integer.toString(index, Character.MAX_RADIX), named.getTag(name));
+			}
+			return encoded;
+		}
+
+		SpellData decodeData(NBTTagCompound encoded) {
+			return SpellData.deserializeData(decodeFields(encoded));
+		}
+
+		/**
+		 * @return the saved spell data with its field names restored. Unknown indices are dropped.
+		 */
+		NBTTagCompound decodeFields(NBTTagCompound encoded) {
+			NBTTagCompound named = new NBTTagCompound();
+			for (String key : encoded.getKeySet()) {
+				int index;
+				try {
+					index = Integer.parseInt(key, Character.MAX_RADIX);
+				} catch (NumberFormatException e) {
+					continue;
+				}
+				if (index >= 0 && index < fieldNames.size())
+					named.setTag(fieldNames.get(index), encoded.getTag(key));
+			}
+			return named;
+		}
+
+		NBTTagList writeRings() {
+			NBTTagList rings = new NBTTagList();
+			for (Map.Entry<Integer, NBTTagCompound> entry : ringsByHash.entrySet()) {
+				NBTTagCompound compound = new NBTTagCompound();
+				compound.setInteger(NBT_KEY_RING_HASH, entry.getKey());
+				compound.setTag(NBT_KEY_RING, entry.getValue());
+				rings.appendTag(compound);
+			}
+			return rings;
+		}
+
+		NBTTagList writeFields() {
+			NBTTagList fields = new NBTTagList();
+			for (String name : fieldNames)
+				fields.appendTag(new NBTTagString(name));
+			return fields;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -1,31 +1,22 @@
 package com.teamwizardry.wizardry.api.arena;
 
-import com.teamwizardry.librarianlib.features.math.interpolate.numeric.InterpFloatInOut;
-import com.teamwizardry.librarianlib.features.math.interpolate.position.InterpCircle;
-import com.teamwizardry.librarianlib.features.particle.ParticleBuilder;
-import com.teamwizardry.librarianlib.features.particle.ParticleSpawner;
+import com.teamwizardry.librarianlib.features.network.PacketHandler;
 import com.teamwizardry.librarianlib.features.saving.AbstractSaveHandler;
 import com.teamwizardry.librarianlib.features.saving.Savable;
 import com.teamwizardry.librarianlib.features.saving.Save;
-import com.teamwizardry.librarianlib.features.utilities.client.ClientRunnable;
-import com.teamwizardry.wizardry.Wizardry;
-import com.teamwizardry.wizardry.api.NBTConstants;
-import com.teamwizardry.wizardry.api.util.ColorUtils;
-import com.teamwizardry.wizardry.api.util.RandUtil;
-import com.teamwizardry.wizardry.client.fx.LibParticles;
 import com.teamwizardry.wizardry.common.entity.angel.EntityAngel;
 import com.teamwizardry.wizardry.common.entity.angel.zachriel.EntityZachriel;
+import com.teamwizardry.wizardry.common.network.PacketArenaParticles;
+import com.teamwizardry.wizardry.common.network.PacketStructureFlair;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import net.minecraftforge.common.DimensionManager;
 import net.minecraftforge.common.util.INBTSerializable;
-import net.minecraftforge.fml.relauncher.Side;
-import net.minecraftforge.fml.relauncher.SideOnly;
+import net.minecraftforge.fml.common.network.NetworkRegistry;
 
 import java.awt.*;
 import java.util.Set;
@@ -66,27 +57,56 @@ public class Arena implements INBTSerializable<NBTTagCompound> {
 		this.players = players;
 	}
 
+	/**
+	 * Checks that every block of the arena is air and open to the sky, one column at a time.
+	 * A column is open to the sky if the height map of the world is below the floor of the arena, which takes a single lookup.
+	 *
+	 * @return whether the check passed.
+	 */
 	public boolean sanityCheck() {
-		for (double x = -radius; x < radius; x++)
-			for (double z = -radius; z < radius; z++)
-				for (int y = 0; y < height; y++) {
-					BlockPos pos = center.add(x, y, z);
-					if (pos.getDistance(center.getX(), center.getY(), center.getZ()) > radius) {
-						LibParticles.STRUCTURE_FLAIR(world, new Vec3d(pos).add(0.5, 0.5, 0.5), Color.RED);
-						return false;
-					}
-					if (!world.canBlockSeeSky(pos)) {
-						LibParticles.STRUCTURE_FLAIR(world, new Vec3d(pos).add(0.5, 0.5, 0.5), Color.GREEN);
-						return false;
-					}
-					if (!world.isAirBlock(pos)) {
-						LibParticles.STRUCTURE_FLAIR(world, new Vec3d(pos).add(0.5, 0.5, 0.5), Color.BLUE);
-						return false;
-					}
+		int side = 2 * (int) Math.ceil(radius);
+		int blocks = (int) Math.ceil(height);
+
+		for (int column = 0; column < side * side; column++) {
+			int x = center.getX() - side / 2 + column % side;
+			int z = center.getZ() - side / 2 + column / side;
+			double dx = x + 0.5 - (center.getX() + 0.5), dz = z + 0.5 - (center.getZ() + 0.5);
+			if (dx * dx + dz * dz > radius * radius) continue;
+
+			if (world.getHeight(x, z) > center.getY()) {
+				flair(new BlockPos(x, world.getHeight(x, z) - 1, z), Color.GREEN);
+				return false;
+			}
+
+			for (int y = 0; y < blocks; y++) {
+				BlockPos pos = new BlockPos(x, center.getY() + y, z);
+				if (!world.isAirBlock(pos)) {
+					flair(pos, Color.BLUE);
+					return false;
 				}
+			}
+		}
 		return true;
 	}
 
+	/**
+	 * Marks a block which failed the sanity check for the players nearby.
+	 */
+	private void flair(BlockPos pos, Color color) {
+		Vec3d center = new Vec3d(pos).add(0.5, 0.5, 0.5);
+		PacketHandler.NETWORK.sendToAllAround(new PacketStructureFlair(center, color),
+				new NetworkRegistry.TargetPoint(world.provider.getDimension(), center.x, center.y, center.z, 64));
+	}
+
+	/**
+	 * @return whether the position is within the cylinder of the arena.
+	 */
+	public boolean contains(BlockPos pos) {
+		if (pos.getY() < center.getY() || pos.getY() > center.getY() + height) return false;
+		double dx = pos.getX() - center.getX(), dz = pos.getZ() - center.getZ();
+		return dx * dx + dz * dz <= radius * radius;
+	}
+
 	public void dealWithStructureConflict() {
 
 	}
@@ -94,41 +114,21 @@ public class Arena implements INBTSerializable<NBTTagCompound> {
 	public void begin() {
 		isActive = true;
 		hasEnded = false;
-		startTick = System.currentTimeMillis();
-	}
-
-	public void tick(long timeMillis) {
-
-		if (timeMillis % 500 == 0)
-			ClientRunnable.run(new ClientRunnable() {
-				@Override
-				@SideOnly(Side.CLIENT)
-				public void runIfClient() {
-					ParticleBuilder glitter = new ParticleBuilder(10);
-					glitter.setRender(new ResourceLocation(Wizardry.MODID, NBTConstants.MISC.SPARKLE_BLURRED));
-					glitter.setAlphaFunction(new InterpFloatInOut(0.3f, 0.3f));
-					glitter.setCollision(true);
-					glitter.enableMotionCalculation();
-					ParticleSpawner.spawn(glitter, getWorld(), new InterpCircle(new Vec3d(getCenter()).add(0.5, getHeight(), 0.5), new Vec3d(0, 1, 0), (float) getRadius(), 1, RandUtil.nextFloat()), 10, RandUtil.nextInt(10), (aFloat, particleBuilder) -> {
-						particleBuilder.setColor(ColorUtils.changeColorAlpha(new Color(0x0097FF), RandUtil.nextInt(100, 255)));
-						particleBuilder.setScale(RandUtil.nextFloat(0.5f, 1));
-						particleBuilder.addMotion(new Vec3d(RandUtil.nextDouble(-0.01, 0.01),
-								RandUtil.nextDouble(-0.01, 0.01),
-								RandUtil.nextDouble(-0.01, 0.01)));
-						particleBuilder.setLifetime(RandUtil.nextInt(30, 60));
-					});
-
-					glitter.disableMotionCalculation();
-					ParticleSpawner.spawn(glitter, getWorld(), new InterpCircle(new Vec3d(getCenter()).add(0.5, 0, 0.5), new Vec3d(0, 1, 0), (float) getRadius(), 1, RandUtil.nextFloat()), 10, RandUtil.nextInt(10), (aFloat, particleBuilder) -> {
-						particleBuilder.setColor(ColorUtils.changeColorAlpha(new Color(0x0097FF), RandUtil.nextInt(100, 255)));
-						particleBuilder.setScale(RandUtil.nextFloat(0.5f, 1));
-						particleBuilder.addMotion(new Vec3d(RandUtil.nextDouble(-0.01, 0.01),
-								RandUtil.nextDouble(0.01, 0.02),
-								RandUtil.nextDouble(-0.01, 0.01)));
-						particleBuilder.setLifetime(RandUtil.nextInt(30, 60));
-					});
-				}
-			});
+		startTick = world.getTotalWorldTime();
+	}
+
+	/**
+	 * Called by {@link ArenaManager} on the server thread every tick while the arena is active.
+	 * Sends the glitter marking the arena to the players nearby every ten ticks.
+	 *
+	 * @param ticks the number of ticks since {@link #begin()}.
+	 */
+	public void tick(long ticks) {
+		if (ticks % 10 != 0) return;
+
+		Vec3d floor = new Vec3d(center).add(0.5, 0, 0.5);
+		PacketHandler.NETWORK.sendToAllAround(new PacketArenaParticles(floor, radius, height),
+				new NetworkRegistry.TargetPoint(world.provider.getDimension(), floor.x, floor.y, floor.z, radius + 64));
 	}
 
 	public void end() {
@@ -6,9 +6,14 @@ import com.teamwizardry.wizardry.common.entity.angel.EntityAngel;
 import com.teamwizardry.wizardry.common.entity.angel.zachriel.EntityZachriel;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.MoverType;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
 import net.minecraftforge.client.event.RenderWorldLastEvent;
 import net.minecraftforge.event.entity.living.LivingEvent;
 import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 import net.minecraftforge.fml.relauncher.Side;
@@ -16,10 +21,20 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 import org.jetbrains.annotations.Nullable;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Timer;
-import java.util.TimerTask;
-
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Keeps track of boss arenas, and ticks them on the server thread. <br/>
+ * Arenas are indexed by the chunks they cover, their boss and their players, so event handlers don't need to scan all arenas.
+ * <b>NOTE</b>: Arenas are added, ticked and looked up on the server thread only. The players of an arena are indexed when it is added.
+ */
 @SaveInPlace
 public class ArenaManager {
 
@@ -28,61 +43,110 @@ public class ArenaManager {
 	@Save
 	private HashSet<Arena> arenas = new HashSet<>();
 
+	private final HashMap<Integer, HashMap<Long, List<Arena>>> byChunk = new HashMap<>();
+	private final HashMap<Integer, Arena> byBoss = new HashMap<>();
+	private final HashMap<UUID, List<Arena>> byPlayer = new HashMap<>();
+
 	private ArenaManager() {
-		new Timer().scheduleAtFixedRate(new ArenaTicker(), 0, 1);
 	}
 
 	public boolean addArena(@Nonnull Arena arena) {
-		for (Arena arena1 : arenas) {
+		if (FMLCommonHandler.instance().getEffectiveSide() != Side.SERVER) return false;
+
+		for (Arena arena1 : getArenas(arena.getWorldID(), arena.getCenter()))
 			if (arena.getCenter().toLong() == arena1.getCenter().toLong()) return false;
-		}
 		arenas.add(arena);
+		index(arena);
 
 		return true;
 	}
 
 	@Nullable
 	public Arena getArena(@Nonnull EntityAngel boss) {
-		for (Arena arena : arenas) {
-			if (arena.getBossID() == boss.getEntityId()) return arena;
+		return byBoss.get(boss.getEntityId());
+	}
+
+	/**
+	 * @return the arenas of the world covering the position.
+	 */
+	@Nonnull
+	public List<Arena> getArenas(@Nonnull World world, @Nonnull BlockPos pos) {
+		List<Arena> found = new ArrayList<>();
+		for (Arena arena : getArenas(world.provider.getDimension(), pos))
+			if (arena.contains(pos)) found.add(arena);
+		return found;
+	}
+
+	private List<Arena> getArenas(int worldID, BlockPos pos) {
+		HashMap<Long, List<Arena>> chunks = byChunk.get(worldID);
+		if (chunks == null) return Collections.emptyList();
+		List<Arena> inChunk = chunks.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+		return inChunk == null ? Collections.emptyList() : inChunk;
+	}
+
+	@SubscribeEvent
+	public void tickArenas(TickEvent.ServerTickEvent event) {
+		if (event.phase != TickEvent.Phase.END) return;
+		if (arenas.isEmpty()) return;
+
+		for (Iterator<Arena> iterator = arenas.iterator(); iterator.hasNext(); ) {
+			Arena arena = iterator.next();
+			if (arena == null) continue;
+			if (arena.hasEnded()) {
+				iterator.remove();
+				unindex(arena);
+				continue;
+			}
+			if (!arena.isActive()) continue;
+			Entity entity = arena.getWorld().getEntityByID(arena.getBossID());
+			if (entity == null || entity.isDead) {
+				arena.end();
+				continue;
+			}
+
+			arena.tick(arena.getWorld().getTotalWorldTime() - arena.getStartTick());
 		}
-		return null;
 	}
 
 	@SubscribeEvent
 	public void tickBoss(LivingEvent.LivingUpdateEvent event) {
-		for (Arena arena : arenas) {
-			if (event.getEntityLiving().getEntityId() != arena.getBossID()) continue;
+		if (event.getEntityLiving().world.isRemote) return;
 
-			if (event.getEntityLiving().getDistance(arena.getCenter().getX() + 0.5, arena.getCenter().getY(), arena.getCenter().getZ() + 0.5) > arena.getRadius()) {
-				event.getEntityLiving().move(MoverType.SELF, arena.getCenter().getX() + 0.5, arena.getCenter().getY() + 0.5, arena.getCenter().getZ() + 0.5);
-			}
+		Arena arena = byBoss.get(event.getEntityLiving().getEntityId());
+		if (arena == null) return;
+
+		if (event.getEntityLiving().getDistance(arena.getCenter().getX() + 0.5, arena.getCenter().getY(), arena.getCenter().getZ() + 0.5) > arena.getRadius()) {
+			event.getEntityLiving().move(MoverType.SELF, arena.getCenter().getX() + 0.5, arena.getCenter().getY() + 0.5, arena.getCenter().getZ() + 0.5);
 		}
 	}
 
 	@SubscribeEvent
 	public void tickPlayer(TickEvent.PlayerTickEvent event) {
-		for (Arena arena : arenas) {
-			if (!arena.getPlayers().contains(event.player.getUniqueID())) {
-				continue;
-			}
+		if (event.side != Side.SERVER) return;
+
+		List<Arena> playerArenas = byPlayer.get(event.player.getUniqueID());
+		if (playerArenas == null) return;
+
+		for (Arena arena : playerArenas) {
 			if (event.player.getDistance(arena.getCenter().getX() + 0.5, arena.getCenter().getY(), arena.getCenter().getZ() + 0.5) > arena.getRadius()) {
 				arena.end();
 				continue;
 			}
 			if (event.player.capabilities.isFlying) {
 				event.player.capabilities.isFlying = false;
+				event.player.sendPlayerAbilities();
 			}
 		}
 	}
 
 	@SubscribeEvent
 	public void blockBreak(BlockEvent.BreakEvent event) {
-		for (Arena arena : arenas) {
-			if (!arena.getPlayers().contains(event.getPlayer().getUniqueID()) || arena.getWorld() != event.getWorld())
-				continue;
+		if (event.getWorld().isRemote) return;
 
-			if (!event.getWorld().isRemote && arena.getBoss() instanceof EntityZachriel)
+		for (Arena arena : getArenas(event.getWorld(), event.getPos())) {
+			if (!isFighting(event.getPlayer(), arena)) continue;
+
+			if (arena.getBoss() instanceof EntityZachriel)
 				((EntityZachriel) arena.getBoss()).nemezDrive.trackBlock(event.getPos(), event.getState());
 
 
@@ -97,11 +161,12 @@ public class ArenaManager {
 
 	@SubscribeEvent
 	public void placeBlock(BlockEvent.PlaceEvent event) {
-		for (Arena arena : arenas) {
-			if (!arena.getPlayers().contains(event.getPlayer().getUniqueID()) || arena.getWorld() != event.getWorld())
-				continue;
+		if (event.getWorld().isRemote) return;
+
+		for (Arena arena : getArenas(event.getWorld(), event.getPos())) {
+			if (!isFighting(event.getPlayer(), arena)) continue;
 
-			if (!event.getWorld().isRemote && arena.getBoss() instanceof EntityZachriel)
+			if (arena.getBoss() instanceof EntityZachriel)
 				((EntityZachriel) arena.getBoss()).nemezDrive.trackBlock(event.getPos(), event.getWorld().getBlockState(event.getPos()));
 
 			//if (!event.getWorld().isRemote)
@@ -121,36 +186,42 @@ public class ArenaManager {
 		}
 	}
 
-	private class ArenaTicker extends TimerTask {
+	private boolean isFighting(EntityPlayer player, Arena arena) {
+		List<Arena> playerArenas = byPlayer.get(player.getUniqueID());
+		return playerArenas != null && playerArenas.contains(arena);
+	}
 
-		ArenaTicker() {
-		}
+	private void index(Arena arena) {
+		HashMap<Long, List<Arena>> chunks = byChunk.computeIfAbsent(arena.getWorldID(), id -> new HashMap<>());
+		forEachChunk(arena, chunk -> chunks.computeIfAbsent(chunk, c -> new ArrayList<>(1)).add(arena));
 
-		@Override
-		public void run() {
-			if (arenas.isEmpty()) return;
-
-			HashSet<Arena> trash = new HashSet<>();
-			for (Arena arena : arenas) {
-				if (arena == null) continue;
-				if (arena.hasEnded()) {
-					trash.add(arena);
-				}
-				if (!arena.isActive()) continue;
-				Entity entity = arena.getWorld().getEntityByID(arena.getBossID());
-				if (entity == null || entity.isDead) {
-					arena.end();
-					continue;
-				}
-				//if (!arena.sanityCheck()) {
-				//	arena.dealWithStructureConflict();
-				//	continue;
-				//}
-
-				arena.tick(System.currentTimeMillis() - arena.getStartTick());
-			}
+		byBoss.put(arena.getBossID(), arena);
+		for (UUID player : arena.getPlayers())
+			byPlayer.computeIfAbsent(player, p -> new ArrayList<>(1)).add(arena);
+	}
+
+	private void unindex(Arena arena) {
+		HashMap<Long, List<Arena>> chunks = byChunk.get(arena.getWorldID());
+		if (chunks != null) {
+			forEachChunk(arena, chunk -> {
+				List<Arena> inChunk = chunks.get(chunk);
+				if (inChunk != null && inChunk.remove(arena) && inChunk.isEmpty()) chunks.remove(chunk);
+			});
+			if (chunks.isEmpty()) byChunk.remove(arena.getWorldID());
+		}
 
-			arenas.removeAll(trash);
+		byBoss.remove(arena.getBossID(), arena);
+		for (UUID player : arena.getPlayers()) {
+			List<Arena> playerArenas = byPlayer.get(player);
+			if (playerArenas != null && playerArenas.remove(arena) && playerArenas.isEmpty()) byPlayer.remove(player);
 		}
 	}
+
+	private static void forEachChunk(Arena arena, LongConsumer consumer) {
+		int radius = (int) Math.ceil(arena.getRadius());
+		BlockPos center = arena.getCenter();
+		for (int x = (center.getX() - radius) >> 4; x <= (center.getX() + radius) >> 4; x++)
+			for (int z = (center.getZ() - radius) >> 4; z <= (center.getZ() + radius) >> 4; z++)
+				consumer.accept(ChunkPos.asLong(x, z));
+	}
 }
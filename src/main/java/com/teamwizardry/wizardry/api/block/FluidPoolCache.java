@@ -0,0 +1,282 @@
+package com.teamwizardry.wizardry.api.block;
+
+import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.api.util.LongHashSet;
+import com.teamwizardry.wizardry.api.util.WorldEventListenerAdapter;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Caches the connected fluid region around fluid crafting positions. <br/>
+ * A region is found by a flood fill of at most {@link #MAX_VISITED} blocks, starting at the top of the fluid column.
+ * It is kept as a set of packed positions, until a block inside of or adjacent to it changes.
+ * All crafting positions in the same pool share the same {@link Pool}. <br/>
+ * Only server worlds are cached, as block changes are tracked with a world listener registered on load.
+ * Other worlds get a freshly computed pool on each call. <br/>
+ * <b>NOTE</b>: Must be used from the server thread only.
+ */
+@Mod.EventBusSubscriber(modid = Wizardry.MODID)
+public final class FluidPoolCache {
+
+	private static final int MAX_VISITED = 1000;
+	/**
+	 * Pools are recomputed after this many ticks, in case a change was done without notifying listeners.
+	 */
+	private static final int MAX_AGE_TICKS = 200;
+
+	private static final Map<World, FluidPoolCache> caches = new WeakHashMap<>();
+
+	private final ArrayList<Pool> pools = new ArrayList<>();
+	private int version = 0;
+
+	private FluidPoolCache() {
+	}
+
+	@SubscribeEvent
+	public static void onWorldLoad(WorldEvent.Load event) {
+		World world = event.getWorld();
+		if (world.isRemote || caches.containsKey(world)) return;
+
+		FluidPoolCache cache = new FluidPoolCache();
+		caches.put(world, cache);
+		world.addEventListener(new WorldEventListenerAdapter() {
+			@Override
+			public void notifyBlockUpdate(@Nonnull World worldIn, @Nonnull BlockPos pos, @Nonnull IBlockState oldState, @Nonnull IBlockState newState, int flags) {
+				if (oldState != newState) cache.invalidate(pos);
+			}
+		});
+	}
+
+	@SubscribeEvent
+	public static void onWorldUnload(WorldEvent.Unload event) {
+		caches.remove(event.getWorld());
+	}
+
+	/**
+	 * Returns the pool of the given fluid containing the given position.
+	 *
+	 * @param world the world.
+	 * @param pos   a position inside of the pool.
+	 * @param fluid the fluid of the pool.
+	 * @return the pool. Is empty if there is no such fluid at the position.
+	 */
+	@Nonnull
+	public static Pool getPool(@Nonnull World world, @Nonnull BlockPos pos, @Nonnull Fluid fluid) {
+		Block block = fluid.getBlock();
+		if (block == null || world.getBlockState(pos).getBlock() != block) return Pool.EMPTY;
+
+		FluidPoolCache cache = caches.get(world);
+		if (cache == null) return computePool(world, pos, block, 0, 0);
+
+		long time = world.getTotalWorldTime();
+		long packed = pos.toLong();
+		Iterator<Pool> iter = cache.pools.iterator();
+		while (iter.hasNext()) {
+			Pool pool = iter.next();
+			if (pool.block != block || !pool.members.contains(packed)) continue;
+			if (time - pool.created <= MAX_AGE_TICKS) return pool;
+
+			iter.remove();
+			break;
+		}
+
+		Pool pool = computePool(world, pos, block, ++cache.version, time);
+		// A capped flood fill from another position might overlap this pool. The newer pool replaces it.
+		cache.pools.removeIf(other -> other.block == block && other.overlaps(pool));
+		cache.pools.add(pool);
+		return pool;
+	}
+
+	/**
+	 * @param world the world.
+	 * @return the number of cached pools of the world.
+	 */
+	public static int getCachedPoolCount(@Nonnull World world) {
+		FluidPoolCache cache = caches.get(world);
+		return cache == null ? 0 : cache.pools.size();
+	}
+
+	private void invalidate(BlockPos pos) {
+		if (pools.isEmpty()) return;
+
+		Iterator<Pool> iter = pools.iterator();
+		while (iter.hasNext()) {
+			Pool pool = iter.next();
+			if (!pool.bounds.isWithin(pos, 1)) continue;
+
+			boolean touched = pool.members.contains(pos.toLong());
+			for (int i = 0; !touched && i < EnumFacing.VALUES.length; i++)
+				touched = pool.members.contains(pos.offset(EnumFacing.VALUES[i]).toLong());
+
+			if (touched) iter.remove();
+		}
+	}
+
+	private static Pool computePool(World world, BlockPos pos, Block block, int version, long time) {
+		IBlockState sourceBlock = block.getDefaultState();
+
+		BlockPos.MutableBlockPos topPos = new BlockPos.MutableBlockPos(pos);
+		IBlockState stateAt = world.getBlockState(topPos);
+		boolean lastWasFluid = false;
+		while (stateAt.getBlock() == block) {
+			lastWasFluid = stateAt == sourceBlock;
+			stateAt = world.getBlockState(topPos.setPos(topPos.getX(), topPos.getY() + 1, topPos.getZ()));
+		}
+		topPos.setPos(topPos.getX(), topPos.getY() - 1, topPos.getZ());
+
+		LongHashSet visited = new LongHashSet(MAX_VISITED);
+		LongHashSet members = new LongHashSet();
+		long[] queue = new long[64];
+		long[] sources = new long[16];
+		int head = 0;
+		int tail = 0;
+		int sourceCount = 0;
+		PackedBounds bounds = new PackedBounds(topPos);
+
+		long top = topPos.toLong();
+		visited.add(top);
+		members.add(top);
+		queue[tail++] = top;
+		if (lastWasFluid) sources[sourceCount++] = top;
+
+		BlockPos.MutableBlockPos tool = new BlockPos.MutableBlockPos();
+		while (head < tail && visited.size() < MAX_VISITED) {
+			BlockPos point = BlockPos.fromLong(queue[head++]);
+			for (int index = EnumFacing.VALUES.length - 1; index >= 0; index--) {
+				EnumFacing facing = EnumFacing.byIndex(index);
+				tool.setPos(point.getX() + facing.getXOffset(),
+						point.getY() + facing.getYOffset(),
+						point.getZ() + facing.getZOffset());
+
+				long packed = tool.toLong();
+				if (!visited.add(packed)) continue;
+
+				stateAt = world.getBlockState(tool);
+				if (stateAt.getBlock() != block) continue;
+
+				members.add(packed);
+				bounds.include(tool);
+				if (tail == queue.length) queue = Arrays.copyOf(queue, queue.length * 2);
+				queue[tail++] = packed;
+
+				if (stateAt == sourceBlock) {
+					if (sourceCount == sources.length) sources = Arrays.copyOf(sources, sources.length * 2);
+					sources[sourceCount++] = packed;
+				}
+			}
+		}
+
+		return new Pool(block, members, Arrays.copyOf(sources, sourceCount), bounds, version, time);
+	}
+
+	////////////////////
+
+	/**
+	 * A connected region of a fluid. Immutable, a change to the region creates a new pool.
+	 */
+	public static final class Pool {
+		private static final Pool EMPTY = new Pool(null, new LongHashSet(), new long[0], new PackedBounds(BlockPos.ORIGIN), -1, 0);
+
+		private final Block block;
+		private final LongHashSet members;
+		private final long[] sources;
+		private final PackedBounds bounds;
+		private final int version;
+		private final long created;
+
+		private Pool(Block block, LongHashSet members, long[] sources, PackedBounds bounds, int version, long created) {
+			this.block = block;
+			this.members = members;
+			this.sources = sources;
+			this.bounds = bounds;
+			this.version = version;
+			this.created = created;
+		}
+
+		/**
+		 * @return the number of source blocks in the pool.
+		 */
+		public int getSourceCount() {
+			return sources.length;
+		}
+
+		/**
+		 * Returns the first source blocks of the pool, closest to the top of the pool first.
+		 *
+		 * @param limit the maximum number of positions.
+		 * @return the source positions.
+		 */
+		@Nonnull
+		public List<BlockPos> getSources(int limit) {
+			int count = Math.min(limit, sources.length);
+			List<BlockPos> positions = new ArrayList<>(count);
+			for (int i = 0; i < count; i++)
+				positions.add(BlockPos.fromLong(sources[i]));
+			return positions;
+		}
+
+		public boolean isEmpty() {
+			return members.isEmpty();
+		}
+
+		/**
+		 * @return the stamp of the cache when this pool was computed. Pools computed for uncached worlds have a stamp of 0.
+		 */
+		public int getVersion() {
+			return version;
+		}
+
+		private boolean overlaps(Pool other) {
+			if (!bounds.intersects(other.bounds)) return false;
+			for (long member : other.members.toArray())
+				if (members.contains(member)) return true;
+			return false;
+		}
+	}
+
+	private static final class PackedBounds {
+		private int minX, minY, minZ, maxX, maxY, maxZ;
+
+		PackedBounds(BlockPos pos) {
+			minX = maxX = pos.getX();
+			minY = maxY = pos.getY();
+			minZ = maxZ = pos.getZ();
+		}
+
+		void include(BlockPos pos) {
+			minX = Math.min(minX, pos.getX());
+			minY = Math.min(minY, pos.getY());
+			minZ = Math.min(minZ, pos.getZ());
+			maxX = Math.max(maxX, pos.getX());
+			maxY = Math.max(maxY, pos.getY());
+			maxZ = Math.max(maxZ, pos.getZ());
+		}
+
+		boolean isWithin(BlockPos pos, int margin) {
+			return pos.getX() >= minX - margin && pos.getX() <= maxX + margin
+					&& pos.getY() >= minY - margin && pos.getY() <= maxY + margin
+					&& pos.getZ() >= minZ - margin && pos.getZ() <= maxZ + margin;
+		}
+
+		boolean intersects(PackedBounds other) {
+			return minX <= other.maxX && maxX >= other.minX
+					&& minY <= other.maxY && maxY >= other.minY
+					&& minZ <= other.maxZ && maxZ >= other.minZ;
+		}
+	}
+}
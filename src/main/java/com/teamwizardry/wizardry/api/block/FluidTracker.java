@@ -7,8 +7,11 @@ import net.minecraft.entity.item.EntityItem;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraftforge.fluids.Fluid;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 
@@ -39,25 +42,58 @@ public class FluidTracker {
 		if (worldCrafters == null || worldCrafters.isEmpty())
 			return;
 		HashMultimap<BlockPos, FluidCraftInstance> crafterToRemove = HashMultimap.create();
+
+		// Crafters in the same pool share one entity query
+		IdentityHashMap<FluidPoolCache.Pool, List<BlockPos>> positionsByPool = new IdentityHashMap<>();
 		Multimaps.asMap(worldCrafters).forEach((pos, crafterList) -> {
-			if (!tickedWorld.isBlockLoaded(pos))
+			if (!tickedWorld.isBlockLoaded(pos) || crafterList.isEmpty())
 				return;
-			List<EntityItem> items = tickedWorld.getEntitiesWithinAABB(EntityItem.class, new AxisAlignedBB(pos).grow(1));
-			crafterList.forEach(crafter -> {
-				if (!crafter.isValid(tickedWorld, pos, items)) {
-					crafterToRemove.put(pos, crafter);
-				} else {
-					crafter.tick(tickedWorld, pos, items);
-					if (crafter.isFinished()) {
-						crafter.finish(tickedWorld, pos, items);
-						crafterToRemove.put(pos, crafter);
-					}
+			Fluid fluid = crafterList.iterator().next().getFluid();
+			FluidPoolCache.Pool pool = fluid == null ? null : FluidPoolCache.getPool(tickedWorld, pos, fluid);
+			if (pool == null || pool.isEmpty()) {
+				List<EntityItem> items = tickedWorld.getEntitiesWithinAABB(EntityItem.class, new AxisAlignedBB(pos).grow(1));
+				tickCrafters(tickedWorld, pos, crafterList, items, crafterToRemove);
+			} else positionsByPool.computeIfAbsent(pool, p -> new ArrayList<>()).add(pos);
+		});
+
+		positionsByPool.forEach((pool, positions) -> {
+			AxisAlignedBB area = null;
+			for (BlockPos pos : positions) {
+				AxisAlignedBB box = new AxisAlignedBB(pos).grow(1);
+				area = area == null ? box : area.union(box);
+			}
+			List<EntityItem> poolItems = tickedWorld.getEntitiesWithinAABB(EntityItem.class, area);
+
+			for (BlockPos pos : positions) {
+				List<EntityItem> items;
+				if (positions.size() == 1) items = poolItems;
+				else {
+					AxisAlignedBB box = new AxisAlignedBB(pos).grow(1);
+					items = new ArrayList<>();
+					for (EntityItem item : poolItems)
+						if (item.getEntityBoundingBox().intersects(box))
+							items.add(item);
 				}
-			});
+				tickCrafters(tickedWorld, pos, worldCrafters.get(pos), items, crafterToRemove);
+			}
 		});
 
 		crafterToRemove.forEach(worldCrafters::remove);
 		if (worldCrafters.isEmpty())
 			fluidCrafters.remove(dim);
 	}
+
+	private static void tickCrafters(World world, BlockPos pos, Set<FluidCraftInstance> crafterList, List<EntityItem> items, HashMultimap<BlockPos, FluidCraftInstance> crafterToRemove) {
+		crafterList.forEach(crafter -> {
+			if (!crafter.isValid(world, pos, items)) {
+				crafterToRemove.put(pos, crafter);
+			} else {
+				crafter.tick(world, pos, items);
+				if (crafter.isFinished()) {
+					crafter.finish(world, pos, items);
+					crafterToRemove.put(pos, crafter);
+				}
+			}
+		});
+	}
 }
@@ -123,10 +123,26 @@ public interface IStructure {
 	WizardryStructure getStructure();
 
 	/**
-	 * Will return a list of blocks that are incorrect. If this list is empty, the structure is complete.
+	 * Will return a list of blocks that are incorrect. If this list is empty, the structure is complete. <br/>
+	 * <b>NOTE</b>: Iterates the whole template. Use {@link StructureTracker#getStatus(World, BlockPos, IStructure)} for repeated checks.
 	 */
 	default Set<BlockPos> testStructure(World world, BlockPos pos) {
-		Set<BlockPos> errors = new HashSet<>();
+		StructureStatus status = validateStructure(world, pos);
+		Set<BlockPos> errors = new HashSet<>(status.getMissing());
+		errors.addAll(status.getWrong());
+		return errors;
+	}
+
+	/**
+	 * Compares the whole template with the world. Stairs only differing in their facing are turned to match the template.
+	 *
+	 * @param world the world.
+	 * @param pos   the position of the structure origin in the world.
+	 * @return the status with all missing and wrong positions.
+	 */
+	default StructureStatus validateStructure(World world, BlockPos pos) {
+		Set<BlockPos> missing = new HashSet<>();
+		Set<BlockPos> wrong = new HashSet<>();
 
 		for (Template.BlockInfo info : getStructure().blockInfos()) {
 			if (info.blockState == null) continue;
@@ -149,10 +165,28 @@ public interface IStructure {
 						world.setBlockState(realPos, info.blockState);
 					continue;
 				}
-				errors.add(realPos);
+
+				if (state.getMaterial() == Material.AIR) missing.add(realPos);
+				else wrong.add(realPos);
 			}
 		}
-		return errors;
+		return StructureStatus.of(pos, missing, wrong);
+	}
+
+	/**
+	 * @param pos the position of the structure origin in the world.
+	 * @return all world positions checked by {@link #validateStructure(World, BlockPos)}.
+	 */
+	default Set<BlockPos> getStructurePositions(BlockPos pos) {
+		Set<BlockPos> positions = new HashSet<>();
+		for (Template.BlockInfo info : getStructure().blockInfos()) {
+			if (info.blockState == null) continue;
+			if (info.blockState.getMaterial() == Material.AIR || info.blockState.getBlock() == Blocks.STRUCTURE_VOID)
+				continue;
+
+			positions.add(info.pos.add(pos).subtract(getStructure().getOrigin()));
+		}
+		return positions;
 	}
 
 	default boolean buildStructure(World world, BlockPos pos) {
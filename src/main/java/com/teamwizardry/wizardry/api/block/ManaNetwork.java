@@ -0,0 +1,342 @@
+package com.teamwizardry.wizardry.api.block;
+
+import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.api.ConfigValues;
+import com.teamwizardry.wizardry.api.block.TileManaNode.SuckRule;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+
+/**
+ * The graph of all loaded {@link TileManaNode}s of a world. <br/>
+ * Links between nodes are computed once when a node loads or unloads. Instead of each node polling its neighbours every tick,
+ * a single solver pass runs every {@link ConfigValues#manaNetworkSolverInterval} ticks. The pass catches up on every tick since the last one,
+ * letting the active nodes suck in the order they were loaded in, so mana moves exactly as it did with polling. <br/>
+ * A node which couldn't receive any mana in its last tick of a pass is put to sleep, as it would get nothing in later ticks either.
+ * It is woken up again when a neighbour loads or unloads, or when a transfer could have unblocked it: a provider has room for more mana,
+ * and the nodes linked to a receiver have more mana to suck. Changes done from outside of the network wake the node through
+ * {@link #wakeNeighbourhood(Member)}. As a fallback, all sleeping nodes are woken up every {@link #SLEEP_RECHECK_TICKS} ticks. <br/>
+ * <b>NOTE</b>: Networks only exist on the server, and are only used from the server thread. Nodes of client worlds keep polling their neighbours.
+ */
+@Mod.EventBusSubscriber(modid = Wizardry.MODID)
+public final class ManaNetwork {
+
+	private static final int SLEEP_RECHECK_TICKS = 100;
+
+	private static final Map<World, ManaNetwork> networks = new WeakHashMap<>();
+
+	private final IdentityHashMap<Member, Node> nodes = new IdentityHashMap<>();
+	private final HashMap<Long, ArrayList<Node>> nodesByChunk = new HashMap<>();
+	private final TreeSet<Node> active = new TreeSet<>(Comparator.comparingLong(node -> node.order));
+	private final LinkedHashSet<Node> sleeping = new LinkedHashSet<>();
+	private long nextOrder = 0;
+	private long lastTick = Long.MIN_VALUE;
+
+	ManaNetwork() {
+	}
+
+	/**
+	 * Returns the network of the given world. Is created on demand.
+	 *
+	 * @param world the world.
+	 * @return the network, or <code>null</code> for client worlds.
+	 */
+	@Nullable
+	public static ManaNetwork get(@Nonnull World world) {
+		if (world.isRemote) return null;
+		return networks.computeIfAbsent(world, w -> new ManaNetwork());
+	}
+
+	/**
+	 * @return <code>true</code> iff nodes are ticked by the network solver instead of polling their neighbours themselves.
+	 */
+	public static boolean isSolverEnabled() {
+		return ConfigValues.manaNetworkSolverInterval > 0;
+	}
+
+	@SubscribeEvent
+	public static void onWorldUnload(WorldEvent.Unload event) {
+		if (event.getWorld().isRemote) return;
+		networks.remove(event.getWorld());
+	}
+
+	/**
+	 * Adds a node and links it with all nodes in range. Wakes up all linked nodes.
+	 *
+	 * @param tile the node to add. Sucks after all previously added nodes in each tick.
+	 */
+	public void addNode(@Nonnull Member tile) {
+		if (nodes.containsKey(tile)) return;
+
+		Node node = new Node(tile, nextOrder++);
+		int linkDistSq = ConfigValues.networkLinkDistance * ConfigValues.networkLinkDistance;
+		int chunkRange = (ConfigValues.networkLinkDistance >> 4) + 1;
+		int chunkX = tile.getPos().getX() >> 4;
+		int chunkZ = tile.getPos().getZ() >> 4;
+
+		for (int x = -chunkRange; x <= chunkRange; x++) {
+			for (int z = -chunkRange; z <= chunkRange; z++) {
+				ArrayList<Node> chunkNodes = nodesByChunk.get(ChunkPos.asLong(chunkX + x, chunkZ + z));
+				if (chunkNodes == null) continue;
+
+				for (Node other : chunkNodes) {
+					double distSq = other.member.getPos().distanceSq(tile.getPos());
+					if (distSq > linkDistSq) continue;
+
+					node.link(other, distSq);
+					other.link(node, distSq);
+					wake(other);
+				}
+			}
+		}
+
+		nodes.put(tile, node);
+		nodesByChunk.computeIfAbsent(ChunkPos.asLong(chunkX, chunkZ), key -> new ArrayList<>()).add(node);
+		active.add(node);
+	}
+
+	/**
+	 * Removes a node and all of its links. Wakes up all previously linked nodes.
+	 *
+	 * @param tile the node to remove.
+	 */
+	public void removeNode(@Nonnull Member tile) {
+		Node node = nodes.remove(tile);
+		if (node == null) return;
+
+		for (Link link : node.links) {
+			link.node.unlink(node);
+			wake(link.node);
+		}
+
+		long chunkKey = ChunkPos.asLong(tile.getPos().getX() >> 4, tile.getPos().getZ() >> 4);
+		ArrayList<Node> chunkNodes = nodesByChunk.get(chunkKey);
+		if (chunkNodes != null) {
+			chunkNodes.remove(node);
+			if (chunkNodes.isEmpty()) nodesByChunk.remove(chunkKey);
+		}
+
+		active.remove(node);
+		sleeping.remove(node);
+	}
+
+	/**
+	 * Wakes up a node and all nodes linked to it, e.g. after its mana or structure state has been changed.
+	 *
+	 * @param tile the changed node.
+	 */
+	public void wakeNeighbourhood(@Nonnull Member tile) {
+		Node node = nodes.get(tile);
+		if (node == null) return;
+
+		wake(node);
+		for (Link link : node.links)
+			wake(link.node);
+	}
+
+	/**
+	 * Wakes up the nodes whose transfers could have been unblocked by a transfer between two nodes: all nodes linked to the receiver,
+	 * which now has more mana to give. This includes the provider, which now has room for more mana. <br/>
+	 * The receiver itself can only be blocked further by getting mana, so it is left alone.
+	 *
+	 * @param receiver the node which got the mana.
+	 * @param provider the node the mana was drained from.
+	 */
+	public void onTransfer(@Nonnull Member receiver, @Nonnull Member provider) {
+		Node node = nodes.get(receiver);
+		if (node == null) return;
+
+		for (Link link : node.links)
+			wake(link.node);
+	}
+
+	/**
+	 * Returns all nodes linked to a node, sorted by distance.
+	 *
+	 * @param tile the node.
+	 * @return the linked nodes, or an empty list if the node is not part of the network.
+	 */
+	@Nonnull
+	public List<Member> getLinked(@Nonnull Member tile) {
+		Node node = nodes.get(tile);
+		if (node == null) return new ArrayList<>();
+		return node.getLinked();
+	}
+
+	/**
+	 * Returns the nodes a node can suck from using the given rule, sorted by distance.
+	 *
+	 * @param tile the sucking node.
+	 * @param rule the suck rule.
+	 * @return the providers, or an empty list if the node is not part of the network.
+	 */
+	@Nonnull
+	public List<TileManaNode> getProviders(@Nonnull TileManaNode tile, @Nonnull SuckRule<?, ?> rule) {
+		Node node = nodes.get(tile);
+		if (node == null) return new ArrayList<>();
+		return node.getProviders(rule);
+	}
+
+	/**
+	 * Runs the solver pass, if it is due in this tick. Is called by every node, but the pass runs only once per tick.
+	 *
+	 * @param world the world of this network.
+	 */
+	public void tick(@Nonnull World world) {
+		long time = world.getTotalWorldTime();
+		if (time == lastTick) return;
+		lastTick = time;
+
+		int interval = ConfigValues.manaNetworkSolverInterval;
+		if (interval <= 0 || time % interval != 0) return;
+
+		runPass(time, interval);
+	}
+
+	/**
+	 * Lets every active node suck the mana of one tick from its providers, once for each of the given number of ticks.
+	 * Puts the nodes which got nothing in their last tick, and weren't woken up since, to sleep.
+	 *
+	 * @param time     the world time of the pass. Decides whether the sleeping nodes are rechecked.
+	 * @param interval the number of ticks covered by the pass.
+	 */
+	public void runPass(long time, int interval) {
+		if (time % SLEEP_RECHECK_TICKS < interval) wakeAll();
+
+		for (int tick = 0; tick < interval; tick++) {
+			// NOTE: Walks by order instead of iterating, so nodes woken up later in the order still suck in this tick, as they would have when polling
+			for (Node node = active.isEmpty() ? null : active.first(); node != null; node = active.higher(node)) {
+				node.idle = node.links.isEmpty() || node.member.tickMana() <= 0;
+			}
+		}
+
+		Iterator<Node> iterator = active.iterator();
+		while (iterator.hasNext()) {
+			Node node = iterator.next();
+			if (!node.idle) continue;
+
+			iterator.remove();
+			sleeping.add(node);
+		}
+	}
+
+	public int getNodeCount() {
+		return nodes.size();
+	}
+
+	public int getActiveCount() {
+		return active.size();
+	}
+
+	/**
+	 * Wakes up all sleeping nodes.
+	 */
+	public void wakeAll() {
+		active.addAll(sleeping);
+		sleeping.clear();
+	}
+
+	private void wake(Node node) {
+		node.idle = false;
+		if (sleeping.remove(node))
+			active.add(node);
+	}
+
+	////////////////////
+
+	/**
+	 * A node of a {@link ManaNetwork}, such as a {@link TileManaNode}.
+	 */
+	public interface Member {
+
+		@Nonnull
+		BlockPos getPos();
+
+		/**
+		 * Sucks the mana of one tick from the providers of this node, and reports every transfer
+		 * to {@link ManaNetwork#onTransfer(Member, Member)}.
+		 *
+		 * @return the total amount of mana sucked.
+		 */
+		double tickMana();
+	}
+
+	////////////////////
+
+	private static final class Link {
+		private final Node node;
+		private final double distSq;
+
+		Link(Node node, double distSq) {
+			this.node = node;
+			this.distSq = distSq;
+		}
+	}
+
+	private static final class Node {
+		private final Member member;
+		private final long order;
+		private final ArrayList<Link> links = new ArrayList<>();
+		private final IdentityHashMap<SuckRule<?, ?>, List<TileManaNode>> providersByRule = new IdentityHashMap<>();
+		@Nullable
+		private List<Member> linked = null;
+		private boolean idle = false;
+
+		Node(Member member, long order) {
+			this.member = member;
+			this.order = order;
+		}
+
+		void link(Node other, double distSq) {
+			links.add(new Link(other, distSq));
+			providersByRule.clear();
+			linked = null;
+		}
+
+		void unlink(Node other) {
+			links.removeIf(link -> link.node == other);
+			providersByRule.clear();
+			linked = null;
+		}
+
+		List<Member> getLinked() {
+			if (linked != null) return linked;
+
+			ArrayList<Link> sorted = new ArrayList<>(links);
+			sorted.sort(Comparator.comparingDouble(link -> link.distSq));
+
+			linked = new ArrayList<>(sorted.size());
+			for (Link link : sorted)
+				linked.add(link.node.member);
+			return linked;
+		}
+
+		List<TileManaNode> getProviders(SuckRule<?, ?> rule) {
+			List<TileManaNode> providers = providersByRule.get(rule);
+			if (providers != null) return providers;
+
+			providers = new ArrayList<>();
+			for (Member other : getLinked())
+				if (other instanceof TileManaNode && other.getClass().isAssignableFrom(rule.getFromClazz()))
+					providers.add((TileManaNode) other);
+			providersByRule.put(rule, providers);
+			return providers;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.teamwizardry.wizardry.api.block;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import net.minecraft.util.math.BlockPos;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Set;
+
+/**
+ * The result of validating a multiblock structure in the world. Immutable, so it can be read by renderers without touching the world.
+ * See {@link StructureTracker}.
+ */
+public final class StructureStatus {
+
+	/**
+	 * The status of a structure which hasn't been validated yet. Is neither valid nor has any errors.
+	 */
+	public static final StructureStatus UNCHECKED = new StructureStatus(false, BlockPos.ORIGIN, ImmutableSet.of(), ImmutableSet.of());
+
+	private final boolean valid;
+	private final ImmutableSet<BlockPos> missing;
+	private final ImmutableSet<BlockPos> wrong;
+	private final ImmutableList<BlockPos> errors;
+	private final ImmutableSet<BlockPos> errorOffsets;
+
+	private StructureStatus(boolean valid, BlockPos pos, ImmutableSet<BlockPos> missing, ImmutableSet<BlockPos> wrong) {
+		this.valid = valid;
+		this.missing = missing;
+		this.wrong = wrong;
+
+		ArrayList<BlockPos> errors = new ArrayList<>(missing.size() + wrong.size());
+		errors.addAll(missing);
+		errors.addAll(wrong);
+		errors.sort(BlockPos::compareTo);
+		this.errors = ImmutableList.copyOf(errors);
+
+		ImmutableSet.Builder<BlockPos> offsets = ImmutableSet.builder();
+		for (BlockPos error : errors)
+			offsets.add(error.subtract(pos));
+		this.errorOffsets = offsets.build();
+	}
+
+	/**
+	 * @param pos     the position of the structure origin in the world.
+	 * @param missing positions of the structure which are air in the world.
+	 * @param wrong   positions of the structure which hold a different block in the world.
+	 * @return the status.
+	 */
+	@Nonnull
+	public static StructureStatus of(@Nonnull BlockPos pos, @Nonnull Set<BlockPos> missing, @Nonnull Set<BlockPos> wrong) {
+		return new StructureStatus(missing.isEmpty() && wrong.isEmpty(), pos, ImmutableSet.copyOf(missing), ImmutableSet.copyOf(wrong));
+	}
+
+	/**
+	 * @return <code>true</code> iff the structure was validated and is complete.
+	 */
+	public boolean isValid() {
+		return valid;
+	}
+
+	@Nonnull
+	public Set<BlockPos> getMissing() {
+		return missing;
+	}
+
+	@Nonnull
+	public Set<BlockPos> getWrong() {
+		return wrong;
+	}
+
+	/**
+	 * @return all missing and wrong positions, sorted.
+	 */
+	@Nonnull
+	public ImmutableList<BlockPos> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return all missing and wrong positions as offsets from the structure origin,
+	 * as expected by {@link com.teamwizardry.wizardry.api.structure.StructureManager#draw(net.minecraft.util.ResourceLocation, float, Set)}.
+	 */
+	@Nonnull
+	public ImmutableSet<BlockPos> getErrorOffsets() {
+		return errorOffsets;
+	}
+}
@@ -0,0 +1,187 @@
+package com.teamwizardry.wizardry.api.block;
+
+import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.api.util.LongHashSet;
+import com.teamwizardry.wizardry.api.util.WorldEventListenerAdapter;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Caches the validity of multiblock structures. <br/>
+ * A structure is validated once and then only again after a block change touched one of its template positions,
+ * or a chunk overlapping it was loaded. Works on both sides, as block changes are tracked with a world listener.
+ */
+@Mod.EventBusSubscriber(modid = Wizardry.MODID)
+public final class StructureTracker {
+
+	// Synchronized, as client and integrated server worlds are ticked on different threads
+	private static final Map<World, StructureTracker> trackers = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private static long validations = 0;
+	private static long cachedLookups = 0;
+
+	private final HashMap<BlockPos, Entry> entries = new HashMap<>();
+	private final LongHashSet watched = new LongHashSet();
+
+	private StructureTracker() {
+	}
+
+	@Nonnull
+	private static StructureTracker get(@Nonnull World world) {
+		StructureTracker tracker = trackers.get(world);
+		if (tracker == null) {
+			StructureTracker created = new StructureTracker();
+			world.addEventListener(new WorldEventListenerAdapter() {
+				@Override
+				public void notifyBlockUpdate(@Nonnull World worldIn, @Nonnull BlockPos pos, @Nonnull IBlockState oldState, @Nonnull IBlockState newState, int flags) {
+					created.onBlockChange(pos);
+				}
+
+				@Override
+				public void markBlockRangeForRenderUpdate(int x1, int y1, int z1, int x2, int y2, int z2) {
+					// Fired on the client when a whole chunk has been received
+					created.onRangeChange(x1, y1, z1, x2, y2, z2);
+				}
+			});
+			trackers.put(world, created);
+			tracker = created;
+		}
+		return tracker;
+	}
+
+	/**
+	 * Returns the status of a structure, validating it only if a block of it changed since the last call.
+	 *
+	 * @param world     the world.
+	 * @param pos       the position of the structure origin.
+	 * @param structure the structure expected at the position.
+	 * @return the status.
+	 */
+	@Nonnull
+	public static StructureStatus getStatus(@Nonnull World world, @Nonnull BlockPos pos, @Nonnull IStructure structure) {
+		StructureTracker tracker = get(world);
+		Entry entry = tracker.entries.get(pos);
+		if (entry == null || entry.structure != structure) {
+			entry = new Entry(structure, pos.toImmutable());
+			tracker.entries.put(entry.pos, entry);
+			tracker.rebuildWatched();
+		}
+
+		if (!entry.dirty) {
+			cachedLookups++;
+			return entry.status;
+		}
+
+		// Cleared first, as validating may fix the facing of stairs, which marks the entry dirty again
+		entry.dirty = false;
+		entry.status = structure.validateStructure(world, pos);
+		validations++;
+		return entry.status;
+	}
+
+	/**
+	 * Stops tracking the structure at the given position, e.g. as its tile entity was unloaded.
+	 *
+	 * @param world the world.
+	 * @param pos   the position of the structure origin.
+	 */
+	public static void remove(@Nonnull World world, @Nonnull BlockPos pos) {
+		StructureTracker tracker = trackers.get(world);
+		if (tracker != null && tracker.entries.remove(pos) != null)
+			tracker.rebuildWatched();
+	}
+
+	@SubscribeEvent
+	public static void onChunkLoad(ChunkEvent.Load event) {
+		StructureTracker tracker = trackers.get(event.getWorld());
+		if (tracker == null) return;
+
+		int x = event.getChunk().x << 4;
+		int z = event.getChunk().z << 4;
+		tracker.onRangeChange(x, 0, z, x + 15, 255, z + 15);
+	}
+
+	@SubscribeEvent
+	public static void onWorldUnload(WorldEvent.Unload event) {
+		trackers.remove(event.getWorld());
+	}
+
+	/**
+	 * @return the number of tracked structures of the given world.
+	 */
+	public static int getTrackedCount(@Nonnull World world) {
+		StructureTracker tracker = trackers.get(world);
+		return tracker == null ? 0 : tracker.entries.size();
+	}
+
+	public static long getValidations() {
+		return validations;
+	}
+
+	public static long getCachedLookups() {
+		return cachedLookups;
+	}
+
+	private void onBlockChange(BlockPos pos) {
+		long packed = pos.toLong();
+		if (!watched.contains(packed)) return;
+
+		for (Entry entry : entries.values())
+			if (entry.positions.contains(packed))
+				entry.dirty = true;
+	}
+
+	private void onRangeChange(int x1, int y1, int z1, int x2, int y2, int z2) {
+		for (Entry entry : entries.values())
+			if (entry.minX <= x2 && entry.maxX >= x1 && entry.minY <= y2 && entry.maxY >= y1 && entry.minZ <= z2 && entry.maxZ >= z1)
+				entry.dirty = true;
+	}
+
+	private void rebuildWatched() {
+		watched.clear();
+		for (Entry entry : entries.values())
+			for (long packed : entry.positions.toArray())
+				watched.add(packed);
+	}
+
+	////////////////////
+
+	private static final class Entry {
+		private final IStructure structure;
+		private final BlockPos pos;
+		private final LongHashSet positions;
+		private int minX, minY, minZ, maxX, maxY, maxZ;
+		private StructureStatus status = StructureStatus.UNCHECKED;
+		private boolean dirty = true;
+
+		Entry(IStructure structure, BlockPos pos) {
+			this.structure = structure;
+			this.pos = pos;
+
+			minX = maxX = pos.getX();
+			minY = maxY = pos.getY();
+			minZ = maxZ = pos.getZ();
+			positions = new LongHashSet();
+			for (BlockPos position : structure.getStructurePositions(pos)) {
+				positions.add(position.toLong());
+				minX = Math.min(minX, position.getX());
+				minY = Math.min(minY, position.getY());
+				minZ = Math.min(minZ, position.getZ());
+				maxX = Math.max(maxX, position.getX());
+				maxY = Math.max(maxY, position.getY());
+				maxZ = Math.max(maxZ, position.getZ());
+			}
+		}
+	}
+}
@@ -34,9 +34,11 @@ import javax.annotation.Nullable;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 import java.util.function.BiPredicate;
 
-public class TileManaNode extends TileCachable implements ITickable {
+public class TileManaNode extends TileCachable implements ITickable, ManaNetwork.Member {
 
 	private static ArrayList<SuckRule> suckRules = new ArrayList<>();
 
@@ -110,13 +112,70 @@ public class TileManaNode extends TileCachable implements ITickable {
 		suckRules.add(suckRule);
 	}
 
+	/**
+	 * @return the network of this node's world, or <code>null</code> on the client or without a world.
+	 */
+	@Nullable
+	public ManaNetwork getNetwork() {
+		return world != null ? ManaNetwork.get(world) : null;
+	}
+
+	@Override
+	public void onLoad() {
+		super.onLoad();
+		ManaNetwork network = getNetwork();
+		if (network != null) network.addNode(this);
+	}
+
+	@Override
+	public void onChunkUnload() {
+		super.onChunkUnload();
+		ManaNetwork network = getNetwork();
+		if (network != null) network.removeNode(this);
+	}
+
+	@Override
+	public void invalidate() {
+		super.invalidate();
+		ManaNetwork network = getNetwork();
+		if (network != null) network.removeNode(this);
+	}
+
+	/**
+	 * Wakes this node and its neighbours up in the {@link ManaNetwork}. <br/>
+	 * <b>NOTE</b>: Call this after changing the mana of this node or its transfer rules from outside of the network.
+	 */
+	public void wakeNetwork() {
+		ManaNetwork network = getNetwork();
+		if (network != null) network.wakeNeighbourhood(this);
+	}
+
 	@Override
 	public void update() {
+		ManaNetwork network = getNetwork();
+		if (network != null && ManaNetwork.isSolverEnabled()) {
+			network.tick(world);
+			return;
+		}
+
+		pollNeighbours();
+	}
+
+	/**
+	 * Sucks the mana of one tick from the nodes in range, as every node did each tick before the {@link ManaNetwork} solver.
+	 */
+	public void pollNeighbours() {
 		if (distanceCache.isEmpty()) return;
 
 		if (suckManaAutomatically()) suckMana(getWizardryCap());
 	}
 
+	@Override
+	public double tickMana() {
+		if (!suckManaAutomatically()) return 0;
+		return suckMana(getWizardryCap(), getNetwork());
+	}
+
 	public boolean suckManaAutomatically() {
 		return true;
 	}
@@ -129,6 +188,17 @@ public class TileManaNode extends TileCachable implements ITickable {
 	}
 
 	public double suckMana(IManaCapability cap) {
+		return suckMana(cap, null);
+	}
+
+	/**
+	 * Sucks the mana of one tick following the {@link SuckRule}s in order of their priority.
+	 *
+	 * @param cap     the capability to fill.
+	 * @param network the network to take the providers from, or <code>null</code> to use the nodes in range.
+	 * @return the total amount of mana sucked.
+	 */
+	private double suckMana(IManaCapability cap, @Nullable ManaNetwork network) {
 		double totalZucced = 0;
 
 		if (ManaManager.isManaFull(cap)) return 0;
@@ -136,8 +206,14 @@ public class TileManaNode extends TileCachable implements ITickable {
 		for (SuckRule suckRule : suckRules) {
 			if (getClass().isAssignableFrom(suckRule.thisClazz)) {
 
-				ArrayList<TileManaNode> nodes = getNearestNodes(suckRule.fromClazz);
-				nodes.sort(Comparator.comparingDouble(this::getCachedDistanceSq));
+				List<TileManaNode> nodes;
+				if (network != null) {
+					nodes = network.getProviders(this, suckRule);
+				} else {
+					ArrayList<TileManaNode> nearest = getNearestNodes(suckRule.fromClazz);
+					nearest.sort(Comparator.comparingDouble(this::getCachedDistanceSq));
+					nodes = nearest;
+				}
 
 				int i = 0;
 				for (TileManaNode from : nodes) {
@@ -182,7 +258,9 @@ public class TileManaNode extends TileCachable implements ITickable {
 	}
 
 	public void setStructurePos(@Nullable BlockPos structurePos) {
+		if (Objects.equals(this.structurePos, structurePos)) return;
 		this.structurePos = structurePos;
+		wakeNetwork();
 	}
 
 	@Nonnull
@@ -195,7 +273,9 @@ public class TileManaNode extends TileCachable implements ITickable {
 	}
 
 	public void setCanSuckFromOutside(boolean canSuckFromOutside) {
+		if (this.canSuckFromOutside == canSuckFromOutside) return;
 		this.canSuckFromOutside = canSuckFromOutside;
+		wakeNetwork();
 	}
 
 	public double suckManaFrom(TileManaNode interacterFrom, SuckRule suckRule, IManaCapability cap) {
@@ -206,22 +286,17 @@ public class TileManaNode extends TileCachable implements ITickable {
 		try (ManaManager.CapManagerBuilder thisMgr = ManaManager.forObject(cap)) {
 			try (ManaManager.CapManagerBuilder theirMgr = ManaManager.forObject(interacterFrom.getWizardryCap())) {
 
-				if (thisMgr.isManaFull()) return 0;
-				if (theirMgr.isManaEmpty()) return 0;
+				double wanted = suckRule.getTransferAmount(thisMgr.getMana(), thisMgr.getMaxMana(), theirMgr.getMana());
+				if (wanted <= 0) return 0;
 
-				if (suckRule.equalize && Math.abs(thisMgr.getMana() - theirMgr.getMana()) <= suckRule.idealAmount)
-					return 0;
-
-				double ratio = theirMgr.getMana() / thisMgr.getMana();
-
-				if (suckRule.equalize && Double.isFinite(ratio) && ratio <= 1.2)
-					return 0;
-
-				double amount = interacterFrom.drainMana(suckRule.idealAmount);
+				double amount = interacterFrom.drainMana(wanted);
 				if (amount <= 0) return 0;
 
 				ManaManager.forObject(cap).addMana(amount).close();
 
+				ManaNetwork network = getNetwork();
+				if (network != null) network.onTransfer(this, interacterFrom);
+
 				if (world.isRemote)
 					ClientRunnable.run(new ClientRunnable() {
 						@Override
@@ -261,7 +336,9 @@ public class TileManaNode extends TileCachable implements ITickable {
 	}
 
 	public void setCanGiveToOutside(boolean canGiveToOutside) {
+		if (this.canGiveToOutside == canGiveToOutside) return;
 		this.canGiveToOutside = canGiveToOutside;
+		wakeNetwork();
 	}
 
 	public static class SuckRule<K extends TileManaNode, T extends TileManaNode> {
@@ -289,6 +366,30 @@ public class TileManaNode extends TileCachable implements ITickable {
 			return idealAmount;
 		}
 
+		/**
+		 * Returns how much mana a node should drain from a provider in one tick under this rule,
+		 * without checking the rule's condition.
+		 *
+		 * @param toMana    the mana of the sucking node.
+		 * @param toMaxMana the max mana of the sucking node.
+		 * @param fromMana  the mana of the provider.
+		 * @return the amount to drain, or 0 if the transfer is blocked.
+		 */
+		public double getTransferAmount(double toMana, double toMaxMana, double fromMana) {
+			if (toMana >= toMaxMana) return 0;
+			if (fromMana <= 0) return 0;
+
+			if (equalize && Math.abs(toMana - fromMana) <= idealAmount)
+				return 0;
+
+			double ratio = fromMana / toMana;
+
+			if (equalize && Double.isFinite(ratio) && ratio <= 1.2)
+				return 0;
+
+			return Math.min(fromMana, idealAmount);
+		}
+
 		public boolean isEqualize() {
 			return equalize;
 		}
@@ -1,11 +1,7 @@
 package com.teamwizardry.wizardry.api.capability.player.mana;
 
 import com.teamwizardry.librarianlib.features.helpers.NBTHelper;
-import com.teamwizardry.librarianlib.features.network.PacketHandler;
-import com.teamwizardry.wizardry.common.network.capability.PacketUpdateManaCap;
 import net.minecraft.entity.Entity;
-import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.math.MathHelper;
@@ -101,7 +97,6 @@ public class BaubleManaCapability implements IManaCapability {
 
 	@Override
 	public void dataChanged(Entity entity) {
-		if ((entity != null) && entity instanceof EntityPlayer && !entity.getEntityWorld().isRemote)
-			PacketHandler.NETWORK.sendTo(new PacketUpdateManaCap(serializeNBT()), (EntityPlayerMP) entity);
+		ManaSyncScheduler.markDirty(entity);
 	}
 }
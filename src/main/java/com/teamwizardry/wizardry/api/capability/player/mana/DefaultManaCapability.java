@@ -1,12 +1,8 @@
 package com.teamwizardry.wizardry.api.capability.player.mana;
 
-import com.teamwizardry.librarianlib.features.network.PacketHandler;
 import com.teamwizardry.librarianlib.features.saving.Savable;
 import com.teamwizardry.librarianlib.features.saving.Save;
-import com.teamwizardry.wizardry.common.network.capability.PacketUpdateManaCap;
 import net.minecraft.entity.Entity;
-import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.nbt.NBTTagCompound;
 
 import javax.annotation.Nullable;
@@ -100,7 +96,6 @@ public class DefaultManaCapability implements IManaCapability {
 
 	@Override
 	public void dataChanged(Entity entity) {
-		if (entity instanceof EntityPlayer && !entity.getEntityWorld().isRemote)
-			PacketHandler.NETWORK.sendTo(new PacketUpdateManaCap(serializeNBT()), (EntityPlayerMP) entity);
+		ManaSyncScheduler.markDirty(entity);
 	}
 }
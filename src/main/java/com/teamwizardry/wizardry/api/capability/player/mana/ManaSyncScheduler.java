@@ -0,0 +1,214 @@
+package com.teamwizardry.wizardry.api.capability.player.mana;
+
+import com.teamwizardry.librarianlib.features.network.PacketHandler;
+import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.api.ConfigValues;
+import com.teamwizardry.wizardry.common.network.capability.PacketSyncManaCapDelta;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+
+/**
+ * Batches mana capability updates of players. <br/>
+ * {@link IManaCapability#dataChanged(Entity)} only marks the player as dirty. At the end of each server tick,
+ * a single {@link PacketSyncManaCapDelta} with the fields changed since the last sync is sent to each dirty player.
+ * Changes of mana or burnout smaller than {@link ConfigValues#manaSyncThreshold} of their maximum are held back,
+ * until they add up or reach a bound, or for at most {@link #HELD_BACK_TICKS} ticks. <br/>
+ * <b>NOTE</b>: Must be used from the server thread only.
+ */
+@Mod.EventBusSubscriber(modid = Wizardry.MODID)
+public final class ManaSyncScheduler {
+
+	private static final int HELD_BACK_TICKS = 20;
+
+	private static final LinkedHashMap<UUID, EntityPlayerMP> dirtyPlayers = new LinkedHashMap<>();
+	/**
+	 * Players with changes below the threshold which haven't been sent yet.
+	 */
+	private static final LinkedHashMap<UUID, EntityPlayerMP> heldBackPlayers = new LinkedHashMap<>();
+	private static final HashMap<UUID, Snapshot> lastSent = new HashMap<>();
+
+	private static long tick = 0;
+
+	private static long syncRequests = 0;
+	private static long packetsSent = 0;
+	private static long skippedChanges = 0;
+
+	private ManaSyncScheduler() {
+	}
+
+	/**
+	 * Schedules a sync of the mana capability of the given entity, if it is a player.
+	 *
+	 * @param entity the entity owning the changed capability.
+	 */
+	public static void markDirty(Entity entity) {
+		if (!(entity instanceof EntityPlayerMP) || entity.getEntityWorld().isRemote) return;
+
+		syncRequests++;
+		dirtyPlayers.put(entity.getUniqueID(), (EntityPlayerMP) entity);
+	}
+
+	/**
+	 * Makes the next sync of the given player contain all fields. Needed whenever the client recreated its player.
+	 */
+	private static void forceFullSync(Entity entity) {
+		lastSent.remove(entity.getUniqueID());
+		markDirty(entity);
+	}
+
+	@SubscribeEvent
+	public static void onLogin(PlayerEvent.PlayerLoggedInEvent event) {
+		forceFullSync(event.player);
+	}
+
+	@SubscribeEvent
+	public static void onRespawn(PlayerEvent.PlayerRespawnEvent event) {
+		forceFullSync(event.player);
+	}
+
+	@SubscribeEvent
+	public static void onDimChange(PlayerEvent.PlayerChangedDimensionEvent event) {
+		forceFullSync(event.player);
+	}
+
+	@SubscribeEvent
+	public static void onLogout(PlayerEvent.PlayerLoggedOutEvent event) {
+		dirtyPlayers.remove(event.player.getUniqueID());
+		heldBackPlayers.remove(event.player.getUniqueID());
+		lastSent.remove(event.player.getUniqueID());
+	}
+
+	@SubscribeEvent
+	public static void onServerTick(TickEvent.ServerTickEvent event) {
+		if (event.phase != TickEvent.Phase.END) return;
+		tick++;
+
+		// Held back changes are sent once they are old enough, even if nothing changed since
+		for (EntityPlayerMP player : heldBackPlayers.values()) {
+			Snapshot snapshot = lastSent.get(player.getUniqueID());
+			if (snapshot == null || tick - snapshot.heldBackSince >= HELD_BACK_TICKS)
+				dirtyPlayers.putIfAbsent(player.getUniqueID(), player);
+		}
+		if (dirtyPlayers.isEmpty()) return;
+
+		ArrayList<EntityPlayerMP> players = new ArrayList<>(dirtyPlayers.values());
+		dirtyPlayers.clear();
+
+		for (EntityPlayerMP player : players) {
+			if (player.hasDisconnected()) continue;
+
+			IManaCapability cap = ManaCapabilityProvider.getCap(player);
+			if (cap == null) continue;
+
+			sync(player, cap);
+		}
+	}
+
+	private static void sync(@Nonnull EntityPlayerMP player, @Nonnull IManaCapability cap) {
+		Snapshot snapshot = lastSent.get(player.getUniqueID());
+		boolean full = snapshot == null;
+		if (full) {
+			snapshot = new Snapshot();
+			lastSent.put(player.getUniqueID(), snapshot);
+		}
+
+		double mana = cap.getMana();
+		double maxMana = cap.getMaxMana();
+		double burnout = cap.getBurnout();
+		double maxBurnout = cap.getMaxBurnout();
+		EnumBloodType bloodType = cap.getBloodType();
+		boolean flush = snapshot.heldBackSince >= 0 && tick - snapshot.heldBackSince >= HELD_BACK_TICKS;
+
+		int mask = 0;
+		if (full || maxMana != snapshot.maxMana) mask |= PacketSyncManaCapDelta.MAX_MANA;
+		if (full || maxBurnout != snapshot.maxBurnout) mask |= PacketSyncManaCapDelta.MAX_BURNOUT;
+		if (full || bloodType != snapshot.bloodType) mask |= PacketSyncManaCapDelta.BLOOD_TYPE;
+		if (full || isVisibleChange(snapshot.mana, mana, maxMana, flush)) mask |= PacketSyncManaCapDelta.MANA;
+		if (full || isVisibleChange(snapshot.burnout, burnout, maxBurnout, flush)) mask |= PacketSyncManaCapDelta.BURNOUT;
+
+		boolean heldBack = ((mask & PacketSyncManaCapDelta.MANA) == 0 && mana != snapshot.mana)
+				|| ((mask & PacketSyncManaCapDelta.BURNOUT) == 0 && burnout != snapshot.burnout);
+		if (heldBack) {
+			if (snapshot.heldBackSince < 0) snapshot.heldBackSince = tick;
+			heldBackPlayers.put(player.getUniqueID(), player);
+		} else {
+			snapshot.heldBackSince = -1;
+			heldBackPlayers.remove(player.getUniqueID());
+		}
+
+		if (mask == 0) {
+			skippedChanges++;
+			return;
+		}
+
+		if ((mask & PacketSyncManaCapDelta.MANA) != 0) snapshot.mana = mana;
+		if ((mask & PacketSyncManaCapDelta.MAX_MANA) != 0) snapshot.maxMana = maxMana;
+		if ((mask & PacketSyncManaCapDelta.BURNOUT) != 0) snapshot.burnout = burnout;
+		if ((mask & PacketSyncManaCapDelta.MAX_BURNOUT) != 0) snapshot.maxBurnout = maxBurnout;
+		if ((mask & PacketSyncManaCapDelta.BLOOD_TYPE) != 0) snapshot.bloodType = bloodType;
+
+		PacketHandler.NETWORK.sendTo(new PacketSyncManaCapDelta(mask, mana, maxMana, burnout, maxBurnout, bloodType), player);
+		packetsSent++;
+	}
+
+	/**
+	 * Returns whether a value changed enough to be synced. Reaching one of the bounds is always synced,
+	 * as a full or empty bar must be exact.
+	 *
+	 * @param flush whether any change is synced, as it has been held back for long enough.
+	 */
+	private static boolean isVisibleChange(double sent, double current, double max, boolean flush) {
+		if (sent == current) return false;
+		if (flush || current <= 0 || current >= max) return true;
+		return Math.abs(current - sent) >= ConfigValues.manaSyncThreshold * max;
+	}
+
+	/**
+	 * @return the number of times a player capability has been marked as changed.
+	 */
+	public static long getSyncRequests() {
+		return syncRequests;
+	}
+
+	public static long getPacketsSent() {
+		return packetsSent;
+	}
+
+	/**
+	 * @return the number of packets saved compared to sending one packet per change.
+	 */
+	public static long getPacketsSaved() {
+		return syncRequests - packetsSent;
+	}
+
+	/**
+	 * @return the number of flushes without any change above the threshold.
+	 */
+	public static long getSkippedChanges() {
+		return skippedChanges;
+	}
+
+	////////////////////
+
+	private static final class Snapshot {
+		private double mana;
+		private double maxMana;
+		private double burnout;
+		private double maxBurnout;
+		private EnumBloodType bloodType;
+		/**
+		 * The tick the oldest change not sent yet was held back on, or <code>-1</code>.
+		 */
+		private long heldBackSince = -1;
+	}
+}
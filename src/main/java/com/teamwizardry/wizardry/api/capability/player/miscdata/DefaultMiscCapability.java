@@ -1,6 +1,7 @@
 package com.teamwizardry.wizardry.api.capability.player.miscdata;
 
 import com.teamwizardry.librarianlib.features.network.PacketHandler;
+import com.teamwizardry.wizardry.api.entity.EntityIndex;
 import com.teamwizardry.wizardry.common.entity.EntityFairy;
 import com.teamwizardry.wizardry.common.network.capability.PacketUpdateMiscCapToClient;
 import net.minecraft.entity.Entity;
@@ -25,18 +26,7 @@ public class DefaultMiscCapability implements IMiscCapability {
 	@Override
 	@Nullable
 	public EntityFairy getSelectedFairyEntity(World world) {
-		if (selectedFairy == null) return null;
-
-		for (EntityFairy entityFairy : world.getEntities(EntityFairy.class, input -> {
-			if (input != null) {
-				return input.getUniqueID().equals(selectedFairy);
-			}
-			return false;
-		})) {
-			if (entityFairy.getUniqueID().equals(selectedFairy)) return entityFairy;
-		}
-
-		return null;
+		return EntityIndex.getEntity(world, selectedFairy, EntityFairy.class);
 	}
 
 	@Nullable
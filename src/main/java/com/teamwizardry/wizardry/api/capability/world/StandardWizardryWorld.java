@@ -88,7 +88,7 @@ public class StandardWizardryWorld implements WizardryWorld {
 	public NBTTagCompound serializeNBT() {
 		NBTTagCompound compound = new NBTTagCompound();
 
-		compound.setTag("spell_object_manager", spellObjectManager.manager.toNbt());
+		compound.setTag("spell_object_manager", spellObjectManager.toNbt());
 
 		NBTTagList driveNBT = new NBTTagList();
 		for (Map.Entry<BlockPos, NemezTracker> entry : blockNemezDrives.entrySet()) {
@@ -107,7 +107,7 @@ public class StandardWizardryWorld implements WizardryWorld {
 	public void deserializeNBT(NBTTagCompound compound) {
 		if (compound.hasKey("spell_object_manager")) {
 			spellObjectManager = new SpellObjectManager();
-			spellObjectManager.manager.fromNbt(compound.getCompoundTag("spell_object_manager"));
+			spellObjectManager.fromNbt(compound.getCompoundTag("spell_object_manager"));
 		}
 
 		if (compound.hasKey("drives")) {
@@ -0,0 +1,141 @@
+package com.teamwizardry.wizardry.api.entity;
+
+import com.google.common.collect.ImmutableList;
+import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.api.util.WorldEventListenerAdapter;
+import com.teamwizardry.wizardry.common.entity.EntityFairy;
+import net.minecraft.entity.Entity;
+import net.minecraft.world.World;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+
+/**
+ * Finds loaded entities of a world by UUID, or all loaded entities of a few {@link #INDEXED_CLASSES}, without scanning the world. <br/>
+ * An index is created on first use and seeded from the loaded entities. Afterwards it is kept up to date by {@link EntityJoinWorldEvent}
+ * and a world listener for removed entities, which covers deaths, chunk unloads and dimension changes. Works on both sides.
+ */
+@Mod.EventBusSubscriber(modid = Wizardry.MODID)
+public final class EntityIndex {
+
+	/**
+	 * Entity classes which can be listed with {@link #getEntities(World, Class)}. Subclasses are indexed as well.
+	 */
+	public static final List<Class<? extends Entity>> INDEXED_CLASSES = ImmutableList.of(EntityFairy.class);
+
+	// Synchronized, as client and integrated server worlds are ticked on different threads
+	private static final Map<World, EntityIndex> indices = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private final HashMap<UUID, Entity> byUuid = new HashMap<>();
+	private final HashMap<Class<? extends Entity>, Set<Entity>> byClass = new HashMap<>();
+
+	private EntityIndex() {
+		for (Class<? extends Entity> clazz : INDEXED_CLASSES)
+			byClass.put(clazz, new LinkedHashSet<>());
+	}
+
+	@Nonnull
+	private static EntityIndex get(@Nonnull World world) {
+		EntityIndex index = indices.get(world);
+		if (index == null) {
+			EntityIndex created = new EntityIndex();
+			for (Entity entity : world.loadedEntityList)
+				created.add(entity);
+			world.addEventListener(new WorldEventListenerAdapter() {
+				@Override
+				public void onEntityRemoved(@Nonnull Entity entityIn) {
+					created.remove(entityIn);
+				}
+			});
+			indices.put(world, created);
+			index = created;
+		}
+		return index;
+	}
+
+	/**
+	 * @param world the world.
+	 * @param uuid  the UUID of the entity.
+	 * @return the loaded entity with the UUID, or null. May be dead, but not yet removed from the world.
+	 */
+	@Nullable
+	public static Entity getEntity(@Nonnull World world, @Nullable UUID uuid) {
+		if (uuid == null) return null;
+		return get(world).byUuid.get(uuid);
+	}
+
+	/**
+	 * @param world the world.
+	 * @param uuid  the UUID of the entity.
+	 * @param clazz the expected class of the entity.
+	 * @return the loaded entity with the UUID, or null if there is none or it is not an instance of the class.
+	 */
+	@Nullable
+	public static <T extends Entity> T getEntity(@Nonnull World world, @Nullable UUID uuid, @Nonnull Class<T> clazz) {
+		Entity entity = getEntity(world, uuid);
+		return clazz.isInstance(entity) ? clazz.cast(entity) : null;
+	}
+
+	/**
+	 * @param world the world.
+	 * @param clazz one of the {@link #INDEXED_CLASSES}.
+	 * @return a read-only view of the loaded entities of the class.
+	 */
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	public static <T extends Entity> Collection<T> getEntities(@Nonnull World world, @Nonnull Class<T> clazz) {
+		Set<Entity> entities = get(world).byClass.get(clazz);
+		if (entities == null) throw new IllegalArgumentException(clazz + " is not indexed");
+		return (Collection<T>) Collections.unmodifiableCollection(entities);
+	}
+
+	/**
+	 * @return the number of indexed entities of the world.
+	 */
+	public static int getIndexedCount(@Nonnull World world) {
+		EntityIndex index = indices.get(world);
+		return index == null ? 0 : index.byUuid.size();
+	}
+
+	// Lowest priority, so entities whose joining is canceled by another handler aren't indexed
+	@SubscribeEvent(priority = EventPriority.LOWEST)
+	public static void onEntityJoin(EntityJoinWorldEvent event) {
+		EntityIndex index = indices.get(event.getWorld());
+		// Otherwise the entity is picked up from the loaded entities when the index is created
+		if (index != null) index.add(event.getEntity());
+	}
+
+	@SubscribeEvent
+	public static void onWorldUnload(WorldEvent.Unload event) {
+		indices.remove(event.getWorld());
+	}
+
+	private void add(Entity entity) {
+		byUuid.put(entity.getUniqueID(), entity);
+		for (Map.Entry<Class<? extends Entity>, Set<Entity>> entry : byClass.entrySet())
+			if (entry.getKey().isInstance(entity))
+				entry.getValue().add(entity);
+	}
+
+	private void remove(Entity entity) {
+		// A newer entity with the same UUID may have joined already, e.g. when changing dimensions back and forth
+		byUuid.remove(entity.getUniqueID(), entity);
+		for (Map.Entry<Class<? extends Entity>, Set<Entity>> entry : byClass.entrySet())
+			if (entry.getKey().isInstance(entity))
+				entry.getValue().remove(entity);
+	}
+}
@@ -1,13 +1,12 @@
 package com.teamwizardry.wizardry.api.entity.fairy.fairytasks;
 
+import com.teamwizardry.wizardry.api.entity.EntityIndex;
 import com.teamwizardry.wizardry.common.entity.EntityFairy;
 import net.minecraft.entity.Entity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 
 import javax.annotation.Nullable;
-import java.util.List;
-import java.util.UUID;
 
 public abstract class FairyTask {
 
@@ -33,34 +32,15 @@ public abstract class FairyTask {
 
 	@Nullable
 	protected static EntityFairy getChainedFairy(EntityFairy fairy) {
-		UUID attachedUUID = fairy.getChainedFairy();
-
-		List<Entity> list = fairy.world.loadedEntityList;
-		for (Entity entity : list) {
-			if (entity instanceof EntityFairy && entity.getUniqueID().equals(attachedUUID)) {
-				if (entity.isDead) continue;
-
-				return (EntityFairy) entity;
-			}
-		}
-
-		return null;
+		EntityFairy chained = EntityIndex.getEntity(fairy.world, fairy.getChainedFairy(), EntityFairy.class);
+		return chained == null || chained.isDead ? null : chained;
 	}
 
 	protected static boolean isPriorityTaken(EntityFairy fairy) {
-		UUID attachedUUID = fairy.getChainedFairy();
-
-		List<Entity> list = fairy.world.loadedEntityList;
-		for (Entity entity : list) {
-			if (entity instanceof EntityFairy && entity.getUniqueID().equals(attachedUUID)) {
-				if (entity.isDead) continue;
-
-				EntityFairy attachedFairy = (EntityFairy) entity;
-				return attachedFairy.fairyTaskController.getTask().getPriority() > fairy.fairyTaskController.getTask().getPriority();
-			}
-		}
+		EntityFairy attachedFairy = getChainedFairy(fairy);
+		if (attachedFairy == null) return false;
 
-		return false;
+		return attachedFairy.fairyTaskController.getTask().getPriority() > fairy.fairyTaskController.getTask().getPriority();
 	}
 
 	public abstract void onForceTrigger(EntityFairy fairy);
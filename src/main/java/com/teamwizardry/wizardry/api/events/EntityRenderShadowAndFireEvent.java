@@ -4,6 +4,9 @@ import net.minecraft.entity.Entity;
 import net.minecraftforge.fml.common.eventhandler.Event;
 
 /**
+ * Only posted if {@link com.teamwizardry.wizardry.api.ConfigValues#legacyEntityHookEvents} is enabled.
+ * Listeners within Wizardry are added to {@link com.teamwizardry.wizardry.asm.WizardryASMHooks} instead.
+ *
  * Created by Demoniaque.
  */
 public class EntityRenderShadowAndFireEvent extends Event {
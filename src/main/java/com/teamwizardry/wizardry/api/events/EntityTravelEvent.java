@@ -5,6 +5,9 @@ import net.minecraftforge.fml.common.eventhandler.Cancelable;
 import net.minecraftforge.fml.common.eventhandler.Event;
 
 /**
+ * Only posted if {@link com.teamwizardry.wizardry.api.ConfigValues#legacyEntityHookEvents} is enabled.
+ * Listeners within Wizardry are added to {@link com.teamwizardry.wizardry.asm.WizardryASMHooks} instead.
+ *
  * Created by Demoniaque.
  */
 @Cancelable
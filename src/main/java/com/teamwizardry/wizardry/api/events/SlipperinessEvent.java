@@ -6,6 +6,9 @@ import net.minecraftforge.fml.common.eventhandler.Event;
 import javax.annotation.Nullable;
 
 /**
+ * Only posted if {@link com.teamwizardry.wizardry.api.ConfigValues#legacyEntityHookEvents} is enabled.
+ * Listeners within Wizardry are added to {@link com.teamwizardry.wizardry.asm.WizardryASMHooks} instead.
+ *
  * Created by Demoniaque.
  */
 public class SlipperinessEvent extends Event {
@@ -8,4 +8,11 @@ public interface LifetimeObject {
 
 	void stop();
 
-}
\ No newline at end of file
+	/**
+	 * @return false if {@link #tick()} does nothing, so the object is only looked at when it starts and stops.
+	 */
+	default boolean isTicking() {
+		return true;
+	}
+
+}
@@ -7,86 +7,301 @@ import net.minecraftforge.common.util.Constants;
 import java.util.*;
 import java.util.function.Consumer;
 
+/**
+ * Keeps objects alive for a number of ticks. <br/>
+ * Expiries are kept in a hierarchical timing wheel of {@link #LEVELS} levels of {@link #SLOTS} slots, so a tick only touches
+ * the objects expiring in it, and the objects of a far slot once they move down a level. Objects which are
+ * {@link LifetimeObject#isTicking() ticking} are also kept in a dense array, which is the only thing iterated every tick. <br/>
+ * An object is started on the tick after it was added, ticked while it lives, and stopped on the tick its lifespan ends,
+ * counting the tick it was started on.
+ */
 public final class LifetimeObjectManager<T extends LifetimeObject> {
 	private static final String NBT_KEY_TICK = "tick";
 	private static final String NBT_KEY_ENTRIES = "entries";
 	private static final String NBT_KEY_ENTRY_OBJECT = "object";
 	private static final String NBT_KEY_ENTRY_TICK = "tick";
+
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+
+	private static final int PENDING = 0;
+	private static final int ACTIVE = 1;
+	private static final int DONE = 2;
+
 	private final Adapter<T> adapter;
-	private final List<Entry> entries = new ArrayList<>();
 	private final Deque<Entry> adds = new ArrayDeque<>();
+
+	/**
+	 * Heads of the doubly linked lists of each slot. The extra level holds the entries too far away for the wheel in one slot.
+	 */
+	@SuppressWarnings("unchecked")
+	private final Entry[][] wheel = new LifetimeObjectManager.Entry[LEVELS + 1][SLOTS];
+
+	@SuppressWarnings("unchecked")
+	private Entry[] ticking = new LifetimeObjectManager.Entry[16];
+	private int tickingSize = 0;
+	private boolean iteratingTicking = false;
+	private boolean tickingDirty = false;
+
+	private int size = 0;
+
+	/**
+	 * The next tick to process.
+	 */
 	private long tick;
 
 	public LifetimeObjectManager(final Adapter<T> adapter) {
 		this.adapter = adapter;
 	}
 
-	public void add(final T object, final long lifespan) {
-		this.adds.addLast(new Entry(object, lifespan));
+	/**
+	 * @return a handle to cancel the object with.
+	 */
+	public Handle add(final T object, final long lifespan) {
+		final Entry entry = new Entry(object, Math.max(1, lifespan));
+		this.adds.addLast(entry);
+		return entry;
 	}
 
 	public void tick(Consumer<Boolean> onChange) {
+		cascade();
+
 		for (Entry entry; ((entry = this.adds.pollFirst()) != null); ) {
+			if (entry.state != PENDING) continue;
+
 			onChange.accept(true);
-			this.entries.add(entry);
+			entry.expiry = this.tick + entry.expiry - 1;
+			activate(entry);
 			entry.object.start();
 		}
-		for (final Iterator<Entry> it = this.entries.iterator(); it.hasNext(); ) {
-			final Entry entry = it.next();
-			//	Minecraft.getMinecraft().player.sendChatMessage(entry.tick + " / " + this.tick);
-			if (--entry.tick > 0) {
-				entry.object.tick();
-			} else {
-				entry.object.stop();
-				it.remove();
-				onChange.accept(true);
+
+		// Objects expiring on this tick are only stopped
+		final int slot = (int) (this.tick & SLOT_MASK);
+		this.iteratingTicking = true;
+		try {
+			for (int i = 0; i < this.tickingSize; i++) {
+				final Entry entry = this.ticking[i];
+				if (entry.state == ACTIVE && entry.expiry > this.tick)
+					entry.object.tick();
 			}
+		} finally {
+			this.iteratingTicking = false;
 		}
+		if (this.tickingDirty) compactTicking();
+
+		for (Entry entry; ((entry = this.wheel[0][slot]) != null); ) {
+			remove(entry);
+			entry.object.stop();
+			onChange.accept(true);
+		}
+
 		this.tick++;
 	}
 
+	/**
+	 * Moves the entries of the slots starting on this tick down the wheel, from the highest level down.
+	 */
+	private void cascade() {
+		if ((this.tick & SLOT_MASK) != 0) return;
+
+		// Levels 1 to top are due, and the overflow as well if top reached it
+		int top = 1;
+		while (top < LEVELS && this.tick % (1L << (SLOT_BITS * (top + 1))) == 0) top++;
+
+		if (top == LEVELS) reschedule(LEVELS, 0);
+		for (int level = Math.min(top, LEVELS - 1); level >= 1; level--)
+			reschedule(level, (int) ((this.tick >>> (SLOT_BITS * level)) & SLOT_MASK));
+	}
+
+	private void reschedule(final int level, final int slot) {
+		Entry entry = this.wheel[level][slot];
+		this.wheel[level][slot] = null;
+		while (entry != null) {
+			final Entry next = entry.next;
+			link(entry);
+			entry = next;
+		}
+	}
+
+	private void activate(final Entry entry) {
+		entry.state = ACTIVE;
+		this.size++;
+		link(entry);
+
+		if (entry.object.isTicking()) {
+			if (this.tickingSize == this.ticking.length) this.ticking = Arrays.copyOf(this.ticking, this.tickingSize * 2);
+			entry.tickingIndex = this.tickingSize;
+			this.ticking[this.tickingSize++] = entry;
+		}
+	}
+
+	/**
+	 * Puts the entry in the slot of its expiry, on the lowest level whose span covers it.
+	 */
+	private void link(final Entry entry) {
+		final long delay = Math.max(0, entry.expiry - this.tick);
+
+		int level = 0;
+		while (level < LEVELS && delay >= 1L << (SLOT_BITS * (level + 1))) level++;
+		final int slot = level == LEVELS ? 0 : (int) ((entry.expiry >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+		entry.level = level;
+		entry.slot = slot;
+		entry.prev = null;
+		entry.next = this.wheel[level][slot];
+		if (entry.next != null) entry.next.prev = entry;
+		this.wheel[level][slot] = entry;
+	}
+
+	private void remove(final Entry entry) {
+		entry.state = DONE;
+		this.size--;
+
+		if (entry.prev != null) entry.prev.next = entry.next;
+		else this.wheel[entry.level][entry.slot] = entry.next;
+		if (entry.next != null) entry.next.prev = entry.prev;
+		entry.prev = null;
+		entry.next = null;
+
+		if (entry.tickingIndex >= 0) {
+			if (this.iteratingTicking) {
+				this.tickingDirty = true;
+			} else {
+				final Entry last = this.ticking[--this.tickingSize];
+				this.ticking[entry.tickingIndex] = last;
+				last.tickingIndex = entry.tickingIndex;
+				this.ticking[this.tickingSize] = null;
+				entry.tickingIndex = -1;
+			}
+		}
+	}
+
+	/**
+	 * Drops the entries removed while the ticking entries were iterated.
+	 */
+	private void compactTicking() {
+		int size = 0;
+		for (int i = 0; i < this.tickingSize; i++) {
+			final Entry entry = this.ticking[i];
+			if (entry.state == DONE) {
+				entry.tickingIndex = -1;
+				continue;
+			}
+			entry.tickingIndex = size;
+			this.ticking[size++] = entry;
+		}
+		Arrays.fill(this.ticking, size, this.tickingSize, null);
+		this.tickingSize = size;
+		this.tickingDirty = false;
+	}
+
+	/**
+	 * @return the number of started objects which haven't been stopped yet.
+	 */
+	public int size() {
+		return this.size;
+	}
+
 	public NBTTagCompound toNbt() {
 		final NBTTagCompound compound = new NBTTagCompound();
 		compound.setLong(NBT_KEY_TICK, this.tick);
 		final NBTTagList entries = new NBTTagList();
-		for (final Entry e : this.entries) {
-			this.adapter.toNbt(e.object, nbt -> {
-				final NBTTagCompound entry = new NBTTagCompound();
-				entry.setTag(NBT_KEY_ENTRY_OBJECT, nbt);
-				entry.setLong(NBT_KEY_ENTRY_TICK, e.tick);
-				entries.appendTag(entry);
-			});
+		for (final Entry[] level : this.wheel) {
+			for (final Entry head : level) {
+				for (Entry e = head; e != null; e = e.next) {
+					final Entry saved = e;
+					this.adapter.toNbt(saved.object, nbt -> {
+						final NBTTagCompound entry = new NBTTagCompound();
+						entry.setTag(NBT_KEY_ENTRY_OBJECT, nbt);
+						// Stored as the number of ticks left, counting the tick it is stopped on
+						entry.setLong(NBT_KEY_ENTRY_TICK, saved.expiry - this.tick + 1);
+						entries.appendTag(entry);
+					});
+				}
+			}
 		}
 		compound.setTag(NBT_KEY_ENTRIES, entries);
 		return compound;
 	}
 
 	public void fromNbt(final NBTTagCompound compound) {
+		clear();
 		this.tick = compound.getLong(NBT_KEY_TICK);
-		this.entries.clear();
 		final NBTTagList entries = compound.getTagList(NBT_KEY_ENTRIES, Constants.NBT.TAG_COMPOUND);
 		for (int i = 0; i < entries.tagCount(); i++) {
 			final NBTTagCompound entry = entries.getCompoundTagAt(i);
-			this.adapter.fromNbt(entry.getCompoundTag(NBT_KEY_ENTRY_OBJECT), obj ->
-					this.entries.add(new Entry(obj, entry.getLong(NBT_KEY_ENTRY_TICK)))
-			);
+			this.adapter.fromNbt(entry.getCompoundTag(NBT_KEY_ENTRY_OBJECT), obj -> {
+				// Loaded objects were started before they were saved
+				final Entry loaded = new Entry(obj, 0);
+				loaded.expiry = this.tick + Math.max(1, entry.getLong(NBT_KEY_ENTRY_TICK)) - 1;
+				activate(loaded);
+			});
 		}
 	}
 
+	private void clear() {
+		this.adds.clear();
+		for (final Entry[] level : this.wheel) {
+			for (final Entry head : level) {
+				for (Entry e = head; e != null; e = e.next)
+					e.state = DONE;
+			}
+			Arrays.fill(level, null);
+		}
+		Arrays.fill(this.ticking, 0, this.tickingSize, null);
+		this.tickingSize = 0;
+		this.size = 0;
+	}
+
 	public interface Adapter<T extends LifetimeObject> {
 		void toNbt(final T object, final Consumer<NBTTagCompound> consumer);
 
 		void fromNbt(final NBTTagCompound nbt, final Consumer<T> consumer);
 	}
 
-	private final class Entry {
+	/**
+	 * Lets the object be removed before its lifespan ends.
+	 */
+	public interface Handle {
+		/**
+		 * Removes the object without stopping it. Does nothing if it was stopped already.
+		 */
+		void cancel();
+
+		boolean isAlive();
+	}
+
+	private final class Entry implements Handle {
 		private final T object;
 
-		private long tick;
+		/**
+		 * The lifespan while pending, then the tick the object is stopped on.
+		 */
+		private long expiry;
+		private int state = PENDING;
 
-		Entry(final T object, final long tick) {
+		private int level;
+		private int slot;
+		private Entry prev;
+		private Entry next;
+		private int tickingIndex = -1;
+
+		Entry(final T object, final long lifespan) {
 			this.object = object;
-			this.tick = tick;
+			this.expiry = lifespan;
+		}
+
+		@Override
+		public void cancel() {
+			if (this.state == ACTIVE) remove(this);
+			this.state = DONE;
+		}
+
+		@Override
+		public boolean isAlive() {
+			return this.state != DONE;
 		}
 	}
-}
\ No newline at end of file
+}
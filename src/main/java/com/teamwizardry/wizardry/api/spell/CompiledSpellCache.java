@@ -0,0 +1,130 @@
+package com.teamwizardry.wizardry.api.spell;
+
+import com.teamwizardry.wizardry.api.ConfigValues;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache for spell chains compiled from the spell NBT of an item. <br/>
+ * Chains returned by this cache are shared between all callers and must be treated as immutable.
+ * Their modules, attribute values and override handlers are resolved once on compilation.
+ */
+public final class CompiledSpellCache {
+
+	public static final CompiledSpellCache INSTANCE = new CompiledSpellCache();
+
+	private final LinkedHashMap<SpellKey, List<SpellRing>> cache = new LinkedHashMap<SpellKey, List<SpellRing>>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<SpellKey, List<SpellRing>> eldest) {
+			if (size() <= ConfigValues.spellCacheSize)
+				return false;
+			evictions++;
+			return true;
+		}
+	};
+
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	private CompiledSpellCache() {
+	}
+
+	/**
+	 * Returns the compiled spell chain heads for the given spell NBT list.
+	 *
+	 * @param list NBTTagList where each tag contains a whole SpellRing chain.
+	 * @return an unmodifiable list with the shared spell ring heads.
+	 */
+	@Nonnull
+	public synchronized List<SpellRing> getSpellChains(@Nonnull NBTTagList list) {
+		SpellKey key = new SpellKey(list);
+		List<SpellRing> chains = cache.get(key);
+		if (chains != null) {
+			hits++;
+			return chains;
+		}
+
+		misses++;
+		chains = compile(list);
+
+		// NOTE: The passed list is owned by an item stack and might change later. Store a snapshot as key.
+		cache.put(new SpellKey(list.copy(), key.hash), chains);
+		return chains;
+	}
+
+	/**
+	 * Drops all compiled chains. Must be called whenever modules are reloaded.
+	 */
+	public synchronized void invalidate() {
+		cache.clear();
+	}
+
+	public synchronized int getSize() {
+		return cache.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	private static List<SpellRing> compile(NBTTagList list) {
+		ArrayList<SpellRing> rings = new ArrayList<>(list.tagCount());
+		for (int i = 0; i < list.tagCount(); i++) {
+			NBTTagCompound compound = list.getCompoundTagAt(i);
+			SpellRing ring = SpellRing.deserializeRing(compound);
+			if (ring == null) continue;
+			ring.compile();
+			rings.add(ring);
+		}
+		return Collections.unmodifiableList(rings);
+	}
+
+	////////////////////
+
+	/**
+	 * Cache key for a spell NBT list. The content hash is computed only once per key.
+	 * <b>NOTE</b>: {@link NBTTagList#equals} is reliable here, as spell ring NBT is normalized. See {@link SpellRing}.
+	 */
+	private static final class SpellKey {
+		private final NBTTagList list;
+		private final int hash;
+
+		SpellKey(NBTTagList list) {
+			this(list, list.hashCode());
+		}
+
+		SpellKey(NBTTagList list, int hash) {
+			this.list = list;
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			SpellKey other = (SpellKey) o;
+			return hash == other.hash && list.equals(other.list);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
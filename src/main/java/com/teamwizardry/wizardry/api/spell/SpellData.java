@@ -7,6 +7,7 @@ import com.teamwizardry.wizardry.api.capability.player.mana.ManaCapabilityProvid
 import com.teamwizardry.wizardry.api.spell.ProcessData.DataType;
 import com.teamwizardry.wizardry.api.spell.SpellDataTypes.BlockSet;
 import com.teamwizardry.wizardry.api.spell.SpellDataTypes.BlockStateCache;
+import com.teamwizardry.wizardry.api.spell.SpellDataTypes.RingRunSet;
 import com.teamwizardry.wizardry.api.spell.attribute.AttributeModifier;
 import com.teamwizardry.wizardry.api.spell.attribute.AttributeRegistry;
 import com.teamwizardry.wizardry.api.spell.attribute.AttributeRegistry.Attribute;
@@ -16,6 +17,7 @@ import net.minecraft.entity.Entity;
 import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.RayTraceResult;
@@ -38,9 +40,30 @@ import static com.teamwizardry.wizardry.api.spell.SpellData.DefaultKeys.BLOCK_HI
 public class SpellData implements INBTSerializable<NBTTagCompound> {
 
 	private static HashMap<String, DataField<?>> availableFields = new HashMap<>();
+	private static HashMap<String, Integer> slotsByName = new HashMap<>();
+	private static ArrayList<DataField<?>> fieldsBySlot = new ArrayList<>();
 
+	/**
+	 * Marks a field which has been explicitly set to <code>null</code>. Such fields are still serialized.
+	 */
+	private static final Object NULL_VALUE = new Object();
+	private static final Object[] NO_VALUES = new Object[0];
+
+	/**
+	 * Values indexed by {@link DataField#getSlot()}. <br/>
+	 * <b>NOTE</b>: Might be shared with copies. Write only after calling {@link #ensureWritable(int)}.
+	 */
 	@Nonnull
-	private final HashMap<DataField<?>, Object> data = new HashMap<>();
+	private Object[] values = NO_VALUES;
+	private boolean valuesShared = false;
+
+	/**
+	 * Entities resolved by {@link #getCaster(World)} and {@link #getVictim(World)}.
+	 */
+	@Nullable
+	private transient Entity cachedCaster = null;
+	@Nullable
+	private transient Entity cachedVictim = null;
 
 	/**
 	 * A map holding cast time modifiers
@@ -50,10 +73,36 @@ public class SpellData implements INBTSerializable<NBTTagCompound> {
 	private HashMap<Attribute, ArrayListMultimap<Operation, AttributeModifier>> castTimeModifiers = new HashMap<>();
 
 	@Nonnull
+	@SuppressWarnings("unchecked")
 	public static <T> DataField<T> constructField(@Nonnull String key, @Nonnull Class<T> type) {
-		DataField<T> field = new DataField<T>(key, type);
-		availableFields.put(key, field);
-		return field;
+		synchronized (availableFields) {
+			DataField<?> existing = availableFields.get(key);
+			if (existing != null && existing.getDataType() == type)
+				return (DataField<T>) existing;
+
+			DataField<T> field = new DataField<T>(key, type);
+			availableFields.put(key, field);
+			fieldsBySlot.set(field.getSlot(), field);
+			return field;
+		}
+	}
+
+	/**
+	 * Returns the slot for a field name. Fields with the same name share a slot.
+	 *
+	 * @param fieldName the field name.
+	 * @return the slot index.
+	 */
+	private static int getSlotForName(String fieldName) {
+		synchronized (availableFields) {
+			Integer slot = slotsByName.get(fieldName);
+			if (slot == null) {
+				slot = fieldsBySlot.size();
+				slotsByName.put(fieldName, slot);
+				fieldsBySlot.add(null);
+			}
+			return slot;
+		}
 	}
 
 	@Nonnull
@@ -62,15 +111,52 @@ public class SpellData implements INBTSerializable<NBTTagCompound> {
 	}
 
 	public void addAllData(HashMap<DataField<?>, Object> data) {
-		this.data.putAll(data);
+		for (Entry<DataField<?>, Object> entry : data.entrySet())
+			setValue(entry.getKey(), entry.getValue());
 	}
 
 	public <T> void addData(@Nonnull DataField<T> key, @Nullable T value) {
-		this.data.put(key, value);
+		setValue(key, value);
 	}
 
 	public <T> void removeData(@Nonnull DataField<T> key) {
-		this.data.remove(key);
+		int slot = key.getSlot();
+		if (slot >= values.length || values[slot] == null) return;
+		ensureWritable(slot);
+		values[slot] = null;
+		invalidateCachedEntities(slot);
+	}
+
+	private void setValue(DataField<?> key, @Nullable Object value) {
+		int slot = key.getSlot();
+		ensureWritable(slot);
+		values[slot] = value != null ? value : NULL_VALUE;
+		invalidateCachedEntities(slot);
+	}
+
+	/**
+	 * Makes sure that the value array is not shared with a copy and can hold the given slot.
+	 *
+	 * @param slot the slot to write.
+	 */
+	private void ensureWritable(int slot) {
+		if (valuesShared || slot >= values.length) {
+			values = Arrays.copyOf(values, Math.max(values.length, Math.max(slot + 1, fieldsBySlot.size())));
+			valuesShared = false;
+		}
+	}
+
+	private void invalidateCachedEntities(int slot) {
+		if (slot == DefaultKeys.CASTER.getSlot())
+			cachedCaster = null;
+		else if (slot == DefaultKeys.ENTITY_HIT.getSlot())
+			cachedVictim = null;
+	}
+
+	@Nullable
+	private Object getValue(DataField<?> key) {
+		int slot = key.getSlot();
+		return slot < values.length ? values[slot] : null;
 	}
 
 	public static SpellData deserializeData(NBTTagCompound compound) {
@@ -86,7 +172,8 @@ public class SpellData implements INBTSerializable<NBTTagCompound> {
 	}
 
 	public <T> boolean hasData(@Nonnull DataField<T> key) {
-		return data.get(key) != null;
+		Object value = getValue(key);
+		return value != null && value != NULL_VALUE;
 	}
 
 	public void processTrace(RayTraceResult trace, @Nullable Vec3d fallback) {
@@ -110,7 +197,7 @@ public class SpellData implements INBTSerializable<NBTTagCompound> {
 	@Nullable
 	@SuppressWarnings("unchecked")
 	public <T> T getData(@Nonnull DataField<T> key) {
-		Object value = data.get(key);
+		Object value = getValue(key);
 		if (key.getDataType().isInstance(value))
 			return (T) value;
 		return null;
@@ -196,12 +283,28 @@ public class SpellData implements INBTSerializable<NBTTagCompound> {
 
 	@Nullable
 	public Entity getCaster(World world) {
-		return world.getEntityByID(getDataWithFallback(DefaultKeys.CASTER, -1));
+		Entity caster = cachedCaster;
+		if (isCachedEntityValid(caster, world))
+			return caster;
+
+		caster = world.getEntityByID(getDataWithFallback(DefaultKeys.CASTER, -1));
+		cachedCaster = caster;
+		return caster;
 	}
 
 	@Nullable
 	public Entity getVictim(World world) {
-		return world.getEntityByID(getDataWithFallback(DefaultKeys.ENTITY_HIT, -1));
+		Entity victim = cachedVictim;
+		if (isCachedEntityValid(victim, world))
+			return victim;
+
+		victim = world.getEntityByID(getDataWithFallback(DefaultKeys.ENTITY_HIT, -1));
+		cachedVictim = victim;
+		return victim;
+	}
+
+	private static boolean isCachedEntityValid(@Nullable Entity entity, World world) {
+		return entity != null && entity.world == world && !entity.isDead && entity.isAddedToWorld();
 	}
 
 	@Nullable
@@ -265,10 +368,82 @@ public class SpellData implements INBTSerializable<NBTTagCompound> {
 		}
 	}
 
+	/**
+	 * @return whether the given ring has already been cast with this data.
+	 */
+	public boolean hasRingRun(@Nonnull SpellRing ring) {
+		RingRunSet runs = getData(DefaultKeys.RING_RUNS);
+		return runs != null && runs.contains(ring.getUniqueID());
+	}
+
+	/**
+	 * Remembers that the given ring has been cast with this data, so that lingering modules don't start it again. <br/>
+	 * <b>NOTE</b>: The stored set might be shared with other copies and is therefore replaced, not modified.
+	 *
+	 * @param ring the ring to remember.
+	 */
+	public void addRingRun(@Nonnull SpellRing ring) {
+		RingRunSet runs = getDataWithFallback(DefaultKeys.RING_RUNS, RingRunSet.EMPTY);
+		RingRunSet added = runs.with(ring.getUniqueID());
+		if (added != runs) addData(DefaultKeys.RING_RUNS, added);
+	}
+
+	/**
+	 * Forgets that the given ring has already been cast with this data,
+	 * so that lingering modules treat the next cast of it as a fresh one. <br/>
+	 * <b>NOTE</b>: The stored set might be shared with other copies and is therefore replaced, not modified.
+	 *
+	 * @param ring the ring to forget.
+	 */
+	public void forgetRingRun(@Nonnull SpellRing ring) {
+		RingRunSet runs = getData(DefaultKeys.RING_RUNS);
+		if (runs == null) return;
+
+		RingRunSet removed = runs.without(ring.getUniqueID());
+		if (removed != runs) addData(DefaultKeys.RING_RUNS, removed);
+	}
+
+	/**
+	 * Moves the ring runs saved by older versions, as unique id strings in {@link DefaultKeys#TAG_LIST}, to {@link DefaultKeys#RING_RUNS}.
+	 */
+	private void readLegacyRingRuns() {
+		NBTTagList list = getData(DefaultKeys.TAG_LIST);
+		if (list == null) return;
+
+		RingRunSet runs = getDataWithFallback(DefaultKeys.RING_RUNS, RingRunSet.EMPTY);
+		NBTTagList rest = new NBTTagList();
+		boolean found = false;
+		for (NBTBase base : list) {
+			if (base instanceof NBTTagString) {
+				try {
+					runs = runs.with(UUID.fromString(((NBTTagString) base).getString()));
+					found = true;
+					continue;
+				} catch (IllegalArgumentException ignored) {
+				}
+			}
+			rest.appendTag(base);
+		}
+		if (!found) return;
+
+		addData(DefaultKeys.RING_RUNS, runs);
+		if (rest.tagCount() == 0) removeData(DefaultKeys.TAG_LIST);
+		else addData(DefaultKeys.TAG_LIST, rest);
+	}
+
+	/**
+	 * Returns a copy of this data. Runs in constant time, as the values are shared until one of both objects is written. <br/>
+	 * <b>NOTE</b>: Values themselves are not copied. Don't modify stored values in place, set a new value instead.
+	 *
+	 * @return the copy.
+	 */
 	public SpellData copy() {
 		SpellData spell = new SpellData();
-		spell.addAllData(data);
-		spell.deserializeNBT(serializeNBT());
+		spell.values = values;
+		spell.valuesShared = true;
+		valuesShared = true;
+		spell.cachedCaster = cachedCaster;
+		spell.cachedVictim = cachedVictim;
 		return spell;
 	}
 
@@ -278,17 +453,22 @@ public class SpellData implements INBTSerializable<NBTTagCompound> {
 			DataField<?> field = availableFields.get(key);
 			if (field != null) {
 				NBTBase nbtType = nbt.getTag(key);
-				data.put(field, field.getDataTypeProcess().deserialize(nbtType));
+				setValue(field, field.getDataTypeProcess().deserialize(nbtType));
 			}
 		}
+		readLegacyRingRuns();
 	}
 
 	@Override
 	public NBTTagCompound serializeNBT() {
 		NBTTagCompound compound = new NBTTagCompound();
-		for (Entry<DataField<?>, Object> entry : data.entrySet()) {
-			NBTBase nbtClass = entry.getKey().getDataTypeProcess().serialize(entry.getValue());
-			compound.setTag(entry.getKey().getFieldName(), nbtClass);
+		for (int slot = 0; slot < values.length; slot++) {
+			Object value = values[slot];
+			if (value == null) continue;
+
+			DataField<?> field = fieldsBySlot.get(slot);
+			NBTBase nbtClass = field.getDataTypeProcess().serialize(value != NULL_VALUE ? value : null);
+			compound.setTag(field.getFieldName(), nbtClass);
 		}
 
 		return compound;
@@ -296,9 +476,17 @@ public class SpellData implements INBTSerializable<NBTTagCompound> {
 
 	@Override
 	public String toString() {
-		return "SpellData{" +
-				"data=" + data +
-				'}';
+		StringBuilder builder = new StringBuilder("SpellData{data={");
+		boolean first = true;
+		for (int slot = 0; slot < values.length; slot++) {
+			Object value = values[slot];
+			if (value == null) continue;
+
+			if (!first) builder.append(", ");
+			first = false;
+			builder.append(fieldsBySlot.get(slot).getFieldName()).append('=').append(value != NULL_VALUE ? value : null);
+		}
+		return builder.append("}}").toString();
 	}
 
 	////////////////////
@@ -341,11 +529,15 @@ public class SpellData implements INBTSerializable<NBTTagCompound> {
 	public static class DataField<E> {
 		private final String fieldName;
 		private final Class<E> dataType;
+		private final int slot;
+		private final int hash;
 		private DataType lazy_dataTypeProcess = null;    // Lazy, because datatypes might not been initialized, if calling before ProcessData.registerAnnotatedDataTypes()
 
 		public DataField(String fieldName, Class<E> dataType) {
 			this.fieldName = fieldName;
 			this.dataType = dataType;
+			this.slot = getSlotForName(fieldName);
+			this.hash = computeHashCode();
 		}
 
 		public String getFieldName() {
@@ -356,6 +548,15 @@ public class SpellData implements INBTSerializable<NBTTagCompound> {
 			return dataType;
 		}
 
+		/**
+		 * Returns the index of this field in the value array of {@link SpellData}. Is assigned on construction.
+		 *
+		 * @return the slot index.
+		 */
+		public int getSlot() {
+			return slot;
+		}
+
 		public DataType getDataTypeProcess() {
 			if (lazy_dataTypeProcess == null)
 				lazy_dataTypeProcess = ProcessData.INSTANCE.getDataType(dataType);
@@ -366,6 +567,10 @@ public class SpellData implements INBTSerializable<NBTTagCompound> {
 
 		@Override
 		public int hashCode() {
+			return hash;
+		}
+
+		private int computeHashCode() {
 			final int prime = 31;
 			int result = 1;
 			result = prime * result + ((dataType == null) ? 0 : dataType.toString().hashCode());
@@ -382,6 +587,8 @@ public class SpellData implements INBTSerializable<NBTTagCompound> {
 			if (getClass() != obj.getClass())
 				return false;
 			DataField other = (DataField) obj;
+			if (slot != other.slot)
+				return false;
 			if (dataType == null) {
 				if (other.dataType != null)
 					return false;
@@ -415,5 +622,6 @@ public class SpellData implements INBTSerializable<NBTTagCompound> {
 		public static final DataField<BlockStateCache> BLOCKSTATE_CACHE = constructField("blockstate_cache", BlockStateCache.class);
 		public static final DataField<java.util.UUID> UUID = constructField("uuid", UUID.class);
 		public static final DataField<String> CUSTOM_TAG = constructField("tag", String.class);
+		public static final DataField<RingRunSet> RING_RUNS = constructField("ring_runs", RingRunSet.class);
 	}
 }
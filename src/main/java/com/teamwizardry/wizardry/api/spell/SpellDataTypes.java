@@ -285,6 +285,20 @@ public class SpellDataTypes {
 		}
 	}
 
+	@RegisterDataType(storageType = "net.minecraft.nbt.NBTTagIntArray", dataType = "com.teamwizardry.wizardry.api.spell.SpellDataTypes$RingRunSet")
+	public static class RingRunSetType implements Process<NBTTagIntArray, RingRunSet> {
+		@NotNull
+		@Override
+		public NBTTagIntArray serialize(RingRunSet object) {
+			return new NBTTagIntArray(object == null ? new int[0] : object.toIntArray());
+		}
+
+		@Override
+		public RingRunSet deserialize(@NotNull NBTTagIntArray object) {
+			return RingRunSet.fromIntArray(object.getIntArray());
+		}
+	}
+
 	////////////////
 
 	public static class BlockSet {
@@ -310,4 +324,142 @@ public class SpellDataTypes {
 			return blockStateCache;
 		}
 	}
+
+	/**
+	 * The unique ids of the rings a spell has already been cast with, see {@link SpellData#hasRingRun(SpellRing)}. <br/>
+	 * Ids are kept as pairs of longs, indexed by an open addressing table, so lookups neither allocate nor parse. <br/>
+	 * Saved as an int array of four ints per id. <br/>
+	 * <b>NOTE</b>: Immutable, as values of spell data are shared with its copies. Changes return a new set.
+	 */
+	public static final class RingRunSet {
+		public static final RingRunSet EMPTY = new RingRunSet(new long[0], 0);
+
+		/**
+		 * Most and least significant bits of each id, one after the other.
+		 */
+		private final long[] ids;
+		/**
+		 * Index of the id in {@link #ids} plus one for each used slot, <code>0</code> for empty slots.
+		 */
+		private final int[] table;
+		private final int size;
+
+		/**
+		 * @param candidates pairs of bits of the ids to keep. Duplicates are dropped.
+		 * @param count      the number of pairs to read.
+		 */
+		private RingRunSet(long[] candidates, int count) {
+			int[] table = new int[Integer.highestOneBit(Math.max(2, count * 2) - 1) << 1];
+			long[] ids = new long[count * 2];
+			int size = 0;
+			for (int i = 0; i < count; i++) {
+				long most = candidates[i * 2];
+				long least = candidates[i * 2 + 1];
+				int index = indexOf(table, ids, most, least);
+				if (table[index] != 0) continue;
+
+				ids[size * 2] = most;
+				ids[size * 2 + 1] = least;
+				table[index] = ++size;
+			}
+
+			this.ids = size == count ? ids : Arrays.copyOf(ids, size * 2);
+			this.table = table;
+			this.size = size;
+		}
+
+		public boolean contains(@Nonnull UUID id) {
+			return size != 0 && table[indexOf(table, ids, id.getMostSignificantBits(), id.getLeastSignificantBits())] != 0;
+		}
+
+		/**
+		 * @return a set with the given id as well, or this set if it contains the id already.
+		 */
+		@Nonnull
+		public RingRunSet with(@Nonnull UUID id) {
+			if (contains(id)) return this;
+
+			long[] candidates = Arrays.copyOf(ids, ids.length + 2);
+			candidates[ids.length] = id.getMostSignificantBits();
+			candidates[ids.length + 1] = id.getLeastSignificantBits();
+			return new RingRunSet(candidates, size + 1);
+		}
+
+		/**
+		 * @return a set without the given id, or this set if it doesn't contain the id.
+		 */
+		@Nonnull
+		public RingRunSet without(@Nonnull UUID id) {
+			if (!contains(id)) return this;
+			if (size == 1) return EMPTY;
+
+			long most = id.getMostSignificantBits();
+			long least = id.getLeastSignificantBits();
+			long[] candidates = new long[ids.length - 2];
+			int count = 0;
+			for (int i = 0; i < size; i++) {
+				if (ids[i * 2] == most && ids[i * 2 + 1] == least) continue;
+				candidates[count * 2] = ids[i * 2];
+				candidates[count * 2 + 1] = ids[i * 2 + 1];
+				count++;
+			}
+			return new RingRunSet(candidates, count);
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public boolean isEmpty() {
+			return size == 0;
+		}
+
+		@Nonnull
+		public int[] toIntArray() {
+			int[] ints = new int[size * 4];
+			for (int i = 0; i < size * 2; i++) {
+				ints[i * 2] = (int) (ids[i] >>> 32);
+				ints[i * 2 + 1] = (int) ids[i];
+			}
+			return ints;
+		}
+
+		/**
+		 * Reads a set written by {@link #toIntArray()}. Trailing ints not making up a whole id are ignored.
+		 */
+		@Nonnull
+		public static RingRunSet fromIntArray(@Nonnull int[] ints) {
+			int count = ints.length / 4;
+			if (count == 0) return EMPTY;
+
+			long[] candidates = new long[count * 2];
+			for (int i = 0; i < count * 2; i++)
+				candidates[i] = ((long) ints[i * 2] << 32) | (ints[i * 2 + 1] & 0xFFFFFFFFL);
+			return new RingRunSet(candidates, count);
+		}
+
+		/**
+		 * @return the slot of the id in the table, or the empty slot it would go in.
+		 */
+		private static int indexOf(int[] table, long[] ids, long most, long least) {
+			int mask = table.length - 1;
+			long hash = (most ^ Long.rotateLeft(least, 32)) * 0x9E3779B97F4A7C15L;
+			int index = (int) (hash ^ (hash >>> 32)) & mask;
+			for (int entry; (entry = table[index]) != 0; index = (index + 1) & mask) {
+				int id = (entry - 1) * 2;
+				if (ids[id] == most && ids[id + 1] == least) break;
+			}
+			return index;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder("[");
+			for (int i = 0; i < size; i++) {
+				if (i > 0) builder.append(", ");
+				builder.append(new UUID(ids[i * 2], ids[i * 2 + 1]));
+			}
+			return builder.append(']').toString();
+		}
+	}
 }
@@ -13,6 +13,7 @@ import com.teamwizardry.wizardry.api.spell.attribute.AttributeRegistry.Attribute
 import com.teamwizardry.wizardry.api.spell.attribute.Operation;
 import com.teamwizardry.wizardry.api.spell.module.ModuleInstance;
 import com.teamwizardry.wizardry.api.spell.module.ModuleInstanceModifier;
+import com.teamwizardry.wizardry.api.spell.module.ModuleOverrideException;
 import com.teamwizardry.wizardry.api.spell.module.ModuleOverrideHandler;
 import com.teamwizardry.wizardry.api.util.FixedPointUtils;
 import com.teamwizardry.wizardry.init.ModItems;
@@ -106,6 +107,18 @@ public class SpellRing implements INBTSerializable<NBTTagCompound> {
 	@Nonnull
 	private UUID uniqueID = UUID.randomUUID();
 
+	/**
+	 * Attribute values of the information tag, decoded once by {@link #compile()}.
+	 * Is <code>null</code> as long as the ring is not compiled.
+	 */
+	@Nullable
+	private HashMap<String, Float> compiledInformation = null;
+
+	/**
+	 * Whether this ring is part of a shared chain from {@link CompiledSpellCache}. Such rings must never be mutated.
+	 */
+	private boolean compiled = false;
+
 	/**
 	 * The constructor.<br/>
 	 * <b>NOTE</b>: Called only for deserialization.
@@ -223,13 +236,18 @@ public class SpellRing implements INBTSerializable<NBTTagCompound> {
 		if (module == null)
 			return;
 
-		SpellRing modifRing = makeSpellIndependant ? changeUUID() : this;
-		SpellData modifData = makeSpellIndependant ? data.copy() : data;
+		// NOTE: Rings may be shared. Independence is achieved by forgetting previous runs of this ring on a data copy
+		//       instead of giving the ring a new unique id.
+		SpellData modifData = data;
+		if (makeSpellIndependant) {
+			modifData = data.copy();
+			modifData.forgetRingRun(this);
+		}
 
 		if (modifData.getCaster(world) != null)
-			modifData.processCastTimeModifiers(modifData.getCaster(world), modifRing);
+			modifData.processCastTimeModifiers(modifData.getCaster(world), this);
 
-		boolean success = module.castSpell(world, modifData, modifRing);
+		boolean success = module.castSpell(world, modifData, this);
 
 		if (success && module.shouldRunChildren()) {
 			if (getChildRing() != null) {
@@ -247,7 +265,7 @@ public class SpellRing implements INBTSerializable<NBTTagCompound> {
 	public final double getTrueAttributeValue(Attribute attribute) {
 		if (module == null) return 0;
 
-		double current = FixedPointUtils.getDoubleFromNBT(informationTag, attribute.getNbtName());
+		double current = getInformationValue(attribute.getNbtName());
 
 		AttributeRange range = module.getAttributeRanges().get(attribute);
 
@@ -328,7 +346,7 @@ public class SpellRing implements INBTSerializable<NBTTagCompound> {
 	public final float getAttributeValue(World world, Attribute attribute, SpellData data) {
 		if (module == null) return 0;
 
-		float current = FixedPointUtils.getDoubleFromNBT(informationTag, attribute.getNbtName());
+		float current = getInformationValue(attribute.getNbtName());
 
 		AttributeRange range = module.getAttributeRanges().get(attribute);
 
@@ -393,11 +411,71 @@ public class SpellRing implements INBTSerializable<NBTTagCompound> {
 		return parentRing;
 	}
 
+	/**
+	 * Assigns a new unique id to this ring. <br/>
+	 * <b>NOTE</b>: Not allowed on compiled rings, as they are shared. See {@link CompiledSpellCache}.
+	 *
+	 * @return this ring.
+	 * @throws IllegalStateException if the ring is compiled.
+	 */
 	public SpellRing changeUUID() {
+		if (compiled)
+			throw new IllegalStateException("Compiled spell rings are shared and must not be mutated.");
 		uniqueID = UUID.randomUUID();
 		return this;
 	}
 
+	/**
+	 * Resolves attribute values and the override handler of the whole chain and marks it as immutable. <br/>
+	 * <b>NOTE</b>: Called only by {@link CompiledSpellCache} on a chain head.
+	 */
+	void compile() {
+		if (parentRing != null)
+			throw new IllegalArgumentException("passed spellRing is not a root.");
+
+		SpellRing ring = this;
+		while (ring != null) {
+			HashMap<String, Float> information = new HashMap<>();
+			for (String key : ring.informationTag.getKeySet())
+				information.put(key, FixedPointUtils.getDoubleFromNBT(ring.informationTag, key));
+			ring.compiledInformation = information;
+			ring.serializeNBT();
+			ring.compiled = true;
+			ring = ring.childRing;
+		}
+
+		try {
+			for (ring = this; ring != null; ring = ring.childRing)
+				ring.getOverrideHandler();
+		} catch (ModuleOverrideException e) {
+			// NOTE: Callers will get the same exception again on first access to getOverrideHandler().
+			Wizardry.LOGGER.warn("Couldn't resolve overrides of compiled spell chain '" + this + "'.", e);
+		}
+	}
+
+	/**
+	 * Returns whether this ring is part of a shared chain from {@link CompiledSpellCache}.
+	 *
+	 * @return <code>true</code> iff yes.
+	 */
+	public boolean isCompiled() {
+		return compiled;
+	}
+
+	/**
+	 * Returns a raw value from the information tag.
+	 *
+	 * @param key the NBT name of the attribute.
+	 * @return the stored value or <code>0</code> if missing.
+	 */
+	private float getInformationValue(String key) {
+		if (compiledInformation != null) {
+			Float value = compiledInformation.get(key);
+			return value != null ? value : 0;
+		}
+		return FixedPointUtils.getDoubleFromNBT(informationTag, key);
+	}
+
 	/**
 	 * Sets a child ring.<br/>
 	 * <b>NOTE</b>: Called only by {@link SpellBuilder}.
@@ -517,7 +595,7 @@ public class SpellRing implements INBTSerializable<NBTTagCompound> {
 	 * @return mana drain value
 	 */
 	public double getManaDrain(SpellData data) {
-		float value = FixedPointUtils.getDoubleFromNBT(informationTag, AttributeRegistry.MANA.getNbtName());
+		float value = getInformationValue(AttributeRegistry.MANA.getNbtName());
 		if (data != null)
 			value = data.getCastTimeValue(AttributeRegistry.MANA, value);
 		return value * getManaMultiplier();
@@ -531,7 +609,7 @@ public class SpellRing implements INBTSerializable<NBTTagCompound> {
 	 * @return burnout fill value
 	 */
 	public double getBurnoutFill(SpellData data) {
-		float value = FixedPointUtils.getDoubleFromNBT(informationTag, AttributeRegistry.BURNOUT.getNbtName());
+		float value = getInformationValue(AttributeRegistry.BURNOUT.getNbtName());
 		if (data != null)
 			value = data.getCastTimeValue(AttributeRegistry.BURNOUT, value);
 		return value * getBurnoutMultiplier();
@@ -559,14 +637,14 @@ public class SpellRing implements INBTSerializable<NBTTagCompound> {
 	}
 
 	public int getChargeUpTime() {
-		return (int) FixedPointUtils.getDoubleFromNBT(informationTag, AttributeRegistry.CHARGEUP.getNbtName());
+		return (int) getInformationValue(AttributeRegistry.CHARGEUP.getNbtName());
 	}
 
 	public int getCooldownTime(@Nullable World world, @Nullable SpellData data) {
 		if (module != null && data != null && world != null && module.getModuleClass() instanceof IOverrideCooldown)
 			return ((IOverrideCooldown) module.getModuleClass()).getNewCooldown(world, data, this);
 
-		return (int) FixedPointUtils.getDoubleFromNBT(informationTag, AttributeRegistry.COOLDOWN.getNbtName());
+		return (int) getInformationValue(AttributeRegistry.COOLDOWN.getNbtName());
 	}
 
 	@Nullable
@@ -575,7 +653,22 @@ public class SpellRing implements INBTSerializable<NBTTagCompound> {
 	}
 
 	public NBTTagCompound getInformationTag() {
-		return informationTag;
+		// NOTE: Compiled rings are shared. Don't hand out their tag.
+		return compiled ? informationTag.copy() : informationTag;
+	}
+
+	/**
+	 * @return the keys of the information tag. Unlike {@link #getInformationTag()}, doesn't copy the tag of compiled rings.
+	 */
+	public Set<String> getInformationKeys() {
+		return Collections.unmodifiableSet(informationTag.getKeySet());
+	}
+
+	/**
+	 * @return the value stored under the key in the information tag, or <code>0</code>. Doesn't copy the tag of compiled rings.
+	 */
+	public double getInformationValue(String key) {
+		return informationTag.getDouble(key);
 	}
 
 	public int getCooldownTime() {
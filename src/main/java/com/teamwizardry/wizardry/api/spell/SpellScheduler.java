@@ -0,0 +1,243 @@
+package com.teamwizardry.wizardry.api.spell;
+
+import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.api.ConfigValues;
+import net.minecraft.entity.Entity;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Spreads the server side work of spells over ticks. <br/>
+ * Work passed to {@link #run(World, SpellData, Priority, Runnable)} runs right away while the budget of the tick
+ * set by {@link ConfigValues#spellTickBudget} and {@link ConfigValues#spellTickOperations} lasts, and is queued otherwise.
+ * Queued work runs at the start of the next ticks, {@link Priority#CAST} work before {@link Priority#LINGERING} work,
+ * taking turns between the casters within each priority so a single large spell can't hold back everyone else's. <br/>
+ * Work of the same caster and priority always runs in the order it was passed in.
+ * <p>
+ * <b>NOTE</b>: Must be used from the server thread only. Work on the client runs right away.
+ */
+@Mod.EventBusSubscriber(modid = Wizardry.MODID)
+public final class SpellScheduler {
+
+	private static final Priority[] PRIORITIES = Priority.values();
+
+	/**
+	 * Per priority, the queued work of each caster, keyed by the caster's id, or by the world for work without a caster.
+	 */
+	@SuppressWarnings("unchecked")
+	private static final LinkedHashMap<Object, ArrayDeque<Task>>[] queues = new LinkedHashMap[PRIORITIES.length];
+
+	static {
+		for (int i = 0; i < queues.length; i++)
+			queues[i] = new LinkedHashMap<>();
+	}
+
+	private static long tick = 0;
+	private static long spentNanos = 0;
+	private static int operations = 0;
+	private static int depth = 0;
+
+	private static long ranDirectly = 0;
+	private static long deferred = 0;
+	private static long ranDeferred = 0;
+	private static long exhaustedTicks = 0;
+	private static long maxDelay = 0;
+	private static boolean exhausted = false;
+
+	private SpellScheduler() {
+	}
+
+	/**
+	 * Runs the work now if the tick has budget left and nothing of the same caster and priority is queued, or queues it.
+	 *
+	 * @param data the spell the work belongs to. Its caster decides the queue of the work.
+	 */
+	public static void run(@Nonnull World world, @Nonnull SpellData data, @Nonnull Priority priority, @Nonnull Runnable work) {
+		if (world.isRemote) {
+			work.run();
+			return;
+		}
+
+		Entity caster = data.getCaster(world);
+		Object owner = caster != null ? caster.getUniqueID() : world;
+
+		ArrayDeque<Task> queue = queues[priority.ordinal()].get(owner);
+		if ((queue == null || queue.isEmpty()) && hasBudget()) {
+			ranDirectly++;
+			execute(work);
+			return;
+		}
+
+		if (queue == null) {
+			queue = new ArrayDeque<>();
+			queues[priority.ordinal()].put(owner, queue);
+		}
+		queue.add(new Task(world, work, tick));
+		deferred++;
+	}
+
+	private static boolean hasBudget() {
+		if (ConfigValues.spellTickBudget <= 0) return true;
+		if (spentNanos < ConfigValues.spellTickBudget * 1_000_000L
+				&& (ConfigValues.spellTickOperations <= 0 || operations < ConfigValues.spellTickOperations))
+			return true;
+
+		if (!exhausted) {
+			exhausted = true;
+			exhaustedTicks++;
+		}
+		return false;
+	}
+
+	private static void execute(Runnable work) {
+		operations++;
+		// Work scheduled by running work is part of its time already
+		if (depth > 0) {
+			work.run();
+			return;
+		}
+
+		long start = System.nanoTime();
+		depth++;
+		try {
+			work.run();
+		} finally {
+			depth--;
+			spentNanos += System.nanoTime() - start;
+		}
+	}
+
+	@SubscribeEvent
+	public static void onServerTick(TickEvent.ServerTickEvent event) {
+		if (event.phase != TickEvent.Phase.START) return;
+
+		tick++;
+		spentNanos = 0;
+		operations = 0;
+		exhausted = false;
+
+		for (LinkedHashMap<Object, ArrayDeque<Task>> queue : queues)
+			if (!drain(queue)) return;
+	}
+
+	/**
+	 * Runs queued work, one task per caster at a time, until the queues are empty or the budget is spent.
+	 *
+	 * @return whether the queues are empty.
+	 */
+	private static boolean drain(LinkedHashMap<Object, ArrayDeque<Task>> byOwner) {
+		while (!byOwner.isEmpty()) {
+			// Snapshot of the casters, as running work may queue more
+			List<ArrayDeque<Task>> round = new ArrayList<>(byOwner.values());
+			for (ArrayDeque<Task> queue : round) {
+				if (!hasBudget()) return false;
+
+				Task task = queue.poll();
+				if (task == null) continue;
+
+				maxDelay = Math.max(maxDelay, tick - task.queuedTick);
+				ranDeferred++;
+				execute(task.work);
+			}
+			byOwner.values().removeIf(ArrayDeque::isEmpty);
+		}
+		return true;
+	}
+
+	@SubscribeEvent
+	public static void onWorldUnload(WorldEvent.Unload event) {
+		if (event.getWorld().isRemote) return;
+
+		for (LinkedHashMap<Object, ArrayDeque<Task>> byOwner : queues) {
+			for (Iterator<ArrayDeque<Task>> iterator = byOwner.values().iterator(); iterator.hasNext(); ) {
+				ArrayDeque<Task> queue = iterator.next();
+				queue.removeIf(task -> task.world == event.getWorld());
+				if (queue.isEmpty()) iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of queued tasks of the priority.
+	 */
+	public static int getQueueDepth(@Nonnull Priority priority) {
+		int depth = 0;
+		for (ArrayDeque<Task> queue : queues[priority.ordinal()].values())
+			depth += queue.size();
+		return depth;
+	}
+
+	/**
+	 * @return the number of casters with queued tasks of the priority.
+	 */
+	public static int getQueuedCasters(@Nonnull Priority priority) {
+		return queues[priority.ordinal()].size();
+	}
+
+	public static long getRanDirectly() {
+		return ranDirectly;
+	}
+
+	/**
+	 * @return the number of tasks which were queued instead of run right away.
+	 */
+	public static long getDeferred() {
+		return deferred;
+	}
+
+	public static long getRanDeferred() {
+		return ranDeferred;
+	}
+
+	/**
+	 * @return the number of ticks whose budget was spent.
+	 */
+	public static long getExhaustedTicks() {
+		return exhaustedTicks;
+	}
+
+	/**
+	 * @return the most ticks a task waited in a queue.
+	 */
+	public static long getMaxDelay() {
+		return maxDelay;
+	}
+
+	////////////////////
+
+	public enum Priority {
+		/**
+		 * Work of spells which were just cast, like the rays of a cone.
+		 */
+		CAST,
+		/**
+		 * Work of spells which keep running, like zones.
+		 */
+		LINGERING
+	}
+
+	////////////////////
+
+	private static final class Task {
+
+		private final World world;
+		private final Runnable work;
+		private final long queuedTick;
+
+		private Task(World world, Runnable work, long queuedTick) {
+			this.world = world;
+			this.work = work;
+			this.queuedTick = queuedTick;
+		}
+	}
+}
@@ -24,6 +24,7 @@ import javax.annotation.Nullable;
 import java.awt.*;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 
@@ -117,7 +118,7 @@ public class SpellUtils {
 			return;
 
 		for (SpellRing spellRing : getSpellChains(spellHolder)) {
-			spellRing.runSpellRing(world, data, false);
+			SpellScheduler.run(world, data, SpellScheduler.Priority.CAST, () -> spellRing.runSpellRing(world, data, false));
 		}
 	}
 
@@ -129,25 +130,24 @@ public class SpellUtils {
 			return;
 
 		for (SpellRing spellRing : chains) {
-			spellRing.runSpellRing(world, data, false);
+			SpellScheduler.run(world, data, SpellScheduler.Priority.CAST, () -> spellRing.runSpellRing(world, data, false));
 		}
 	}
 
 	/**
 	 * Gets all SpellRings that exist in an ItemStack with the children of each ring inside
 	 * of them, compressed essentially.
-	 * This basically returns the head of each spellData chain only.
+	 * This basically returns the head of each spellData chain only. <br/>
+	 * <b>NOTE</b>: The returned rings are compiled and shared via {@link CompiledSpellCache}. Don't modify them.
 	 *
 	 * @param spellHolder The ItemStack containing the spells.
-	 * @return List with all spellData ring heads in the stack.
+	 * @return Unmodifiable list with all spellData ring heads in the stack.
 	 */
 	public static List<SpellRing> getSpellChains(@Nonnull ItemStack spellHolder) {
-		List<SpellRing> rings = new ArrayList<>();
-
 		NBTTagList list = NBTHelper.getList(spellHolder, NBTConstants.NBT.SPELL, net.minecraftforge.common.util.Constants.NBT.TAG_COMPOUND);
-		if (list == null) return rings;
+		if (list == null) return Collections.emptyList();
 
-		return getSpellChains(list);
+		return CompiledSpellCache.INSTANCE.getSpellChains(list);
 	}
 
 	/**
@@ -4,6 +4,7 @@ import com.teamwizardry.librarianlib.core.LibrarianLib;
 import com.teamwizardry.librarianlib.features.helpers.NBTHelper;
 import com.teamwizardry.librarianlib.features.network.PacketHandler;
 import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.api.ConfigValues;
 import com.teamwizardry.wizardry.api.SpellObjectManager;
 import com.teamwizardry.wizardry.api.capability.world.WizardryWorld;
 import com.teamwizardry.wizardry.api.capability.world.WizardryWorldCapability;
@@ -17,6 +18,7 @@ import com.teamwizardry.wizardry.api.spell.attribute.AttributeRange;
 import com.teamwizardry.wizardry.api.spell.attribute.AttributeRegistry;
 import com.teamwizardry.wizardry.api.spell.attribute.AttributeRegistry.Attribute;
 import com.teamwizardry.wizardry.api.util.DefaultHashMap;
+import com.teamwizardry.wizardry.common.core.SpellRenderBatcher;
 import com.teamwizardry.wizardry.common.network.PacketRenderSpell;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.EntityLivingBase;
@@ -306,6 +308,8 @@ public abstract class ModuleInstance {
 			if (cache.containsKey(targetBlock)) {
 				return cache.get(targetBlock);
 			} else {
+				// NOTE: Values might be shared with copies of the spell data
+				cache = new HashMap<>(cache);
 				cache.put(targetBlock, state = world.getBlockState(targetBlock));
 				data.addData(BLOCKSTATE_CACHE, new BlockStateCache(cache));
 			}
@@ -481,21 +485,10 @@ public abstract class ModuleInstance {
 
 		boolean success;
 
-		boolean ranOnce = false;
-		NBTTagList list = data.getDataWithFallback(SpellData.DefaultKeys.TAG_LIST, new NBTTagList());
-		for (NBTBase base : list) {
-			if (base instanceof NBTTagString) {
-				if (((NBTTagString) base).getString().equals(ring.getUniqueID().toString())) {
-					ranOnce = true;
-					break;
-				}
-			}
-		}
-		if (moduleClass instanceof ILingeringModule && !ranOnce) {
+		if (moduleClass instanceof ILingeringModule && !data.hasRingRun(ring)) {
 			WizardryWorld worldCap = WizardryWorldCapability.get(world);
 
-			list.appendTag(new NBTTagString(ring.getUniqueID().toString()));
-			data.addData(SpellData.DefaultKeys.TAG_LIST, list);
+			data.addRingRun(ring);
 			success = internalCastSpell(world, data, ring) && ((ILingeringModule) moduleClass).runOnStart(world, data, ring);
 
 			if (success) {
@@ -522,10 +515,13 @@ public abstract class ModuleInstance {
 
 	public final void sendRenderPacket(@Nonnull World world, @Nonnull SpellData spell, @Nonnull SpellRing spellRing) {
 		Vec3d target = spell.getTargetWithFallback(world);
+		if (target == null) return;
 
-		if (target != null)
+		if (ConfigValues.batchSpellRenderPackets)
+			SpellRenderBatcher.queue(world, spell, spellRing, target);
+		else
 			PacketHandler.NETWORK.sendToAllAround(new PacketRenderSpell(spell, spellRing),
-					new NetworkRegistry.TargetPoint(world.provider.getDimension(), target.x, target.y, target.z, 256));
+					new NetworkRegistry.TargetPoint(world.provider.getDimension(), target.x, target.y, target.z, ConfigValues.spellRenderRadius));
 	}
 
 	@Nonnull
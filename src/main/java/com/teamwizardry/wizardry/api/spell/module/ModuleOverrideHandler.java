@@ -1,5 +1,7 @@
 package com.teamwizardry.wizardry.api.spell.module;
 
+import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.api.ConfigValues;
 import com.teamwizardry.wizardry.api.spell.SpellRing;
 import com.teamwizardry.wizardry.api.spell.annotation.ContextRing;
 import com.teamwizardry.wizardry.api.spell.annotation.ContextSuper;
@@ -83,7 +85,7 @@ public class ModuleOverrideHandler {
 	 * @param overrideMtd the second method overriding the first method.
 	 * @return <code>true</code> iff yes.
 	 */
-	private static boolean areMethodsCompatible(Method baseMtd, Method overrideMtd) {
+	static boolean areMethodsCompatible(Method baseMtd, Method overrideMtd) {
 		// WARNING: Update this method, if language conventions in java change.
 
 		// Check compatibility of return types
@@ -307,9 +309,33 @@ public class ModuleOverrideHandler {
 	 * @throws ModuleOverrideException if the passed interface type has at least one override method with incompatible signature.
 	 */
 	private <T> T createConsumerInterface(Class<T> interfaceClass) throws ModuleOverrideException {
+		if (ConfigValues.useGeneratedOverrideInvokers) {
+			try {
+				return createConsumerInterface(interfaceClass, true);
+			} catch (ModuleOverrideException e) {
+				Wizardry.LOGGER.warn("Couldn't generate override invoker for '" + interfaceClass.getName() + "'. Falling back to reflection proxy.", e);
+			}
+		}
+		return createConsumerInterface(interfaceClass, false);
+	}
+
+	/**
+	 * Allocates a new object for the consumer interface, using the given dispatch path. The object is not cached. <br/>
+	 * <b>NOTE</b>: Use {@link #getConsumerInterface} for regular calls. This one is intended for benchmarks and debugging.
+	 *
+	 * @param interfaceClass the interface type.
+	 * @param generated      if <code>true</code> then a generated invoker is returned, otherwise a reflection proxy.
+	 * @return an object implementing the passed interface type.
+	 * @throws ModuleOverrideException if the passed interface type has at least one override method with incompatible signature
+	 *                                 or if no invoker could be generated.
+	 */
+	public <T> T createConsumerInterface(Class<T> interfaceClass, boolean generated) throws ModuleOverrideException {
 		// Retrieve all overridable methods and check them for compatibility with base class
 		Map<String, Method> overridableMethods = getInterfaceMethods(interfaceClass);
 
+		if (generated)
+			return OverrideInvokerGenerator.createInvoker(interfaceClass, overridableMethods, overridePointers);
+
 		// Create invocation handler. All interface methods are mapped to their base method pendants
 		OverrideInvoker invocationHandler = new OverrideInvoker(overridableMethods, interfaceClass.getName());
 
@@ -406,6 +432,15 @@ public class ModuleOverrideHandler {
 			this.object = methodEntry.getObj();
 		}
 
+		/**
+		 * Returns the object to invoke the override implementation on.
+		 *
+		 * @return the module class or the default implementation object.
+		 */
+		Object getObject() {
+			return object;
+		}
+
 		/**
 		 * Returns the spell chain element referring to a module containing the override implementation.
 		 *
@@ -2,16 +2,17 @@ package com.teamwizardry.wizardry.api.spell.module;
 
 import java.awt.Color;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -24,16 +25,19 @@ import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Multimap;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 import com.teamwizardry.librarianlib.core.LibrarianLib;
 import com.teamwizardry.librarianlib.features.utilities.AnnotationHelper;
 import com.teamwizardry.wizardry.Wizardry;
 import com.teamwizardry.wizardry.api.ConfigValues;
+import com.teamwizardry.wizardry.api.spell.CompiledSpellCache;
 import com.teamwizardry.wizardry.api.spell.annotation.RegisterModule;
 import com.teamwizardry.wizardry.api.spell.annotation.RegisterOverrideDefaults;
 import com.teamwizardry.wizardry.api.spell.attribute.AttributeModifier;
@@ -43,6 +47,7 @@ import com.teamwizardry.wizardry.api.spell.attribute.AttributeRegistry.Attribute
 import com.teamwizardry.wizardry.api.spell.attribute.Operation;
 import com.teamwizardry.wizardry.api.spell.module.ModuleOverrideHandler.OverrideMethod;
 import com.teamwizardry.wizardry.api.util.DefaultHashMap;
+import com.teamwizardry.wizardry.api.util.StartupLoader;
 
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
@@ -58,22 +63,42 @@ public class ModuleRegistry {
 
 	public final static ModuleRegistry INSTANCE = new ModuleRegistry();
 
-	public ArrayList<ModuleInstance> modules = new ArrayList<>();
+	/**
+	 * All registered modules, sorted by their NBT key. <br/>
+	 * <b>NOTE</b>: Is immutable after {@link #loadModules(File)} has finished.
+	 */
+	public List<ModuleInstance> modules = new ArrayList<>();
 	public HashMap<String, ModuleFactory> IDtoModuleFactory = new HashMap<>();
 	public HashMap<String, OverrideDefaultMethod> IDtoOverrideDefaultMethod = new HashMap<>();
 	public Multimap<String, ModuleInstance> tagMap = HashMultimap.create();
 	public Multimap<String, ModuleInstance> hiddenTagMap = HashMultimap.create();
 
+	// Indexes. Are built once registration is frozen.
+	private boolean frozen = false;
+	private ImmutableMap<String, ModuleInstance> idIndex = ImmutableMap.of();
+	private ImmutableMap<Item, ImmutableMap<Integer, ModuleInstance>> itemIndex = ImmutableMap.of();
+	private ImmutableMap<ModuleType, ImmutableList<ModuleInstance>> typeIndex = ImmutableMap.of();
+	private ImmutableSetMultimap<String, ModuleInstance> tagIndex = ImmutableSetMultimap.of();
+
 	private ModuleRegistry() {
 	}
 
+	@Nullable
 	public ModuleInstance getModule(String id) {
+		if (frozen) return idIndex.get(id);
+
 		for (ModuleInstance module : modules) if (module.getNBTKey().equals(id)) return module;
 		return null;
 	}
 
 	@Nullable
 	public ModuleInstance getModule(ItemStack itemStack) {
+		if (frozen) {
+			if (itemStack.isEmpty()) return null;
+			ImmutableMap<Integer, ModuleInstance> byMeta = itemIndex.get(itemStack.getItem());
+			return byMeta != null ? byMeta.get(itemStack.getItemDamage()) : null;
+		}
+
 		for (ModuleInstance module : modules)
 			if (ItemStack.areItemsEqual(itemStack, module.getItemStack())) {
 				return module;
@@ -81,16 +106,144 @@ public class ModuleRegistry {
 		return null;
 	}
 
+	/**
+	 * Returns all modules of the given type, sorted by their readable name.
+	 *
+	 * @param type the module type.
+	 * @return an immutable list of modules.
+	 */
 	@Nonnull
-	public ArrayList<ModuleInstance> getModules(ModuleType type) {
+	public List<ModuleInstance> getModules(ModuleType type) {
+		if (frozen) {
+			ImmutableList<ModuleInstance> modules = typeIndex.get(type);
+			return modules != null ? modules : ImmutableList.of();
+		}
+
 		ArrayList<ModuleInstance> modules = new ArrayList<>();
 		for (ModuleInstance module : this.modules) if (module.getModuleType() == type) modules.add(module);
 
 		modules.sort(Comparator.comparing(ModuleInstance::getReadableName));
-		return modules;
+		return Collections.unmodifiableList(modules);
+	}
+
+	/**
+	 * Returns all modules having the given tag, like an element e.g. <code>"fire"</code>.
+	 * Hidden tags are included.
+	 *
+	 * @param tag the tag.
+	 * @return an immutable collection of modules.
+	 */
+	@Nonnull
+	public Collection<ModuleInstance> getModulesByTag(String tag) {
+		if (frozen) return tagIndex.get(tag);
+
+		ArrayList<ModuleInstance> modules = new ArrayList<>(tagMap.get(tag));
+		modules.addAll(hiddenTagMap.get(tag));
+		return Collections.unmodifiableList(modules);
+	}
+
+	/**
+	 * Returns whether module registration has been completed.
+	 * Once frozen, lookups are served from indexes and any attempt to modify the registry throws an {@link IllegalStateException}.
+	 *
+	 * @return <code>true</code> iff frozen.
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	private void checkNotFrozen() {
+		if (frozen)
+			throw new IllegalStateException("Module registry is already frozen. Modules can't be registered after loading has been completed.");
+	}
+
+	/**
+	 * Builds all lookup indexes from the module list and rejects any further modification.
+	 */
+	private void freeze() {
+		HashMap<String, ModuleInstance> ids = new HashMap<>();
+		HashMap<Item, HashMap<Integer, ModuleInstance>> items = new HashMap<>();
+		EnumMap<ModuleType, ArrayList<ModuleInstance>> types = new EnumMap<>(ModuleType.class);
+		ImmutableSetMultimap.Builder<String, ModuleInstance> tags = ImmutableSetMultimap.builder();
+
+		// NOTE: First occurrence wins, as it does for the linear lookups.
+		for (ModuleInstance module : modules) {
+			ids.putIfAbsent(module.getNBTKey(), module);
+			ItemStack stack = module.getItemStack();
+			items.computeIfAbsent(stack.getItem(), item -> new HashMap<>()).putIfAbsent(stack.getItemDamage(), module);
+			types.computeIfAbsent(module.getModuleType(), type -> new ArrayList<>()).add(module);
+		}
+		tags.putAll(tagMap);
+		tags.putAll(hiddenTagMap);
+
+		ImmutableMap.Builder<Item, ImmutableMap<Integer, ModuleInstance>> itemIndex = ImmutableMap.builder();
+		for (Entry<Item, HashMap<Integer, ModuleInstance>> entry : items.entrySet())
+			itemIndex.put(entry.getKey(), ImmutableMap.copyOf(entry.getValue()));
+
+		ImmutableMap.Builder<ModuleType, ImmutableList<ModuleInstance>> typeIndex = ImmutableMap.builder();
+		for (Entry<ModuleType, ArrayList<ModuleInstance>> entry : types.entrySet()) {
+			entry.getValue().sort(Comparator.comparing(ModuleInstance::getReadableName));
+			typeIndex.put(entry.getKey(), ImmutableList.copyOf(entry.getValue()));
+		}
+
+		this.idIndex = ImmutableMap.copyOf(ids);
+		this.itemIndex = itemIndex.build();
+		this.typeIndex = typeIndex.build();
+		this.modules = ImmutableList.copyOf(modules);
+		this.tagMap = ImmutableSetMultimap.copyOf(tagMap);
+		this.hiddenTagMap = ImmutableSetMultimap.copyOf(hiddenTagMap);
+		this.tagIndex = tags.build();
+		this.frozen = true;
+
+		if (ConfigValues.debugInfo)
+			verifyIndexes();
+	}
+
+	/**
+	 * Debug check. Compares all indexes against the results of a linear scan over the module list.
+	 */
+	private void verifyIndexes() {
+		for (ModuleInstance module : modules) {
+			ModuleInstance expected = null;
+			for (ModuleInstance other : modules)
+				if (other.getNBTKey().equals(module.getNBTKey())) {
+					expected = other;
+					break;
+				}
+			if (getModule(module.getNBTKey()) != expected)
+				throw new IllegalStateException("Module index mismatch for id '" + module.getNBTKey() + "'.");
+
+			expected = null;
+			for (ModuleInstance other : modules)
+				if (ItemStack.areItemsEqual(module.getItemStack(), other.getItemStack())) {
+					expected = other;
+					break;
+				}
+			if (getModule(module.getItemStack()) != expected)
+				throw new IllegalStateException("Module index mismatch for item '" + module.getItemStack() + "' of module '" + module.getNBTKey() + "'.");
+		}
+
+		for (ModuleType type : ModuleType.values()) {
+			ArrayList<ModuleInstance> expected = new ArrayList<>();
+			for (ModuleInstance module : modules) if (module.getModuleType() == type) expected.add(module);
+			expected.sort(Comparator.comparing(ModuleInstance::getReadableName));
+			if (!expected.equals(getModules(type)))
+				throw new IllegalStateException("Module index mismatch for type '" + type.name + "'.");
+		}
+
+		HashSet<String> tags = new HashSet<>(tagMap.keySet());
+		tags.addAll(hiddenTagMap.keySet());
+		tags.addAll(tagIndex.keySet());
+		for (String tag : tags) {
+			HashSet<ModuleInstance> expected = new HashSet<>(tagMap.get(tag));
+			expected.addAll(hiddenTagMap.get(tag));
+			if (!expected.equals(tagIndex.get(tag)))
+				throw new IllegalStateException("Module index mismatch for tag '" + tag + "'.");
+		}
 	}
 
 	public void loadUnprocessedModules() {
+		checkNotFrozen();
 		IDtoModuleFactory.clear();
 		AnnotationHelper.INSTANCE.findAnnotatedClasses(LibrarianLib.PROXY.getAsmDataTable(), IModule.class, RegisterModule.class, (clazz, info) -> {
 			try {
@@ -108,6 +261,7 @@ public class ModuleRegistry {
 	}
 
 	public void loadOverrideDefaults() {
+		checkNotFrozen();
 		IDtoOverrideDefaultMethod.clear();
 		AnnotationHelper.INSTANCE.findAnnotatedClasses(LibrarianLib.PROXY.getAsmDataTable(), Object.class, RegisterOverrideDefaults.class, (clazz, info) -> {
 			try {
@@ -144,11 +298,15 @@ public class ModuleRegistry {
 		Wizardry.LOGGER.info(" _______________________________________________________________________\\\\");
 		Wizardry.LOGGER.info(" | Starting module registration");
 
+		checkNotFrozen();
 		modules.clear();
+		tagMap.clear();
+		hiddenTagMap.clear();
+		CompiledSpellCache.INSTANCE.invalidate();
 
-		String[] files = directory.list();
-		for (String fName : files) {
-			File file = new File(directory, fName);
+		for (StartupLoader.ParsedJson parsed : StartupLoader.parseDirectory(directory, false)) {
+			File file = parsed.file;
+			String fName = file.getName();
 
 			if (ConfigValues.debugInfo) {
 				Wizardry.LOGGER.info(" | |");
@@ -176,14 +334,8 @@ public class ModuleRegistry {
 				}
 			}
 
-			JsonElement element;
-			try {
-				element = new JsonParser().parse(new FileReader(file));
-			} catch (FileNotFoundException e) {
-				e.printStackTrace();
-				continue;
-			}
-
+			// Null if the file couldn't be read or isn't valid json
+			JsonElement element = parsed.element;
 			if (element == null) {
 				if (ConfigValues.debugInfo) {
 					Wizardry.LOGGER.error("| | |_ SOMETHING WENT WRONG! Could not parse " + fName + ". Invalid json.");
@@ -474,6 +626,7 @@ public class ModuleRegistry {
 		}
 
 		modules.sort(Comparator.comparing(ModuleInstance::getNBTKey));
+		freeze();
 
 		Wizardry.LOGGER.info(" |");
 		Wizardry.LOGGER.info(" | Module registration processing complete! (ᵔᴥᵔ)");
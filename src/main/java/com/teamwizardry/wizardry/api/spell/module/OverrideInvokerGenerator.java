@@ -0,0 +1,296 @@
+package com.teamwizardry.wizardry.api.spell.module;
+
+import com.teamwizardry.wizardry.api.spell.annotation.ModuleOverrideInterface;
+import com.teamwizardry.wizardry.api.spell.module.ModuleOverrideHandler.OverrideMethod;
+import com.teamwizardry.wizardry.api.spell.module.ModuleOverrideHandler.OverridePointer;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates classes implementing consumer interfaces, which dispatch every interface method directly to
+ * an exact typed {@link MethodHandle}. Is the fast alternative to the reflection proxy of {@link ModuleOverrideHandler}. <br/>
+ * A class is generated only once per interface type. Its instances are bound to the override pointers of a single spell chain.
+ */
+final class OverrideInvokerGenerator {
+
+	private static final String CLASS_METHOD_HANDLE = Type.getInternalName(MethodHandle.class);
+	private static final String DESC_METHOD_HANDLE = Type.getDescriptor(MethodHandle.class);
+	private static final String DESC_CONSTRUCTOR = "([" + DESC_METHOD_HANDLE + ")V";
+	private static final String GENERATED_PACKAGE = "com/teamwizardry/wizardry/api/spell/module/generated/";
+
+	private static final MethodHandle SUPER_CONSTRUCTOR;
+	private static final MethodHandle UNSUPPORTED;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			SUPER_CONSTRUCTOR = lookup.findConstructor(ModuleOverrideSuper.class, MethodType.methodType(void.class, OverridePointer.class));
+			UNSUPPORTED = lookup.findStatic(OverrideInvokerGenerator.class, "throwUnsupported", MethodType.methodType(Object.class, String.class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private static final HashMap<Class<?>, GeneratedInvoker> generatedInvokers = new HashMap<>();
+	private static int generatedCount = 0;
+
+	private OverrideInvokerGenerator() {
+	}
+
+	/**
+	 * Creates an object implementing the given consumer interface. Its methods invoke the passed override pointers.
+	 *
+	 * @param interfaceClass    the interface type.
+	 * @param interfaceMethods  all override methods of the interface, as returned by {@link ModuleOverrideHandler#getInterfaceMethods}.
+	 * @param overridePointers  the override pointers of the spell chain, mapped by override name.
+	 * @return an object implementing the passed interface type.
+	 * @throws ModuleOverrideException if the interface can't be implemented or if an override has an incompatible signature.
+	 */
+	static <T> T createInvoker(Class<T> interfaceClass, Map<String, Method> interfaceMethods, Map<String, OverridePointer> overridePointers) throws ModuleOverrideException {
+		GeneratedInvoker invoker = getGeneratedInvoker(interfaceClass);
+
+		HashMap<Method, String> overrideNames = new HashMap<>();
+		for (Map.Entry<String, Method> entry : interfaceMethods.entrySet())
+			overrideNames.put(entry.getValue(), entry.getKey());
+
+		Method[] methods = invoker.methods;
+		MethodHandle[] handles = new MethodHandle[methods.length];
+		for (int i = 0; i < methods.length; i++) {
+			Method method = methods[i];
+			MethodType targetType = MethodType.methodType(method.getReturnType(), method.getParameterTypes());
+
+			String overrideName = overrideNames.get(method);
+			OverridePointer ptr = overrideName != null ? overridePointers.get(overrideName) : null;
+			if (ptr == null) {
+				handles[i] = bindUnsupported(method, targetType);
+				continue;
+			}
+
+			if (!ModuleOverrideHandler.areMethodsCompatible(method, ptr.getBaseMethod().getMethod()))
+				throw new ModuleOverrideException("Interface method signature of '" + method + "' is incompatible with '" + ptr.getBaseMethod().getMethod() + "'.");
+
+			try {
+				handles[i] = bindPointer(ptr, targetType);
+			} catch (WrongMethodTypeException | IllegalArgumentException | ClassCastException e) {
+				throw new ModuleOverrideException("Couldn't bind override '" + overrideName + "' to '" + method + "'. See cause.", e);
+			}
+		}
+
+		try {
+			return interfaceClass.cast(invoker.constructor.newInstance((Object) handles));
+		} catch (ReflectiveOperationException e) {
+			throw new ModuleOverrideException("Couldn't instantiate generated invoker for '" + interfaceClass.getName() + "'. See cause.", e);
+		}
+	}
+
+	/**
+	 * Binds an override pointer to a method handle, which has exactly the type of the interface method.
+	 * The receiver object and the context parameters are bound once, so that invoking the handle doesn't allocate anything
+	 * except for a {@link ModuleOverrideSuper} object if requested by the override implementation.
+	 *
+	 * @param ptr        the override pointer.
+	 * @param targetType the type of the interface method.
+	 * @return the bound method handle.
+	 */
+	private static MethodHandle bindPointer(OverridePointer ptr, MethodType targetType) {
+		OverrideMethod baseMethod = ptr.getBaseMethod();
+		int idxContextParamRing = baseMethod.getIdxContextParamRing();
+		int idxContextParamSuper = baseMethod.getIdxContextParamSuper();
+
+		MethodHandle handle = baseMethod.getMethodHandle().bindTo(ptr.getObject());
+
+		if (idxContextParamRing >= 0) {
+			handle = MethodHandles.insertArguments(handle, idxContextParamRing, ptr.getSpellRingWithOverride());
+			if (idxContextParamSuper > idxContextParamRing)
+				idxContextParamSuper--;
+		}
+
+		if (idxContextParamSuper >= 0) {
+			// Move the super parameter to the front, then fill it with a fresh object on each call.
+			MethodType type = handle.type();
+			Class<?> superType = type.parameterType(idxContextParamSuper);
+			MethodType permutedType = type.dropParameterTypes(idxContextParamSuper, idxContextParamSuper + 1).insertParameterTypes(0, superType);
+
+			int[] reorder = new int[type.parameterCount()];
+			for (int i = 0; i < reorder.length; i++) {
+				if (i == idxContextParamSuper)
+					reorder[i] = 0;
+				else
+					reorder[i] = i < idxContextParamSuper ? i + 1 : i;
+			}
+
+			handle = MethodHandles.permuteArguments(handle, permutedType, reorder);
+			MethodHandle superFactory = MethodHandles.insertArguments(SUPER_CONSTRUCTOR, 0, ptr.getPrev()).asType(MethodType.methodType(superType));
+			handle = MethodHandles.foldArguments(handle, superFactory);
+		}
+
+		return handle.asType(targetType);
+	}
+
+	/**
+	 * Returns a method handle of given type, throwing an {@link UnsupportedOperationException} like the reflection proxy does.
+	 *
+	 * @param method     the interface method without override implementation.
+	 * @param targetType the type of the interface method.
+	 * @return the method handle.
+	 */
+	private static MethodHandle bindUnsupported(Method method, MethodType targetType) {
+		ModuleOverrideInterface annot = method.getDeclaredAnnotation(ModuleOverrideInterface.class);
+		String message;
+		if (annot != null)
+			message = "Override method for '" + annot.value() + "' invoke via '" + method + "' is not implemented or not public.";
+		else
+			message = "Method '" + method + "' is not an override. Annotation @ModuleOverrideInterface must be supplied.";
+
+		MethodHandle handle = MethodHandles.insertArguments(UNSUPPORTED, 0, message);
+		handle = MethodHandles.dropArguments(handle, 0, targetType.parameterList());
+		return handle.asType(targetType);
+	}
+
+	private static Object throwUnsupported(String message) {
+		throw new UnsupportedOperationException(message);
+	}
+
+	/**
+	 * Returns the generated class for an interface type. Generates it, if not done yet.
+	 *
+	 * @param interfaceClass the interface type.
+	 * @return the generated invoker class.
+	 * @throws ModuleOverrideException if the interface type can't be implemented.
+	 */
+	private static synchronized GeneratedInvoker getGeneratedInvoker(Class<?> interfaceClass) throws ModuleOverrideException {
+		GeneratedInvoker invoker = generatedInvokers.get(interfaceClass);
+		if (invoker == null) {
+			invoker = generateInvoker(interfaceClass);
+			generatedInvokers.put(interfaceClass, invoker);
+		}
+		return invoker;
+	}
+
+	private static GeneratedInvoker generateInvoker(Class<?> interfaceClass) throws ModuleOverrideException {
+		if (!interfaceClass.isInterface() || !Modifier.isPublic(interfaceClass.getModifiers()))
+			throw new ModuleOverrideException("Type '" + interfaceClass.getName() + "' is not a public interface.");
+
+		List<Method> methodList = new ArrayList<>();
+		for (Method method : interfaceClass.getMethods()) {
+			if (Modifier.isStatic(method.getModifiers()) || method.isDefault())
+				continue;
+			methodList.add(method);
+		}
+		Method[] methods = methodList.toArray(new Method[0]);
+
+		String className = GENERATED_PACKAGE + interfaceClass.getSimpleName() + "Invoker" + (generatedCount++);
+		byte[] bytes = generateClass(className, interfaceClass, methods);
+
+		try {
+			InvokerClassLoader loader = new InvokerClassLoader(interfaceClass.getClassLoader());
+			Class<?> clazz = loader.define(className.replace('/', '.'), bytes);
+			Constructor<?> constructor = clazz.getConstructor(MethodHandle[].class);
+			return new GeneratedInvoker(methods, constructor);
+		} catch (LinkageError | ReflectiveOperationException e) {
+			throw new ModuleOverrideException("Couldn't generate invoker for '" + interfaceClass.getName() + "'. See cause.", e);
+		}
+	}
+
+	/**
+	 * Generates the bytecode of an invoker class. Every interface method is implemented like: <br/>
+	 * <code>return (R) this.h<i>i</i>.invokeExact(arg0, arg1, ...);</code>
+	 *
+	 * @param className      the internal name of the generated class.
+	 * @param interfaceClass the implemented interface.
+	 * @param methods        the implemented methods. The i-th method is dispatched to the i-th handle passed to the constructor.
+	 * @return the class bytes.
+	 */
+	private static byte[] generateClass(String className, Class<?> interfaceClass, Method[] methods) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, "java/lang/Object", new String[]{Type.getInternalName(interfaceClass)});
+
+		for (int i = 0; i < methods.length; i++)
+			cw.visitField(ACC_PRIVATE | ACC_FINAL, "h" + i, DESC_METHOD_HANDLE, null, null).visitEnd();
+
+		MethodVisitor ctor = cw.visitMethod(ACC_PUBLIC, "<init>", DESC_CONSTRUCTOR, null, null);
+		ctor.visitCode();
+		ctor.visitVarInsn(ALOAD, 0);
+		ctor.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		for (int i = 0; i < methods.length; i++) {
+			ctor.visitVarInsn(ALOAD, 0);
+			ctor.visitVarInsn(ALOAD, 1);
+			ctor.visitLdcInsn(i);
+			ctor.visitInsn(AALOAD);
+			ctor.visitFieldInsn(PUTFIELD, className, "h" + i, DESC_METHOD_HANDLE);
+		}
+		ctor.visitInsn(RETURN);
+		ctor.visitMaxs(0, 0);
+		ctor.visitEnd();
+
+		for (int i = 0; i < methods.length; i++) {
+			Method method = methods[i];
+			String desc = Type.getMethodDescriptor(method);
+
+			Class<?>[] exceptionTypes = method.getExceptionTypes();
+			String[] exceptions = new String[exceptionTypes.length];
+			for (int j = 0; j < exceptionTypes.length; j++)
+				exceptions[j] = Type.getInternalName(exceptionTypes[j]);
+
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, method.getName(), desc, null, exceptions);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitFieldInsn(GETFIELD, className, "h" + i, DESC_METHOD_HANDLE);
+			int slot = 1;
+			for (Type argType : Type.getArgumentTypes(method)) {
+				mv.visitVarInsn(argType.getOpcode(ILOAD), slot);
+				slot += argType.getSize();
+			}
+			mv.visitMethodInsn(INVOKEVIRTUAL, CLASS_METHOD_HANDLE, "invokeExact", desc, false);
+			mv.visitInsn(Type.getReturnType(method).getOpcode(IRETURN));
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	////////////////////
+
+	/**
+	 * A generated invoker class together with the interface methods in the order of its handle fields.
+	 */
+	private static final class GeneratedInvoker {
+		private final Method[] methods;
+		private final Constructor<?> constructor;
+
+		GeneratedInvoker(Method[] methods, Constructor<?> constructor) {
+			this.methods = methods;
+			this.constructor = constructor;
+		}
+	}
+
+	/**
+	 * Class loader to define generated invoker classes. Delegates everything else to the loader of the interface.
+	 */
+	private static final class InvokerClassLoader extends ClassLoader {
+		InvokerClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		Class<?> define(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+}
@@ -1,17 +1,13 @@
 package com.teamwizardry.wizardry.api.structure;
 
-import com.google.common.collect.HashMultimap;
-import com.teamwizardry.librarianlib.features.kotlin.ClientUtilMethods;
+import com.google.common.collect.ImmutableSet;
 import com.teamwizardry.wizardry.Wizardry;
-import net.minecraft.block.material.Material;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.BlockRendererDispatcher;
 import net.minecraft.client.renderer.BufferBuilder;
 import net.minecraft.client.renderer.GlStateManager;
-import net.minecraft.client.renderer.Tessellator;
 import net.minecraft.client.renderer.texture.TextureMap;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
-import net.minecraft.util.EnumBlockRenderType;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.gen.structure.template.Template;
@@ -21,11 +17,25 @@ import org.jetbrains.annotations.Nullable;
 import org.lwjgl.opengl.GL11;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 public class StructureManager {
 
+	private static final int MAX_CACHED_MESHES = 32;
+
 	private final HashMap<ResourceLocation, WizardryStructure> structures = new HashMap<>();
-	private final HashMap<ResourceLocation, HashMap<Integer, int[]>> vboCache = new HashMap<>();
+	/**
+	 * Baked meshes by structure and drawn positions, least recently drawn first. The full mesh of each structure is one entry,
+	 * the others are partial meshes, e.g. of the missing blocks of a structure in the world. Created on first use.
+	 */
+	@SideOnly(Side.CLIENT)
+	private LinkedHashMap<MeshKey, StructureMesh> meshCache;
+	@SideOnly(Side.CLIENT)
+	private BufferBuilder bakeBuffer;
 
 	public StructureManager() {
 	}
@@ -51,18 +61,31 @@ public class StructureManager {
 	}
 
 	/**
-	 * Will not draw the structure if it is not already baked. Resource reloading will re-bake if required.
+	 * Draws the whole structure. Bakes it first if required.
 	 *
 	 * @param alpha    The transparency of the rendered structure.
 	 * @param location The ResourceLocation of the structure to look up.
 	 */
 	@SideOnly(Side.CLIENT)
 	public void draw(ResourceLocation location, float alpha) {
-		HashMap<Integer, int[]> cache = vboCache.get(location);
+		draw(location, alpha, null);
+	}
 
-		if (cache == null || cache.isEmpty()) {
-			bake(location);
-			return;
+	/**
+	 * Draws a part of the structure, e.g. only its missing blocks. Bakes it first if required.
+	 * Meshes are cached by structure and set of positions.
+	 *
+	 * @param alpha     The transparency of the rendered structure.
+	 * @param location  The ResourceLocation of the structure to look up.
+	 * @param positions The offsets from the structure origin to draw, or null to draw all blocks.
+	 */
+	@SideOnly(Side.CLIENT)
+	public void draw(ResourceLocation location, float alpha, @Nullable Set<BlockPos> positions) {
+		MeshKey key = new MeshKey(location, positions);
+		StructureMesh mesh = getMeshCache().get(key);
+		if (mesh == null) {
+			mesh = bakeMesh(key);
+			if (mesh == null) return;
 		}
 
 		GlStateManager.pushMatrix();
@@ -70,31 +93,14 @@ public class StructureManager {
 		GlStateManager.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
 		GlStateManager.enablePolygonOffset();
 		GlStateManager.doPolygonOffset(1f, -0.05f);
-		//	GlStateManager.disableDepth();
-
-		int alphaFunc = GL11.glGetInteger(GL11.GL_ALPHA_TEST_FUNC);
-		float alphaRef = GL11.glGetFloat(GL11.GL_ALPHA_TEST_REF);
-		GlStateManager.alphaFunc(GL11.GL_ALWAYS, 1);
+		boolean alphaTest = GL11.glIsEnabled(GL11.GL_ALPHA_TEST);
+		GlStateManager.disableAlpha();
+		GlStateManager.color(1F, 1F, 1F, alpha);
 
 		Minecraft.getMinecraft().renderEngine.bindTexture(TextureMap.LOCATION_BLOCKS_TEXTURE);
+		mesh.draw();
 
-		Tessellator tes = Tessellator.getInstance();
-		BufferBuilder buffer = tes.getBuffer();
-
-		for (int layerID : cache.keySet()) {
-
-			buffer.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
-			buffer.addVertexData(cache.get(layerID));
-
-			for (int i = 0; i < buffer.getVertexCount(); i++) {
-				buffer.putColorRGBA(buffer.getColorIndex(i), 255, 255, 255, (int) (alpha * 255));
-			}
-
-			tes.draw();
-		}
-
-		GlStateManager.alphaFunc(alphaFunc, alphaRef);
-		//	GlStateManager.enableDepth();
+		if (alphaTest) GlStateManager.enableAlpha();
 		GlStateManager.disablePolygonOffset();
 		GlStateManager.color(1F, 1F, 1F, 1F);
 		GlStateManager.popMatrix();
@@ -105,53 +111,62 @@ public class StructureManager {
 	 */
 	@SideOnly(Side.CLIENT)
 	public void bake(ResourceLocation resourceLocation) {
-		Wizardry.LOGGER.info("Attempting to bake structure \"" + resourceLocation.toString() + "\"");
-		WizardryStructure structure = structures.get(resourceLocation);
-		if (structure == null) {
-			Wizardry.LOGGER.error("Could not bake structure \"" + resourceLocation.toString() + "\". Does not seem to exist?");
-			return;
-		}
+		getMeshCache().entrySet().removeIf(entry -> {
+			if (!entry.getKey().location.equals(resourceLocation)) return false;
+			entry.getValue().delete();
+			return true;
+		});
+		bakeMesh(new MeshKey(resourceLocation, null));
+	}
 
-		HashMultimap<Integer, Template.BlockInfo> blocks = HashMultimap.create();
-		for (Template.BlockInfo info : structure.blockInfos()) {
-			if (info.blockState.getMaterial() == Material.AIR) continue;
-			if (info.blockState.getRenderType() == EnumBlockRenderType.INVISIBLE) continue;
-			blocks.put(info.blockState.getBlock().getRenderLayer().ordinal(), info);
+	@SideOnly(Side.CLIENT)
+	@Nullable
+	private StructureMesh bakeMesh(MeshKey key) {
+		WizardryStructure structure = structures.get(key.location);
+		if (structure == null) {
+			Wizardry.LOGGER.error("Could not bake structure \"" + key.location.toString() + "\". Does not seem to exist?");
+			return null;
 		}
 
 		BlockRendererDispatcher dispatcher = Minecraft.getMinecraft().getBlockRendererDispatcher();
 		// It CAN be null.
 		//noinspection ConstantConditions
 		if (dispatcher == null) {
-			Wizardry.LOGGER.error("Could not bake structure \"" + resourceLocation.toString() + "\". Dispatcher is null. Don't call bake so early?");
-			return;
+			Wizardry.LOGGER.error("Could not bake structure \"" + key.location.toString() + "\". Dispatcher is null. Don't call bake so early?");
+			return null;
 		}
-		Tessellator tes = Tessellator.getInstance();
-		BufferBuilder bb = tes.getBuffer();
-
-		HashMap<Integer, int[]> cache = new HashMap<>();
-		for (int layerID : blocks.keySet()) {
 
-			bb.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
+		if (bakeBuffer == null) bakeBuffer = new BufferBuilder(0x20000);
 
-			for (Template.BlockInfo info : blocks.get(layerID)) {
-				if (info.blockState == null) continue;
-				if (info.blockState.getMaterial() == Material.AIR) continue;
-				if (info.blockState.getRenderType() == EnumBlockRenderType.INVISIBLE) continue;
+		List<Template.BlockInfo> blocks = StructureMeshBuilder.plan(structure.blockInfos(), structure.getOrigin(), key.positions, state -> state.getBlock().getRenderLayer());
 
-				bb.setTranslation(info.pos.getX() - structure.getOrigin().getX(), info.pos.getY() - structure.getOrigin().getY(), info.pos.getZ() - structure.getOrigin().getZ());
-
-				dispatcher.renderBlock(info.blockState, BlockPos.ORIGIN, structure.getWizardryAccess(), bb);
+		bakeBuffer.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
+		for (Template.BlockInfo info : blocks) {
+			bakeBuffer.setTranslation(info.pos.getX(), info.pos.getY(), info.pos.getZ());
+			dispatcher.renderBlock(info.blockState, BlockPos.ORIGIN, structure.getWizardryAccess(), bakeBuffer);
+		}
+		bakeBuffer.setTranslation(0, 0, 0);
+		bakeBuffer.finishDrawing();
 
-				bb.setTranslation(0, 0, 0);
-			}
+		StructureMesh mesh = StructureMesh.upload(bakeBuffer);
+		bakeBuffer.reset();
 
-			cache.put(layerID, ClientUtilMethods.createCacheArrayAndReset(bb));
-			bb.reset();
-		}
-		vboCache.put(resourceLocation, cache);
+		getMeshCache().put(key, mesh);
+		return mesh;
+	}
 
-		Wizardry.LOGGER.info("Baking for structure \"" + resourceLocation.toString() + "\" completed.");
+	@SideOnly(Side.CLIENT)
+	private LinkedHashMap<MeshKey, StructureMesh> getMeshCache() {
+		if (meshCache == null)
+			meshCache = new LinkedHashMap<MeshKey, StructureMesh>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<MeshKey, StructureMesh> eldest) {
+					if (size() <= MAX_CACHED_MESHES) return false;
+					eldest.getValue().delete();
+					return true;
+				}
+			};
+		return meshCache;
 	}
 
 	/**
@@ -159,10 +174,40 @@ public class StructureManager {
 	 */
 	@SideOnly(Side.CLIENT)
 	public void bake() {
-		vboCache.clear();
+		for (StructureMesh mesh : getMeshCache().values())
+			mesh.delete();
+		getMeshCache().clear();
 
 		for (ResourceLocation resourceLocation : structures.keySet()) {
 			bake(resourceLocation);
 		}
 	}
+
+	////////////////////
+
+	private static final class MeshKey {
+		private final ResourceLocation location;
+		@Nullable
+		private final ImmutableSet<BlockPos> positions;
+		private final int hash;
+
+		MeshKey(ResourceLocation location, @Nullable Set<BlockPos> positions) {
+			this.location = location;
+			this.positions = positions == null ? null : ImmutableSet.copyOf(positions);
+			this.hash = Objects.hash(location, this.positions);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof MeshKey)) return false;
+			MeshKey other = (MeshKey) o;
+			return hash == other.hash && location.equals(other.location) && Objects.equals(positions, other.positions);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
 }
@@ -0,0 +1,126 @@
+package com.teamwizardry.wizardry.api.structure;
+
+import net.minecraft.client.renderer.BufferBuilder;
+import net.minecraft.client.renderer.GLAllocation;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.renderer.vertex.VertexBuffer;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import net.minecraft.client.renderer.vertex.VertexFormatElement;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+import org.lwjgl.opengl.GL11;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+
+/**
+ * Baked vertex data of a structure, kept on the GPU. Uses a {@link VertexBuffer} if VBOs are enabled, a display list otherwise. <br/>
+ * Vertex colours are not used when drawing, so the colour and transparency come from {@link GlStateManager#color(float, float, float, float)}.
+ */
+@SideOnly(Side.CLIENT)
+public final class StructureMesh {
+
+	private static final VertexFormat FORMAT = DefaultVertexFormats.BLOCK;
+
+	private final VertexBuffer vbo;
+	private final int displayList;
+	private final int vertexCount;
+	private boolean deleted = false;
+
+	private StructureMesh(VertexBuffer vbo, int displayList, int vertexCount) {
+		this.vbo = vbo;
+		this.displayList = displayList;
+		this.vertexCount = vertexCount;
+	}
+
+	/**
+	 * Uploads the vertices of a finished buffer. The buffer can be reset afterwards.
+	 *
+	 * @param buffer a buffer in {@link DefaultVertexFormats#BLOCK} format, after {@link BufferBuilder#finishDrawing()}.
+	 * @return the mesh.
+	 */
+	@Nonnull
+	public static StructureMesh upload(@Nonnull BufferBuilder buffer) {
+		int vertexCount = buffer.getVertexCount();
+		if (vertexCount == 0) return new StructureMesh(null, -1, 0);
+
+		ByteBuffer data = buffer.getByteBuffer();
+		if (OpenGlHelper.useVbo()) {
+			VertexBuffer vbo = new VertexBuffer(FORMAT);
+			vbo.bufferData(data);
+			return new StructureMesh(vbo, -1, vertexCount);
+		}
+
+		int displayList = GLAllocation.generateDisplayLists(1);
+		GlStateManager.glNewList(displayList, GL11.GL_COMPILE);
+		// Client side arrays are read when compiling, so the list doesn't keep a reference to the buffer
+		for (int i = 0; i < FORMAT.getElementCount(); i++) {
+			VertexFormatElement element = FORMAT.getElement(i);
+			if (element.getUsage() == VertexFormatElement.EnumUsage.COLOR) continue;
+			data.position(FORMAT.getOffset(i));
+			element.getUsage().preDraw(FORMAT, i, FORMAT.getSize(), data);
+		}
+		GlStateManager.glDrawArrays(GL11.GL_QUADS, 0, vertexCount);
+		for (int i = 0; i < FORMAT.getElementCount(); i++) {
+			VertexFormatElement element = FORMAT.getElement(i);
+			if (element.getUsage() == VertexFormatElement.EnumUsage.COLOR) continue;
+			element.getUsage().postDraw(FORMAT, i, FORMAT.getSize(), data);
+		}
+		GlStateManager.glEndList();
+		data.position(0);
+
+		return new StructureMesh(null, displayList, vertexCount);
+	}
+
+	/**
+	 * Draws the mesh with the current GL state.
+	 */
+	public void draw() {
+		if (deleted || vertexCount == 0) return;
+
+		if (vbo == null) {
+			GlStateManager.callList(displayList);
+			return;
+		}
+
+		int stride = FORMAT.getSize();
+		vbo.bindBuffer();
+
+		GlStateManager.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+		GlStateManager.glVertexPointer(3, GL11.GL_FLOAT, stride, 0);
+
+		GlStateManager.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		GlStateManager.glTexCoordPointer(2, GL11.GL_FLOAT, stride, 16);
+
+		OpenGlHelper.setClientActiveTexture(OpenGlHelper.lightmapTexUnit);
+		GlStateManager.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		GlStateManager.glTexCoordPointer(2, GL11.GL_SHORT, stride, 24);
+		OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+
+		vbo.drawArrays(GL11.GL_QUADS);
+		vbo.unbindBuffer();
+
+		OpenGlHelper.setClientActiveTexture(OpenGlHelper.lightmapTexUnit);
+		GlStateManager.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+		GlStateManager.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		GlStateManager.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+	}
+
+	/**
+	 * Frees the GPU memory of this mesh. It can't be drawn afterwards.
+	 */
+	public void delete() {
+		if (deleted) return;
+		deleted = true;
+
+		if (vbo != null) vbo.deleteGlBuffers();
+		else if (displayList >= 0) GLAllocation.deleteDisplayLists(displayList);
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+}
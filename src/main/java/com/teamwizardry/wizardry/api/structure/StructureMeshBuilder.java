@@ -0,0 +1,60 @@
+package com.teamwizardry.wizardry.api.structure;
+
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.BlockRenderLayer;
+import net.minecraft.util.EnumBlockRenderType;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.gen.structure.template.Template;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Decides which template blocks end up in a structure mesh, and where. <br/>
+ * Doesn't touch GL or the world, so the result only depends on its arguments.
+ * The vertex data itself is created by {@link StructureMesh}.
+ */
+public final class StructureMeshBuilder {
+
+	private StructureMeshBuilder() {
+	}
+
+	/**
+	 * Returns the blocks of a structure mesh, grouped by render layer in layer order.
+	 * The position of each returned block is its offset from the structure origin.
+	 *
+	 * @param blockInfos the blocks of the template.
+	 * @param origin     the origin of the structure in the template.
+	 * @param only       if not null, only blocks at these offsets from the origin are included.
+	 * @param layerOf    the render layer of a block state, e.g. <code>state -> state.getBlock().getRenderLayer()</code>.
+	 * @return the blocks to render.
+	 */
+	@Nonnull
+	public static List<Template.BlockInfo> plan(@Nonnull Collection<Template.BlockInfo> blockInfos, @Nonnull BlockPos origin, @Nullable Set<BlockPos> only, @Nonnull Function<IBlockState, BlockRenderLayer> layerOf) {
+		EnumMap<BlockRenderLayer, List<Template.BlockInfo>> layers = new EnumMap<>(BlockRenderLayer.class);
+
+		for (Template.BlockInfo info : blockInfos) {
+			if (info.blockState == null) continue;
+			if (info.blockState.getMaterial() == Material.AIR) continue;
+			if (info.blockState.getRenderType() == EnumBlockRenderType.INVISIBLE) continue;
+
+			BlockPos offset = info.pos.subtract(origin);
+			if (only != null && !only.contains(offset)) continue;
+
+			layers.computeIfAbsent(layerOf.apply(info.blockState), layer -> new ArrayList<>())
+					.add(new Template.BlockInfo(offset, info.blockState, info.tileentityData));
+		}
+
+		List<Template.BlockInfo> planned = new ArrayList<>();
+		for (List<Template.BlockInfo> layer : layers.values())
+			planned.addAll(layer);
+		return planned;
+	}
+}
@@ -0,0 +1,127 @@
+package com.teamwizardry.wizardry.api.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive longs using open addressing, e.g. for packed block positions from {@link net.minecraft.util.math.BlockPos#toLong()}.
+ * Avoids boxing a {@link Long} and allocating an entry for each element.
+ */
+public class LongHashSet {
+
+	private static final long EMPTY = 0L;
+
+	private long[] keys;
+	private boolean containsEmpty = false;
+	private int size = 0;
+	private int mask;
+
+	public LongHashSet() {
+		this(16);
+	}
+
+	public LongHashSet(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2) - 1) << 1;
+		keys = new long[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * @return <code>true</code> iff the value was not in the set before.
+	 */
+	public boolean add(long value) {
+		if (value == EMPTY) {
+			if (containsEmpty) return false;
+			containsEmpty = true;
+			size++;
+			return true;
+		}
+
+		int index = indexOf(value);
+		if (keys[index] == value) return false;
+
+		keys[index] = value;
+		if (++size * 2 > keys.length) rehash(keys.length * 2);
+		return true;
+	}
+
+	public boolean contains(long value) {
+		if (value == EMPTY) return containsEmpty;
+		return keys[indexOf(value)] == value;
+	}
+
+	/**
+	 * @return <code>true</code> iff the value was in the set.
+	 */
+	public boolean remove(long value) {
+		if (value == EMPTY) {
+			if (!containsEmpty) return false;
+			containsEmpty = false;
+			size--;
+			return true;
+		}
+
+		int index = indexOf(value);
+		if (keys[index] != value) return false;
+
+		// Shift following entries of the probe sequence back, so lookups don't stop at the hole
+		int hole = index;
+		int next = (hole + 1) & mask;
+		while (keys[next] != EMPTY) {
+			int home = mix(keys[next]) & mask;
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				keys[hole] = keys[next];
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[hole] = EMPTY;
+		size--;
+		return true;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		containsEmpty = false;
+		size = 0;
+	}
+
+	/**
+	 * @return all values of this set in no particular order.
+	 */
+	public long[] toArray() {
+		long[] values = new long[size];
+		int i = 0;
+		if (containsEmpty) values[i++] = EMPTY;
+		for (long key : keys)
+			if (key != EMPTY) values[i++] = key;
+		return values;
+	}
+
+	private int indexOf(long value) {
+		int index = mix(value) & mask;
+		while (keys[index] != EMPTY && keys[index] != value)
+			index = (index + 1) & mask;
+		return index;
+	}
+
+	private void rehash(int capacity) {
+		long[] old = keys;
+		keys = new long[capacity];
+		mask = capacity - 1;
+		for (long key : old)
+			if (key != EMPTY) keys[indexOf(key)] = key;
+	}
+
+	private static int mix(long value) {
+		long h = value * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -1,6 +1,7 @@
 package com.teamwizardry.wizardry.api.util;
 
 import com.google.common.base.Predicate;
+import com.teamwizardry.wizardry.api.ConfigValues;
 import net.minecraft.block.Block;
 import net.minecraft.block.material.Material;
 import net.minecraft.block.state.IBlockState;
@@ -8,10 +9,17 @@ import net.minecraft.entity.Entity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.*;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Copied from Wizardry
@@ -30,6 +38,22 @@ public class RayTrace {
 	private Predicate<Entity> predicateEntity;
 	private Predicate<Block> predicateBlock;
 	private HashSet<BlockPos> skipBlockList = new HashSet<>();
+	private int maxSteps = ConfigValues.rayTraceMaxSteps;
+
+	// State of the last trace
+	private Vec3d direction;
+	private RayTraceResult blockResult;
+	private double maxDistance;
+	private Entity hitEntity;
+	private Vec3d entityHitVec;
+	private double entityDistance;
+	private double slabEnter;
+	private double slabExit;
+	private int blockSteps;
+	private boolean truncated;
+	private int sectionsCrossed;
+	private double sweptHalfSize;
+	private List<EntityHit> sweptHits;
 
 	public RayTrace(@Nonnull World world, @Nonnull Vec3d slope, @Nonnull Vec3d origin, double range) {
 		this.world = world;
@@ -68,6 +92,35 @@ public class RayTrace {
 		return this;
 	}
 
+	/**
+	 * Sets the number of blocks the trace steps through before giving up. Defaults to {@link ConfigValues#rayTraceMaxSteps}.
+	 */
+	public RayTrace setMaxSteps(int maxSteps) {
+		this.maxSteps = maxSteps;
+		return this;
+	}
+
+	/**
+	 * @return the number of blocks the last trace stepped through.
+	 */
+	public int getBlockSteps() {
+		return blockSteps;
+	}
+
+	/**
+	 * @return whether the last trace gave up before reaching its end, see {@link #setMaxSteps(int)}.
+	 */
+	public boolean isTruncated() {
+		return truncated;
+	}
+
+	/**
+	 * @return the number of entity sections the last trace looked into.
+	 */
+	public int getSectionsCrossed() {
+		return sectionsCrossed;
+	}
+
 	private boolean isOrigin(BlockPos pos) {
 		return (new BlockPos(origin) == pos);
 	}
@@ -80,44 +133,89 @@ public class RayTrace {
 	 */
 	@Nonnull
 	public RayTraceResult trace() {
-		Vec3d lookVec = origin.add(slope.normalize().scale(range));
-
-		RayTraceResult entityResult = null;
-		RayTraceResult blockResult = null;// world.rayTraceBlocks(origin, lookVec, false, ignoreBlocksWithoutBoundingBoxes, returnLastUncollidableBlock);
-
+		return traceAll(Collections.singletonList(this)).get(0);
+	}
 
-		if (!skipEntities) {
-			Entity targetEntity = null;
-			RayTraceResult entityTrace = null;
-			AxisAlignedBB bb = new AxisAlignedBB(origin.x, origin.y, origin.z, lookVec.x, lookVec.y, lookVec.z);
-			List<Entity> list = world.getEntitiesWithinAABB(Entity.class, bb.grow(range, range, range), input -> {
-				if (predicateEntity == null) return true;
-				else return predicateEntity.test(input);
-			});
-			double closest = 0.0D;
+	/**
+	 * Traces several rays of the same world in one pass. <br/>
+	 * Blocks are traced first, so entities are only looked for up to the block each ray hits. Then the entity sections
+	 * (16x16x16 sub chunks) crossed by the rays are gathered, and each section's entities are tested against all the
+	 * rays crossing it, so rays sharing an origin only look up their common sections once.
+	 * <p>
+	 * <b>NOTE</b>: Sections are grown by {@link World#MAX_ENTITY_RADIUS}, as entities are stored in the section of their position.
+	 *
+	 * @return the results, in the order of the rays.
+	 */
+	@Nonnull
+	public static List<RayTraceResult> traceAll(@Nonnull List<RayTrace> rays) {
+		List<RayTraceResult> results = new ArrayList<>(rays.size());
+		if (rays.isEmpty()) return results;
+
+		World world = rays.get(0).world;
+		Map<Long, BitSet> sections = new HashMap<>();
+		for (int i = 0; i < rays.size(); i++) {
+			RayTrace ray = rays.get(i);
+			if (ray.world != world) throw new IllegalArgumentException("Rays traced together must be in the same world");
+
+			ray.traceBlocks();
+			if (!ray.skipEntities) ray.collectSections(i, sections);
+		}
 
-			for (Entity entity : list) {
-				if (entity == null) continue;
+		testSections(world, sections, rays);
 
-				bb = entity.getEntityBoundingBox();
-				RayTraceResult traceTmp = bb.calculateIntercept(lookVec, origin);
+		for (RayTrace ray : rays)
+			results.add(ray.hitEntity != null ? new RayTraceResult(ray.hitEntity, ray.entityHitVec) : ray.blockResult);
+		return results;
+	}
 
-				if (traceTmp != null) {
-					double tmp = origin.distanceTo(traceTmp.hitVec);
+	/**
+	 * Sweeps a box of the given half size along the ray, and returns all entities it touches before the block hit, nearest first.
+	 * Entities it overlaps at the origin are included.
+	 */
+	@Nonnull
+	public List<Entity> traceEntities(double halfSize) {
+		traceBlocks();
+		if (skipEntities) return new ArrayList<>();
+
+		sweptHalfSize = halfSize;
+		sweptHits = new ArrayList<>();
+		Map<Long, BitSet> sections = new HashMap<>();
+		collectSections(0, sections);
+		testSections(world, sections, Collections.singletonList(this));
+
+		sweptHits.sort(Comparator.comparingDouble(hit -> hit.distance));
+		List<Entity> entities = new ArrayList<>(sweptHits.size());
+		for (EntityHit hit : sweptHits)
+			entities.add(hit.entity);
+
+		sweptHits = null;
+		sweptHalfSize = 0;
+		return entities;
+	}
 
-					if (tmp < closest || closest == 0.0D) {
-						targetEntity = entity;
-						entityTrace = traceTmp;
-						closest = tmp;
-					}
-				}
-			}
+	private static void testSections(World world, Map<Long, BitSet> sections, List<RayTrace> rays) {
+		for (Map.Entry<Long, BitSet> entry : sections.entrySet()) {
+			long key = entry.getKey();
+			Chunk chunk = world.getChunkProvider().getLoadedChunk((int) (key >> 38), (int) (key << 38 >> 38));
+			if (chunk == null) continue;
 
-			if (targetEntity != null) entityResult = new RayTraceResult(targetEntity, entityTrace.hitVec);
+			BitSet crossing = entry.getValue();
+			for (Entity entity : chunk.getEntityLists()[(int) (key << 26 >> 52)])
+				for (int i = crossing.nextSetBit(0); i >= 0; i = crossing.nextSetBit(i + 1))
+					rays.get(i).testEntity(entity);
 		}
+	}
 
-		if (!skipBlocks) blockResult = traceBlock(origin, lookVec);
+	private void traceBlocks() {
+		direction = slope.normalize();
+		Vec3d lookVec = origin.add(direction.scale(range));
+		blockSteps = 0;
+		truncated = false;
+		sectionsCrossed = 0;
+		hitEntity = null;
+		entityHitVec = null;
 
+		blockResult = skipBlocks ? null : traceBlock(origin, lookVec);
 		if (blockResult == null)
 			blockResult = new RayTraceResult(
 					RayTraceResult.Type.BLOCK,
@@ -125,7 +223,114 @@ public class RayTrace {
 					EnumFacing.getFacingFromVector((float) lookVec.x, (float) lookVec.y, (float) lookVec.z),
 					new BlockPos(lookVec));
 
-		return (entityResult != null && origin.distanceTo(entityResult.hitVec) < origin.distanceTo(blockResult.hitVec)) ? entityResult : blockResult;
+		// An entity only wins if it is closer than the block hit
+		maxDistance = origin.distanceTo(blockResult.hitVec);
+		entityDistance = maxDistance;
+	}
+
+	/**
+	 * Walks the sections crossed by the ray up to {@link #maxDistance}, and marks the ray in the sections
+	 * an entity touching the ray could be stored in.
+	 */
+	private void collectSections(int index, Map<Long, BitSet> sections) {
+		if (direction.lengthSquared() == 0) {
+			markSections(index, sections, 0, 0);
+			return;
+		}
+
+		double nextX = sectionBoundary(origin.x, direction.x);
+		double nextY = sectionBoundary(origin.y, direction.y);
+		double nextZ = sectionBoundary(origin.z, direction.z);
+		double deltaX = direction.x == 0 ? Double.POSITIVE_INFINITY : 16 / Math.abs(direction.x);
+		double deltaY = direction.y == 0 ? Double.POSITIVE_INFINITY : 16 / Math.abs(direction.y);
+		double deltaZ = direction.z == 0 ? Double.POSITIVE_INFINITY : 16 / Math.abs(direction.z);
+
+		double enter = 0;
+		while (true) {
+			double exit = Math.min(Math.min(nextX, nextY), Math.min(nextZ, maxDistance));
+			markSections(index, sections, enter, exit);
+			if (exit >= maxDistance) break;
+
+			if (nextX <= nextY && nextX <= nextZ) nextX += deltaX;
+			else if (nextY <= nextZ) nextY += deltaY;
+			else nextZ += deltaZ;
+			enter = exit;
+		}
+	}
+
+	/**
+	 * @return the distance along the ray to the first section boundary on the axis.
+	 */
+	private static double sectionBoundary(double start, double slope) {
+		if (slope == 0) return Double.POSITIVE_INFINITY;
+		double section = Math.floor(start / 16) * 16;
+		return ((slope > 0 ? section + 16 : section) - start) / slope;
+	}
+
+	private void markSections(int index, Map<Long, BitSet> sections, double enter, double exit) {
+		double margin = World.MAX_ENTITY_RADIUS + sweptHalfSize;
+		double x1 = origin.x + direction.x * enter, x2 = origin.x + direction.x * exit;
+		double y1 = origin.y + direction.y * enter, y2 = origin.y + direction.y * exit;
+		double z1 = origin.z + direction.z * enter, z2 = origin.z + direction.z * exit;
+
+		int minX = MathHelper.floor(Math.min(x1, x2) - margin) >> 4;
+		int maxX = MathHelper.floor(Math.max(x1, x2) + margin) >> 4;
+		// Chunks keep entities above and below the world in their top and bottom section
+		int minY = MathHelper.clamp(MathHelper.floor(Math.min(y1, y2) - margin) >> 4, 0, 15);
+		int maxY = MathHelper.clamp(MathHelper.floor(Math.max(y1, y2) + margin) >> 4, 0, 15);
+		int minZ = MathHelper.floor(Math.min(z1, z2) - margin) >> 4;
+		int maxZ = MathHelper.floor(Math.max(z1, z2) + margin) >> 4;
+
+		for (int x = minX; x <= maxX; x++)
+			for (int z = minZ; z <= maxZ; z++)
+				for (int y = minY; y <= maxY; y++) {
+					long key = ((long) x & 0x3FFFFFF) << 38 | ((long) y & 0xFFF) << 26 | ((long) z & 0x3FFFFFF);
+					BitSet crossing = sections.computeIfAbsent(key, k -> new BitSet());
+					if (!crossing.get(index)) {
+						crossing.set(index);
+						sectionsCrossed++;
+					}
+				}
+	}
+
+	/**
+	 * Slab test of the ray against the bounding box of the entity. Keeps the entity if it is hit closer than anything so far.
+	 * A ray starting inside a bounding box hits it where it leaves it.
+	 */
+	private void testEntity(Entity entity) {
+		if (predicateEntity != null && !predicateEntity.test(entity)) return;
+
+		AxisAlignedBB bb = entity.getEntityBoundingBox();
+		if (sweptHits != null) bb = bb.grow(sweptHalfSize);
+		slabEnter = Double.NEGATIVE_INFINITY;
+		slabExit = Double.POSITIVE_INFINITY;
+		if (!clipSlab(bb.minX, bb.maxX, origin.x, direction.x)
+				|| !clipSlab(bb.minY, bb.maxY, origin.y, direction.y)
+				|| !clipSlab(bb.minZ, bb.maxZ, origin.z, direction.z))
+			return;
+		if (slabExit < 0) return;
+
+		if (sweptHits != null) {
+			if (slabEnter <= maxDistance) sweptHits.add(new EntityHit(entity, Math.max(slabEnter, 0)));
+			return;
+		}
+
+		double distance = slabEnter >= 0 ? slabEnter : slabExit;
+		if (distance > range || distance >= entityDistance) return;
+
+		hitEntity = entity;
+		entityHitVec = origin.add(direction.scale(distance));
+		entityDistance = distance;
+	}
+
+	private boolean clipSlab(double min, double max, double start, double slope) {
+		if (slope == 0) return start >= min && start <= max;
+
+		double t1 = (min - start) / slope;
+		double t2 = (max - start) / slope;
+		slabEnter = Math.max(slabEnter, Math.min(t1, t2));
+		slabExit = Math.min(slabExit, Math.max(t1, t2));
+		return slabEnter <= slabExit;
 	}
 
 	private RayTraceResult traceBlock(@Nonnull Vec3d start, @Nonnull Vec3d end) {
@@ -138,9 +343,10 @@ public class RayTrace {
 		int i1 = MathHelper.floor(start.y);
 		int j1 = MathHelper.floor(start.z);
 
-		int k1 = 200;
+		int k1 = maxSteps;
 
 		while (k1-- >= 0) {
+			blockSteps++;
 			if (l == i && i1 == j && j1 == k) {
 				return returnLastUncollidableBlock ? raytraceresult2 : null;
 			}
@@ -242,6 +448,7 @@ public class RayTrace {
 			}
 		}
 
+		truncated = true;
 		return returnLastUncollidableBlock ? raytraceresult2 : null;
 	}
 
@@ -249,4 +456,16 @@ public class RayTrace {
 		this.skipBlocks = skipBlocks;
 		return this;
 	}
-}
\ No newline at end of file
+
+	////////////////////
+
+	private static final class EntityHit {
+		private final Entity entity;
+		private final double distance;
+
+		EntityHit(Entity entity, double distance) {
+			this.entity = entity;
+			this.distance = distance;
+		}
+	}
+}
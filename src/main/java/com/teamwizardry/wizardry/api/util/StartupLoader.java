@@ -0,0 +1,399 @@
+package com.teamwizardry.wizardry.api.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.internal.LazilyParsedNumber;
+import com.teamwizardry.wizardry.Wizardry;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads, hashes and parses the files loaded at startup on a bounded thread pool. <br/>
+ * Json directories are parsed in parallel into {@link ParsedJson} records, which loaders then publish to their registries
+ * on the main thread, in the order of their paths. A parsed directory is kept as a binary snapshot in {@link #SNAPSHOT_DIRECTORY},
+ * keyed by a hash over the paths and contents of its files, so an unchanged directory is read from one file and not parsed at all.
+ * <p>
+ * <b>NOTE</b>: Called from the main thread only. The pool is shut down by {@link #finish()} once startup loading is done.
+ */
+public final class StartupLoader {
+
+	/**
+	 * Name of the directory next to the loaded directories holding their snapshots.
+	 */
+	public static final String SNAPSHOT_DIRECTORY = ".cache";
+
+	private static final int SNAPSHOT_MAGIC = 0x57495A53;
+	private static final int SNAPSHOT_VERSION = 1;
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private static final byte TAG_NULL = 0;
+	private static final byte TAG_OBJECT = 1;
+	private static final byte TAG_ARRAY = 2;
+	private static final byte TAG_STRING = 3;
+	private static final byte TAG_NUMBER = 4;
+	private static final byte TAG_BOOLEAN = 5;
+
+	private static ExecutorService pool;
+
+	private StartupLoader() {
+	}
+
+	private static ExecutorService pool() {
+		if (pool == null) {
+			int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+			AtomicInteger count = new AtomicInteger();
+			pool = Executors.newFixedThreadPool(threads, runnable -> {
+				Thread thread = new Thread(runnable, "Wizardry Startup Loader " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return pool;
+	}
+
+	/**
+	 * Shuts the thread pool down. A later call to any loading method starts a new one.
+	 */
+	public static void finish() {
+		if (pool == null) return;
+		pool.shutdown();
+		pool = null;
+	}
+
+	/**
+	 * Runs the tasks on the pool.
+	 *
+	 * @return the results, in the order of the tasks.
+	 */
+	@Nonnull
+	public static <T> List<T> runAll(@Nonnull List<? extends Callable<T>> tasks) {
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+		for (Callable<T> task : tasks)
+			futures.add(pool().submit(task));
+
+		List<T> results = new ArrayList<>(tasks.size());
+		for (Future<T> future : futures) {
+			try {
+				results.add(future.get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while loading at startup", e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Startup loading task failed", e.getCause());
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Logs the time a startup phase took.
+	 *
+	 * @param start the {@link System#nanoTime()} the phase started at.
+	 */
+	public static void logTiming(@Nonnull String phase, long start) {
+		Wizardry.LOGGER.info("    > " + phase + " took " + String.format("%.1f", (System.nanoTime() - start) / 1e6) + " ms");
+	}
+
+	/**
+	 * Hashes a text stream the same way <code>String.hashCode()</code> hashes its content read line by line, with every line
+	 * ended by <code>'\n'</code>, without holding the content in memory. Closes the stream.
+	 */
+	public static int hashLines(@Nonnull InputStream stream) throws IOException {
+		int hash = 0;
+		boolean openLine = false;
+		boolean afterCarriageReturn = false;
+		char[] buffer = new char[8192];
+		try (Reader reader = new InputStreamReader(stream, Charset.defaultCharset())) {
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				for (int i = 0; i < read; i++) {
+					char c = buffer[i];
+					if (c == '\n' && afterCarriageReturn) {
+						afterCarriageReturn = false;
+						continue;
+					}
+
+					afterCarriageReturn = c == '\r';
+					openLine = c != '\n' && c != '\r';
+					hash = 31 * hash + (openLine ? c : '\n');
+				}
+			}
+		}
+		if (openLine) hash = 31 * hash + '\n';
+		return hash;
+	}
+
+	/**
+	 * Parses all json files of the directory, or takes them from its snapshot if none of them changed.
+	 *
+	 * @param recursive whether json files in sub directories are loaded as well.
+	 * @return the parsed files, sorted by path.
+	 */
+	@Nonnull
+	public static List<ParsedJson> parseDirectory(@Nonnull File directory, boolean recursive) {
+		long start = System.nanoTime();
+
+		List<File> files = new ArrayList<>();
+		listJsonFiles(directory, recursive, files);
+		files.sort(Comparator.comparing(File::getPath));
+
+		File snapshot = new File(new File(directory.getParentFile(), SNAPSHOT_DIRECTORY), directory.getName() + ".bin");
+		long key = snapshotKey(directory, files);
+
+		List<ParsedJson> parsed = readSnapshot(snapshot, key, directory, files.size());
+		if (parsed != null) {
+			logTiming("Loading " + parsed.size() + " files of " + directory.getName() + " from snapshot", start);
+			return parsed;
+		}
+
+		List<Callable<ParsedJson>> tasks = new ArrayList<>(files.size());
+		for (File file : files)
+			tasks.add(() -> parse(file));
+		parsed = Collections.unmodifiableList(runAll(tasks));
+
+		// Files with errors are parsed again next time, so their errors are reported again
+		boolean failed = false;
+		for (ParsedJson json : parsed)
+			if (json.element == null) failed = true;
+		if (!failed) writeSnapshot(snapshot, key, directory, parsed);
+
+		logTiming("Parsing " + parsed.size() + " files of " + directory.getName(), start);
+		return parsed;
+	}
+
+	private static void listJsonFiles(File directory, boolean recursive, List<File> files) {
+		File[] children = directory.listFiles();
+		if (children == null) return;
+
+		for (File child : children) {
+			if (child.isDirectory()) {
+				if (recursive) listJsonFiles(child, true, files);
+			} else if (child.isFile() && child.getName().endsWith(".json"))
+				files.add(child);
+		}
+	}
+
+	private static ParsedJson parse(File file) {
+		try (Reader reader = new InputStreamReader(new FileInputStream(file), Charset.defaultCharset())) {
+			return new ParsedJson(file, new JsonParser().parse(reader), null);
+		} catch (IOException | JsonParseException e) {
+			return new ParsedJson(file, null, e);
+		}
+	}
+
+	/**
+	 * FNV-1a over the snapshot format, and the relative path and content of each file. The files are digested in parallel.
+	 */
+	private static long snapshotKey(File directory, List<File> files) {
+		List<Callable<Long>> tasks = new ArrayList<>(files.size());
+		for (File file : files)
+			tasks.add(() -> digest(file));
+		List<Long> digests = runAll(tasks);
+
+		long hash = fnv(FNV_OFFSET, SNAPSHOT_VERSION);
+		int prefix = directory.getPath().length() + 1;
+		for (int i = 0; i < files.size(); i++) {
+			for (char c : files.get(i).getPath().substring(prefix).toCharArray())
+				hash = fnv(hash, c);
+			hash = fnv(hash, digests.get(i));
+		}
+		return hash;
+	}
+
+	/**
+	 * @return the FNV-1a hash of the bytes of the file, or 0 if it can't be read.
+	 */
+	private static long digest(File file) {
+		long hash = FNV_OFFSET;
+		byte[] buffer = new byte[8192];
+		try (InputStream in = new FileInputStream(file)) {
+			int read;
+			while ((read = in.read(buffer)) != -1)
+				for (int i = 0; i < read; i++) {
+					hash ^= buffer[i] & 0xFF;
+					hash *= FNV_PRIME;
+				}
+		} catch (IOException e) {
+			return 0;
+		}
+		return hash;
+	}
+
+	private static long fnv(long hash, long value) {
+		for (int i = 0; i < 8; i++) {
+			hash ^= (value >>> (i * 8)) & 0xFF;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+
+	@Nullable
+	private static List<ParsedJson> readSnapshot(File snapshot, long key, File directory, int count) {
+		if (!snapshot.isFile()) return null;
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot)))) {
+			if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) return null;
+			if (in.readLong() != key || in.readInt() != count) return null;
+
+			List<ParsedJson> parsed = new ArrayList<>(count);
+			for (int i = 0; i < count; i++)
+				parsed.add(new ParsedJson(new File(directory, readString(in)), readElement(in), null));
+			return Collections.unmodifiableList(parsed);
+		} catch (IOException | RuntimeException e) {
+			Wizardry.LOGGER.warn("    > Ignoring unreadable snapshot " + snapshot.getPath(), e);
+			return null;
+		}
+	}
+
+	private static void writeSnapshot(File snapshot, long key, File directory, List<ParsedJson> parsed) {
+		File parent = snapshot.getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) return;
+
+		int prefix = directory.getPath().length() + 1;
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(snapshot)))) {
+			out.writeInt(SNAPSHOT_MAGIC);
+			out.writeInt(SNAPSHOT_VERSION);
+			out.writeLong(key);
+			out.writeInt(parsed.size());
+			for (ParsedJson json : parsed) {
+				writeString(out, json.file.getPath().substring(prefix));
+				writeElement(out, json.element);
+			}
+		} catch (IOException e) {
+			Wizardry.LOGGER.warn("    > Could not write snapshot " + snapshot.getPath(), e);
+			if (!snapshot.delete()) snapshot.deleteOnExit();
+		}
+	}
+
+	private static void writeElement(DataOutputStream out, JsonElement element) throws IOException {
+		if (element == null || element.isJsonNull()) {
+			out.writeByte(TAG_NULL);
+		} else if (element.isJsonObject()) {
+			out.writeByte(TAG_OBJECT);
+			out.writeInt(element.getAsJsonObject().entrySet().size());
+			for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+				writeString(out, entry.getKey());
+				writeElement(out, entry.getValue());
+			}
+		} else if (element.isJsonArray()) {
+			out.writeByte(TAG_ARRAY);
+			out.writeInt(element.getAsJsonArray().size());
+			for (JsonElement child : element.getAsJsonArray())
+				writeElement(out, child);
+		} else {
+			JsonPrimitive primitive = element.getAsJsonPrimitive();
+			if (primitive.isBoolean()) {
+				out.writeByte(TAG_BOOLEAN);
+				out.writeBoolean(primitive.getAsBoolean());
+			} else {
+				// Numbers are kept as written, as the parser does
+				out.writeByte(primitive.isNumber() ? TAG_NUMBER : TAG_STRING);
+				writeString(out, primitive.getAsString());
+			}
+		}
+	}
+
+	private static JsonElement readElement(DataInputStream in) throws IOException {
+		byte tag = in.readByte();
+		switch (tag) {
+			case TAG_NULL:
+				return JsonNull.INSTANCE;
+			case TAG_OBJECT: {
+				JsonObject object = new JsonObject();
+				int size = in.readInt();
+				for (int i = 0; i < size; i++)
+					object.add(readString(in), readElement(in));
+				return object;
+			}
+			case TAG_ARRAY: {
+				JsonArray array = new JsonArray();
+				int size = in.readInt();
+				for (int i = 0; i < size; i++)
+					array.add(readElement(in));
+				return array;
+			}
+			case TAG_STRING:
+				return new JsonPrimitive(readString(in));
+			case TAG_NUMBER:
+				return new JsonPrimitive(new LazilyParsedNumber(readString(in)));
+			case TAG_BOOLEAN:
+				return new JsonPrimitive(in.readBoolean());
+			default:
+				throw new IOException("Unknown snapshot tag " + tag);
+		}
+	}
+
+	// Not DataOutput#writeUTF, which is limited to 64 kB
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	////////////////////
+
+	/**
+	 * A json file parsed off the main thread.
+	 */
+	public static final class ParsedJson {
+
+		@Nonnull
+		public final File file;
+
+		/**
+		 * The content of the file, or <code>null</code> if it couldn't be read or parsed.
+		 */
+		@Nullable
+		public final JsonElement element;
+
+		/**
+		 * Why the file couldn't be read or parsed.
+		 */
+		@Nullable
+		public final Exception error;
+
+		ParsedJson(@Nonnull File file, @Nullable JsonElement element, @Nullable Exception error) {
+			this.file = file;
+			this.element = element;
+			this.error = error;
+		}
+	}
+}
@@ -0,0 +1,12 @@
+package com.teamwizardry.wizardry.asm;
+
+/**
+ * Added to {@link net.minecraft.entity.Entity} by {@link WizardryTransformer}, backed by a field holding the hook flags of the entity. <br/>
+ * Use {@link WizardryASMHooks#addFlags(net.minecraft.entity.Entity, int)} instead of calling this directly.
+ */
+public interface IEntityHookFlags {
+
+	int wizardry$getHookFlags();
+
+	void wizardry$setHookFlags(int flags);
+}
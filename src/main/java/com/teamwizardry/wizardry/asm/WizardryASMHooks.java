@@ -1,5 +1,6 @@
 package com.teamwizardry.wizardry.asm;
 
+import com.teamwizardry.wizardry.api.ConfigValues;
 import com.teamwizardry.wizardry.api.events.*;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
@@ -7,39 +8,280 @@ import net.minecraft.entity.MoverType;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraftforge.common.MinecraftForge;
 
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
 /**
+ * Entry points of the code injected by {@link WizardryTransformer}. <br/>
+ * Every entity carries a word of flags, one bit per effect registered with {@link #registerEffect(Predicate)}.
+ * The injected code only calls in here if the flags of the entity aren't empty, and only the listeners of effects
+ * which are set on the entity are called. Effects set their flag with {@link #addFlags(Entity, int)} when applied,
+ * and flags are cleared once their effect is found to be gone. <br/>
+ * If {@link ConfigValues#legacyEntityHookEvents} is enabled, every entity is hooked, and the {@link EntityMoveEvent},
+ * {@link EntityTravelEvent}, {@link SlipperinessEvent}, {@link PlayerClipEvent} and {@link EntityRenderShadowAndFireEvent}
+ * are posted after the listeners ran, for addons which still listen to them.
+ * <p>
+ * <b>NOTE</b>: Listeners are registered during startup, and called on the thread ticking or rendering the entity.
+ *
  * Created by Demoniaque.
  */
 public class WizardryASMHooks {
 
+	private static final int MAX_EFFECTS = Integer.SIZE;
+
+	@SuppressWarnings("unchecked")
+	private static Predicate<Entity>[] effects = new Predicate[0];
+
+	private static final Hook<ClipListener> clipHook = new Hook<>(ClipListener.class);
+	private static final Hook<MoveListener> moveHook = new Hook<>(MoveListener.class);
+	private static final Hook<TravelListener> travelHook = new Hook<>(TravelListener.class);
+	private static final Hook<SlipperinessListener> slipperinessHook = new Hook<>(SlipperinessListener.class);
+	private static final Hook<RenderShadowAndFireListener> renderHook = new Hook<>(RenderShadowAndFireListener.class);
+
+	// The hooks run on the client and the server thread, so each side gets its own context
+	private static final MoveContext clientMove = new MoveContext();
+	private static final MoveContext serverMove = new MoveContext();
+	private static final TravelContext clientTravel = new TravelContext();
+	private static final TravelContext serverTravel = new TravelContext();
+
+	/**
+	 * @param isActive tests whether the effect is still applied to an entity with its flag set.
+	 * @return the flag of the effect.
+	 */
+	public static synchronized int registerEffect(Predicate<Entity> isActive) {
+		if (effects.length == MAX_EFFECTS) throw new IllegalStateException("Too many entity hook effects");
+		effects = Arrays.copyOf(effects, effects.length + 1);
+		effects[effects.length - 1] = isActive;
+		return 1 << (effects.length - 1);
+	}
+
+	/**
+	 * Lets the hooks call the listeners of the effects for this entity.
+	 */
+	public static void addFlags(Entity entity, int flags) {
+		IEntityHookFlags holder = (IEntityHookFlags) entity;
+		holder.wizardry$setHookFlags(holder.wizardry$getHookFlags() | flags);
+	}
+
+	public static void addClipListener(int flag, ClipListener listener) {
+		clipHook.add(flag, listener);
+	}
+
+	public static void addMoveListener(int flag, MoveListener listener) {
+		moveHook.add(flag, listener);
+	}
+
+	public static void addTravelListener(int flag, TravelListener listener) {
+		travelHook.add(flag, listener);
+	}
+
+	public static void addSlipperinessListener(int flag, SlipperinessListener listener) {
+		slipperinessHook.add(flag, listener);
+	}
+
+	public static void addRenderShadowAndFireListener(int flag, RenderShadowAndFireListener listener) {
+		renderHook.add(flag, listener);
+	}
+
 	public static boolean playerClipEventHook(boolean hasNoClip, EntityPlayer player) {
-		PlayerClipEvent event = new PlayerClipEvent(hasNoClip, player);
-		MinecraftForge.EVENT_BUS.post(event);
+		int flags = activeFlags(player, clipHook.mask);
+		for (int i = 0; i < clipHook.flags.length; i++)
+			if ((flags & clipHook.flags[i]) != 0)
+				hasNoClip = clipHook.listeners[i].noClip(player, hasNoClip);
 
-		return event.noClip;
+		if (ConfigValues.legacyEntityHookEvents) {
+			PlayerClipEvent event = new PlayerClipEvent(hasNoClip, player);
+			MinecraftForge.EVENT_BUS.post(event);
+			hasNoClip = event.noClip;
+		}
+		return hasNoClip;
 	}
 
-	public static EntityMoveEvent entityPreMoveHook(Entity entity, MoverType type, double x, double y, double z) {
-		EntityMoveEvent event = new EntityMoveEvent(entity, type, x, y, z);
-		MinecraftForge.EVENT_BUS.post(event);
-		return event;
+	/**
+	 * @return the changed arguments of the move, or null if nothing listened.
+	 */
+	public static MoveContext entityPreMoveHook(Entity entity, MoverType type, double x, double y, double z) {
+		int flags = activeFlags(entity, moveHook.mask);
+		boolean legacy = ConfigValues.legacyEntityHookEvents;
+		if (flags == 0 && !legacy) return null;
+
+		MoveContext context = entity.world.isRemote ? clientMove : serverMove;
+		context.type = type;
+		context.x = x;
+		context.y = y;
+		context.z = z;
+		context.canceled = false;
+		for (int i = 0; i < moveHook.flags.length && !context.canceled; i++)
+			if ((flags & moveHook.flags[i]) != 0)
+				moveHook.listeners[i].move(entity, context);
+
+		if (legacy && !context.canceled) {
+			EntityMoveEvent event = new EntityMoveEvent(entity, context.type, context.x, context.y, context.z);
+			context.canceled = MinecraftForge.EVENT_BUS.post(event);
+			context.type = event.type;
+			context.x = event.x;
+			context.y = event.y;
+			context.z = event.z;
+		}
+		return context;
 	}
 
-	public static EntityTravelEvent travel(EntityLivingBase entity, float strafe, float vertical, float forward) {
-		EntityTravelEvent event = new EntityTravelEvent(entity, strafe, vertical, forward);
-		MinecraftForge.EVENT_BUS.post(event);
-		return event;
+	/**
+	 * @return the changed arguments of the travel, or null if nothing listened.
+	 */
+	public static TravelContext travel(EntityLivingBase entity, float strafe, float vertical, float forward) {
+		int flags = activeFlags(entity, travelHook.mask);
+		boolean legacy = ConfigValues.legacyEntityHookEvents;
+		if (flags == 0 && !legacy) return null;
+
+		TravelContext context = entity.world.isRemote ? clientTravel : serverTravel;
+		context.strafe = strafe;
+		context.vertical = vertical;
+		context.forward = forward;
+		context.canceled = false;
+		for (int i = 0; i < travelHook.flags.length && !context.canceled; i++)
+			if ((flags & travelHook.flags[i]) != 0)
+				travelHook.listeners[i].travel(entity, context);
+
+		if (legacy && !context.canceled) {
+			EntityTravelEvent event = new EntityTravelEvent(entity, context.strafe, context.vertical, context.forward);
+			context.canceled = MinecraftForge.EVENT_BUS.post(event);
+			context.strafe = event.strafe;
+			context.vertical = event.vertical;
+			context.forward = event.forward;
+		}
+		return context;
 	}
 
 	public static boolean entityRenderShadowAndFire(Entity entity) {
-		EntityRenderShadowAndFireEvent event = new EntityRenderShadowAndFireEvent(entity);
-		MinecraftForge.EVENT_BUS.post(event);
-		return !event.override;
+		int flags = activeFlags(entity, renderHook.mask);
+		for (int i = 0; i < renderHook.flags.length; i++)
+			if ((flags & renderHook.flags[i]) != 0 && !renderHook.listeners[i].render(entity))
+				return false;
+
+		if (ConfigValues.legacyEntityHookEvents) {
+			EntityRenderShadowAndFireEvent event = new EntityRenderShadowAndFireEvent(entity);
+			MinecraftForge.EVENT_BUS.post(event);
+			return !event.override;
+		}
+		return true;
 	}
 
 	public static float slipperyHook(float prev, Entity entity) {
-		SlipperinessEvent event = new SlipperinessEvent(entity, prev);
-		MinecraftForge.EVENT_BUS.post(event);
-		return event.getSlipperiness();
+		int flags = activeFlags(entity, slipperinessHook.mask);
+		for (int i = 0; i < slipperinessHook.flags.length; i++)
+			if ((flags & slipperinessHook.flags[i]) != 0)
+				prev = slipperinessHook.listeners[i].slipperiness(entity, prev);
+
+		if (ConfigValues.legacyEntityHookEvents) {
+			SlipperinessEvent event = new SlipperinessEvent(entity, prev);
+			MinecraftForge.EVENT_BUS.post(event);
+			return event.getSlipperiness();
+		}
+		return prev;
+	}
+
+	/**
+	 * @return the flags of the entity out of the mask whose effects are still applied. Clears the others.
+	 */
+	private static int activeFlags(Entity entity, int mask) {
+		IEntityHookFlags holder = (IEntityHookFlags) entity;
+		int flags = holder.wizardry$getHookFlags();
+		int relevant = flags & mask;
+		if (relevant == 0) return 0;
+
+		int stale = 0;
+		for (int remaining = relevant; remaining != 0; remaining &= remaining - 1) {
+			int bit = Integer.numberOfTrailingZeros(remaining);
+			if (!effects[bit].test(entity)) stale |= 1 << bit;
+		}
+		if (stale != 0) holder.wizardry$setHookFlags(flags & ~stale);
+		return relevant & ~stale;
+	}
+
+	////////////////////
+
+	/**
+	 * The listeners of one injected hook, in the order they were added.
+	 */
+	private static final class Hook<T> {
+		private final Class<T> type;
+		private T[] listeners;
+		private int[] flags = new int[0];
+		private int mask;
+
+		@SuppressWarnings("unchecked")
+		Hook(Class<T> type) {
+			this.type = type;
+			this.listeners = (T[]) Array.newInstance(type, 0);
+		}
+
+		synchronized void add(int flag, T listener) {
+			if (Integer.bitCount(flag) != 1) throw new IllegalArgumentException("Not an effect flag: " + flag);
+			listeners = Arrays.copyOf(listeners, listeners.length + 1);
+			listeners[listeners.length - 1] = type.cast(listener);
+			flags = Arrays.copyOf(flags, flags.length + 1);
+			flags[flags.length - 1] = flag;
+			mask |= flag;
+		}
+	}
+
+	////////////////////
+
+	/**
+	 * The arguments of {@link Entity#move(MoverType, double, double, double)}. Set {@link #canceled} to skip the move.
+	 * <b>NOTE</b>: Reused for every entity, don't keep a reference to it.
+	 */
+	public static final class MoveContext {
+		public MoverType type;
+		public double x;
+		public double y;
+		public double z;
+		public boolean canceled;
+	}
+
+	/**
+	 * The arguments of {@link EntityLivingBase#travel(float, float, float)}. Set {@link #canceled} to skip the travel.
+	 * <b>NOTE</b>: Reused for every entity, don't keep a reference to it.
+	 */
+	public static final class TravelContext {
+		public float strafe;
+		public float vertical;
+		public float forward;
+		public boolean canceled;
+	}
+
+	////////////////////
+
+	@FunctionalInterface
+	public interface ClipListener {
+		/**
+		 * @return whether the player should have no clip.
+		 */
+		boolean noClip(EntityPlayer player, boolean noClip);
+	}
+
+	@FunctionalInterface
+	public interface MoveListener {
+		void move(Entity entity, MoveContext context);
+	}
+
+	@FunctionalInterface
+	public interface TravelListener {
+		void travel(EntityLivingBase entity, TravelContext context);
+	}
+
+	@FunctionalInterface
+	public interface SlipperinessListener {
+		float slipperiness(Entity entity, float slipperiness);
+	}
+
+	@FunctionalInterface
+	public interface RenderShadowAndFireListener {
+		/**
+		 * @return false to skip rendering the shadow and fire of the entity.
+		 */
+		boolean render(Entity entity);
 	}
 }
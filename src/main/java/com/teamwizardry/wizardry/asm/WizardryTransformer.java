@@ -25,12 +25,15 @@ public class WizardryTransformer implements IClassTransformer {
 	private static final String CLASS_ENTITY = "net/minecraft/entity/Entity";
 	private static final String CLASS_ENTITY_LIVING_BASE = "net/minecraft/entity/EntityLivingBase";
 	private static final String CLASS_MOVER_TYPE = "net/minecraft/entity/MoverType";
-	private static final String CLASS_EVENT = "net/minecraftforge/fml/common/eventhandler/Event";
-	private static final String CLASS_MOVE_EVENT = "com/teamwizardry/wizardry/api/events/EntityMoveEvent";
-	private static final String CLASS_TRAVEL_EVENT = "com/teamwizardry/wizardry/api/events/EntityTravelEvent";
+	private static final String CLASS_MOVE_CONTEXT = "com/teamwizardry/wizardry/asm/WizardryASMHooks$MoveContext";
+	private static final String CLASS_TRAVEL_CONTEXT = "com/teamwizardry/wizardry/asm/WizardryASMHooks$TravelContext";
+	private static final String CLASS_HOOK_FLAGS = "com/teamwizardry/wizardry/asm/IEntityHookFlags";
+	private static final String CLASS_CONFIG = "com/teamwizardry/wizardry/api/ConfigValues";
 
 	private static final String ASM_HOOKS = "com/teamwizardry/wizardry/asm/WizardryASMHooks";
 
+	private static final String FIELD_HOOK_FLAGS = "wizardry$hookFlags";
+
 	private static void log(String str) {
 		System.out.println("[" + Wizardry.MODID + " ASM] " + str);
 	}
@@ -53,6 +56,7 @@ public class WizardryTransformer implements IClassTransformer {
 							InsnList newInstructions = new InsnList();
 
 							//newInstructions.add(new FrameNode(F_SAME, 0, null, 0, null));
+							newInstructions.add(hookGuard(1, node1));
 							newInstructions.add(new VarInsnNode(ALOAD, 1));
 							newInstructions.add(new MethodInsnNode(INVOKESTATIC, ASM_HOOKS, "entityRenderShadowAndFire",
 									"(L" + CLASS_ENTITY + ";)Z", false));
@@ -71,47 +75,60 @@ public class WizardryTransformer implements IClassTransformer {
 			/*
 			  Overrides the move method in Entity which controls everything about entity movement.
 			  Used in time slow and low grav.
+			  Also adds the hook flags every injected hook checks first, see WizardryASMHooks.
 			 */
 			case "net.minecraft.entity.Entity": {
-				return transformSingleMethod(
-						basicClass,
-						"func_70091_d",
-						"move",
-						"(L" + CLASS_MOVER_TYPE + ";DDD)V",
-						methodNode -> {
-							InsnList newInstructions = new InsnList();
-							LabelNode node1 = new LabelNode();
-
-							newInstructions.add(new VarInsnNode(ALOAD, 0));
-							newInstructions.add(new VarInsnNode(ALOAD, 1));
-							newInstructions.add(new VarInsnNode(DLOAD, 2));
-							newInstructions.add(new VarInsnNode(DLOAD, 4));
-							newInstructions.add(new VarInsnNode(DLOAD, 6));
-							newInstructions.add(new MethodInsnNode(INVOKESTATIC, ASM_HOOKS, "entityPreMoveHook",
-									"(L" + CLASS_ENTITY + ";L" + CLASS_MOVER_TYPE + ";DDD)L" + CLASS_MOVE_EVENT + ";", false));
-							newInstructions.add(new InsnNode(DUP));
-							newInstructions.add(new MethodInsnNode(INVOKEVIRTUAL, CLASS_EVENT, "isCanceled", "()Z", false));
-							newInstructions.add(new JumpInsnNode(IFEQ, node1));
-							newInstructions.add(new InsnNode(POP));
-							newInstructions.add(new InsnNode(RETURN));
-							newInstructions.add(node1);
-							newInstructions.add(new InsnNode(DUP));
-							newInstructions.add(new InsnNode(DUP));
-							newInstructions.add(new InsnNode(DUP));
-							newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_MOVE_EVENT, "type", "L" + CLASS_MOVER_TYPE + ";"));
-							newInstructions.add(new VarInsnNode(ASTORE, 1));
-							newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_MOVE_EVENT, "x", "D"));
-							newInstructions.add(new VarInsnNode(DSTORE, 2));
-							newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_MOVE_EVENT, "y", "D"));
-							newInstructions.add(new VarInsnNode(DSTORE, 4));
-							newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_MOVE_EVENT, "z", "D"));
-							newInstructions.add(new VarInsnNode(DSTORE, 6));
-
-							methodNode.instructions.insertBefore(methodNode.instructions.getFirst(), newInstructions);
-							methodNode.instructions.resetLabels();
-							return true;
-						}
-				);
+				return transformClass(basicClass, classNode -> {
+					addHookFlags(classNode);
+					transformMethod(
+							classNode,
+							"func_70091_d",
+							"move",
+							"(L" + CLASS_MOVER_TYPE + ";DDD)V",
+							methodNode -> {
+								InsnList newInstructions = new InsnList();
+								LabelNode hooked = new LabelNode();
+								LabelNode notCanceled = new LabelNode();
+								LabelNode skip = new LabelNode();
+
+								newInstructions.add(hookGuard(0, skip));
+								newInstructions.add(new VarInsnNode(ALOAD, 0));
+								newInstructions.add(new VarInsnNode(ALOAD, 1));
+								newInstructions.add(new VarInsnNode(DLOAD, 2));
+								newInstructions.add(new VarInsnNode(DLOAD, 4));
+								newInstructions.add(new VarInsnNode(DLOAD, 6));
+								newInstructions.add(new MethodInsnNode(INVOKESTATIC, ASM_HOOKS, "entityPreMoveHook",
+										"(L" + CLASS_ENTITY + ";L" + CLASS_MOVER_TYPE + ";DDD)L" + CLASS_MOVE_CONTEXT + ";", false));
+								newInstructions.add(new InsnNode(DUP));
+								newInstructions.add(new JumpInsnNode(IFNONNULL, hooked));
+								newInstructions.add(new InsnNode(POP));
+								newInstructions.add(new JumpInsnNode(GOTO, skip));
+								newInstructions.add(hooked);
+								newInstructions.add(new InsnNode(DUP));
+								newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_MOVE_CONTEXT, "canceled", "Z"));
+								newInstructions.add(new JumpInsnNode(IFEQ, notCanceled));
+								newInstructions.add(new InsnNode(POP));
+								newInstructions.add(new InsnNode(RETURN));
+								newInstructions.add(notCanceled);
+								newInstructions.add(new InsnNode(DUP));
+								newInstructions.add(new InsnNode(DUP));
+								newInstructions.add(new InsnNode(DUP));
+								newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_MOVE_CONTEXT, "type", "L" + CLASS_MOVER_TYPE + ";"));
+								newInstructions.add(new VarInsnNode(ASTORE, 1));
+								newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_MOVE_CONTEXT, "x", "D"));
+								newInstructions.add(new VarInsnNode(DSTORE, 2));
+								newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_MOVE_CONTEXT, "y", "D"));
+								newInstructions.add(new VarInsnNode(DSTORE, 4));
+								newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_MOVE_CONTEXT, "z", "D"));
+								newInstructions.add(new VarInsnNode(DSTORE, 6));
+								newInstructions.add(skip);
+
+								methodNode.instructions.insertBefore(methodNode.instructions.getFirst(), newInstructions);
+								methodNode.instructions.resetLabels();
+								return true;
+							}
+					);
+				});
 			}
 
 
@@ -125,29 +142,38 @@ public class WizardryTransformer implements IClassTransformer {
 						"travel",
 						"(FFF)V",
 						methodNode -> {
-							LabelNode node1 = new LabelNode();
+							LabelNode hooked = new LabelNode();
+							LabelNode notCanceled = new LabelNode();
+							LabelNode skip = new LabelNode();
 							InsnList newInstructions = new InsnList();
 
+							newInstructions.add(hookGuard(0, skip));
 							newInstructions.add(new VarInsnNode(ALOAD, 0));
 							newInstructions.add(new VarInsnNode(FLOAD, 1));
 							newInstructions.add(new VarInsnNode(FLOAD, 2));
 							newInstructions.add(new VarInsnNode(FLOAD, 3));
 							newInstructions.add(new MethodInsnNode(INVOKESTATIC, ASM_HOOKS, "travel",
-									"(L" + CLASS_ENTITY_LIVING_BASE + ";FFF)L" + CLASS_TRAVEL_EVENT + ";", false));
+									"(L" + CLASS_ENTITY_LIVING_BASE + ";FFF)L" + CLASS_TRAVEL_CONTEXT + ";", false));
+							newInstructions.add(new InsnNode(DUP));
+							newInstructions.add(new JumpInsnNode(IFNONNULL, hooked));
+							newInstructions.add(new InsnNode(POP));
+							newInstructions.add(new JumpInsnNode(GOTO, skip));
+							newInstructions.add(hooked);
 							newInstructions.add(new InsnNode(DUP));
-							newInstructions.add(new MethodInsnNode(INVOKEVIRTUAL, CLASS_EVENT, "isCanceled", "()Z", false));
-							newInstructions.add(new JumpInsnNode(IFEQ, node1));
+							newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_TRAVEL_CONTEXT, "canceled", "Z"));
+							newInstructions.add(new JumpInsnNode(IFEQ, notCanceled));
 							newInstructions.add(new InsnNode(POP));
 							newInstructions.add(new InsnNode(RETURN));
-							newInstructions.add(node1);
+							newInstructions.add(notCanceled);
 							newInstructions.add(new InsnNode(DUP));
 							newInstructions.add(new InsnNode(DUP));
-							newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_TRAVEL_EVENT, "strafe", "F"));
+							newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_TRAVEL_CONTEXT, "strafe", "F"));
 							newInstructions.add(new VarInsnNode(FSTORE, 1));
-							newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_TRAVEL_EVENT, "vertical", "F"));
+							newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_TRAVEL_CONTEXT, "vertical", "F"));
 							newInstructions.add(new VarInsnNode(FSTORE, 2));
-							newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_TRAVEL_EVENT, "forward", "F"));
+							newInstructions.add(new FieldInsnNode(GETFIELD, CLASS_TRAVEL_CONTEXT, "forward", "F"));
 							newInstructions.add(new VarInsnNode(FSTORE, 3));
+							newInstructions.add(skip);
 
 							methodNode.instructions.insertBefore(methodNode.instructions.getFirst(), newInstructions);
 
@@ -165,10 +191,13 @@ public class WizardryTransformer implements IClassTransformer {
 											CLASS_ENTITY + ";)F")) {
 
 										InsnList afterInstructions = new InsnList();
+										LabelNode skip = new LabelNode();
 
+										afterInstructions.add(hookGuard(0, skip));
 										afterInstructions.add(new VarInsnNode(ALOAD, 0));
 										afterInstructions.add(new MethodInsnNode(INVOKESTATIC, ASM_HOOKS, "slipperyHook",
 												"(FL" + CLASS_ENTITY + ";)F", false));
+										afterInstructions.add(skip);
 
 										methodNode.instructions.insert(insnNode, afterInstructions);
 									}
@@ -201,10 +230,13 @@ public class WizardryTransformer implements IClassTransformer {
 											&& fInsnNode.desc.equals("Z")) {
 
 										InsnList newInstructions = new InsnList();
+										LabelNode skip = new LabelNode();
 
+										newInstructions.add(hookGuard(0, skip));
 										newInstructions.add(new VarInsnNode(ALOAD, 0));
 										newInstructions.add(new MethodInsnNode(INVOKESTATIC, ASM_HOOKS, "playerClipEventHook",
 												"(ZL" + CLASS_ENTITY_PLAYER + ";)Z", false));
+										newInstructions.add(skip);
 
 										methodNode.instructions.insertBefore(insnNode, newInstructions);
 										methodNode.instructions.resetLabels();
@@ -224,19 +256,62 @@ public class WizardryTransformer implements IClassTransformer {
 		return name.equals(srgName) || name.equals(mcpName);
 	}
 
+	/**
+	 * Jumps to <code>skip</code> unless the entity in the local variable has hook flags, or legacy hook events are enabled.
+	 * Leaves the stack as it is.
+	 */
+	private InsnList hookGuard(int entityVar, LabelNode skip) {
+		InsnList instructions = new InsnList();
+		LabelNode hook = new LabelNode();
+
+		instructions.add(new FieldInsnNode(GETSTATIC, CLASS_CONFIG, "legacyEntityHookEvents", "Z"));
+		instructions.add(new JumpInsnNode(IFNE, hook));
+		instructions.add(new VarInsnNode(ALOAD, entityVar));
+		instructions.add(new FieldInsnNode(GETFIELD, CLASS_ENTITY, FIELD_HOOK_FLAGS, "I"));
+		instructions.add(new JumpInsnNode(IFEQ, skip));
+		instructions.add(hook);
+		return instructions;
+	}
+
+	/**
+	 * Adds the hook flags field to Entity, and implements {@link IEntityHookFlags} with it.
+	 */
+	private void addHookFlags(ClassNode classNode) {
+		classNode.interfaces.add(CLASS_HOOK_FLAGS);
+		classNode.fields.add(new FieldNode(ACC_PUBLIC | ACC_SYNTHETIC, FIELD_HOOK_FLAGS, "I", null, null));
+
+		MethodNode getter = new MethodNode(ACC_PUBLIC, "wizardry$getHookFlags", "()I", null, null);
+		getter.instructions.add(new VarInsnNode(ALOAD, 0));
+		getter.instructions.add(new FieldInsnNode(GETFIELD, CLASS_ENTITY, FIELD_HOOK_FLAGS, "I"));
+		getter.instructions.add(new InsnNode(IRETURN));
+		classNode.methods.add(getter);
+
+		MethodNode setter = new MethodNode(ACC_PUBLIC, "wizardry$setHookFlags", "(I)V", null, null);
+		setter.instructions.add(new VarInsnNode(ALOAD, 0));
+		setter.instructions.add(new VarInsnNode(ILOAD, 1));
+		setter.instructions.add(new FieldInsnNode(PUTFIELD, CLASS_ENTITY, FIELD_HOOK_FLAGS, "I"));
+		setter.instructions.add(new InsnNode(RETURN));
+		classNode.methods.add(setter);
+
+		log("Successfully added   -> '" + FIELD_HOOK_FLAGS + "'");
+	}
+
 	private byte[] transformSingleMethod(byte[] basicClass, String srgName, String mcpName,
 										 String desc, Predicate<MethodNode> transformer) {
-		return transformClass(basicClass, classNode -> {
-			for (MethodNode methodNode : classNode.methods) {
-				if (equalsEither(methodNode.name, srgName, mcpName) && methodNode.desc.equals(desc)) {
-					if (transformer.test(methodNode)) {
-						log("Successfully patched -> '" + srgName + "', '" + mcpName + "' with '" + desc + "'");
-					} else {
-						log("Failed to patch      -> '" + srgName + "', '" + mcpName + "' with '" + desc + "'");
-					}
+		return transformClass(basicClass, classNode -> transformMethod(classNode, srgName, mcpName, desc, transformer));
+	}
+
+	private void transformMethod(ClassNode classNode, String srgName, String mcpName,
+								 String desc, Predicate<MethodNode> transformer) {
+		for (MethodNode methodNode : classNode.methods) {
+			if (equalsEither(methodNode.name, srgName, mcpName) && methodNode.desc.equals(desc)) {
+				if (transformer.test(methodNode)) {
+					log("Successfully patched -> '" + srgName + "', '" + mcpName + "' with '" + desc + "'");
+				} else {
+					log("Failed to patch      -> '" + srgName + "', '" + mcpName + "' with '" + desc + "'");
 				}
 			}
-		});
+		}
 	}
 
 	private byte[] transformClass(byte[] basicClass, Consumer<ClassNode> transformer) {
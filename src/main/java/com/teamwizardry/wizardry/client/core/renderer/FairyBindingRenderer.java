@@ -11,6 +11,7 @@ import com.teamwizardry.librarianlib.features.particle.ParticleSpawner;
 import com.teamwizardry.wizardry.Wizardry;
 import com.teamwizardry.wizardry.api.NBTConstants;
 import com.teamwizardry.wizardry.api.capability.player.miscdata.IMiscCapability;
+import com.teamwizardry.wizardry.api.entity.EntityIndex;
 import com.teamwizardry.wizardry.api.capability.player.miscdata.MiscCapabilityProvider;
 import com.teamwizardry.wizardry.api.entity.fairy.FairyData;
 import com.teamwizardry.wizardry.api.util.RandUtil;
@@ -69,12 +70,8 @@ public class FairyBindingRenderer {
 
 		if (stack.getItem() != ModItems.FAIRY_BELL) return;
 
-		for (EntityFairy entityFairy : world.getEntities(EntityFairy.class, input -> {
-			if (input == null) return false;
-			FairyData dataFairy = input.getDataFairy();
-			if (dataFairy == null) return false;
-			return dataFairy.isDepressed;
-		})) {
+		for (EntityFairy entityFairy : EntityIndex.getEntities(world, EntityFairy.class)) {
+			if (entityFairy.getDataFairy() == null || !entityFairy.getDataFairy().isDepressed) continue;
 			Vec3d look = entityFairy.getLookTarget();
 			if (look == null) continue;
 
@@ -147,12 +144,8 @@ public class FairyBindingRenderer {
 			}
 		}
 
-		for (EntityFairy entityFairy : world.getEntities(EntityFairy.class, input -> {
-			if (input == null) return false;
-			FairyData dataFairy = input.getDataFairy();
-			if (dataFairy == null) return false;
-			return dataFairy.isDepressed;
-		})) {
+		for (EntityFairy entityFairy : EntityIndex.getEntities(world, EntityFairy.class)) {
+			if (entityFairy.getDataFairy() == null || !entityFairy.getDataFairy().isDepressed) continue;
 
 			FairyData dataFairy = entityFairy.getDataFairy();
 			if (dataFairy == null) return;
@@ -26,12 +26,11 @@ import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
-import net.minecraft.util.math.Vec3i;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import javax.annotation.Nonnull;
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Created by Demoniaque on 6/11/2016.
@@ -64,8 +63,7 @@ public class TileCraftingPlateRenderer extends TileRenderHandler<TileCraftingPla
 
 	@Override
 	public void render(float partialTicks, int destroyStage, float alpha) {
-		ArrayList<BlockPos> errors = new ArrayList<>(((IStructure) tile.getBlockType()).testStructure(tile.getWorld(), tile.getPos()));
-		errors.sort(Vec3i::compareTo);
+		List<BlockPos> errors = tile.getStructureStatus().getErrors();
 
 		ItemStack input = tile.getInput();
 		if (input.isEmpty()) {
@@ -79,7 +77,7 @@ public class TileCraftingPlateRenderer extends TileRenderHandler<TileCraftingPla
 		if (recipeForItem != null) recipeForItem.renderInput(tile.getWorld(), tile.getPos(), input, partialTicks);
 
 		if (!errors.isEmpty() && tile.revealStructure && tile.getBlockType() instanceof IStructure) {
-			ModStructures.structureManager.draw(ModStructures.CRAFTING_PLATE, (float) (Math.sin(ClientTickHandler.getTicks() / 10.0) + 1) / 10.0f + 0.3f);
+			ModStructures.structureManager.draw(ModStructures.CRAFTING_PLATE, (float) (Math.sin(ClientTickHandler.getTicks() / 10.0) + 1) / 10.0f + 0.3f, tile.getStructureStatus().getErrorOffsets());
 		}
 
 		if (!errors.isEmpty()) {
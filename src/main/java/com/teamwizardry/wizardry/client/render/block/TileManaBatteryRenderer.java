@@ -28,7 +28,6 @@ import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
-import net.minecraft.util.math.Vec3i;
 import net.minecraftforge.client.model.IModel;
 import net.minecraftforge.client.model.ModelLoaderRegistry;
 import net.minecraftforge.fml.common.Mod;
@@ -38,7 +37,7 @@ import org.lwjgl.opengl.GL11;
 
 import javax.annotation.Nonnull;
 import java.awt.*;
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Created by Demoniaque.
@@ -145,8 +144,7 @@ public class TileManaBatteryRenderer extends TileRenderHandler<TileManaBattery>
 		GlStateManager.disableBlend();
 		GlStateManager.popMatrix();
 
-		ArrayList<BlockPos> errors = new ArrayList<>(((IStructure) tile.getBlockType()).testStructure(tile.getWorld(), tile.getPos()));
-		errors.sort(Vec3i::compareTo);
+		List<BlockPos> errors = tile.getStructureStatus().getErrors();
 
 		if (!errors.isEmpty()) {
 			for (BlockPos error : errors) {
@@ -155,7 +153,7 @@ public class TileManaBatteryRenderer extends TileRenderHandler<TileManaBattery>
 		}
 
 		if (!errors.isEmpty() && tile.revealStructure && tile.getBlockType() instanceof IStructure) {
-			ModStructures.structureManager.draw(ModStructures.MANA_BATTERY, (float) (Math.sin(ClientTickHandler.getTicks() / 10.0) + 1) / 10.0f + 0.3f);
+			ModStructures.structureManager.draw(ModStructures.MANA_BATTERY, (float) (Math.sin(ClientTickHandler.getTicks() / 10.0) + 1) / 10.0f + 0.3f, tile.getStructureStatus().getErrorOffsets());
 			return;
 		}
 
@@ -6,6 +6,7 @@ import com.teamwizardry.librarianlib.features.network.PacketHandler;
 import com.teamwizardry.wizardry.api.NBTConstants;
 import com.teamwizardry.wizardry.api.block.ICraftingPlateRecipe;
 import com.teamwizardry.wizardry.api.block.IStructure;
+import com.teamwizardry.wizardry.api.block.StructureTracker;
 import com.teamwizardry.wizardry.api.spell.SpellBuilder;
 import com.teamwizardry.wizardry.api.spell.SpellRing;
 import com.teamwizardry.wizardry.api.spell.SpellUtils;
@@ -77,7 +78,7 @@ public class BlockCraftingPlate extends BlockModContainer implements IStructure
 
 		ItemStack heldItem = playerIn.getHeldItem(hand);
 
-		if (testStructure(worldIn, pos).isEmpty()) {
+		if (StructureTracker.getStatus(worldIn, pos, this).isValid()) {
 			TileCraftingPlate plate = getTE(worldIn, pos);
 			if (!heldItem.isEmpty()) {
 				if (heldItem.getItem() == ModItems.BOOK && playerIn.isCreative()) {
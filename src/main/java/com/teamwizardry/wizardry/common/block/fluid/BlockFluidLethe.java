@@ -11,7 +11,6 @@ import net.minecraft.block.material.MapColor;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.item.EntityItem;
-import net.minecraft.item.crafting.Ingredient;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
@@ -19,10 +18,8 @@ import net.minecraftforge.fluids.IFluidBlock;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
 import java.util.List;
-import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 public class BlockFluidLethe extends BlockModFluid {
 
@@ -37,6 +34,7 @@ public class BlockFluidLethe extends BlockModFluid {
 		BlockPos pos = entityIn.getPosition();
 		World world = entityIn.world;
 		IBlockState state = world.getBlockState(pos);
+		if (!ManaRecipes.isRecipeFluid(state.getBlock())) return;
 //		if (state.getBlock() == ModFluids.LETHE.getActualBlock()) {
 //
 //			run(world, pos, state.getBlock(), entityIn,
@@ -49,14 +47,13 @@ public class BlockFluidLethe extends BlockModFluid {
 //
 //		}
 
+		if (!(entityIn instanceof EntityItem)) return;
+		List<FluidRecipeLoader.FluidCrafter> crafters = ManaRecipes.getCrafters(((EntityItem) entityIn).getItem(), state.getBlock());
+		if (crafters.isEmpty()) return;
+
 		run(world, pos, state.getBlock(), entityIn,
-				entity -> entity instanceof EntityItem && ManaRecipes.RECIPES.keySet().stream().anyMatch(item -> item.apply(((EntityItem) entity).getItem())),
-				entity -> {
-					List<Map.Entry<Ingredient, FluidRecipeLoader.FluidCrafter>> allEntries = ManaRecipes.RECIPES.entries().stream().filter(entry ->
-							entry.getValue().getFluid().getBlock() == state.getBlock() &&
-									entry.getKey().apply(((EntityItem) entity).getItem())).collect(Collectors.toList());
-					allEntries.forEach(crafter -> FluidTracker.INSTANCE.addManaCraft(entity.world, entity.getPosition(), crafter.getValue().build()));
-				});
+				entity -> true,
+				entity -> crafters.forEach(crafter -> FluidTracker.INSTANCE.addManaCraft(entity.world, entity.getPosition(), crafter.build())));
 	}
 
 	public static void run(World world, BlockPos pos, Block block, Entity entity, Predicate<Entity> test, Consumer<Entity> process) {
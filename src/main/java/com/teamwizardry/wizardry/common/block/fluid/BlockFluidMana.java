@@ -22,7 +22,6 @@ import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
-import net.minecraft.item.crafting.Ingredient;
 import net.minecraft.potion.PotionEffect;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.EnumFacing;
@@ -38,11 +37,9 @@ import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
 import javax.annotation.Nonnull;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 public class BlockFluidMana extends BlockModFluid {
 
@@ -81,6 +78,8 @@ public class BlockFluidMana extends BlockModFluid {
 		BlockPos pos = entityIn.getPosition();
 		World world = entityIn.world;
 		IBlockState state = world.getBlockState(pos);
+		// Most entities are not in any fluid of interest
+		if (state.getBlock() != ModFluids.MANA.getActualBlock() && !ManaRecipes.isRecipeFluid(state.getBlock())) return;
 		if (state.getBlock() == ModFluids.MANA.getActualBlock()) {
 			// Fizz all entities in the pool
 			if (world.isRemote)
@@ -126,14 +125,13 @@ public class BlockFluidMana extends BlockModFluid {
 		}
 
 
+		if (!(entityIn instanceof EntityItem)) return;
+		List<FluidRecipeLoader.FluidCrafter> crafters = ManaRecipes.getCrafters(((EntityItem) entityIn).getItem(), state.getBlock());
+		if (crafters.isEmpty()) return;
+
 		run(world, pos, state.getBlock(), entityIn,
-				entity -> entity instanceof EntityItem && ManaRecipes.RECIPES.keySet().stream().anyMatch(item -> item.apply(((EntityItem) entity).getItem())),
-				entity -> {
-					List<Map.Entry<Ingredient, FluidRecipeLoader.FluidCrafter>> allEntries = ManaRecipes.RECIPES.entries().stream().filter(entry ->
-							entry.getValue().getFluid().getBlock() == state.getBlock() &&
-									entry.getKey().apply(((EntityItem) entity).getItem())).collect(Collectors.toList());
-					allEntries.forEach(crafter -> FluidTracker.INSTANCE.addManaCraft(entity.world, entity.getPosition(), crafter.getValue().build()));
-				});
+				entity -> true,
+				entity -> crafters.forEach(crafter -> FluidTracker.INSTANCE.addManaCraft(entity.world, entity.getPosition(), crafter.build())));
 	}
 
 	public static void run(World world, BlockPos pos, Block block, Entity entity, Predicate<Entity> test, Consumer<Entity> process) {
@@ -0,0 +1,113 @@
+package com.teamwizardry.wizardry.common.command;
+
+import com.teamwizardry.wizardry.api.spell.SpellRing;
+import com.teamwizardry.wizardry.api.spell.SpellUtils;
+import com.teamwizardry.wizardry.api.spell.module.ModuleOverrideHandler;
+import com.teamwizardry.wizardry.common.module.defaults.IModuleOverrides;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextFormatting;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Microbenchmarks for hot spell paths. Meant for debugging on a dev server only.
+ */
+public class CommandBenchmark extends CommandBase {
+
+	private static final int WARMUP_ITERATIONS = 200_000;
+	private static final int ITERATIONS = 2_000_000;
+
+	/**
+	 * Collects the results of timed work, see {@link #time(IntSupplier)}.
+	 */
+	private static volatile int sink;
+
+	@NotNull
+	@Override
+	public String getName() {
+		return "benchmark";
+	}
+
+	@NotNull
+	@Override
+	public String getUsage(@NotNull ICommandSender sender) {
+		return "wizardry.command." + getName() + ".usage";
+	}
+
+	@Override
+	public void execute(@NotNull MinecraftServer server, @NotNull ICommandSender sender, @NotNull String[] args) throws WrongUsageException {
+		if (args.length < 1) throw new WrongUsageException(getUsage(sender));
+
+		switch (args[0]) {
+			case "overrides":
+				benchmarkOverrides(sender);
+				break;
+			default:
+				throw new WrongUsageException(getUsage(sender));
+		}
+	}
+
+	/**
+	 * Compares override dispatch via generated invokers with the reflection proxy,
+	 * using the spell held by the sender.
+	 */
+	private void benchmarkOverrides(ICommandSender sender) {
+		Entity entity = sender.getCommandSenderEntity();
+		if (!(entity instanceof EntityLivingBase)) {
+			notifyCommandListener(sender, this, "wizardry.command.notplayer");
+			return;
+		}
+
+		List<SpellRing> chains = SpellUtils.getSpellChains(((EntityLivingBase) entity).getHeldItemMainhand());
+		if (chains.isEmpty()) {
+			notifyCommandListener(sender, this, "wizardry.command." + getName() + ".no_spell");
+			return;
+		}
+
+		ModuleOverrideHandler handler = chains.get(0).getOverrideHandler();
+		IModuleOverrides proxy = handler.createConsumerInterface(IModuleOverrides.class, false);
+		IModuleOverrides generated = handler.createConsumerInterface(IModuleOverrides.class, true);
+
+		runOverrides(proxy, WARMUP_ITERATIONS);
+		runOverrides(generated, WARMUP_ITERATIONS);
+
+		long proxyTime = runOverrides(proxy, ITERATIONS);
+		long generatedTime = runOverrides(generated, ITERATIONS);
+
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " ________________________________________________\\\\");
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " | " + TextFormatting.GRAY + "Override dispatch, " + ITERATIONS + " calls on " + chains.get(0));
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |_ " + TextFormatting.GREEN + "Reflection Proxy     " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + String.format("%.2f ns/call", proxyTime / (double) ITERATIONS));
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |_ " + TextFormatting.GREEN + "Generated Invoker    " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + String.format("%.2f ns/call", generatedTime / (double) ITERATIONS));
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |________________________________________________//");
+	}
+
+	private static long runOverrides(IModuleOverrides overrides, int iterations) {
+		return time(() -> {
+			int result = 0;
+			for (int i = 0; i < iterations; i++)
+				result += overrides.modifyChargeupTime(i);
+			return result;
+		});
+	}
+
+	/**
+	 * Times the given work. Its result is added to {@link #sink}, so the JIT can't drop the work as unused.
+	 *
+	 * @param work the work to time, returning anything derived from what it computed.
+	 * @return the time taken in nanoseconds.
+	 */
+	private static long time(IntSupplier work) {
+		long start = System.nanoTime();
+		int result = work.getAsInt();
+		long time = System.nanoTime() - start;
+		sink += result;
+		return time;
+	}
+}
@@ -0,0 +1,63 @@
+package com.teamwizardry.wizardry.common.command;
+
+import com.teamwizardry.wizardry.api.block.FluidPoolCache;
+import com.teamwizardry.wizardry.api.block.ManaNetwork;
+import com.teamwizardry.wizardry.api.block.StructureTracker;
+import com.teamwizardry.wizardry.api.capability.player.mana.ManaSyncScheduler;
+import com.teamwizardry.wizardry.api.spell.CompiledSpellCache;
+import com.teamwizardry.wizardry.api.spell.SpellScheduler;
+import com.teamwizardry.wizardry.common.core.SpellRenderBatcher;
+import com.teamwizardry.wizardry.common.core.nemez.NemezEventHandler;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextFormatting;
+import org.jetbrains.annotations.NotNull;
+
+public class CommandStats extends CommandBase {
+
+	@NotNull
+	@Override
+	public String getName() {
+		return "stats";
+	}
+
+	@NotNull
+	@Override
+	public String getUsage(@NotNull ICommandSender sender) {
+		return "wizardry.command." + getName() + ".usage";
+	}
+
+	@Override
+	public void execute(@NotNull MinecraftServer server, @NotNull ICommandSender sender, @NotNull String[] args) {
+		CompiledSpellCache spellCache = CompiledSpellCache.INSTANCE;
+
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " ________________________________________________\\\\");
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " | " + TextFormatting.GRAY + "Wizardry Statistics");
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |_ " + TextFormatting.GREEN + "Compiled Spells      " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + spellCache.getSize());
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |  |_ " + TextFormatting.DARK_GREEN + "Hits / Misses     " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + spellCache.getHits() + " / " + spellCache.getMisses());
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |  |_ " + TextFormatting.DARK_GREEN + "Evictions         " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + spellCache.getEvictions());
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |_ " + TextFormatting.GREEN + "Render Packets       " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + SpellRenderBatcher.getPacketsSent());
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |  |_ " + TextFormatting.DARK_GREEN + "Events / Dropped  " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + SpellRenderBatcher.getEventsSent() + " / " + SpellRenderBatcher.getEventsDropped());
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |  |_ " + TextFormatting.DARK_GREEN + "Bytes Sent / Saved" + TextFormatting.GRAY + " | " + TextFormatting.GRAY + SpellRenderBatcher.getBytesSent() + " / " + SpellRenderBatcher.getBytesSaved());
+		ManaNetwork network = ManaNetwork.get(sender.getEntityWorld());
+		if (network != null) {
+			notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |_ " + TextFormatting.GREEN + "Mana Network Nodes   " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + network.getNodeCount());
+			notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |  |_ " + TextFormatting.DARK_GREEN + "Active            " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + network.getActiveCount());
+		}
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |_ " + TextFormatting.GREEN + "Mana Sync Packets    " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + ManaSyncScheduler.getPacketsSent());
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |  |_ " + TextFormatting.DARK_GREEN + "Requests / Saved  " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + ManaSyncScheduler.getSyncRequests() + " / " + ManaSyncScheduler.getPacketsSaved());
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |  |_ " + TextFormatting.DARK_GREEN + "Below Threshold   " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + ManaSyncScheduler.getSkippedChanges());
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |_ " + TextFormatting.GREEN + "Cached Fluid Pools   " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + FluidPoolCache.getCachedPoolCount(sender.getEntityWorld()));
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |_ " + TextFormatting.GREEN + "Tracked Structures   " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + StructureTracker.getTrackedCount(sender.getEntityWorld()));
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |  |_ " + TextFormatting.DARK_GREEN + "Validated / Cached" + TextFormatting.GRAY + " | " + TextFormatting.GRAY + StructureTracker.getValidations() + " / " + StructureTracker.getCachedLookups());
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |_ " + TextFormatting.GREEN + "Nemez Sync Packets   " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + NemezEventHandler.getPacketsSent());
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |  |_ " + TextFormatting.DARK_GREEN + "Bytes / Moments   " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + NemezEventHandler.getBytesSent() + " / " + NemezEventHandler.getMomentsSent());
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |_ " + TextFormatting.GREEN + "Queued Spell Work    " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + SpellScheduler.getQueueDepth(SpellScheduler.Priority.CAST) + " / " + SpellScheduler.getQueueDepth(SpellScheduler.Priority.LINGERING));
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |  |_ " + TextFormatting.DARK_GREEN + "Casters           " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + SpellScheduler.getQueuedCasters(SpellScheduler.Priority.CAST) + " / " + SpellScheduler.getQueuedCasters(SpellScheduler.Priority.LINGERING));
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |  |_ " + TextFormatting.DARK_GREEN + "Direct / Deferred " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + SpellScheduler.getRanDirectly() + " / " + SpellScheduler.getDeferred());
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |  |_ " + TextFormatting.DARK_GREEN + "Resumed / Max Wait" + TextFormatting.GRAY + " | " + TextFormatting.GRAY + SpellScheduler.getRanDeferred() + " / " + SpellScheduler.getMaxDelay() + " ticks");
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |  |  |_ " + TextFormatting.DARK_GREEN + "Ticks Over Budget " + TextFormatting.GRAY + " | " + TextFormatting.GRAY + SpellScheduler.getExhaustedTicks());
+		notifyCommandListener(sender, this, TextFormatting.YELLOW + " |________________________________________________//");
+	}
+}
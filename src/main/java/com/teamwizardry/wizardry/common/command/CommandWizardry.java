@@ -18,6 +18,8 @@ public class CommandWizardry extends CommandTreeBase {
 		addSubcommand(new CommandGenStaff());
 		addSubcommand(new CommandGenPearl());
 		addSubcommand(new CommandDebug());
+		addSubcommand(new CommandStats());
+		addSubcommand(new CommandBenchmark());
 		addSubcommand(new CommandTeleportTorikki());
 		addSubcommand(new CommandTeleportUnderworld());
 		addSubcommand(new CommandTreeHelp(this));
@@ -0,0 +1,264 @@
+package com.teamwizardry.wizardry.common.core;
+
+import com.google.common.collect.MapMaker;
+import com.teamwizardry.librarianlib.features.network.PacketHandler;
+import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.api.ConfigValues;
+import com.teamwizardry.wizardry.api.spell.SpellData;
+import com.teamwizardry.wizardry.api.spell.SpellRing;
+import com.teamwizardry.wizardry.common.network.PacketRenderSpellBatch;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Collects spell render events on the server and sends them once per tick as one {@link PacketRenderSpellBatch} per player. <br/>
+ * Spell ring chains get an id by their NBT content. Each player receives the NBT of a chain only once,
+ * later events just reference the id. <br/>
+ * <b>NOTE</b>: Must be used from the server thread only.
+ */
+@Mod.EventBusSubscriber(modid = Wizardry.MODID)
+public final class SpellRenderBatcher {
+
+	/**
+	 * Upper bound of distinct ring chains with an id. If exceeded, all ids are dropped and clients are told to reset their caches.
+	 */
+	private static final int MAX_RING_IDS = 4096;
+
+	/**
+	 * Approximated overhead of a single legacy {@link com.teamwizardry.wizardry.common.network.PacketRenderSpell}, containing the packet discriminator and the compound wrapping both tags.
+	 */
+	private static final int LEGACY_PACKET_OVERHEAD = 48;
+
+	private static final Map<SpellRing, RingEntry> ringsByInstance = new MapMaker().weakKeys().makeMap();
+	private static final HashMap<NBTTagCompound, RingEntry> ringsByContent = new HashMap<>();
+	private static final HashMap<UUID, PlayerQueue> queues = new HashMap<>();
+	private static int nextRingId = 0;
+	private static int ringEpoch = 0;
+
+	private static long eventsSent = 0;
+	private static long eventsDropped = 0;
+	private static long packetsSent = 0;
+	private static long bytesSent = 0;
+	private static long legacyBytes = 0;
+
+	private SpellRenderBatcher() {
+	}
+
+	/**
+	 * Queues a render event for all players in range of the given target.
+	 *
+	 * @param world     the world the spell was cast in.
+	 * @param spell     the spell data to render.
+	 * @param spellRing the ring which is rendered.
+	 * @param target    the position used to find the receiving players.
+	 */
+	public static void queue(@Nonnull World world, @Nonnull SpellData spell, @Nonnull SpellRing spellRing, @Nonnull Vec3d target) {
+		if (world.isRemote) return;
+
+		double radiusSq = ConfigValues.spellRenderRadius * ConfigValues.spellRenderRadius;
+		RingEntry ring = null;
+		byte[] data = null;
+
+		for (EntityPlayer player : world.playerEntities) {
+			if (!(player instanceof EntityPlayerMP)) continue;
+			if (player.getDistanceSq(target.x, target.y, target.z) > radiusSq) continue;
+
+			// Serialize lazily, as there might be no player in range at all
+			if (ring == null) {
+				ring = getRingEntry(spellRing);
+				data = PacketRenderSpellBatch.toBytes(spell.serializeNBT());
+			}
+
+			PlayerQueue queue = queues.computeIfAbsent(player.getUniqueID(), uuid -> new PlayerQueue());
+			queue.add(ring, data);
+		}
+	}
+
+	/**
+	 * Returns the id entry of a ring chain. Chains are looked up by instance first, as this avoids hashing the whole NBT.
+	 * This works, as {@link SpellRing#serializeNBT()} doesn't change once created.
+	 */
+	private static RingEntry getRingEntry(SpellRing spellRing) {
+		RingEntry entry = ringsByInstance.get(spellRing);
+		if (entry != null) return entry;
+
+		NBTTagCompound compound = spellRing.serializeNBT();
+		entry = ringsByContent.get(compound);
+		if (entry == null) {
+			if (ringsByContent.size() >= MAX_RING_IDS) {
+				ringsByContent.clear();
+				ringsByInstance.clear();
+				nextRingId = 0;
+				ringEpoch++;
+			}
+
+			entry = new RingEntry(nextRingId++, PacketRenderSpellBatch.toBytes(compound));
+			ringsByContent.put(compound.copy(), entry);
+		}
+
+		ringsByInstance.put(spellRing, entry);
+		return entry;
+	}
+
+	@SubscribeEvent
+	public static void onServerTick(TickEvent.ServerTickEvent event) {
+		if (event.phase != TickEvent.Phase.END) return;
+		if (queues.isEmpty()) return;
+
+		MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+		if (server == null) return;
+
+		Iterator<Map.Entry<UUID, PlayerQueue>> iter = queues.entrySet().iterator();
+		while (iter.hasNext()) {
+			Map.Entry<UUID, PlayerQueue> entry = iter.next();
+			PlayerQueue queue = entry.getValue();
+			if (queue.events.isEmpty()) continue;
+
+			EntityPlayerMP player = server.getPlayerList().getPlayerByUUID(entry.getKey());
+			if (player == null) {
+				iter.remove();
+				continue;
+			}
+
+			PacketHandler.NETWORK.sendTo(queue.flush(), player);
+		}
+	}
+
+	@SubscribeEvent
+	public static void onLogin(PlayerEvent.PlayerLoggedInEvent event) {
+		// NOTE: A fresh queue starts with a reset, clearing anything the client cached from other servers.
+		queues.remove(event.player.getUniqueID());
+	}
+
+	@SubscribeEvent
+	public static void onLogout(PlayerEvent.PlayerLoggedOutEvent event) {
+		queues.remove(event.player.getUniqueID());
+	}
+
+	public static long getEventsSent() {
+		return eventsSent;
+	}
+
+	public static long getEventsDropped() {
+		return eventsDropped;
+	}
+
+	public static long getPacketsSent() {
+		return packetsSent;
+	}
+
+	public static long getBytesSent() {
+		return bytesSent;
+	}
+
+	/**
+	 * Returns the number of bytes saved compared to sending one packet with the full ring chain NBT per event and player.
+	 *
+	 * @return the saved bytes.
+	 */
+	public static long getBytesSaved() {
+		return legacyBytes - bytesSent;
+	}
+
+	////////////////////
+
+	private static final class RingEntry {
+		private final int id;
+		private final byte[] bytes;
+
+		RingEntry(int id, byte[] bytes) {
+			this.id = id;
+			this.bytes = bytes;
+		}
+	}
+
+	private static final class PlayerQueue {
+		private final HashSet<Integer> knownRings = new HashSet<>();
+		private final ArrayList<RingEntry> newRings = new ArrayList<>();
+		private final ArrayList<RingEntry> events = new ArrayList<>();
+		private final ArrayList<byte[]> eventData = new ArrayList<>();
+		private int epoch = ringEpoch;
+		private boolean reset = true;
+		private int bytes = 0;
+
+		void add(RingEntry ring, byte[] data) {
+			if (epoch != ringEpoch) {
+				// Ids were reassigned. Events queued with old ids can't be resolved anymore.
+				eventsDropped += events.size();
+				knownRings.clear();
+				newRings.clear();
+				events.clear();
+				eventData.clear();
+				bytes = 0;
+				epoch = ringEpoch;
+				reset = true;
+			}
+
+			boolean newRing = !knownRings.contains(ring.id);
+			int size = PacketBuffer.getVarIntSize(ring.id) + data.length;
+			if (newRing) size += PacketBuffer.getVarIntSize(ring.id) + ring.bytes.length;
+
+			int budget = ConfigValues.spellRenderByteBudget;
+			if (budget > 0 && bytes + size > budget) {
+				eventsDropped++;
+				return;
+			}
+
+			if (newRing) {
+				knownRings.add(ring.id);
+				newRings.add(ring);
+			}
+			events.add(ring);
+			eventData.add(data);
+			bytes += size;
+			legacyBytes += LEGACY_PACKET_OVERHEAD + ring.bytes.length + data.length;
+		}
+
+		PacketRenderSpellBatch flush() {
+			int[] ringIds = new int[newRings.size()];
+			byte[][] rings = new byte[newRings.size()][];
+			for (int i = 0; i < ringIds.length; i++) {
+				ringIds[i] = newRings.get(i).id;
+				rings[i] = newRings.get(i).bytes;
+			}
+
+			int[] eventRingIds = new int[events.size()];
+			byte[][] events = new byte[eventRingIds.length][];
+			for (int i = 0; i < eventRingIds.length; i++) {
+				eventRingIds[i] = this.events.get(i).id;
+				events[i] = eventData.get(i);
+			}
+
+			PacketRenderSpellBatch packet = new PacketRenderSpellBatch(reset, ringIds, rings, eventRingIds, events);
+
+			eventsSent += eventRingIds.length;
+			packetsSent++;
+			bytesSent += 1 + PacketBuffer.getVarIntSize(ringIds.length) + PacketBuffer.getVarIntSize(eventRingIds.length) + bytes;
+
+			reset = false;
+			bytes = 0;
+			newRings.clear();
+			this.events.clear();
+			eventData.clear();
+			return packet;
+		}
+	}
+}
@@ -50,13 +50,17 @@ public final class EntityMoment {
 				entity instanceof EntityLivingBase ? ((EntityLivingBase) entity).getHealth() : 0f,
 				entity instanceof EntityPlayer ? ((EntityPlayer) entity).getFoodStats().getFoodLevel() : 0,
 				entity instanceof EntityPlayer ? ((EntityPlayer) entity).getFoodStats().getSaturationLevel() : 0,
-				entity instanceof EntityPlayer ? ((Float) exhaustionGetter.invoke(((EntityPlayer) entity).getFoodStats())) : 0f);
+				entity instanceof EntityPlayer ? getExhaustion((EntityPlayer) entity) : 0f);
 	}
 
 	private EntityMoment() {
 		this(null, null, null, null, null, null, null, null, null);
 	}
 
+	static float getExhaustion(EntityPlayer player) {
+		return (Float) exhaustionGetter.invoke(player.getFoodStats());
+	}
+
 	public static EntityMoment fromNBT(NBTTagCompound nbt) {
 		return new EntityMoment(nbt.hasKey("x") ? nbt.getDouble("x") : null,
 				nbt.hasKey("y") ? nbt.getDouble("y") : null,
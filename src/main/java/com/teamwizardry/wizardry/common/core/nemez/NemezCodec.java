@@ -0,0 +1,233 @@
+package com.teamwizardry.wizardry.common.core.nemez;
+
+import net.minecraft.network.PacketBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary encoding of moments for {@link com.teamwizardry.wizardry.common.network.PacketNemezReversal}. <br/>
+ * Entities are referenced by their index in a table at the start of the data. Positions and rotations are quantized
+ * and written as zigzag var-int deltas against the previous sample of the same entity, other fields only when they changed.
+ * Deltas start from scratch in each packet, so packets can be decoded on their own.
+ */
+final class NemezCodec {
+
+	/**
+	 * Positions are rounded to 1/4096 of a block, rotations to 1/64 of a degree.
+	 */
+	private static final double POSITION_SCALE = 4096;
+	private static final float ANGLE_SCALE = 64;
+
+	private NemezCodec() {
+	}
+
+	/**
+	 * Writes moments oldest first.
+	 *
+	 * @param skip  the number of moments to skip, starting from the newest one, i.e. the moments which are played first.
+	 * @param count the number of moments to write, older than the skipped ones.
+	 */
+	static void write(PacketBuffer buf, NemezManager manager, int skip, int count) {
+		int newest = manager.size() - 1 - Math.max(0, skip);
+		int oldest = Math.max(0, newest - count + 1);
+		if (newest < 0 || count <= 0) {
+			buf.writeVarInt(0);
+			buf.writeVarInt(0);
+			return;
+		}
+
+		long first = manager.getMoment(oldest).first;
+		long end = manager.getMoment(newest).end;
+
+		List<NemezManager.EntityTrack> table = new ArrayList<>();
+		List<String> ids = new ArrayList<>();
+		for (String id : manager.getEntityIds()) {
+			NemezManager.EntityTrack track = manager.getTrack(id);
+			if (track.countLive(first, end) == 0) continue;
+			table.add(track);
+			ids.add(id);
+		}
+
+		buf.writeVarInt(ids.size());
+		for (String id : ids) {
+			UUID uuid = UUID.fromString(id);
+			buf.writeLong(uuid.getMostSignificantBits());
+			buf.writeLong(uuid.getLeastSignificantBits());
+		}
+
+		State state = new State(table.size());
+		buf.writeVarInt(newest - oldest + 1);
+		for (int index = oldest; index <= newest; index++) {
+			Moment moment = manager.getMoment(index);
+
+			NemezManager.BlockLog blocks = manager.getBlocks();
+			int from = blocks.lowerBound(moment.first);
+			int to = blocks.lowerBound(moment.end);
+			int blockCount = 0;
+			for (int i = from; i < to; i++)
+				if (!blocks.isDead(i)) blockCount++;
+			buf.writeVarInt(blockCount);
+			for (int i = from; i < to; i++) {
+				if (blocks.isDead(i)) continue;
+				buf.writeLong(blocks.pos[i]);
+				buf.writeVarInt(blocks.state[i]);
+			}
+
+			int sampleCount = 0;
+			for (NemezManager.EntityTrack track : table)
+				sampleCount += track.countLive(moment.first, moment.end);
+			buf.writeVarInt(sampleCount);
+			for (int entity = 0; entity < table.size(); entity++) {
+				NemezManager.EntityTrack track = table.get(entity);
+				for (int i = track.lowerBound(moment.first); i < track.count && track.seq[i] < moment.end; i++)
+					if (!track.isDead(i))
+						state.write(buf, entity, track, i);
+			}
+		}
+	}
+
+	/**
+	 * Reads moments written by {@link #write(PacketBuffer, NemezManager, int, int)} into an empty manager.
+	 *
+	 * @param ids receives the ids of all entities in the data.
+	 */
+	static void read(PacketBuffer buf, NemezManager manager, List<String> ids) {
+		int entityCount = buf.readVarInt();
+		List<NemezManager.EntityTrack> table = new ArrayList<>(entityCount);
+		for (int i = 0; i < entityCount; i++) {
+			String id = new UUID(buf.readLong(), buf.readLong()).toString();
+			ids.add(id);
+			table.add(manager.getOrCreateTrack(id));
+		}
+
+		State state = new State(entityCount);
+		int momentCount = buf.readVarInt();
+		for (int index = 0; index < momentCount; index++) {
+			int blockCount = buf.readVarInt();
+			for (int i = 0; i < blockCount; i++)
+				manager.pushBlockData(buf.readLong(), buf.readVarInt());
+
+			int sampleCount = buf.readVarInt();
+			for (int i = 0; i < sampleCount; i++)
+				state.read(buf, table, manager.getCurrentSeq());
+
+			manager.pushMoment();
+		}
+	}
+
+	private static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private static int unzigzag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	////////////////////
+
+	/**
+	 * The last sample of each entity in the table, as seen by both the encoder and the decoder.
+	 */
+	private static final class State {
+		private final int[] known;
+		private final long[] x, y, z;
+		private final int[] yaw, pitch, food;
+		private final float[] health, saturation, exhaustion;
+
+		State(int size) {
+			known = new int[size];
+			x = new long[size];
+			y = new long[size];
+			z = new long[size];
+			yaw = new int[size];
+			pitch = new int[size];
+			food = new int[size];
+			health = new float[size];
+			saturation = new float[size];
+			exhaustion = new float[size];
+		}
+
+		void write(PacketBuffer buf, int entity, NemezManager.EntityTrack track, int i) {
+			int bits = track.mask[i] & NemezManager.EntityTrack.ALL;
+			long qx = Math.round(track.x[i] * POSITION_SCALE);
+			long qy = Math.round(track.y[i] * POSITION_SCALE);
+			long qz = Math.round(track.z[i] * POSITION_SCALE);
+			int qyaw = Math.round(track.yaw[i] * ANGLE_SCALE);
+			int qpitch = Math.round(track.pitch[i] * ANGLE_SCALE);
+
+			int changed = 0;
+			if (changed(bits, NemezManager.EntityTrack.X, entity) || qx != x[entity]) changed |= NemezManager.EntityTrack.X;
+			if (changed(bits, NemezManager.EntityTrack.Y, entity) || qy != y[entity]) changed |= NemezManager.EntityTrack.Y;
+			if (changed(bits, NemezManager.EntityTrack.Z, entity) || qz != z[entity]) changed |= NemezManager.EntityTrack.Z;
+			if (changed(bits, NemezManager.EntityTrack.YAW, entity) || qyaw != yaw[entity]) changed |= NemezManager.EntityTrack.YAW;
+			if (changed(bits, NemezManager.EntityTrack.PITCH, entity) || qpitch != pitch[entity]) changed |= NemezManager.EntityTrack.PITCH;
+			if (changed(bits, NemezManager.EntityTrack.HEALTH, entity) || track.health[i] != health[entity]) changed |= NemezManager.EntityTrack.HEALTH;
+			if (changed(bits, NemezManager.EntityTrack.FOOD, entity) || track.food[i] != food[entity]) changed |= NemezManager.EntityTrack.FOOD;
+			if (changed(bits, NemezManager.EntityTrack.SATURATION, entity) || track.saturation[i] != saturation[entity]) changed |= NemezManager.EntityTrack.SATURATION;
+			if (changed(bits, NemezManager.EntityTrack.EXHAUSTION, entity) || track.exhaustion[i] != exhaustion[entity]) changed |= NemezManager.EntityTrack.EXHAUSTION;
+			// Fields missing in the sample are never written, the decoder keeps the previous value
+			changed &= bits;
+
+			buf.writeVarInt(entity);
+			buf.writeVarInt(changed);
+			if ((changed & NemezManager.EntityTrack.X) != 0) buf.writeVarLong(zigzag(qx - x[entity]));
+			if ((changed & NemezManager.EntityTrack.Y) != 0) buf.writeVarLong(zigzag(qy - y[entity]));
+			if ((changed & NemezManager.EntityTrack.Z) != 0) buf.writeVarLong(zigzag(qz - z[entity]));
+			if ((changed & NemezManager.EntityTrack.YAW) != 0) buf.writeVarInt(zigzag(qyaw - yaw[entity]));
+			if ((changed & NemezManager.EntityTrack.PITCH) != 0) buf.writeVarInt(zigzag(qpitch - pitch[entity]));
+			if ((changed & NemezManager.EntityTrack.HEALTH) != 0) buf.writeFloat(track.health[i]);
+			if ((changed & NemezManager.EntityTrack.FOOD) != 0) buf.writeVarInt(track.food[i]);
+			if ((changed & NemezManager.EntityTrack.SATURATION) != 0) buf.writeFloat(track.saturation[i]);
+			if ((changed & NemezManager.EntityTrack.EXHAUSTION) != 0) buf.writeFloat(track.exhaustion[i]);
+
+			update(entity, changed, qx, qy, qz, qyaw, qpitch, track.health[i], track.food[i], track.saturation[i], track.exhaustion[i]);
+		}
+
+		void read(PacketBuffer buf, List<NemezManager.EntityTrack> table, long seq) {
+			int entity = buf.readVarInt();
+			int changed = buf.readVarInt();
+			long qx = (changed & NemezManager.EntityTrack.X) != 0 ? x[entity] + unzigzag(buf.readVarLong()) : x[entity];
+			long qy = (changed & NemezManager.EntityTrack.Y) != 0 ? y[entity] + unzigzag(buf.readVarLong()) : y[entity];
+			long qz = (changed & NemezManager.EntityTrack.Z) != 0 ? z[entity] + unzigzag(buf.readVarLong()) : z[entity];
+			int qyaw = (changed & NemezManager.EntityTrack.YAW) != 0 ? yaw[entity] + unzigzag(buf.readVarInt()) : yaw[entity];
+			int qpitch = (changed & NemezManager.EntityTrack.PITCH) != 0 ? pitch[entity] + unzigzag(buf.readVarInt()) : pitch[entity];
+			float newHealth = (changed & NemezManager.EntityTrack.HEALTH) != 0 ? buf.readFloat() : health[entity];
+			int newFood = (changed & NemezManager.EntityTrack.FOOD) != 0 ? buf.readVarInt() : food[entity];
+			float newSaturation = (changed & NemezManager.EntityTrack.SATURATION) != 0 ? buf.readFloat() : saturation[entity];
+			float newExhaustion = (changed & NemezManager.EntityTrack.EXHAUSTION) != 0 ? buf.readFloat() : exhaustion[entity];
+
+			update(entity, changed, qx, qy, qz, qyaw, qpitch, newHealth, newFood, newSaturation, newExhaustion);
+			table.get(entity).append(seq, known[entity],
+					qx / POSITION_SCALE, qy / POSITION_SCALE, qz / POSITION_SCALE,
+					qyaw / ANGLE_SCALE, qpitch / ANGLE_SCALE,
+					newHealth, newFood, newSaturation, newExhaustion);
+		}
+
+		private boolean changed(int bits, int field, int entity) {
+			return (bits & field) != 0 && (known[entity] & field) == 0;
+		}
+
+		private void update(int entity, int changed, long qx, long qy, long qz, int qyaw, int qpitch, float newHealth, int newFood, float newSaturation, float newExhaustion) {
+			known[entity] |= changed;
+			if ((changed & NemezManager.EntityTrack.X) != 0) x[entity] = qx;
+			if ((changed & NemezManager.EntityTrack.Y) != 0) y[entity] = qy;
+			if ((changed & NemezManager.EntityTrack.Z) != 0) z[entity] = qz;
+			if ((changed & NemezManager.EntityTrack.YAW) != 0) yaw[entity] = qyaw;
+			if ((changed & NemezManager.EntityTrack.PITCH) != 0) pitch[entity] = qpitch;
+			if ((changed & NemezManager.EntityTrack.HEALTH) != 0) health[entity] = newHealth;
+			if ((changed & NemezManager.EntityTrack.FOOD) != 0) food[entity] = newFood;
+			if ((changed & NemezManager.EntityTrack.SATURATION) != 0) saturation[entity] = newSaturation;
+			if ((changed & NemezManager.EntityTrack.EXHAUSTION) != 0) exhaustion[entity] = newExhaustion;
+		}
+	}
+}
@@ -5,43 +5,103 @@ import com.teamwizardry.wizardry.Wizardry;
 import com.teamwizardry.wizardry.common.network.PacketNemezReversal;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
-import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import javax.annotation.Nullable;
 import java.lang.ref.WeakReference;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Objects;
+import java.util.UUID;
 
 /**
- * Handles time reversal ticking on both client and server
+ * Handles time reversal ticking on both client and server. <br/>
+ * Reversals with a locus are streamed to players within {@link #SYNC_RANGE} blocks. The server remembers the number of moments
+ * each player has received and only sends moments past it, {@link PacketNemezReversal#SYNC_AMOUNT} at least ahead of playback.
+ * Clients keep at most {@link #MAX_CLIENT_MOMENTS} moments of a reversal.
  */
 @Mod.EventBusSubscriber(modid = Wizardry.MODID)
 public final class NemezEventHandler {
 
+	private static final int SYNC_RANGE = 96;
+	private static final int MAX_CLIENT_MOMENTS = PacketNemezReversal.SYNC_AMOUNT * 4;
+
 	private static HashSet<Reversal> reversals = new HashSet<>();
+	// Separate from the server reversals, as the integrated server ticks on another thread
+	private static HashMap<Integer, Reversal> clientReversals = new HashMap<>();
+	private static int nextStream = 0;
 
-	@SideOnly(Side.CLIENT)
-	public static NemezTracker getCurrent() {
-		if (reversals.isEmpty()) {
-			Reversal reversal = new Reversal(Minecraft.getMinecraft().world, new NemezTracker());
-			reversals.add(reversal);
-		}
-		return reversals.iterator().next().nemez;
-	}
+	private static long packetsSent = 0;
+	private static long bytesSent = 0;
+	private static long momentsSent = 0;
 
 	public static void reverseTime(World world, NemezTracker tracker, BlockPos locus) {
-		Reversal reversal = new Reversal(world, tracker);
+		NemezTracker snapshot = tracker.snapshot();
+		snapshot.collapse();
+
+		Reversal reversal = new Reversal(world, snapshot);
 		reversal.pos = locus;
+		reversal.stream = nextStream++;
 		reversals.add(reversal);
 	}
 
+	/**
+	 * Adds streamed moments to a client side reversal. A gap in the stream restarts the reversal from the received moments.
+	 *
+	 * @param stream  the id of the reversal.
+	 * @param start   the number of the first received moment.
+	 * @param played  the number of moments the server has applied.
+	 * @param moments the received moments.
+	 */
+	@SideOnly(Side.CLIENT)
+	public static void receive(int stream, int start, int played, NemezTracker moments) {
+		World world = Minecraft.getMinecraft().world;
+		if (world == null) return;
+
+		Reversal reversal = clientReversals.get(stream);
+		if (reversal == null || reversal.world.get() != world || reversal.received != start) {
+			reversal = new Reversal(world, new NemezTracker());
+			reversal.played = reversal.received = start;
+			clientReversals.put(stream, reversal);
+		}
+
+		reversal.received += moments.size();
+		reversal.nemez.absorb(moments);
+
+		// Catch up if the client fell behind the server
+		int behind = Math.min(played - reversal.played, reversal.nemez.size());
+		if (behind > 0) {
+			reversal.nemez.skip(behind);
+			reversal.played += behind;
+		}
+
+		int excess = reversal.nemez.size() - MAX_CLIENT_MOMENTS;
+		if (excess > 0) {
+			reversal.nemez.dropOldest(excess);
+			reversal.received -= excess;
+		}
+	}
+
+	public static long getPacketsSent() {
+		return packetsSent;
+	}
+
+	public static long getBytesSent() {
+		return bytesSent;
+	}
+
+	public static long getMomentsSent() {
+		return momentsSent;
+	}
+
 	public static void rewind(World world, NemezTracker tracker, BlockPos locus) {
 		reverseTime(world, tracker, locus);
 		tracker.erase();
@@ -55,10 +115,9 @@ public final class NemezEventHandler {
 				if (reversal.world.get() == event.world) {
 					if (reversal.nemez.hasNext()) {
 						reversal.nemez.applySnapshot(event.world);
-						if (reversal.pos != null && reversal.world.get().getTotalWorldTime() % PacketNemezReversal.SYNC_AMOUNT == 0)
-							PacketHandler.NETWORK.sendToAllAround(new PacketNemezReversal(reversal.nemez),
-									new NetworkRegistry.TargetPoint(reversal.world.get().provider.getDimension(),
-											reversal.pos.getX() + 0.5, reversal.pos.getY() + 0.5, reversal.pos.getZ() + 0.5, 96));
+						reversal.played++;
+						if (reversal.pos != null)
+							sync(event.world, reversal);
 					} else {
 						for (Entity entity : reversal.nemez.getTrackedEntities(event.world))
 							entity.setNoGravity(false);
@@ -69,12 +128,32 @@ public final class NemezEventHandler {
 			});
 	}
 
+	@SideOnly(Side.CLIENT)
+	@SubscribeEvent
+	public static void clientTick(TickEvent.ClientTickEvent event) {
+		if (event.phase != TickEvent.Phase.START) return;
+
+		World world = Minecraft.getMinecraft().world;
+		clientReversals.values().removeIf((reversal) -> {
+			if (world == null || reversal.world.get() != world) return true;
+			if (!reversal.nemez.hasNext()) {
+				for (Entity entity : reversal.nemez.getTrackedEntities(world))
+					entity.setNoGravity(false);
+				return true;
+			}
+
+			reversal.nemez.applySnapshot(world);
+			reversal.played++;
+			return false;
+		});
+	}
+
 	@SideOnly(Side.CLIENT)
 	@SubscribeEvent
 	public static void renderTick(TickEvent.RenderTickEvent event) {
 		World world = Minecraft.getMinecraft().world;
 		if (event.phase == TickEvent.Phase.START) {
-			for (Reversal reversal : reversals) {
+			for (Reversal reversal : clientReversals.values()) {
 				if (reversal.world.get() != world) continue;
 
 				if (reversal.nemez.hasNext())
@@ -83,18 +162,49 @@ public final class NemezEventHandler {
 		}
 	}
 
+	private static void sync(World world, Reversal reversal) {
+		int total = reversal.played + reversal.nemez.size();
+		for (EntityPlayer player : world.playerEntities) {
+			if (!(player instanceof EntityPlayerMP)) continue;
+
+			UUID id = player.getUniqueID();
+			if (player.getDistanceSqToCenter(reversal.pos) > SYNC_RANGE * SYNC_RANGE) {
+				// Sent again from the current moment on when the player comes back
+				reversal.acknowledged.remove(id);
+				continue;
+			}
+
+			int acknowledged = Math.max(reversal.acknowledged.getOrDefault(id, reversal.played), reversal.played);
+			if (acknowledged >= total || acknowledged - reversal.played >= PacketNemezReversal.SYNC_AMOUNT) continue;
+
+			int end = Math.min(total, reversal.played + PacketNemezReversal.SYNC_AMOUNT * 2);
+			PacketNemezReversal packet = new PacketNemezReversal(reversal.stream, acknowledged, reversal.played,
+					reversal.nemez, acknowledged - reversal.played, end - acknowledged);
+			PacketHandler.NETWORK.sendTo(packet, (EntityPlayerMP) player);
+			reversal.acknowledged.put(id, end);
+
+			packetsSent++;
+			bytesSent += packet.getSize();
+			momentsSent += end - acknowledged;
+		}
+	}
+
 	private static class Reversal {
 
 		private final WeakReference<World> world;
 		private final NemezTracker nemez;
+		// Number of moments applied, and on the client, received
+		private int played = 0;
+		private int received = 0;
+		private int stream = -1;
+		private final HashMap<UUID, Integer> acknowledged = new HashMap<>();
 
 		@Nullable
 		private BlockPos pos = null;
 
 		public Reversal(World world, NemezTracker tracker) {
 			this.world = new WeakReference<>(world);
-			this.nemez = tracker.snapshot();
-			this.nemez.collapse();
+			this.nemez = tracker;
 		}
 
 		@Override
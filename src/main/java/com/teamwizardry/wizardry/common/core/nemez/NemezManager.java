@@ -1,45 +1,122 @@
 package com.teamwizardry.wizardry.common.core.nemez;
 
+import com.teamwizardry.wizardry.api.util.LongHashSet;
+import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.common.util.INBTSerializable;
 
 import java.util.ArrayList;
-import java.util.List;
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.HashMap;
 
 /**
+ * The recorded history of a {@link NemezTracker}, kept in columns of primitives. <br/>
+ * Each recorded tick gets a sequence number, and every sample is tagged with the sequence number it was recorded in.
+ * Entities are interned to an index with one {@link EntityTrack} of samples each, blocks share one {@link BlockLog}.
+ * A moment is a range of sequence numbers, held by its first number in a ring of moment starts, so merging two moments
+ * only drops a start. Merged moments are thinned down to {@link #SAMPLES_PER_MOMENT} samples per entity and one state per block. <br/>
+ * <b>NOTE</b>: {@link Moment}s handed out are views, which are only valid until the next change of this manager.
+ *
  * @author WireSegal
  * Created at 4:19 PM on 1/15/18.
  */
 public class NemezManager implements INBTSerializable<NBTTagList> {
 	public static final int TIME_COMPRESSION_CONSTANT = 15;
-	private final Stack<Moment> moments = new Stack<>();
-	private transient Moment currentMoment = new Moment();
+	public static final int SAMPLES_PER_MOMENT = 5;
+
+	// Ring of the first sequence number of each moment, oldest first
+	private long[] momentStarts = new long[64];
+	private int momentHead = 0;
+	private int momentCount = 0;
+	// The exclusive end of the newest moment, and the sequence number samples are recorded with
+	private long historyEnd = 0;
+	private long currentSeq = 0;
+	// Set when popped moments still have samples in the columns
+	private boolean hasOrphans = false;
+	private int compressionCursor = 0;
+
+	private HashMap<String, Integer> entityIndex = new HashMap<>();
+	private ArrayList<String> entityIds = new ArrayList<>();
+	private ArrayList<EntityTrack> tracks = new ArrayList<>();
+	private BlockLog blocks = new BlockLog();
+	private LongHashSet currentBlocks = new LongHashSet();
 
 	public void pushEntityData(Entity entity) {
-		currentMoment.addEntitySnapshot(entity);
+		trimOrphans();
+		EntityTrack track = getOrCreateTrack(entity.getCachedUniqueIdString());
+		int last = track.count - 1;
+		if (last >= 0 && track.seq[last] == currentSeq && track.matches(last, entity)) return;
+		track.append(currentSeq, entity);
 	}
 
 	public void pushBlockData(BlockPos pos, IBlockState state) {
-		currentMoment.addBlockSnapshot(pos, state);
+		pushBlockData(pos.toLong(), Block.getStateId(state));
+	}
+
+	void pushBlockData(long packed, int stateId) {
+		trimOrphans();
+		// Only the first state of a tick is kept, it's the one reverted to
+		if (currentBlocks.add(packed))
+			blocks.append(currentSeq, packed, stateId);
 	}
 
 	public void pushMoment() {
-		moments.push(currentMoment);
-		currentMoment = new Moment();
+		trimOrphans();
+		if (momentHead + momentCount == momentStarts.length) {
+			// Merges free up slots at the head, which are reused before growing
+			long[] starts = momentCount < momentStarts.length / 2 ? momentStarts : new long[momentStarts.length * 2];
+			System.arraycopy(momentStarts, momentHead, starts, 0, momentCount);
+			momentStarts = starts;
+			momentHead = 0;
+		}
+		momentStarts[momentHead + momentCount++] = currentSeq;
+		historyEnd = ++currentSeq;
+		currentBlocks.clear();
 	}
 
 	public Moment peekAtMoment() {
-		return moments.empty() ? null : moments.peek();
+		return momentCount == 0 ? null : getMoment(momentCount - 1);
 	}
 
 	public Moment popMoment() {
-		return moments.pop();
+		if (momentCount == 0) throw new EmptyStackException();
+		Moment moment = getMoment(momentCount - 1);
+		momentCount--;
+		historyEnd = moment.first;
+		hasOrphans = true;
+		return moment;
+	}
+
+	public int size() {
+		return momentCount;
+	}
+
+	/**
+	 * Drops the given amount of the oldest moments.
+	 */
+	public void dropOldest(int count) {
+		if (count <= 0) return;
+		if (count >= momentCount) {
+			erase();
+			return;
+		}
+
+		trimOrphans();
+		momentHead += count;
+		momentCount -= count;
+		compressionCursor = 0;
+		for (EntityTrack track : tracks)
+			track.remove(Long.MIN_VALUE, getStart(0));
+		blocks.remove(Long.MIN_VALUE, getStart(0));
 	}
 
 	public void collapse() {
@@ -47,90 +124,574 @@ public class NemezManager implements INBTSerializable<NBTTagList> {
 	}
 
 	public boolean needsCompression(int maximumMoments) {
-		return moments.size() <= maximumMoments * 1.5;
+		return momentCount > maximumMoments;
 	}
 
+	/**
+	 * Merges pairs of neighbouring moments until at most the given amount is left.
+	 * A cursor walks from the oldest to the newest moment and wraps around, so each pass halves the resolution of the history
+	 * while each call only merges as many pairs as there are moments above the maximum.
+	 */
 	public void compressDownTo(int maximumMoments) {
-		if (moments.size() <= maximumMoments) return;
-		compress((int) Math.ceil((float) maximumMoments / moments.size()));
+		trimOrphans();
+		while (momentCount > Math.max(1, maximumMoments)) {
+			if (compressionCursor >= momentCount - 1) compressionCursor = 0;
+			mergeWithNext(compressionCursor++);
+		}
 	}
 
+	/**
+	 * Merges each run of <code>factor</code> moments into one, starting from the newest moment.
+	 */
 	public void compress(int factor) {
-		List<Moment> collapsedMoments = new ArrayList<>();
-
-		int momentaryIndex = 0;
-		Moment lastMoment = null;
-		while (moments.size() != 0) {
-			Moment currentMoment = moments.pop();
-			if (lastMoment == null)
-				lastMoment = currentMoment;
-			else
-				lastMoment.collapse(currentMoment);
-			if (++momentaryIndex == factor) {
-				collapsedMoments.add(lastMoment);
-				momentaryIndex = 0;
-				lastMoment = null;
-			}
-		}
-		if (lastMoment != null)
-			collapsedMoments.add(lastMoment);
+		if (factor <= 1 || momentCount <= 1) return;
+		trimOrphans();
 
-		for (Moment moment : collapsedMoments)
-			moments.push(moment);
+		int groups = (momentCount + factor - 1) / factor;
+		// Runs start at the newest moment, so only the oldest group may be smaller
+		int oldestGroup = momentCount - (groups - 1) * factor;
+		long[] starts = new long[Math.max(64, groups * 2)];
+		for (int group = 0; group < groups; group++)
+			starts[group] = momentStarts[momentHead + (group == 0 ? 0 : oldestGroup + (group - 1) * factor)];
+
+		momentStarts = starts;
+		momentHead = 0;
+		momentCount = groups;
+		compressionCursor = 0;
+		for (int group = 0; group < groups; group++)
+			thin(getStart(group), getEnd(group));
 	}
 
 	public void erase() {
-		moments.clear();
-		currentMoment = new Moment();
+		momentStarts = new long[64];
+		momentHead = 0;
+		momentCount = 0;
+		historyEnd = currentSeq;
+		hasOrphans = false;
+		compressionCursor = 0;
+		entityIndex = new HashMap<>();
+		entityIds = new ArrayList<>();
+		tracks = new ArrayList<>();
+		blocks = new BlockLog();
+		currentBlocks.clear();
 	}
 
 	public NemezManager snapshot() {
+		trimOrphans();
 		NemezManager manager = new NemezManager();
-		for (Moment moment : moments)
-			manager.moments.push(moment.snapshot());
-		manager.currentMoment = manager.currentMoment.snapshot();
+		manager.momentStarts = Arrays.copyOfRange(momentStarts, momentHead, momentHead + Math.max(64, momentCount * 2));
+		manager.momentCount = momentCount;
+		manager.historyEnd = historyEnd;
+		manager.currentSeq = currentSeq;
+		manager.compressionCursor = compressionCursor;
+		manager.entityIndex = new HashMap<>(entityIndex);
+		manager.entityIds = new ArrayList<>(entityIds);
+		for (EntityTrack track : tracks)
+			manager.tracks.add(track.copy());
+		manager.blocks = blocks.copy();
+		for (long packed : currentBlocks.toArray())
+			manager.currentBlocks.add(packed);
 		return manager;
 	}
 
+	/**
+	 * Serializes the next <code>n</code> moments to be popped, oldest first.
+	 */
 	public NBTTagList serializeFirstN(int n) {
 		NBTTagList momentsSerialized = new NBTTagList();
-		int i = 0;
-		for (Moment moment : moments) {
-			momentsSerialized.appendTag(moment.serializeNBT());
-			if (i++ == n)
-				break;
-		}
+		for (int i = Math.max(0, momentCount - n); i < momentCount; i++)
+			momentsSerialized.appendTag(getMoment(i).serializeNBT());
 		return momentsSerialized;
 	}
 
+	/**
+	 * Adds serialized moments older than all moments of this manager.
+	 */
 	public void absorb(NBTTagList nbt) {
-		Stack<Moment> shifted = new Stack<>();
-		for (NBTBase momentUncast : nbt) {
-			NBTTagCompound moment = (NBTTagCompound) momentUncast;
-			shifted.push(Moment.fromNBT(moment));
-		}
-		for (Moment moment : moments)
-			shifted.push(moment);
+		NemezManager absorbed = new NemezManager();
+		absorbed.deserializeNBT(nbt);
+		absorb(absorbed);
+	}
 
-		moments.clear();
-		for (Moment moment : shifted)
-			moments.push(moment);
+	/**
+	 * Adds the moments of another manager, older than all moments of this manager. The other manager is consumed.
+	 */
+	public void absorb(NemezManager absorbed) {
+		for (int i = 0; i < momentCount; i++)
+			absorbed.appendMoment(getMoment(i));
+
+		momentStarts = absorbed.momentStarts;
+		momentHead = absorbed.momentHead;
+		momentCount = absorbed.momentCount;
+		historyEnd = absorbed.historyEnd;
+		currentSeq = absorbed.currentSeq;
+		hasOrphans = false;
+		compressionCursor = 0;
+		entityIndex = absorbed.entityIndex;
+		entityIds = absorbed.entityIds;
+		tracks = absorbed.tracks;
+		blocks = absorbed.blocks;
+		currentBlocks.clear();
 	}
 
 	@Override
 	public NBTTagList serializeNBT() {
 		NBTTagList momentsSerialized = new NBTTagList();
-		for (Moment moment : moments)
-			momentsSerialized.appendTag(moment.serializeNBT());
+		for (int i = 0; i < momentCount; i++)
+			momentsSerialized.appendTag(getMoment(i).serializeNBT());
 		return momentsSerialized;
 	}
 
 	@Override
+	@SuppressWarnings("deprecation")
 	public void deserializeNBT(NBTTagList nbt) {
-		moments.clear();
+		erase();
 		for (NBTBase momentUncast : nbt) {
 			NBTTagCompound moment = (NBTTagCompound) momentUncast;
-			moments.push(Moment.fromNBT(moment));
+
+			for (NBTBase blockUncast : moment.getTagList("blocks", Constants.NBT.TAG_COMPOUND)) {
+				NBTTagCompound block = (NBTTagCompound) blockUncast;
+				for (NBTBase stateUncast : block.getTagList("states", Constants.NBT.TAG_COMPOUND)) {
+					NBTTagCompound state = (NBTTagCompound) stateUncast;
+					Block blockAt = Block.getBlockFromName(state.getString("id"));
+					if (blockAt != null) {
+						pushBlockData(BlockPos.fromLong(block.getLong("pos")), blockAt.getStateFromMeta(state.getByte("data")));
+						break;
+					}
+				}
+			}
+
+			NBTTagCompound entities = moment.getCompoundTag("entities");
+			for (String key : entities.getKeySet()) {
+				NBTTagList samples = entities.getTagList(key, Constants.NBT.TAG_COMPOUND);
+				EntityTrack track = getOrCreateTrack(key);
+				// Serialized newest first
+				for (int i = samples.tagCount() - 1; i >= 0; i--)
+					track.append(currentSeq, EntityMoment.fromNBT(samples.getCompoundTagAt(i)));
+			}
+
+			pushMoment();
+		}
+	}
+
+	EntityTrack getTrack(String id) {
+		Integer index = entityIndex.get(id);
+		return index == null ? null : tracks.get(index);
+	}
+
+	Iterable<String> getEntityIds() {
+		return entityIds;
+	}
+
+	BlockLog getBlocks() {
+		return blocks;
+	}
+
+	long getCurrentSeq() {
+		return currentSeq;
+	}
+
+	EntityTrack getOrCreateTrack(String id) {
+		Integer index = entityIndex.get(id);
+		if (index != null) return tracks.get(index);
+
+		EntityTrack track = new EntityTrack();
+		entityIndex.put(id, tracks.size());
+		entityIds.add(id);
+		tracks.add(track);
+		return track;
+	}
+
+	Moment getMoment(int index) {
+		return new Moment(this, getStart(index), getEnd(index));
+	}
+
+	private long getStart(int index) {
+		return momentStarts[momentHead + index];
+	}
+
+	private long getEnd(int index) {
+		return index + 1 < momentCount ? momentStarts[momentHead + index + 1] : historyEnd;
+	}
+
+	private void mergeWithNext(int index) {
+		// Drops the start of the next moment, moving whichever side of the ring is shorter
+		int removed = index + 1;
+		if (removed < momentCount - removed) {
+			System.arraycopy(momentStarts, momentHead, momentStarts, momentHead + 1, removed);
+			momentHead++;
+		} else {
+			System.arraycopy(momentStarts, momentHead + removed + 1, momentStarts, momentHead + removed, momentCount - removed - 1);
+		}
+		momentCount--;
+		thin(getStart(index), getEnd(index));
+	}
+
+	private void thin(long first, long end) {
+		for (EntityTrack track : tracks)
+			track.thin(first, end, SAMPLES_PER_MOMENT);
+		blocks.thin(first, end);
+	}
+
+	private void appendMoment(Moment moment) {
+		for (String id : moment.manager.entityIds) {
+			EntityTrack from = moment.manager.getTrack(id);
+			EntityTrack to = null;
+			for (int i = from.lowerBound(moment.first), end = from.lowerBound(moment.end); i < end; i++) {
+				if (from.isDead(i)) continue;
+				if (to == null) to = getOrCreateTrack(id);
+				to.appendFrom(from, i, currentSeq);
+			}
+		}
+
+		BlockLog from = moment.manager.blocks;
+		for (int i = from.lowerBound(moment.first), end = from.lowerBound(moment.end); i < end; i++)
+			if (!from.isDead(i) && currentBlocks.add(from.pos[i]))
+				blocks.append(currentSeq, from.pos[i], from.state[i]);
+
+		pushMoment();
+	}
+
+	private void trimOrphans() {
+		if (!hasOrphans) return;
+		hasOrphans = false;
+		for (EntityTrack track : tracks)
+			track.remove(historyEnd, currentSeq);
+		blocks.remove(historyEnd, currentSeq);
+	}
+
+	////////////////////
+
+	/**
+	 * The samples of one entity in time order, one column per field.
+	 * A field missing from a sample, e.g. from a partial {@link EntityMoment} read from NBT, has its bit cleared in the mask column.
+	 */
+	static final class EntityTrack {
+		static final int X = 1, Y = 1 << 1, Z = 1 << 2, YAW = 1 << 3, PITCH = 1 << 4, HEALTH = 1 << 5,
+				FOOD = 1 << 6, SATURATION = 1 << 7, EXHAUSTION = 1 << 8, DEAD = 1 << 9;
+		static final int ALL = X | Y | Z | YAW | PITCH | HEALTH | FOOD | SATURATION | EXHAUSTION;
+
+		long[] seq = new long[16];
+		double[] x = new double[16], y = new double[16], z = new double[16];
+		float[] yaw = new float[16], pitch = new float[16], health = new float[16];
+		int[] food = new int[16];
+		float[] saturation = new float[16], exhaustion = new float[16];
+		short[] mask = new short[16];
+		int count = 0;
+		int dead = 0;
+
+		void append(long s, Entity entity) {
+			int i = grow(s);
+			x[i] = entity.posX;
+			y[i] = entity.posY;
+			z[i] = entity.posZ;
+			yaw[i] = entity.rotationYaw;
+			pitch[i] = entity.rotationPitch;
+			health[i] = entity instanceof EntityLivingBase ? ((EntityLivingBase) entity).getHealth() : 0f;
+			if (entity instanceof EntityPlayer) {
+				EntityPlayer player = (EntityPlayer) entity;
+				food[i] = player.getFoodStats().getFoodLevel();
+				saturation[i] = player.getFoodStats().getSaturationLevel();
+				exhaustion[i] = EntityMoment.getExhaustion(player);
+			} else {
+				food[i] = 0;
+				saturation[i] = exhaustion[i] = 0f;
+			}
+			mask[i] = ALL;
+		}
+
+		void append(long s, EntityMoment moment) {
+			int i = grow(s);
+			int bits = 0;
+			if (moment.x != null) { x[i] = moment.x; bits |= X; }
+			if (moment.y != null) { y[i] = moment.y; bits |= Y; }
+			if (moment.z != null) { z[i] = moment.z; bits |= Z; }
+			if (moment.yaw != null) { yaw[i] = moment.yaw; bits |= YAW; }
+			if (moment.pitch != null) { pitch[i] = moment.pitch; bits |= PITCH; }
+			if (moment.health != null) { health[i] = moment.health; bits |= HEALTH; }
+			if (moment.food != null) { food[i] = moment.food; bits |= FOOD; }
+			if (moment.saturation != null) { saturation[i] = moment.saturation; bits |= SATURATION; }
+			if (moment.exhaustion != null) { exhaustion[i] = moment.exhaustion; bits |= EXHAUSTION; }
+			mask[i] = (short) bits;
+		}
+
+		void append(long s, int bits, double x, double y, double z, float yaw, float pitch, float health, int food, float saturation, float exhaustion) {
+			int i = grow(s);
+			this.x[i] = x;
+			this.y[i] = y;
+			this.z[i] = z;
+			this.yaw[i] = yaw;
+			this.pitch[i] = pitch;
+			this.health[i] = health;
+			this.food[i] = food;
+			this.saturation[i] = saturation;
+			this.exhaustion[i] = exhaustion;
+			mask[i] = (short) (bits & ALL);
+		}
+
+		void appendFrom(EntityTrack from, int j, long s) {
+			int i = grow(s);
+			x[i] = from.x[j];
+			y[i] = from.y[j];
+			z[i] = from.z[j];
+			yaw[i] = from.yaw[j];
+			pitch[i] = from.pitch[j];
+			health[i] = from.health[j];
+			food[i] = from.food[j];
+			saturation[i] = from.saturation[j];
+			exhaustion[i] = from.exhaustion[j];
+			mask[i] = from.mask[j];
+		}
+
+		EntityMoment toMoment(int i) {
+			int bits = mask[i];
+			return new EntityMoment(
+					(bits & X) != 0 ? x[i] : null,
+					(bits & Y) != 0 ? y[i] : null,
+					(bits & Z) != 0 ? z[i] : null,
+					(bits & YAW) != 0 ? yaw[i] : null,
+					(bits & PITCH) != 0 ? pitch[i] : null,
+					(bits & HEALTH) != 0 ? health[i] : null,
+					(bits & FOOD) != 0 ? food[i] : null,
+					(bits & SATURATION) != 0 ? saturation[i] : null,
+					(bits & EXHAUSTION) != 0 ? exhaustion[i] : null);
+		}
+
+		boolean matches(int i, Entity entity) {
+			if (mask[i] != ALL) return false;
+			if (entity.posX != x[i] || entity.posY != y[i] || entity.posZ != z[i]) return false;
+			if (entity.rotationYaw != yaw[i] || entity.rotationPitch != pitch[i]) return false;
+			if (entity instanceof EntityLivingBase) {
+				if (((EntityLivingBase) entity).getHealth() != health[i]) return false;
+				if (entity instanceof EntityPlayer) {
+					EntityPlayer player = (EntityPlayer) entity;
+					return player.getFoodStats().getFoodLevel() == food[i]
+							&& player.getFoodStats().getSaturationLevel() == saturation[i];
+				}
+			}
+			return true;
+		}
+
+		boolean isDead(int i) {
+			return (mask[i] & DEAD) != 0;
+		}
+
+		/**
+		 * @return the first index with a sequence number of at least <code>s</code>.
+		 */
+		int lowerBound(long s) {
+			return NemezManager.lowerBound(seq, count, s);
+		}
+
+		/**
+		 * @return the index of the live sample with the given rank in <code>[first, end)</code>, oldest first, or -1.
+		 */
+		int liveAt(long first, long end, int rank) {
+			for (int i = lowerBound(first); i < count && seq[i] < end; i++)
+				if (!isDead(i) && rank-- == 0) return i;
+			return -1;
+		}
+
+		int countLive(long first, long end) {
+			int live = 0;
+			for (int i = lowerBound(first); i < count && seq[i] < end; i++)
+				if (!isDead(i)) live++;
+			return live;
+		}
+
+		/**
+		 * Keeps <code>keep</code> evenly spread samples of <code>[first, end)</code>, always including the oldest and newest one.
+		 */
+		void thin(long first, long end, int keep) {
+			int from = lowerBound(first);
+			int to = lowerBound(end);
+			int live = 0;
+			for (int i = from; i < to; i++)
+				if (!isDead(i)) live++;
+			if (live <= keep) return;
+
+			int rank = 0;
+			int kept = 0;
+			for (int i = from; i < to; i++) {
+				if (isDead(i)) continue;
+				if (kept < keep && rank == Math.round((double) kept * (live - 1) / (keep - 1))) kept++;
+				else {
+					mask[i] |= DEAD;
+					dead++;
+				}
+				rank++;
+			}
+			if (dead > 64 && dead * 2 > count) compact();
+		}
+
+		void remove(long first, long end) {
+			int from = lowerBound(first);
+			int to = lowerBound(end);
+			if (from == to) return;
+
+			for (int i = from; i < to; i++)
+				if (isDead(i)) dead--;
+			move(to, from, count - to);
+			count -= to - from;
+		}
+
+		EntityTrack copy() {
+			EntityTrack copy = new EntityTrack();
+			copy.seq = seq.clone();
+			copy.x = x.clone();
+			copy.y = y.clone();
+			copy.z = z.clone();
+			copy.yaw = yaw.clone();
+			copy.pitch = pitch.clone();
+			copy.health = health.clone();
+			copy.food = food.clone();
+			copy.saturation = saturation.clone();
+			copy.exhaustion = exhaustion.clone();
+			copy.mask = mask.clone();
+			copy.count = count;
+			copy.dead = dead;
+			return copy;
+		}
+
+		private int grow(long s) {
+			if (count == seq.length) {
+				int capacity = seq.length * 2;
+				seq = Arrays.copyOf(seq, capacity);
+				x = Arrays.copyOf(x, capacity);
+				y = Arrays.copyOf(y, capacity);
+				z = Arrays.copyOf(z, capacity);
+				yaw = Arrays.copyOf(yaw, capacity);
+				pitch = Arrays.copyOf(pitch, capacity);
+				health = Arrays.copyOf(health, capacity);
+				food = Arrays.copyOf(food, capacity);
+				saturation = Arrays.copyOf(saturation, capacity);
+				exhaustion = Arrays.copyOf(exhaustion, capacity);
+				mask = Arrays.copyOf(mask, capacity);
+			}
+			seq[count] = s;
+			return count++;
+		}
+
+		private void compact() {
+			int write = 0;
+			for (int read = 0; read < count; read++) {
+				if (isDead(read)) continue;
+				if (write != read) move(read, write, 1);
+				write++;
+			}
+			count = write;
+			dead = 0;
+		}
+
+		private void move(int from, int to, int length) {
+			System.arraycopy(seq, from, seq, to, length);
+			System.arraycopy(x, from, x, to, length);
+			System.arraycopy(y, from, y, to, length);
+			System.arraycopy(z, from, z, to, length);
+			System.arraycopy(yaw, from, yaw, to, length);
+			System.arraycopy(pitch, from, pitch, to, length);
+			System.arraycopy(health, from, health, to, length);
+			System.arraycopy(food, from, food, to, length);
+			System.arraycopy(saturation, from, saturation, to, length);
+			System.arraycopy(exhaustion, from, exhaustion, to, length);
+			System.arraycopy(mask, from, mask, to, length);
+		}
+	}
+
+	/**
+	 * Block changes in time order, as packed positions and {@link Block#getStateId(IBlockState)} ids.
+	 */
+	static final class BlockLog {
+		private static final int DEAD = -1;
+
+		long[] seq = new long[16];
+		long[] pos = new long[16];
+		int[] state = new int[16];
+		int count = 0;
+		int dead = 0;
+
+		void append(long s, long packed, int stateId) {
+			if (count == seq.length) {
+				seq = Arrays.copyOf(seq, count * 2);
+				pos = Arrays.copyOf(pos, count * 2);
+				state = Arrays.copyOf(state, count * 2);
+			}
+			seq[count] = s;
+			pos[count] = packed;
+			state[count++] = stateId;
+		}
+
+		boolean isDead(int i) {
+			return state[i] == DEAD;
+		}
+
+		int lowerBound(long s) {
+			return NemezManager.lowerBound(seq, count, s);
+		}
+
+		/**
+		 * Keeps only the oldest change of each position in <code>[first, end)</code>.
+		 */
+		void thin(long first, long end) {
+			int from = lowerBound(first);
+			int to = lowerBound(end);
+			if (to - from < 2) return;
+
+			LongHashSet seen = new LongHashSet(to - from);
+			for (int i = from; i < to; i++) {
+				if (isDead(i)) continue;
+				if (!seen.add(pos[i])) {
+					state[i] = DEAD;
+					dead++;
+				}
+			}
+			if (dead > 64 && dead * 2 > count) compact();
+		}
+
+		void remove(long first, long end) {
+			int from = lowerBound(first);
+			int to = lowerBound(end);
+			if (from == to) return;
+
+			for (int i = from; i < to; i++)
+				if (isDead(i)) dead--;
+			System.arraycopy(seq, to, seq, from, count - to);
+			System.arraycopy(pos, to, pos, from, count - to);
+			System.arraycopy(state, to, state, from, count - to);
+			count -= to - from;
+		}
+
+		BlockLog copy() {
+			BlockLog copy = new BlockLog();
+			copy.seq = seq.clone();
+			copy.pos = pos.clone();
+			copy.state = state.clone();
+			copy.count = count;
+			copy.dead = dead;
+			return copy;
+		}
+
+		private void compact() {
+			int write = 0;
+			for (int read = 0; read < count; read++) {
+				if (isDead(read)) continue;
+				seq[write] = seq[read];
+				pos[write] = pos[read];
+				state[write++] = state[read];
+			}
+			count = write;
+			dead = 0;
+		}
+	}
+
+	private static int lowerBound(long[] seq, int count, long s) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (seq[mid] < s) low = mid + 1;
+			else high = mid;
 		}
+		return low;
 	}
 }
@@ -1,27 +1,33 @@
 package com.teamwizardry.wizardry.common.core.nemez;
 
+import com.teamwizardry.wizardry.api.entity.EntityIndex;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
 import net.minecraft.nbt.NBTTagList;
+import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.common.util.INBTSerializable;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 public class NemezTracker implements INBTSerializable<NBTTagList> {
 
 	public static final int MAXIMUM_MOMENTS = 6000;
 
 	private NemezManager manager = new NemezManager();
-	private Set<String> trackingEntities = new HashSet<>();
+	private Set<UUID> trackingEntities = new HashSet<>();
 
 	public Set<Entity> getTrackedEntities(World world) {
 		Set<Entity> tracking = new HashSet<>();
-		for (Entity inWorld : world.loadedEntityList)
-			if (trackingEntities.contains(inWorld.getCachedUniqueIdString()))
-				tracking.add(inWorld);
+		for (UUID uuid : trackingEntities) {
+			Entity entity = EntityIndex.getEntity(world, uuid);
+			if (entity != null) tracking.add(entity);
+		}
 		return tracking;
 	}
 
@@ -31,7 +37,7 @@ public class NemezTracker implements INBTSerializable<NBTTagList> {
 	}
 
 	public void trackEntity(Entity entity) {
-		trackingEntities.add(entity.getCachedUniqueIdString());
+		trackingEntities.add(entity.getUniqueID());
 		manager.pushEntityData(entity);
 		compressDownTo(MAXIMUM_MOMENTS);
 	}
@@ -40,8 +46,31 @@ public class NemezTracker implements INBTSerializable<NBTTagList> {
 		return manager.peekAtMoment() != null;
 	}
 
+	/**
+	 * @return the number of moments left to apply.
+	 */
+	public int size() {
+		return manager.size();
+	}
+
+	/**
+	 * Drops the next moments to apply, without applying them.
+	 */
+	public void skip(int count) {
+		for (int i = 0; i < count && hasNext(); i++)
+			manager.popMoment();
+	}
+
+	/**
+	 * Drops the moments which would be applied last.
+	 */
+	public void dropOldest(int count) {
+		manager.dropOldest(count);
+	}
+
 	public void endUpdate() {
 		manager.pushMoment();
+		compressDownTo(MAXIMUM_MOMENTS);
 	}
 
 	public void erase() {
@@ -73,11 +102,10 @@ public class NemezTracker implements INBTSerializable<NBTTagList> {
 		manager.popMoment().apply(world, getTrackedEntities(world));
 	}
 
+	/**
+	 * Interpolates the tracked entities through the next moment, without consuming it.
+	 */
 	public void applySnapshot(World world, float partialTicks) {
-		if (partialTicks == 0) {
-			applySnapshot(world);
-			return;
-		}
 		manager.peekAtMoment().apply(world, getTrackedEntities(world), partialTicks);
 	}
 
@@ -89,6 +117,38 @@ public class NemezTracker implements INBTSerializable<NBTTagList> {
 		manager.absorb(data);
 	}
 
+	/**
+	 * Adds the moments of another tracker, to be applied after all moments of this tracker. The other tracker is consumed.
+	 */
+	public void absorb(NemezTracker older) {
+		manager.absorb(older.manager);
+		trackingEntities.addAll(older.trackingEntities);
+	}
+
+	/**
+	 * Writes moments in the compact format of {@link com.teamwizardry.wizardry.common.network.PacketNemezReversal}.
+	 *
+	 * @param skip  the number of moments to skip, starting with the next one to apply.
+	 * @param count the number of moments to write.
+	 */
+	public void writeMoments(PacketBuffer buf, int skip, int count) {
+		NemezCodec.write(buf, manager, skip, count);
+	}
+
+	/**
+	 * Reads moments written by {@link #writeMoments(PacketBuffer, int, int)}.
+	 *
+	 * @return a tracker holding the moments, which tracks all entities of the moments.
+	 */
+	public static NemezTracker readMoments(PacketBuffer buf) {
+		NemezTracker tracker = new NemezTracker();
+		List<String> ids = new ArrayList<>();
+		NemezCodec.read(buf, tracker.manager, ids);
+		for (String id : ids)
+			tracker.trackingEntities.add(UUID.fromString(id));
+		return tracker;
+	}
+
 	@Override
 	public NBTTagList serializeNBT() {
 		return manager.serializeNBT();
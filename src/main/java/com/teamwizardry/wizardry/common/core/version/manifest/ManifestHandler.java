@@ -4,6 +4,7 @@ import com.google.common.io.Files;
 import com.teamwizardry.librarianlib.core.LibrarianLib;
 import com.teamwizardry.wizardry.Wizardry;
 import com.teamwizardry.wizardry.api.ConfigValues;
+import com.teamwizardry.wizardry.api.util.StartupLoader;
 import com.teamwizardry.wizardry.crafting.mana.ManaRecipes;
 import net.minecraftforge.fml.common.Loader;
 import net.minecraftforge.fml.common.ModContainer;
@@ -12,8 +13,11 @@ import org.apache.commons.io.FileUtils;
 import javax.annotation.Nonnull;
 import java.io.*;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 public class ManifestHandler {
 
@@ -94,7 +98,14 @@ public class ManifestHandler {
 		}
 	}
 
+	/**
+	 * Hashes the files of the categories in every mod jar. The files are hashed in parallel by the {@link StartupLoader},
+	 * and added to the manifest in the order they are listed in.
+	 */
 	public void loadNewInternalManifest(String... categories) {
+		long start = System.nanoTime();
+
+		List<String[]> resources = new ArrayList<>();
 		Map<String, ModContainer> modList = Loader.instance().getIndexedModList();
 		for (Map.Entry<String, ModContainer> entry : modList.entrySet()) {
 			for (String category : categories) {
@@ -102,27 +113,39 @@ public class ManifestHandler {
 				try {
 					for (String fileName : ManaRecipes.getResourceListing(entry.getKey(), category)) {
 						if (fileName.isEmpty()) continue;
-
-						InputStream stream = LibrarianLib.PROXY.getResource(entry.getKey(), category + "/" + fileName);
-						if (stream == null) {
-							Wizardry.LOGGER.error("    > SOMETHING WENT WRONG! Could not read " + fileName + " in " + category + " from mod jar! Report this to the devs on Github!");
-							continue;
-						}
-						try (BufferedReader br = new BufferedReader(new InputStreamReader(stream, Charset.defaultCharset()))) {
-							StringBuilder sb = new StringBuilder();
-							String line;
-							while ((line = br.readLine()) != null) {
-								sb.append(line);
-								sb.append('\n');
-							}
-							addItemToManifest(category, entry.getKey(), Files.getNameWithoutExtension(fileName), sb.toString().hashCode() + "");
-						}
+						resources.add(new String[]{entry.getKey(), category, fileName});
 					}
 				} catch (IOException e) {
 					e.printStackTrace();
 				}
 			}
 		}
+
+		List<Callable<Integer>> tasks = new ArrayList<>(resources.size());
+		for (String[] resource : resources)
+			tasks.add(() -> {
+				InputStream stream = LibrarianLib.PROXY.getResource(resource[0], resource[1] + "/" + resource[2]);
+				if (stream == null) return null;
+				try {
+					return StartupLoader.hashLines(stream);
+				} catch (IOException e) {
+					e.printStackTrace();
+					return null;
+				}
+			});
+		List<Integer> hashes = StartupLoader.runAll(tasks);
+
+		for (int i = 0; i < resources.size(); i++) {
+			String[] resource = resources.get(i);
+			Integer hash = hashes.get(i);
+			if (hash == null) {
+				Wizardry.LOGGER.error("    > SOMETHING WENT WRONG! Could not read " + resource[2] + " in " + resource[1] + " from mod jar! Report this to the devs on Github!");
+				continue;
+			}
+			addItemToManifest(resource[1], resource[0], Files.getNameWithoutExtension(resource[2]), hash + "");
+		}
+
+		StartupLoader.logTiming("Hashing " + resources.size() + " internal files", start);
 	}
 
 	private void generateFile(File directory, String category, String key) {
@@ -5,6 +5,7 @@ import com.google.common.collect.Lists;
 import com.teamwizardry.librarianlib.features.helpers.NBTHelper;
 import com.teamwizardry.librarianlib.features.network.PacketHandler;
 import com.teamwizardry.wizardry.api.NBTConstants.NBT;
+import com.teamwizardry.wizardry.api.entity.EntityIndex;
 import com.teamwizardry.wizardry.api.entity.fairy.FairyData;
 import com.teamwizardry.wizardry.api.entity.fairy.fairytasks.FairyTaskController;
 import com.teamwizardry.wizardry.api.entity.fairy.fairytasks.FairyTaskRegistry;
@@ -264,7 +265,8 @@ public class EntityFairy extends EntityTameable implements EntityFlying {
 	public static void onStun(TickEvent.WorldTickEvent event) {
 		if (event.side == Side.CLIENT) return;
 
-		for (EntityFairy fairy : event.world.getEntities(EntityFairy.class, input -> input != null && !input.isDead)) {
+		for (EntityFairy fairy : EntityIndex.getEntities(event.world, EntityFairy.class)) {
+			if (fairy.isDead) continue;
 
 			fairy.stunned = false;
 
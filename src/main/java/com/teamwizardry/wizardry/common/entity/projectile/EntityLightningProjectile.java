@@ -28,12 +28,16 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import static com.teamwizardry.wizardry.api.spell.SpellData.DefaultKeys.LOOK;
 
 public class EntityLightningProjectile extends EntitySpellProjectile {
 	public static final DataParameter<NBTTagCompound> CHILD_RING = EntityDataManager.createKey(EntityLightningProjectile.class, DataSerializers.COMPOUND_TAG);
 
+	@Nullable
+	private SpellRing childRing;
+
 	public EntityLightningProjectile(World world) {
 		super(world);
 	}
@@ -49,14 +53,21 @@ public class EntityLightningProjectile extends EntitySpellProjectile {
 		setChildRing(childRing);
 	}
 
+	@Override
+	public void notifyDataManagerChange(@Nonnull DataParameter<?> key) {
+		super.notifyDataManagerChange(key);
+		if (CHILD_RING.equals(key)) childRing = null;
+	}
+
 	protected SpellRing getChildRing() {
-		NBTTagCompound compound = getDataManager().get(CHILD_RING);
-		return SpellRing.deserializeRing(compound);
+		if (childRing == null) childRing = decodeRing(getDataManager().get(CHILD_RING));
+		return childRing;
 	}
 
 	protected void setChildRing(SpellRing ring) {
 		getDataManager().set(CHILD_RING, ring.serializeNBT());
 		getDataManager().setDirty(CHILD_RING);
+		childRing = null;
 	}
 
 	@Override
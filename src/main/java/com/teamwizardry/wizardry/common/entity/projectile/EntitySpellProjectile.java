@@ -9,6 +9,7 @@ import com.teamwizardry.librarianlib.features.particle.functions.InterpColorHSV;
 import com.teamwizardry.librarianlib.features.utilities.client.ClientRunnable;
 import com.teamwizardry.wizardry.Wizardry;
 import com.teamwizardry.wizardry.api.NBTConstants;
+import com.teamwizardry.wizardry.api.spell.CompiledSpellCache;
 import com.teamwizardry.wizardry.api.spell.SpellData;
 import com.teamwizardry.wizardry.api.spell.SpellRing;
 import com.teamwizardry.wizardry.api.util.RandUtil;
@@ -19,6 +20,7 @@ import com.teamwizardry.wizardry.common.network.PacketExplode;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.MoverType;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
 import net.minecraft.network.datasync.DataParameter;
 import net.minecraft.network.datasync.DataSerializers;
 import net.minecraft.network.datasync.EntityDataManager;
@@ -50,6 +52,12 @@ public class EntitySpellProjectile extends EntityMod {
 	public static final DataParameter<Float> DIST = EntityDataManager.createKey(EntitySpellProjectile.class, DataSerializers.FLOAT);
 	public static final DataParameter<Boolean> RENDER = EntityDataManager.createKey(EntitySpellProjectile.class, DataSerializers.BOOLEAN);
 
+	// Decoded from the data manager on first use, and dropped when it changes
+	@Nullable
+	private SpellData spellData;
+	@Nullable
+	private SpellRing spellRing;
+
 	public EntitySpellProjectile(World world) {
 		super(world);
 		setSize(0.5F, 0.5F);
@@ -91,24 +99,52 @@ public class EntitySpellProjectile extends EntityMod {
 		this.getDataManager().register(RENDER, true);
 	}
 
-	protected SpellData getSpellData() {
-		NBTTagCompound compound = getDataManager().get(SPELL_DATA);
-		return SpellData.deserializeData(compound);
+	@Override
+	public void notifyDataManagerChange(@Nonnull DataParameter<?> key) {
+		super.notifyDataManagerChange(key);
+		if (SPELL_DATA.equals(key)) spellData = null;
+		else if (SPELL_RING.equals(key)) spellRing = null;
+	}
+
+	/**
+	 * <b>NOTE</b>: Shared between ticks, copy it before changing it.
+	 */
+	public SpellData getSpellData() {
+		if (spellData == null) spellData = SpellData.deserializeData(getDataManager().get(SPELL_DATA));
+		return spellData;
 	}
 
 	protected void setSpellData(SpellData data) {
 		getDataManager().set(SPELL_DATA, data.serializeNBT());
 		getDataManager().setDirty(SPELL_DATA);
+		spellData = null;
 	}
 
-	protected SpellRing getSpellRing() {
-		NBTTagCompound compound = getDataManager().get(SPELL_RING);
-		return SpellRing.deserializeRing(compound);
+	/**
+	 * <b>NOTE</b>: The ring is shared with all projectiles of the same ring, see {@link #decodeRing(NBTTagCompound)}.
+	 */
+	public SpellRing getSpellRing() {
+		if (spellRing == null) spellRing = decodeRing(getDataManager().get(SPELL_RING));
+		return spellRing;
 	}
 
 	protected void setSpellRing(SpellRing ring) {
 		getDataManager().set(SPELL_RING, ring.serializeNBT());
 		getDataManager().setDirty(SPELL_RING);
+		spellRing = null;
+	}
+
+	/**
+	 * Decodes a synced ring through the {@link CompiledSpellCache}, so all projectiles of a cast share one decoded ring chain.
+	 */
+	protected static SpellRing decodeRing(NBTTagCompound compound) {
+		// Nothing synced yet
+		if (!compound.hasKey("module")) return SpellRing.deserializeRing(compound);
+
+		NBTTagList list = new NBTTagList();
+		list.appendTag(compound);
+		List<SpellRing> chains = CompiledSpellCache.INSTANCE.getSpellChains(list);
+		return chains.isEmpty() ? null : chains.get(0);
 	}
 
 	protected float getSpeed() {
@@ -211,8 +247,9 @@ public class EntitySpellProjectile extends EntityMod {
 		}
 
 		if (origin == null || getDistance() < getDistance(origin.x, origin.y, origin.z)) {
-			spellData.processBlock(getPosition(), EnumFacing.getFacingFromVector((float) look.x, (float) look.y, (float) look.z), getPositionVector());
-			goBoom(spellRing, spellData);
+			SpellData hit = spellData.copy();
+			hit.processBlock(getPosition(), EnumFacing.getFacingFromVector((float) look.x, (float) look.y, (float) look.z), getPositionVector());
+			goBoom(spellRing, hit);
 			return;
 		}
 
@@ -234,28 +271,38 @@ public class EntitySpellProjectile extends EntityMod {
 			RayTraceResult result = new RayTrace(world, look, getPositionVector(), 5)
 					.setEntityFilter(input -> input != this)
 					.trace();
-			spellData.processTrace(result, getPositionVector());
-			goBoom(spellRing, spellData);
+			SpellData hit = spellData.copy();
+			hit.processTrace(result, getPositionVector());
+			goBoom(spellRing, hit);
 			return;
 		}
 
-		List<Entity> entities = world.getEntitiesWithinAABBExcludingEntity(this, getEntityBoundingBox());
+		// Sweeps the box of the projectile over this tick's move, so fast projectiles can't skip over entities
+		Vec3d center = new Vec3d(0, height / 2, 0);
+		Vec3d from = new Vec3d(prevPosX, prevPosY, prevPosZ).add(center);
+		Vec3d to = getPositionVector().add(center);
+		Vec3d moved = to.subtract(from);
+		List<Entity> entities = new RayTrace(world, moved.lengthSquared() == 0 ? look : moved, from, moved.length())
+				.setEntityFilter(input -> input != this)
+				.setSkipBlocks(true)
+				.traceEntities(width / 2);
 		if (!entities.isEmpty()) {
 			Entity caster = spellData.getCaster(world);
+			SpellData hit = spellData.copy();
 
 			// Don't collide with other spell projectiles
 			for (Entity entity : entities) {
 				if (entity == caster) return;
 				if (entity instanceof EntitySpellProjectile) return;
-				spellData.processEntity(entity, false);
+				hit.processEntity(entity, false);
 			}
 
 			RayTraceResult result = new RayTrace(world, look, getPositionVector(), 1)
 					.setEntityFilter(input -> input != this)
 					.trace();
-			spellData.processTrace(result, getPositionVector());
+			hit.processTrace(result, getPositionVector());
 
-			goBoom(spellRing, spellData);
+			goBoom(spellRing, hit);
 		}
 	}
 
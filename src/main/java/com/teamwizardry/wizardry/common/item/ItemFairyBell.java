@@ -8,6 +8,7 @@ import com.teamwizardry.wizardry.Wizardry;
 import com.teamwizardry.wizardry.api.ConfigValues;
 import com.teamwizardry.wizardry.api.capability.player.miscdata.IMiscCapability;
 import com.teamwizardry.wizardry.api.capability.player.miscdata.MiscCapabilityProvider;
+import com.teamwizardry.wizardry.api.entity.EntityIndex;
 import com.teamwizardry.wizardry.api.entity.fairy.FairyData;
 import com.teamwizardry.wizardry.api.util.RayTrace;
 import com.teamwizardry.wizardry.common.entity.EntityFairy;
@@ -16,7 +17,6 @@ import com.teamwizardry.wizardry.init.ModItems;
 import com.teamwizardry.wizardry.init.ModSounds;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.Minecraft;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.ItemStack;
@@ -35,7 +35,6 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 import org.jetbrains.annotations.NotNull;
 import org.lwjgl.input.Keyboard;
 
-import java.util.List;
 import java.util.UUID;
 
 @Mod.EventBusSubscriber(modid = Wizardry.MODID)
@@ -96,18 +95,12 @@ public class ItemFairyBell extends ItemMod {
 
 					} else if (selected != null && !selected.equals(targetFairy.getUniqueID())) {
 
-						List<Entity> list = playerIn.world.loadedEntityList;
-						for (Entity entity : list) {
-							if (entity instanceof EntityFairy && entity.getUniqueID().equals(selected)) {
-								if (entity.isDead) continue;
+						EntityFairy selectedFairy = EntityIndex.getEntity(playerIn.world, selected, EntityFairy.class);
+						if (selectedFairy != null && !selectedFairy.isDead) {
+							selectedFairy.setChainedFairy(targetFairy.getUniqueID());
+							targetFairy.setChainedFairy(selected);
 
-								((EntityFairy) entity).setChainedFairy(targetFairy.getUniqueID());
-								targetFairy.setChainedFairy(selected);
-
-								playerIn.sendStatusMessage(new TextComponentTranslation("item.wizardry:fairy_bell.status.linked_to_fairy"), true);
-
-								break;
-							}
+							playerIn.sendStatusMessage(new TextComponentTranslation("item.wizardry:fairy_bell.status.linked_to_fairy"), true);
 						}
 
 					} else {
@@ -254,8 +254,8 @@ public class ItemStaff extends ItemMod implements INacreProduct.INacreDecayProdu
 									+ TextFormatting.RED
 									+ Math.round(tmpRing.getBurnoutFill(null) * tmpRing.getBurnoutMultiplier()));
 					if (GuiScreen.isShiftKeyDown()) {
-						for (String key : tmpRing.getInformationTag().getKeySet()) {
-							int value = (int) tmpRing.getInformationTag().getDouble(key);
+						for (String key : tmpRing.getInformationKeys()) {
+							int value = (int) tmpRing.getInformationValue(key);
 							tooltip.add(StringUtils.repeat(" ", i + 1) + " | " + TextFormatting.DARK_GRAY + key + " x" + value);
 						}
 					}
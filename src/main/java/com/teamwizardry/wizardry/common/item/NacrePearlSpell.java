@@ -135,9 +135,9 @@ public class NacrePearlSpell extends ItemMod implements ISpellInfusable, IPotion
 									+ TextFormatting.RED
 									+ Math.round(tmpRing.getBurnoutFill(null) * tmpRing.getBurnoutMultiplier()));
 					if (GuiScreen.isShiftKeyDown()) {
-						for (String key : tmpRing.getInformationTag().getKeySet())
+						for (String key : tmpRing.getInformationKeys())
 						{
-							int value = (int) tmpRing.getInformationTag().getDouble(key);
+							int value = (int) tmpRing.getInformationValue(key);
 							tooltip.add(StringUtils.repeat(" ", i + 1) + " | " + TextFormatting.DARK_GRAY + key + " x" + value);
 						}
 					}
@@ -12,6 +12,7 @@ import com.teamwizardry.wizardry.api.NBTConstants;
 import com.teamwizardry.wizardry.api.spell.IBlockSelectable;
 import com.teamwizardry.wizardry.api.spell.SpellData;
 import com.teamwizardry.wizardry.api.spell.SpellRing;
+import com.teamwizardry.wizardry.api.spell.SpellScheduler;
 import com.teamwizardry.wizardry.api.spell.annotation.RegisterModule;
 import com.teamwizardry.wizardry.api.spell.attribute.AttributeRegistry;
 import com.teamwizardry.wizardry.api.spell.module.IModuleEffect;
@@ -142,18 +143,25 @@ public class ModuleEffectSubstitution implements IModuleEffect, IBlockSelectable
 
 				if (blocks.isEmpty()) return true;
 
+				// The whole area is taxed up front, so the result of the cast is known before any block is placed
+				if (!spellRing.taxCaster(world, spell, blocks.size() / area, false)) return false;
+
+				// Blocks past the budget of the tick are placed in the next one, so each checks the stack again
+				ItemStack stack = stackBlock;
 				for (BlockPos pos : blocks) {
-					if (stackBlock.isEmpty()) return true;
-					if (!spellRing.taxCaster(world, spell, 1 / area, false)) return false;
-					if (world.isAirBlock(pos)) continue;
-					if (world.getBlockState(pos).getBlock() == state.getBlock()) continue;
+					SpellScheduler.run(world, spell, SpellScheduler.Priority.CAST, () -> {
+						if (stack.isEmpty() || caster.isDead) return;
+						if (world.isAirBlock(pos)) return;
+						if (world.getBlockState(pos).getBlock() == state.getBlock()) return;
 
-					stackBlock.shrink(1);
+						stack.shrink(1);
 
-					IBlockState oldState = world.getBlockState(pos);
-					BlockUtils.placeBlock(world, pos, state, (EntityPlayerMP) caster);
-					((EntityPlayer) caster).inventory.addItemStackToInventory(new ItemStack(oldState.getBlock().getItemDropped(oldState, world.rand, 0)));
+						IBlockState oldState = world.getBlockState(pos);
+						BlockUtils.placeBlock(world, pos, state, (EntityPlayerMP) caster);
+						((EntityPlayer) caster).inventory.addItemStackToInventory(new ItemStack(oldState.getBlock().getItemDropped(oldState, world.rand, 0)));
+					});
 				}
+				return true;
 			}
 			return true;
 		}
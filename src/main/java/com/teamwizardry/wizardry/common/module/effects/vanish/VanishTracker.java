@@ -1,7 +1,8 @@
 package com.teamwizardry.wizardry.common.module.effects.vanish;
 
 import com.teamwizardry.librarianlib.features.network.PacketHandler;
-import com.teamwizardry.wizardry.api.events.EntityRenderShadowAndFireEvent;
+import com.teamwizardry.wizardry.api.util.LongHashSet;
+import com.teamwizardry.wizardry.asm.WizardryASMHooks;
 import com.teamwizardry.wizardry.common.network.PacketSyncVanish;
 import com.teamwizardry.wizardry.init.ModSounds;
 import net.minecraft.client.Minecraft;
@@ -9,17 +10,16 @@ import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLiving;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.nbt.NBTBase;
-import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.nbt.NBTTagList;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.util.EnumActionResult;
 import net.minecraft.util.SoundCategory;
-import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
 import net.minecraftforge.client.event.RenderHandEvent;
 import net.minecraftforge.client.event.RenderLivingEvent;
-import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.event.entity.living.LivingSetAttackTargetEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.eventhandler.Event;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
@@ -27,87 +27,143 @@ import net.minecraftforge.fml.common.gameevent.TickEvent;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
-import javax.annotation.Nullable;
-import java.util.ArrayDeque;
+import javax.annotation.Nonnull;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps track of vanished entities per world. <br/>
+ * The server indexes vanishes by entity id, and expires them with a timing wheel of {@link #WHEEL_SIZE} slots,
+ * so a tick only looks at the vanishes due in it. Changes are sent as deltas to the players tracking the entity,
+ * and to the entity itself if it is a player. Clients mirror the vanished entity ids of their world in a hash set.
+ */
 @Mod.EventBusSubscriber
 public class VanishTracker {
 
-	private static final List<VanishedObject> vanishes = new ArrayList<>();
-	private static final Deque<VanishedObject> adds = new ArrayDeque<>();
+	private static final int WHEEL_SIZE = 128;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
 
-	public static void addVanishObject(int entityID, int time) {
-		for (VanishedObject v : vanishes) {
-			if (v == null) continue;
-			if (v.entityID == entityID) {
-				v.tick = time;
-				return;
-			}
-		}
+	/**
+	 * Set on vanished living entities when they are first rendered, so their shadow and fire are skipped as well.
+	 */
+	private static final int HOOK_FLAG = WizardryASMHooks.registerEffect(VanishTracker::isVanished);
 
-		for (VanishedObject v : adds) {
-			if (v == null) continue;
-			if (v.entityID == entityID) {
-				v.tick = time;
-				return;
-			}
-		}
+	static {
+		WizardryASMHooks.addRenderShadowAndFireListener(HOOK_FLAG, entity -> !(entity instanceof EntityLivingBase));
+	}
+
+	// Synchronized, as client and integrated server worlds are ticked on different threads
+	private static final Map<World, VanishTracker> trackers = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private final World world;
+
+	/**
+	 * Ids of the vanished entities, on both sides.
+	 */
+	private final LongHashSet vanished = new LongHashSet();
+
+	/**
+	 * Server only. Each vanish is in the wheel slot of its expiry tick, and stays there for as many rounds as needed.
+	 */
+	private final HashMap<Integer, VanishedObject> vanishes = new HashMap<>();
+	@SuppressWarnings("unchecked")
+	private final List<VanishedObject>[] wheel = new List[WHEEL_SIZE];
+	private long tick = 0;
 
-		adds.add(new VanishedObject(entityID, time));
+	private VanishTracker(World world) {
+		this.world = world;
 	}
 
-	public static NBTTagCompound serialize() {
-		NBTTagCompound compound = new NBTTagCompound();
+	@Nonnull
+	private static VanishTracker get(@Nonnull World world) {
+		return trackers.computeIfAbsent(world, VanishTracker::new);
+	}
 
-		NBTTagList vanishList = new NBTTagList();
-		for (VanishedObject v : vanishes) {
-			vanishList.appendTag(v.serialize());
-		}
+	/**
+	 * Vanishes the entity for the given number of ticks, or changes the remaining ticks if it is vanished already.
+	 * Does nothing on the client, which is told by the server.
+	 */
+	public static void addVanishObject(@Nonnull Entity entity, int time) {
+		if (entity.world.isRemote) return;
+		get(entity.world).add(entity, time);
+	}
 
-		NBTTagList addsList = new NBTTagList();
-		for (VanishedObject v : adds) {
-			addsList.appendTag(v.serialize());
-		}
+	public static boolean isVanished(Entity entity) {
+		VanishTracker tracker = trackers.get(entity.world);
+		return tracker != null && tracker.vanished.contains(entity.getEntityId());
+	}
 
-		compound.setTag("vanishes", vanishList);
-		compound.setTag("adds", addsList);
+	/**
+	 * Applies a delta sent by the server to the world of the client.
+	 */
+	@SideOnly(Side.CLIENT)
+	public static void receive(int entityID, boolean isVanished) {
+		World world = Minecraft.getMinecraft().world;
+		if (world == null) return;
+
+		VanishTracker tracker = get(world);
+		if (isVanished) tracker.vanished.add(entityID);
+		else tracker.vanished.remove(entityID);
+	}
+
+	private void add(Entity entity, int time) {
+		long expiry = tick + Math.max(1, time);
+		VanishedObject vanish = vanishes.get(entity.getEntityId());
+		if (vanish != null) {
+			boolean sameSlot = (vanish.expiry & WHEEL_MASK) == (expiry & WHEEL_MASK);
+			vanish.expiry = expiry;
+			// A vanish in another slot is left behind, and dropped when its old slot comes up
+			if (!sameSlot) schedule(vanish);
+			return;
+		}
+
+		vanish = new VanishedObject(entity.getEntityId(), expiry);
+		vanishes.put(vanish.entityID, vanish);
+		vanished.add(vanish.entityID);
+		schedule(vanish);
+		send(entity, new PacketSyncVanish(vanish.entityID, true));
+	}
 
-		return compound;
+	private void schedule(VanishedObject vanish) {
+		int slot = (int) (vanish.expiry & WHEEL_MASK);
+		if (wheel[slot] == null) wheel[slot] = new ArrayList<>();
+		wheel[slot].add(vanish);
 	}
 
-	public static void deserialize(NBTTagCompound compound) {
-		if (compound.hasKey("vanishes")) {
-			vanishes.clear();
+	private void tick() {
+		int slot = (int) (++tick & WHEEL_MASK);
+		List<VanishedObject> due = wheel[slot];
+		if (due == null || due.isEmpty()) return;
 
-			NBTTagList list = compound.getTagList("vanishes", Constants.NBT.TAG_COMPOUND);
-			for (NBTBase base : list) {
-				if (base instanceof NBTTagCompound) {
-					vanishes.add(VanishedObject.deserialize((NBTTagCompound) base));
-				}
+		for (Iterator<VanishedObject> iterator = due.iterator(); iterator.hasNext(); ) {
+			VanishedObject vanish = iterator.next();
+			if (vanishes.get(vanish.entityID) != vanish || (vanish.expiry & WHEEL_MASK) != slot) {
+				iterator.remove();
+				continue;
 			}
-		}
+			if (vanish.expiry > tick) continue;
 
-		if (compound.hasKey("adds")) {
-			adds.clear();
+			iterator.remove();
+			vanishes.remove(vanish.entityID);
+			vanished.remove(vanish.entityID);
 
-			NBTTagList list = compound.getTagList("adds", Constants.NBT.TAG_COMPOUND);
-			for (NBTBase base : list) {
-				if (base instanceof NBTTagCompound) {
-					adds.add(VanishedObject.deserialize((NBTTagCompound) base));
-				}
+			Entity entity = world.getEntityByID(vanish.entityID);
+			if (entity != null) {
+				world.playSound(null, entity.getPosition(), ModSounds.ETHEREAL_PASS_BY, SoundCategory.NEUTRAL, 0.5f, 1);
+				send(entity, new PacketSyncVanish(vanish.entityID, false));
 			}
 		}
 	}
 
-	public static boolean isVanished(Entity entity) {
-		int id = entity.getEntityId();
-		for (VanishedObject v : vanishes) {
-			if (v.entityID == id) return true;
-		}
-		return false;
+	private static void send(Entity entity, PacketSyncVanish packet) {
+		PacketHandler.NETWORK.sendToAllTracking(packet, entity);
+		if (entity instanceof EntityPlayerMP)
+			PacketHandler.NETWORK.sendTo(packet, (EntityPlayerMP) entity);
 	}
 
 	@SubscribeEvent
@@ -116,30 +172,26 @@ public class VanishTracker {
 		if (event.type != TickEvent.Type.WORLD) return;
 		if (event.side != Side.SERVER) return;
 
-		final int sizeAddsBefore = adds.size();
-		final int sizeVanishesBefore = vanishes.size();
+		VanishTracker tracker = trackers.get(event.world);
+		if (tracker != null) tracker.tick();
+	}
 
-		for (VanishedObject entry; ((entry = adds.pollFirst()) != null); ) {
-			vanishes.add(entry);
-		}
-		vanishes.removeIf(entry -> {
-			if (--entry.tick < 0) {
-				Entity e = event.world.getEntityByID(entry.entityID);
-				if (e != null && !event.world.isRemote) {
-					event.world.playSound(null, e.getPosition(), ModSounds.ETHEREAL_PASS_BY, SoundCategory.NEUTRAL, 0.5f, 1);
-				}
-
-				return true;
-			}
-			return false;
-		});
+	@SubscribeEvent
+	public static void startTracking(PlayerEvent.StartTracking event) {
+		if (isVanished(event.getTarget()) && event.getEntityPlayer() instanceof EntityPlayerMP)
+			PacketHandler.NETWORK.sendTo(new PacketSyncVanish(event.getTarget().getEntityId(), true), (EntityPlayerMP) event.getEntityPlayer());
+	}
 
-		final int sizeAddsAfter = adds.size();
-		final int sizeVanishesAfter = vanishes.size();
+	@SubscribeEvent
+	public static void stopTracking(PlayerEvent.StopTracking event) {
+		// Otherwise the client would still think the entity is vanished if it comes back after the vanish expired
+		if (isVanished(event.getTarget()) && event.getEntityPlayer() instanceof EntityPlayerMP)
+			PacketHandler.NETWORK.sendTo(new PacketSyncVanish(event.getTarget().getEntityId(), false), (EntityPlayerMP) event.getEntityPlayer());
+	}
 
-		if (!event.world.isRemote && sizeAddsAfter != sizeAddsBefore || sizeVanishesAfter != sizeVanishesBefore) {
-			PacketHandler.NETWORK.sendToAll(new PacketSyncVanish(serialize()));
-		}
+	@SubscribeEvent
+	public static void onWorldUnload(WorldEvent.Unload event) {
+		trackers.remove(event.getWorld());
 	}
 
 	@SubscribeEvent
@@ -180,43 +232,20 @@ public class VanishTracker {
 
 		if (isVanished(entity)) {
 			event.setCanceled(true);
+			WizardryASMHooks.addFlags(entity, HOOK_FLAG);
 		}
 	}
 
-	@SideOnly(Side.CLIENT)
-	@SubscribeEvent
-	public static void renderShadowAndFire(EntityRenderShadowAndFireEvent event) {
-		EntityPlayer player = Minecraft.getMinecraft().player;
-		boolean iWalked = new Vec3d(player.posX, player.posY, player.posZ).distanceTo(new Vec3d(player.prevPosX, player.prevPosY, player.prevPosZ)) > 0.2;
-		if (!(event.entity instanceof EntityLivingBase)) return;
-
-		if (isVanished(event.entity))
-			event.override = true;
-	}
+	////////////////////
 
-	public static class VanishedObject {
+	private static class VanishedObject {
 
 		final int entityID;
-		int tick;
+		long expiry;
 
-		public VanishedObject(int entityID, int tick) {
+		VanishedObject(int entityID, long expiry) {
 			this.entityID = entityID;
-			this.tick = tick;
-		}
-
-		@Nullable
-		public static VanishedObject deserialize(NBTTagCompound compound) {
-			if (compound.hasKey("entity_id") && compound.hasKey("tick")) {
-				return new VanishedObject(compound.getInteger("entity_id"), compound.getInteger("tick"));
-			}
-			return null;
-		}
-
-		public NBTTagCompound serialize() {
-			NBTTagCompound compound = new NBTTagCompound();
-			compound.setInteger("entity_id", entityID);
-			compound.setInteger("tick", tick);
-			return compound;
+			this.expiry = expiry;
 		}
 	}
 }
@@ -9,6 +9,7 @@ import com.teamwizardry.wizardry.Wizardry;
 import com.teamwizardry.wizardry.api.NBTConstants;
 import com.teamwizardry.wizardry.api.spell.SpellData;
 import com.teamwizardry.wizardry.api.spell.SpellRing;
+import com.teamwizardry.wizardry.api.spell.SpellScheduler;
 import com.teamwizardry.wizardry.api.spell.annotation.ModuleOverride;
 import com.teamwizardry.wizardry.api.spell.annotation.RegisterModule;
 import com.teamwizardry.wizardry.api.spell.attribute.AttributeRegistry;
@@ -29,6 +30,8 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.teamwizardry.wizardry.api.spell.SpellData.DefaultKeys.*;
 
@@ -78,9 +81,16 @@ public class ModuleShapeCone implements IModuleShape {
 		double range = spellRing.getAttributeValue(world, AttributeRegistry.RANGE, spell);
 		int potency = (int) (spellRing.getAttributeValue(world, AttributeRegistry.POTENCY, spell));
 
+		// Rays are taxed and set up first, and traced together once all are known
+		List<SpellData> raySpells = new ArrayList<>(potency);
+		List<RayTrace> rays = new ArrayList<>(potency);
+		boolean taxed = true;
 		for (int i = 0; i < potency; i++) {
 
-			if (!spellRing.taxCaster(world, spell, 1.0 / potency, true)) return false;
+			if (!spellRing.taxCaster(world, spell, 1.0 / potency, true)) {
+				taxed = false;
+				break;
+			}
 			
 			long seed = RandUtil.nextLong(100, 10000);
 			spell.addData(SEED, seed);
@@ -94,11 +104,15 @@ public class ModuleShapeCone implements IModuleShape {
 
 			Vec3d target = PosUtils.vecFromRotations(newPitch, newYaw);
 
-			SpellData newSpell = spell.copy();
+			raySpells.add(spell.copy());
+			rays.add(new RayTrace(world, target.normalize(), origin, range)
+					.setEntityFilter(input -> input != caster));
+		}
 
-			RayTraceResult result = new RayTrace(world, target.normalize(), origin, range)
-					.setEntityFilter(input -> input != caster)
-					.trace();
+		List<RayTraceResult> results = RayTrace.traceAll(rays);
+		for (int i = 0; i < results.size(); i++) {
+			SpellData newSpell = raySpells.get(i);
+			RayTraceResult result = results.get(i);
 
 			Vec3d lookFallback = spell.getData(LOOK);
 			if (lookFallback != null) lookFallback.scale(range);
@@ -108,12 +122,15 @@ public class ModuleShapeCone implements IModuleShape {
 
 			newSpell.addData(ORIGIN, result.hitVec);
 
-			if (spellRing.getChildRing() != null) {
-				spellRing.getChildRing().runSpellRing(world, newSpell.copy(), true);
+			// Rays past the budget of the tick resume in the next one
+			SpellRing childRing = spellRing.getChildRing();
+			if (childRing != null) {
+				SpellData rayData = newSpell.copy();
+				SpellScheduler.run(world, rayData, SpellScheduler.Priority.CAST, () -> childRing.runSpellRing(world, rayData, true));
 			}
 		}
 
-		return true;
+		return taxed;
 	}
 
 	/**
@@ -11,6 +11,7 @@ import com.teamwizardry.wizardry.api.NBTConstants;
 import com.teamwizardry.wizardry.api.spell.ILingeringModule;
 import com.teamwizardry.wizardry.api.spell.SpellData;
 import com.teamwizardry.wizardry.api.spell.SpellRing;
+import com.teamwizardry.wizardry.api.spell.SpellScheduler;
 import com.teamwizardry.wizardry.api.spell.annotation.ModuleOverride;
 import com.teamwizardry.wizardry.api.spell.annotation.RegisterModule;
 import com.teamwizardry.wizardry.api.spell.attribute.AttributeRegistry;
@@ -98,7 +99,7 @@ public class ModuleShapeZone implements IModuleShape, ILingeringModule {
 		Vec3d min = targetPos.subtract(aoe, range, aoe);
 		Vec3d max = targetPos.add(aoe, range, aoe);
 
-		NBTTagCompound info = spell.getDataWithFallback(SpellData.DefaultKeys.COMPOUND, new NBTTagCompound());
+		NBTTagCompound info = spell.getDataWithFallback(SpellData.DefaultKeys.COMPOUND, new NBTTagCompound()).copy();
 
 		double zoneTick = 0;
 		if (!NBTHelper.hasKey(info, ZONE_TICK)) {
@@ -132,8 +133,11 @@ public class ModuleShapeZone implements IModuleShape, ILingeringModule {
 				copy.addData(PITCH, entity.rotationPitch);
 				copy.addData(ORIGIN, vec);
 
-				if (spellRing.getChildRing() != null)
-					spellRing.getChildRing().runSpellRing(world, spell, true);
+				SpellRing childRing = spellRing.getChildRing();
+				if (childRing != null) {
+					SpellData entityData = spell.copy();
+					SpellScheduler.run(world, entityData, SpellScheduler.Priority.LINGERING, () -> childRing.runSpellRing(world, entityData, true));
+				}
 			}
 
 			Vec3d pos = new Vec3d(target).add(0.5, 0.5, 0.5);
@@ -145,8 +149,9 @@ public class ModuleShapeZone implements IModuleShape, ILingeringModule {
 			copy.addData(YAW, RandUtil.nextFloat(-180, 180));
 			copy.addData(PITCH, RandUtil.nextFloat(-50, 50));
 
-			if (spellRing.getChildRing() != null)
-				spellRing.getChildRing().runSpellRing(world, copy, true);
+			SpellRing childRing = spellRing.getChildRing();
+			if (childRing != null)
+				SpellScheduler.run(world, copy, SpellScheduler.Priority.LINGERING, () -> childRing.runSpellRing(world, copy, true));
 		}
 
 		return true;
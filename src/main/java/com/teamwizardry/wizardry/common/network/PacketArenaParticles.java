@@ -0,0 +1,83 @@
+package com.teamwizardry.wizardry.common.network;
+
+import com.teamwizardry.librarianlib.core.LibrarianLib;
+import com.teamwizardry.librarianlib.features.math.interpolate.numeric.InterpFloatInOut;
+import com.teamwizardry.librarianlib.features.math.interpolate.position.InterpCircle;
+import com.teamwizardry.librarianlib.features.network.PacketBase;
+import com.teamwizardry.librarianlib.features.particle.ParticleBuilder;
+import com.teamwizardry.librarianlib.features.particle.ParticleSpawner;
+import com.teamwizardry.librarianlib.features.saving.Save;
+import com.teamwizardry.librarianlib.features.utilities.client.ClientRunnable;
+import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.api.NBTConstants;
+import com.teamwizardry.wizardry.api.util.ColorUtils;
+import com.teamwizardry.wizardry.api.util.RandUtil;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.*;
+
+/**
+ * Shows the glitter marking the floor and ceiling of an arena, see {@link com.teamwizardry.wizardry.api.arena.Arena#tick(long)}.
+ */
+public class PacketArenaParticles extends PacketBase {
+
+	@Save
+	public Vec3d center;
+	@Save
+	public double radius;
+	@Save
+	public double height;
+
+	public PacketArenaParticles() {
+	}
+
+	public PacketArenaParticles(Vec3d center, double radius, double height) {
+		this.center = center;
+		this.radius = radius;
+		this.height = height;
+	}
+
+	@Override
+	public void handle(@NotNull MessageContext messageContext) {
+		if (messageContext.side.isServer()) return;
+
+		World world = LibrarianLib.PROXY.getClientPlayer().world;
+		if (world == null) return;
+
+		ClientRunnable.run(new ClientRunnable() {
+			@Override
+			@SideOnly(Side.CLIENT)
+			public void runIfClient() {
+				ParticleBuilder glitter = new ParticleBuilder(10);
+				glitter.setRender(new ResourceLocation(Wizardry.MODID, NBTConstants.MISC.SPARKLE_BLURRED));
+				glitter.setAlphaFunction(new InterpFloatInOut(0.3f, 0.3f));
+				glitter.setCollision(true);
+				glitter.enableMotionCalculation();
+				ParticleSpawner.spawn(glitter, world, new InterpCircle(center.add(0, height, 0), new Vec3d(0, 1, 0), (float) radius, 1, RandUtil.nextFloat()), 10, RandUtil.nextInt(10), (aFloat, particleBuilder) -> {
+					particleBuilder.setColor(ColorUtils.changeColorAlpha(new Color(0x0097FF), RandUtil.nextInt(100, 255)));
+					particleBuilder.setScale(RandUtil.nextFloat(0.5f, 1));
+					particleBuilder.addMotion(new Vec3d(RandUtil.nextDouble(-0.01, 0.01),
+							RandUtil.nextDouble(-0.01, 0.01),
+							RandUtil.nextDouble(-0.01, 0.01)));
+					particleBuilder.setLifetime(RandUtil.nextInt(30, 60));
+				});
+
+				glitter.disableMotionCalculation();
+				ParticleSpawner.spawn(glitter, world, new InterpCircle(center, new Vec3d(0, 1, 0), (float) radius, 1, RandUtil.nextFloat()), 10, RandUtil.nextInt(10), (aFloat, particleBuilder) -> {
+					particleBuilder.setColor(ColorUtils.changeColorAlpha(new Color(0x0097FF), RandUtil.nextInt(100, 255)));
+					particleBuilder.setScale(RandUtil.nextFloat(0.5f, 1));
+					particleBuilder.addMotion(new Vec3d(RandUtil.nextDouble(-0.01, 0.01),
+							RandUtil.nextDouble(0.01, 0.02),
+							RandUtil.nextDouble(-0.01, 0.01)));
+					particleBuilder.setLifetime(RandUtil.nextInt(30, 60));
+				});
+			}
+		});
+	}
+}
@@ -2,12 +2,12 @@ package com.teamwizardry.wizardry.common.network;
 
 import com.teamwizardry.librarianlib.features.autoregister.PacketRegister;
 import com.teamwizardry.librarianlib.features.network.PacketBase;
-import com.teamwizardry.librarianlib.features.saving.Save;
 import com.teamwizardry.librarianlib.features.utilities.client.ClientRunnable;
 import com.teamwizardry.wizardry.common.core.nemez.NemezEventHandler;
 import com.teamwizardry.wizardry.common.core.nemez.NemezTracker;
-import net.minecraft.nbt.NBTTagCompound;
-import net.minecraftforge.common.util.Constants;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
@@ -15,6 +15,10 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 import javax.annotation.Nonnull;
 
 /**
+ * Streams the moments of a time reversal to a client. <br/>
+ * Moments are numbered in the order they are applied. Each packet carries the moments from <code>start</code> on,
+ * which the server knows the client doesn't have yet, encoded as quantized deltas. See {@link NemezEventHandler}.
+ *
  * @author WireSegal
  * Created at 7:04 PM on 1/15/18.
  */
@@ -23,26 +27,69 @@ public class PacketNemezReversal extends PacketBase {
 
 	public static final int SYNC_AMOUNT = 20;
 
-	@Save
-	public NBTTagCompound nemez;
+	private int stream;
+	private int start;
+	private int played;
+	private byte[] data;
 
-	public PacketNemezReversal(NemezTracker nemez) {
-		this.nemez = new NBTTagCompound();
-		this.nemez.setTag("root", nemez.nextNMoments(SYNC_AMOUNT));
+	// Decoded on the network thread
+	private NemezTracker moments;
+
+	/**
+	 * @param stream  the id of the reversal.
+	 * @param start   the number of the first moment sent.
+	 * @param played  the number of moments the server has applied.
+	 * @param nemez   the moments of the reversal which are left to apply.
+	 * @param skip    the number of moments of <code>nemez</code> the client already has.
+	 * @param count   the number of moments to send.
+	 */
+	public PacketNemezReversal(int stream, int start, int played, NemezTracker nemez, int skip, int count) {
+		this.stream = stream;
+		this.start = start;
+		this.played = played;
+
+		ByteBuf buf = Unpooled.buffer();
+		nemez.writeMoments(new PacketBuffer(buf), skip, count);
+		this.data = new byte[buf.readableBytes()];
+		buf.readBytes(this.data);
 	}
 
 	public PacketNemezReversal() {
 		// NO-OP
 	}
 
+	/**
+	 * @return the size of the encoded moments in bytes.
+	 */
+	public int getSize() {
+		return data.length;
+	}
+
+	@Override
+	public void writeCustomBytes(@Nonnull ByteBuf buf) {
+		PacketBuffer buffer = new PacketBuffer(buf);
+		buffer.writeVarInt(stream);
+		buffer.writeVarInt(start);
+		buffer.writeVarInt(played);
+		buffer.writeBytes(data);
+	}
+
+	@Override
+	public void readCustomBytes(@Nonnull ByteBuf buf) {
+		PacketBuffer buffer = new PacketBuffer(buf);
+		stream = buffer.readVarInt();
+		start = buffer.readVarInt();
+		played = buffer.readVarInt();
+		moments = NemezTracker.readMoments(buffer);
+	}
+
 	@Override
 	public void handle(@Nonnull MessageContext ctx) {
 		ClientRunnable.run(new ClientRunnable() {
 			@Override
 			@SideOnly(Side.CLIENT)
 			public void runIfClient() {
-				NemezTracker tracker = NemezEventHandler.getCurrent();
-				tracker.absorb(nemez.getTagList("root", Constants.NBT.TAG_COMPOUND));
+				NemezEventHandler.receive(stream, start, played, moments);
 			}
 		});
 	}
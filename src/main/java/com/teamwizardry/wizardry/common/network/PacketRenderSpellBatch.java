@@ -0,0 +1,133 @@
+package com.teamwizardry.wizardry.common.network;
+
+import com.teamwizardry.librarianlib.core.LibrarianLib;
+import com.teamwizardry.librarianlib.features.network.PacketBase;
+import com.teamwizardry.wizardry.api.spell.SpellData;
+import com.teamwizardry.wizardry.api.spell.SpellRing;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+
+/**
+ * Carries all spell render events of a single tick for one player. <br/>
+ * Spell ring chains are referenced by an id. The NBT of a chain is sent only once,
+ * afterwards the client resolves the id from its cache. See {@link com.teamwizardry.wizardry.common.core.SpellRenderBatcher}.
+ */
+public class PacketRenderSpellBatch extends PacketBase {
+
+	/**
+	 * Client side ring chains by id. Must be accessed from the main thread only.
+	 */
+	private static final HashMap<Integer, SpellRing> clientRings = new HashMap<>();
+
+	private boolean reset;
+	private int[] ringIds;
+	private byte[][] rings;
+	private int[] eventRingIds;
+	private byte[][] events;
+
+	// Decoded on the network thread
+	private NBTTagCompound[] ringTags;
+	private NBTTagCompound[] eventTags;
+
+	public PacketRenderSpellBatch() {
+	}
+
+	/**
+	 * @param reset        if <code>true</code>, the client drops all cached ring chains before reading this packet.
+	 * @param ringIds      ids of the ring chains which are defined by this packet.
+	 * @param rings        serialized NBT for each id of <code>ringIds</code>.
+	 * @param eventRingIds the ring chain id of each render event.
+	 * @param events       serialized spell data for each render event.
+	 */
+	public PacketRenderSpellBatch(boolean reset, int[] ringIds, byte[][] rings, int[] eventRingIds, byte[][] events) {
+		this.reset = reset;
+		this.ringIds = ringIds;
+		this.rings = rings;
+		this.eventRingIds = eventRingIds;
+		this.events = events;
+	}
+
+	/**
+	 * Serializes a compound in the format expected by this packet.
+	 *
+	 * @param compound the compound.
+	 * @return the serialized bytes.
+	 */
+	public static byte[] toBytes(NBTTagCompound compound) {
+		ByteBuf buf = Unpooled.buffer();
+		ByteBufUtils.writeTag(buf, compound);
+		byte[] bytes = new byte[buf.readableBytes()];
+		buf.readBytes(bytes);
+		return bytes;
+	}
+
+	@Override
+	public void writeCustomBytes(@Nonnull ByteBuf buf) {
+		PacketBuffer buffer = new PacketBuffer(buf);
+		buffer.writeBoolean(reset);
+
+		buffer.writeVarInt(ringIds.length);
+		for (int i = 0; i < ringIds.length; i++) {
+			buffer.writeVarInt(ringIds[i]);
+			buffer.writeBytes(rings[i]);
+		}
+
+		buffer.writeVarInt(eventRingIds.length);
+		for (int i = 0; i < eventRingIds.length; i++) {
+			buffer.writeVarInt(eventRingIds[i]);
+			buffer.writeBytes(events[i]);
+		}
+	}
+
+	@Override
+	public void readCustomBytes(@Nonnull ByteBuf buf) {
+		PacketBuffer buffer = new PacketBuffer(buf);
+		reset = buffer.readBoolean();
+
+		int ringCount = buffer.readVarInt();
+		ringIds = new int[ringCount];
+		ringTags = new NBTTagCompound[ringCount];
+		for (int i = 0; i < ringCount; i++) {
+			ringIds[i] = buffer.readVarInt();
+			ringTags[i] = ByteBufUtils.readTag(buffer);
+		}
+
+		int eventCount = buffer.readVarInt();
+		eventRingIds = new int[eventCount];
+		eventTags = new NBTTagCompound[eventCount];
+		for (int i = 0; i < eventCount; i++) {
+			eventRingIds[i] = buffer.readVarInt();
+			eventTags[i] = ByteBufUtils.readTag(buffer);
+		}
+	}
+
+	@Override
+	public void handle(@Nonnull MessageContext messageContext) {
+		if (messageContext.side.isServer()) return;
+
+		if (reset) clientRings.clear();
+		for (int i = 0; i < ringIds.length; i++) {
+			if (ringTags[i] == null) continue;
+			clientRings.put(ringIds[i], SpellRing.deserializeRing(ringTags[i]));
+		}
+
+		World world = LibrarianLib.PROXY.getClientPlayer().world;
+		if (world == null) return;
+
+		for (int i = 0; i < eventRingIds.length; i++) {
+			SpellRing spellRing = clientRings.get(eventRingIds[i]);
+			if (spellRing == null || spellRing.getModule() == null || eventTags[i] == null) continue;
+
+			SpellData data = SpellData.deserializeData(eventTags[i]);
+			spellRing.getModule().renderSpell(world, data, spellRing);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.teamwizardry.wizardry.common.network;
+
+import com.teamwizardry.librarianlib.core.LibrarianLib;
+import com.teamwizardry.librarianlib.features.network.PacketBase;
+import com.teamwizardry.librarianlib.features.saving.Save;
+import com.teamwizardry.librarianlib.features.utilities.client.ClientRunnable;
+import com.teamwizardry.wizardry.client.fx.LibParticles;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.*;
+
+/**
+ * Shows the client where a structure check failed, see {@link LibParticles#STRUCTURE_FLAIR(World, Vec3d, Color)}.
+ */
+public class PacketStructureFlair extends PacketBase {
+
+	@Save
+	public Vec3d pos;
+	@Save
+	public Color color;
+
+	public PacketStructureFlair() {
+	}
+
+	public PacketStructureFlair(Vec3d pos, Color color) {
+		this.pos = pos;
+		this.color = color;
+	}
+
+	@Override
+	public void handle(@NotNull MessageContext messageContext) {
+		if (messageContext.side.isServer()) return;
+
+		World world = LibrarianLib.PROXY.getClientPlayer().world;
+		if (world == null) return;
+
+		ClientRunnable.run(new ClientRunnable() {
+			@Override
+			@SideOnly(Side.CLIENT)
+			public void runIfClient() {
+				LibParticles.STRUCTURE_FLAIR(world, pos, color);
+			}
+		});
+	}
+}
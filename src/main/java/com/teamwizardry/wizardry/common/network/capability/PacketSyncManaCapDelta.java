@@ -0,0 +1,89 @@
+package com.teamwizardry.wizardry.common.network.capability;
+
+import com.teamwizardry.librarianlib.core.LibrarianLib;
+import com.teamwizardry.librarianlib.features.autoregister.PacketRegister;
+import com.teamwizardry.librarianlib.features.network.PacketBase;
+import com.teamwizardry.wizardry.api.capability.player.mana.EnumBloodType;
+import com.teamwizardry.wizardry.api.capability.player.mana.IManaCapability;
+import com.teamwizardry.wizardry.api.capability.player.mana.ManaCapabilityProvider;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Updates only the changed fields of the mana capability of the client player.
+ * See {@link com.teamwizardry.wizardry.api.capability.player.mana.ManaSyncScheduler}.
+ */
+@PacketRegister(Side.CLIENT)
+public class PacketSyncManaCapDelta extends PacketBase {
+
+	public static final int MANA = 1;
+	public static final int MAX_MANA = 1 << 1;
+	public static final int BURNOUT = 1 << 2;
+	public static final int MAX_BURNOUT = 1 << 3;
+	public static final int BLOOD_TYPE = 1 << 4;
+
+	private int mask;
+	private double mana;
+	private double maxMana;
+	private double burnout;
+	private double maxBurnout;
+	@Nullable
+	private EnumBloodType bloodType;
+
+	public PacketSyncManaCapDelta() {
+	}
+
+	public PacketSyncManaCapDelta(int mask, double mana, double maxMana, double burnout, double maxBurnout, @Nullable EnumBloodType bloodType) {
+		this.mask = mask;
+		this.mana = mana;
+		this.maxMana = maxMana;
+		this.burnout = burnout;
+		this.maxBurnout = maxBurnout;
+		this.bloodType = bloodType;
+	}
+
+	@Override
+	public void writeCustomBytes(@Nonnull ByteBuf buf) {
+		buf.writeByte(mask);
+		if ((mask & MANA) != 0) buf.writeDouble(mana);
+		if ((mask & MAX_MANA) != 0) buf.writeDouble(maxMana);
+		if ((mask & BURNOUT) != 0) buf.writeDouble(burnout);
+		if ((mask & MAX_BURNOUT) != 0) buf.writeDouble(maxBurnout);
+		if ((mask & BLOOD_TYPE) != 0) ByteBufUtils.writeUTF8String(buf, bloodType == null ? "" : bloodType.id);
+	}
+
+	@Override
+	public void readCustomBytes(@Nonnull ByteBuf buf) {
+		mask = buf.readUnsignedByte();
+		if ((mask & MANA) != 0) mana = buf.readDouble();
+		if ((mask & MAX_MANA) != 0) maxMana = buf.readDouble();
+		if ((mask & BURNOUT) != 0) burnout = buf.readDouble();
+		if ((mask & MAX_BURNOUT) != 0) maxBurnout = buf.readDouble();
+		if ((mask & BLOOD_TYPE) != 0) {
+			String id = ByteBufUtils.readUTF8String(buf);
+			bloodType = id.isEmpty() ? null : EnumBloodType.getType(id);
+		}
+	}
+
+	@Override
+	public void handle(@Nonnull MessageContext ctx) {
+		if (ctx.side.isServer()) return;
+
+		EntityPlayer player = LibrarianLib.PROXY.getClientPlayer();
+		IManaCapability cap = ManaCapabilityProvider.getCap(player);
+		if (cap == null) return;
+
+		// NOTE: Maximum values first, as setting mana and burnout clamps against them
+		if ((mask & MAX_MANA) != 0) cap.setMaxMana(maxMana);
+		if ((mask & MAX_BURNOUT) != 0) cap.setMaxBurnout(maxBurnout);
+		if ((mask & MANA) != 0) cap.setMana(mana);
+		if ((mask & BURNOUT) != 0) cap.setBurnout(burnout);
+		if ((mask & BLOOD_TYPE) != 0) cap.setBloodType(bloodType);
+	}
+}
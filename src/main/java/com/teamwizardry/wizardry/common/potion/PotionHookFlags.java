@@ -0,0 +1,57 @@
+package com.teamwizardry.wizardry.common.potion;
+
+import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.asm.WizardryASMHooks;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.potion.Potion;
+import net.minecraft.potion.PotionEffect;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.event.entity.living.PotionEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Sets the entity hook flag of a potion on the entities it is applied to, see {@link WizardryASMHooks}. <br/>
+ * The flag is set when the potion is added on either side, or when an entity which already has it joins a world,
+ * and cleared by the hooks once the potion is gone.
+ */
+@Mod.EventBusSubscriber(modid = Wizardry.MODID)
+public final class PotionHookFlags {
+
+	private static final Map<Potion, Integer> flags = new IdentityHashMap<>();
+
+	private PotionHookFlags() {
+	}
+
+	/**
+	 * @return the hook flag of the potion, to register listeners with.
+	 */
+	public static int register(Potion potion) {
+		int flag = WizardryASMHooks.registerEffect(entity -> entity instanceof EntityLivingBase && ((EntityLivingBase) entity).isPotionActive(potion));
+		flags.put(potion, flag);
+		return flag;
+	}
+
+	@SubscribeEvent
+	public static void potionAdded(PotionEvent.PotionAddedEvent event) {
+		PotionEffect effect = event.getPotionEffect();
+		if (effect == null) return;
+
+		Integer flag = flags.get(effect.getPotion());
+		if (flag != null) WizardryASMHooks.addFlags(event.getEntityLiving(), flag);
+	}
+
+	@SubscribeEvent
+	public static void entityJoin(EntityJoinWorldEvent event) {
+		if (!(event.getEntity() instanceof EntityLivingBase)) return;
+
+		EntityLivingBase entity = (EntityLivingBase) event.getEntity();
+		for (PotionEffect effect : entity.getActivePotionEffects()) {
+			Integer flag = flags.get(effect.getPotion());
+			if (flag != null) WizardryASMHooks.addFlags(entity, flag);
+		}
+	}
+}
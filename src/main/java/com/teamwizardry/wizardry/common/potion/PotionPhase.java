@@ -1,8 +1,6 @@
 package com.teamwizardry.wizardry.common.potion;
 
-import com.teamwizardry.wizardry.api.events.EntityMoveEvent;
-import com.teamwizardry.wizardry.api.events.PlayerClipEvent;
-import com.teamwizardry.wizardry.init.ModPotions;
+import com.teamwizardry.wizardry.asm.WizardryASMHooks;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockFence;
 import net.minecraft.block.BlockFenceGate;
@@ -12,7 +10,6 @@ import net.minecraft.block.state.IBlockState;
 import net.minecraft.crash.CrashReport;
 import net.minecraft.crash.CrashReportCategory;
 import net.minecraft.entity.Entity;
-import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.entity.MoverType;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.init.Blocks;
@@ -20,8 +17,6 @@ import net.minecraft.util.ReportedException;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
-import net.minecraftforge.common.MinecraftForge;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -34,34 +29,22 @@ public class PotionPhase extends PotionBase {
 
 	public PotionPhase() {
 		super("phase", false, 0xDAEFE7);
-		MinecraftForge.EVENT_BUS.register(this);
+		int flag = PotionHookFlags.register(this);
+		WizardryASMHooks.addClipListener(flag, (player, noClip) -> true);
+		WizardryASMHooks.addMoveListener(flag, this::entityMove);
 	}
 
-	@SubscribeEvent
-	public void playerClipEvent(PlayerClipEvent event) {
-		if (event.player.isPotionActive(ModPotions.PHASE)) {
-			event.noClip = true;
-		}
-	}
-
-	@SubscribeEvent
-	public void entityMove(EntityMoveEvent event) {
-		if (!(event.entity instanceof EntityLivingBase)) return;
-		EntityLivingBase base = (EntityLivingBase) event.entity;
-		if (!base.isPotionActive(ModPotions.PHASE)) return;
-
-		event.setCanceled(true); // TODO: 10/6/18 fix your shit demoniaque
-		//event.entity.noClip = true;
-		event.entity.fallDistance = 0;
-		event.entity.isAirBorne = true;
-
-		Entity entity = event.entity;
+	private void entityMove(Entity entity, WizardryASMHooks.MoveContext context) {
+		context.canceled = true; // TODO: 10/6/18 fix your shit demoniaque
+		//entity.noClip = true;
+		entity.fallDistance = 0;
+		entity.isAirBorne = true;
 
-		double x = event.x;
-		double y = event.y;
-		double z = event.z;
+		double x = context.x;
+		double y = context.y;
+		double z = context.z;
 
-		MoverType type = event.type;
+		MoverType type = context.type;
 
 		entity.world.profiler.startSection("move");
 		double d10 = entity.posX;
@@ -286,7 +269,7 @@ public class PotionPhase extends PotionBase {
 		}
 
 		entity.world.profiler.endSection();
-		//event.entity.noClip = false;
+		//entity.noClip = false;
 	}
 
 	@Nullable
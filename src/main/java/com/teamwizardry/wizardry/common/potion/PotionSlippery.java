@@ -1,6 +1,6 @@
 package com.teamwizardry.wizardry.common.potion;
 
-import com.teamwizardry.wizardry.api.events.EntityTravelEvent;
+import com.teamwizardry.wizardry.asm.WizardryASMHooks;
 import net.minecraft.enchantment.EnchantmentHelper;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.entity.MoverType;
@@ -10,8 +10,6 @@ import net.minecraft.util.DamageSource;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
-import net.minecraftforge.common.MinecraftForge;
-import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
 /**
  * Created by Demoniaque.
@@ -20,19 +18,15 @@ public class PotionSlippery extends PotionBase {
 
 	public PotionSlippery() {
 		super("slippery", false, 0xABFCF0);
-		MinecraftForge.EVENT_BUS.register(this);
+		WizardryASMHooks.addTravelListener(PotionHookFlags.register(this), this::entityMove);
 	}
 
-	@SuppressWarnings("unused")
-	@SubscribeEvent
-	public void entityMove(EntityTravelEvent event) {
-		if (!event.entity.isPotionActive(this)) return;
-		event.setCanceled(true); // TODO: 10/6/18 fix your shit demoniaque
+	private void entityMove(EntityLivingBase entity, WizardryASMHooks.TravelContext context) {
+		context.canceled = true; // TODO: 10/6/18 fix your shit demoniaque
 
-		EntityLivingBase entity = event.entity;
-		float strafe = event.strafe / 2.0f;
-		float forward = event.forward / 2.0f;
-		float vertical = event.vertical / 2.0f;
+		float strafe = context.strafe / 2.0f;
+		float forward = context.forward / 2.0f;
+		float vertical = context.vertical / 2.0f;
 		float slipperiness = 1.04f;
 		if (entity.isServerWorld() || entity.canPassengerSteer()) {
 			if (!entity.isInWater() || entity instanceof EntityPlayer && ((EntityPlayer) entity).capabilities.isFlying) {
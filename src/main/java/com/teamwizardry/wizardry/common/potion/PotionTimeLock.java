@@ -1,5 +1,6 @@
 package com.teamwizardry.wizardry.common.potion;
 
+import com.teamwizardry.wizardry.api.entity.EntityIndex;
 import com.teamwizardry.wizardry.common.core.WizardryNemezManager;
 import com.teamwizardry.wizardry.common.core.nemez.NemezTracker;
 import com.teamwizardry.wizardry.common.module.effects.ModuleEffectTimeLock;
@@ -14,7 +15,6 @@ import net.minecraftforge.fml.common.gameevent.TickEvent;
 import net.minecraftforge.fml.relauncher.Side;
 
 import javax.annotation.Nonnull;
-import java.util.List;
 import java.util.UUID;
 
 /**
@@ -46,18 +46,9 @@ public class PotionTimeLock extends PotionBase {
 
 			NemezTracker tracker = WizardryNemezManager.getOrCreateNemezDrive(event.world, caster);
 			for (UUID uuid : ModuleEffectTimeLock.timeLockedEntities.get(caster)) {
-				List<EntityLivingBase> entities = event.world.getEntities(EntityLivingBase.class, input -> {
-					if (input != null) {
-						return input.getUniqueID().equals(uuid);
-					}
-					return false;
-				});
-				if (entities.size() == 1) {
-					EntityLivingBase e = entities.get(0);
-
-					if (e.isPotionActive(ModPotions.TIME_LOCK)) {
-						tracker.trackEntity(e);
-					}
+				EntityLivingBase e = EntityIndex.getEntity(event.world, uuid, EntityLivingBase.class);
+				if (e != null && e.isPotionActive(ModPotions.TIME_LOCK)) {
+					tracker.trackEntity(e);
 				}
 			}
 		}
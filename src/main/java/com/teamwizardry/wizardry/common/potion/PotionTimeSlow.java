@@ -2,7 +2,7 @@ package com.teamwizardry.wizardry.common.potion;
 
 import com.teamwizardry.librarianlib.features.forgeevents.EntityUpdateEvent;
 import com.teamwizardry.wizardry.Wizardry;
-import com.teamwizardry.wizardry.api.events.EntityMoveEvent;
+import com.teamwizardry.wizardry.asm.WizardryASMHooks;
 import com.teamwizardry.wizardry.init.ModPotions;
 import com.teamwizardry.wizardry.init.ModSounds;
 import net.minecraft.entity.Entity;
@@ -24,6 +24,7 @@ public class PotionTimeSlow extends PotionBase {
 
 	public PotionTimeSlow() {
 		super("time_slow", false, 0xE8CA0D);
+		WizardryASMHooks.addMoveListener(PotionHookFlags.register(this), PotionTimeSlow::entityMove);
 	}
 
 	@Override
@@ -69,15 +70,14 @@ public class PotionTimeSlow extends PotionBase {
 			entity.motionY -= gravity * (1 - scale);
 		}
 	}
-	
-	@SubscribeEvent
-	public static void entityMove(EntityMoveEvent event) {
-		float scale = timeScale(event.entity);
+
+	private static void entityMove(Entity entity, WizardryASMHooks.MoveContext context) {
+		float scale = timeScale(entity);
 
 		if (scale > 0) {
-			event.x *= scale;
-			event.y *= scale;
-			event.z *= scale;
+			context.x *= scale;
+			context.y *= scale;
+			context.z *= scale;
 		}
 	}
 }
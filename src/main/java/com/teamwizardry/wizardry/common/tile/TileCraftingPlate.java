@@ -7,6 +7,8 @@ import com.teamwizardry.librarianlib.features.saving.Module;
 import com.teamwizardry.librarianlib.features.saving.Save;
 import com.teamwizardry.librarianlib.features.tesr.TileRenderer;
 import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.api.block.StructureStatus;
+import com.teamwizardry.wizardry.api.block.StructureTracker;
 import com.teamwizardry.wizardry.api.block.TileManaNode;
 import com.teamwizardry.wizardry.api.capability.player.mana.IManaCapability;
 import com.teamwizardry.wizardry.api.capability.player.mana.ManaCapabilityProvider;
@@ -100,6 +102,8 @@ public class TileCraftingPlate extends TileManaNode {
 	@Save
 	public int suckingCooldown = 0;
 
+	private StructureStatus structureStatus = StructureStatus.UNCHECKED;
+
 	public TileCraftingPlate() {
 		super(0, 0);
 		setCanSuckFromOutside(false);
@@ -128,6 +132,26 @@ public class TileCraftingPlate extends TileManaNode {
 		return false;
 	}
 
+	@Override
+	public void onChunkUnload() {
+		super.onChunkUnload();
+		StructureTracker.remove(world, getPos());
+	}
+
+	@Override
+	public void invalidate() {
+		super.invalidate();
+		if (world != null) StructureTracker.remove(world, getPos());
+	}
+
+	/**
+	 * @return the status of the structure as of the last tick.
+	 */
+	@Nonnull
+	public StructureStatus getStructureStatus() {
+		return structureStatus;
+	}
+
 	@Override
 	public void update() {
 		super.update();
@@ -137,7 +161,8 @@ public class TileCraftingPlate extends TileManaNode {
 			//markDirty();
 		}
 
-		if (!((BlockCraftingPlate) getBlockType()).testStructure(getWorld(), getPos()).isEmpty()) return;
+		structureStatus = StructureTracker.getStatus(getWorld(), getPos(), (BlockCraftingPlate) getBlockType());
+		if (!structureStatus.isValid()) return;
 
 		if (getStructurePos() != getPos()) {
 			setStructurePos(getPos());
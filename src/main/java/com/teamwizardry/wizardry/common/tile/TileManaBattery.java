@@ -12,12 +12,14 @@ import com.teamwizardry.librarianlib.features.utilities.client.ClientRunnable;
 import com.teamwizardry.wizardry.Wizardry;
 import com.teamwizardry.wizardry.api.NBTConstants;
 import com.teamwizardry.wizardry.api.block.IManaGenerator;
+import com.teamwizardry.wizardry.api.block.IStructure;
+import com.teamwizardry.wizardry.api.block.StructureStatus;
+import com.teamwizardry.wizardry.api.block.StructureTracker;
 import com.teamwizardry.wizardry.api.block.TileManaNode;
 import com.teamwizardry.wizardry.api.capability.player.mana.ManaManager;
 import com.teamwizardry.wizardry.api.util.ColorUtils;
 import com.teamwizardry.wizardry.api.util.RandUtil;
 import com.teamwizardry.wizardry.client.render.block.TileManaBatteryRenderer;
-import com.teamwizardry.wizardry.common.block.BlockManaBattery;
 import com.teamwizardry.wizardry.init.ModBlocks;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.ResourceLocation;
@@ -47,6 +49,8 @@ public class TileManaBattery extends TileManaNode implements IManaGenerator {
 	@Save
 	public boolean revealStructure = false;
 
+	private StructureStatus structureStatus = StructureStatus.UNCHECKED;
+
 	public TileManaBattery() {
 		super(1000, 1000);
 		setCanSuckFromOutside(false);
@@ -60,11 +64,34 @@ public class TileManaBattery extends TileManaNode implements IManaGenerator {
 		return TileEntity.INFINITE_EXTENT_AABB;
 	}
 
+	@Override
+	public void onChunkUnload() {
+		super.onChunkUnload();
+		StructureTracker.remove(world, getPos());
+	}
+
+	@Override
+	public void invalidate() {
+		super.invalidate();
+		if (world != null) StructureTracker.remove(world, getPos());
+	}
+
+	/**
+	 * @return the status of the structure as of the last tick.
+	 */
+	@Nonnull
+	public StructureStatus getStructureStatus() {
+		return structureStatus;
+	}
+
 	@Override
 	public void update() {
 		super.update();
 
-		if (getBlockType() == ModBlocks.MANA_BATTERY && !((BlockManaBattery) getBlockType()).testStructure(getWorld(), getPos()).isEmpty())
+		if (getBlockType() instanceof IStructure)
+			structureStatus = StructureTracker.getStatus(getWorld(), getPos(), (IStructure) getBlockType());
+
+		if (getBlockType() == ModBlocks.MANA_BATTERY && !structureStatus.isValid())
 			return;
 
 		if (getStructurePos() != getPos()) {
@@ -93,6 +120,8 @@ public class TileManaBattery extends TileManaNode implements IManaGenerator {
 						.removeBurnout(5)
 						.close();
 
+				wakeNetwork();
+
 				if (world.isRemote)
 					ClientRunnable.run(new ClientRunnable() {
 						@Override
@@ -117,10 +146,14 @@ public class TileManaBattery extends TileManaNode implements IManaGenerator {
 			}
 
 		} else {
+			boolean refilled = !ManaManager.isManaFull(getWizardryCap());
+
 			ManaManager.forObject(getWizardryCap())
 					.setMana(ManaManager.getMaxMana(getWizardryCap()))
 					.setBurnout(0)
 					.close();
+
+			if (refilled) wakeNetwork();
 		}
 	}
 }
@@ -34,6 +34,11 @@ public class TileOrbHolder extends TileManaNode implements ICooldownSpellCaster
 				return 0;
 			}
 		}
+
+		@Override
+		protected void onContentsChanged(int slot) {
+			wakeNetwork();
+		}
 	});
 
 	public TileOrbHolder() {
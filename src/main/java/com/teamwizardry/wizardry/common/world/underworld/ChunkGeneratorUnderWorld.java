@@ -1,26 +1,24 @@
 package com.teamwizardry.wizardry.common.world.underworld;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import com.teamwizardry.wizardry.api.util.RandUtil;
 import com.teamwizardry.wizardry.api.util.RandUtilSeed;
 import com.teamwizardry.wizardry.common.block.BlockCloud;
 import com.teamwizardry.wizardry.init.ModBlocks;
 
-import kotlin.Pair;
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.EnumCreatureType;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.EnumSkyBlock;
 import net.minecraft.world.World;
 import net.minecraft.world.biome.Biome;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ChunkPrimer;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 import net.minecraft.world.gen.IChunkGenerator;
 import net.minecraft.world.gen.NoiseGeneratorPerlin;
 
@@ -45,11 +43,12 @@ public class ChunkGeneratorUnderWorld implements IChunkGenerator
 
 	public ChunkGeneratorUnderWorld(World worldIn)
 	{
-		this.world = worldIn;
-		upper = new NoiseGeneratorPerlin(RandUtil.random, 4);
-		lower = new NoiseGeneratorPerlin(RandUtil.random, 4);
+		this(worldIn, worldIn.getSeed());
 	}
 
+	/**
+	 * All noise is seeded from the given seed, so the same seed always generates the same chunks.
+	 */
 	public ChunkGeneratorUnderWorld(World world, long seed)
 	{
 		this.world = world;
@@ -58,43 +57,52 @@ public class ChunkGeneratorUnderWorld implements IChunkGenerator
 		lower = new NoiseGeneratorPerlin(rand.random, 4);
 	}
 
-	private List<Pair<BlockPos, BlockPos>> generate(int chunkX, int chunkZ, ChunkPrimer primer)
+	/**
+	 * Samples the noise of all columns of the chunk in one pass. Arrays are indexed by <code>x << 4 | z</code>.
+	 */
+	private void sampleNoise(int chunkX, int chunkZ, double[] upperValues, double[] lowerValues)
 	{
-		double[][] upperValues = new double[16][16];
-		double[][] lowerValues = new double[16][16];
 		for (int x = 0; x < 16; x++)
 		{
+			double upperX = (chunkX * 16 + x) / UPPER_X_SCALE;
+			double lowerX = (chunkX * 16 + x) / LOWER_X_SCALE;
 			for (int z = 0; z < 16; z++)
 			{
-				upperValues[x][z] = upper.getValue((chunkX * 16 + x) / UPPER_X_SCALE, (chunkZ * 16 + z) / UPPER_Z_SCALE);
-				lowerValues[x][z] = lower.getValue((chunkX * 16 + x) / LOWER_X_SCALE, (chunkZ * 16 + z) / LOWER_Z_SCALE);
+				upperValues[x << 4 | z] = upper.getValue(upperX, (chunkZ * 16 + z) / UPPER_Z_SCALE);
+				lowerValues[x << 4 | z] = lower.getValue(lowerX, (chunkZ * 16 + z) / LOWER_Z_SCALE);
 			}
 		}
+	}
+
+	/**
+	 * Fills the primer with clouds, and stores the bottom and top cloud of each column for lighting.
+	 */
+	private void generate(int chunkX, int chunkZ, ChunkPrimer primer, int[] minYs, int[] maxYs)
+	{
+		double[] upperValues = new double[256];
+		double[] lowerValues = new double[256];
+		sampleNoise(chunkX, chunkZ, upperValues, lowerValues);
 
-		List<Pair<BlockPos, BlockPos>> litBlocks = new LinkedList<>();
+		IBlockState litCloud = ModBlocks.CLOUD.getDefaultState().withProperty(BlockCloud.HAS_LIGHT_VALUE, true);
+		IBlockState cloud = ModBlocks.CLOUD.getDefaultState();
 		for (int x = 0; x < 16; x++)
 		{
 			for (int z = 0; z < 16; z++)
 			{
-				int minY = (int) (lowerValues[x][z] * LOWER_Y_SCALE + LOWER_LEVEL);
-				int maxY = (int) (upperValues[x][z] * UPPER_Y_SCALE + UPPER_LEVEL);
-				litBlocks.add(new Pair<>(new BlockPos(chunkX * 16 + x, minY, chunkZ * 16 + z), new BlockPos(chunkX * 16 + x, maxY, chunkZ * 16 + z)));
+				int minY = (int) (lowerValues[x << 4 | z] * LOWER_Y_SCALE + LOWER_LEVEL);
+				int maxY = (int) (upperValues[x << 4 | z] * UPPER_Y_SCALE + UPPER_LEVEL);
+				minYs[x << 4 | z] = minY;
+				maxYs[x << 4 | z] = maxY;
 				for (int y = minY; y <= maxY; y++)
 				{
-					if (y == minY)
-						primer.setBlockState(x, y, z, ModBlocks.CLOUD.getDefaultState().withProperty(BlockCloud.HAS_LIGHT_VALUE, true));
-					else
-					{
-						// if (y >= minY + 6 && y <= maxY - 6)
-						// primer.setBlockState(x, y, z,
-						// ModFluids.LETHE.getActualBlock().getDefaultState());
-						// else
-						primer.setBlockState(x, y, z, ModBlocks.CLOUD.getDefaultState());
-					}
+					// if (y >= minY + 6 && y <= maxY - 6)
+					// primer.setBlockState(x, y, z,
+					// ModFluids.LETHE.getActualBlock().getDefaultState());
+					// else
+					primer.setBlockState(x, y, z, y == minY ? litCloud : cloud);
 				}
 			}
 		}
-		return litBlocks;
 	}
 
 	@Nonnull
@@ -103,23 +111,29 @@ public class ChunkGeneratorUnderWorld implements IChunkGenerator
 	{
 		ChunkPrimer chunkprimer = new ChunkPrimer();
 
-		// Get a list of blocks to check lighting for, as a "side effect" of
-		// actually generating the clouds
-		List<Pair<BlockPos, BlockPos>> litBlocks = generate(x, z, chunkprimer);
+		// Get the columns to light, as a "side effect" of actually generating the clouds
+		int[] minYs = new int[256];
+		int[] maxYs = new int[256];
+		generate(x, z, chunkprimer, minYs, maxYs);
 
 		Chunk chunk = new Chunk(world, chunkprimer, x, z);
 
-		litBlocks.forEach(pair ->
+		// Light fades out upwards from the lit bottom cloud. Written straight into the light arrays of the sections,
+		// which exist as they hold the clouds.
+		ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+		for (int column = 0; column < 256; column++)
 		{
-			BlockPos lower = pair.getFirst();
-			BlockPos upper = pair.getSecond();
-			for (int i = 0; i < 15; i++)
+			int top = Math.min(maxYs[column], minYs[column] + 14);
+			for (int y = minYs[column]; y <= top; y++)
 			{
-				if (lower.getY() + i > upper.getY()) return;
-				chunk.setLightFor(EnumSkyBlock.BLOCK, lower.up(i), 15 - i);
+				if (y < 0 || y > 255) continue;
+				ExtendedBlockStorage section = sections[y >> 4];
+				if (section != Chunk.NULL_BLOCK_STORAGE)
+					section.setBlockLight(column >> 4, y & 15, column & 15, 15 - (y - minYs[column]));
 			}
-		});
-		
+		}
+		chunk.markDirty();
+
 		return chunk;
 	}
 
@@ -3,8 +3,8 @@ package com.teamwizardry.wizardry.crafting.burnable;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonParser;
 import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.api.util.StartupLoader;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.Ingredient;
 import net.minecraftforge.common.crafting.CraftingHelper;
@@ -12,10 +12,7 @@ import net.minecraftforge.common.crafting.JsonContext;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.util.LinkedList;
 import java.util.Map;
-import java.util.Stack;
 
 public class FireRecipeLoader {
 	public static final FireRecipeLoader INSTANCE = new FireRecipeLoader();
@@ -32,36 +29,20 @@ public class FireRecipeLoader {
 
 		JsonContext context = new JsonContext("minecraft");
 
-		LinkedList<File> recipeFiles = new LinkedList<>();
-		Stack<File> toProcess = new Stack<>();
-		toProcess.push(directory);
-
-		while (!toProcess.isEmpty()) {
-			File file = toProcess.pop();
-			if (file.isDirectory()) {
-				File[] children = file.listFiles();
-				if (children != null) for (File child : children)
-					toProcess.push(child);
-			} else if (file.isFile())
-				if (file.getName().endsWith(".json"))
-					recipeFiles.add(file);
-		}
-
-		for (File file : recipeFiles) {
+		for (StartupLoader.ParsedJson parsed : StartupLoader.parseDirectory(directory, true)) {
+			File file = parsed.file;
 			try {
-				if (!file.exists()) {
+				if (parsed.error instanceof FileNotFoundException) {
 					Wizardry.LOGGER.error("  > SOMETHING WENT WRONG! " + file.getPath() + " can NOT be found. Ignoring file...");
 					continue;
 				}
 
-				JsonElement element;
-				try {
-					element = new JsonParser().parse(new FileReader(file));
-				} catch (FileNotFoundException e) {
-					Wizardry.LOGGER.error("  > SOMETHING WENT WRONG! " + file.getPath() + " can NOT be found. Ignoring file...");
+				if (parsed.error != null) {
+					Wizardry.LOGGER.error("  > WARNING! Skipping " + file.getPath() + " due to error: ", parsed.error);
 					continue;
 				}
 
+				JsonElement element = parsed.element;
 				if (element == null) {
 					Wizardry.LOGGER.error("  > SOMETHING WENT WRONG! Could not parse " + file.getPath() + ". Ignoring file...");
 					continue;
@@ -2,15 +2,15 @@ package com.teamwizardry.wizardry.crafting.mana;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.Sets;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.teamwizardry.librarianlib.features.network.PacketHandler;
 import com.teamwizardry.wizardry.Wizardry;
+import com.teamwizardry.wizardry.api.block.FluidPoolCache;
 import com.teamwizardry.wizardry.api.util.PosUtils;
 import com.teamwizardry.wizardry.api.util.RandUtil;
+import com.teamwizardry.wizardry.api.util.StartupLoader;
 import com.teamwizardry.wizardry.client.fx.LibParticles;
 import com.teamwizardry.wizardry.common.block.fluid.ModFluids;
 import com.teamwizardry.wizardry.common.network.PacketExplode;
@@ -21,7 +21,6 @@ import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.Ingredient;
-import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.util.math.BlockPos;
@@ -38,7 +37,6 @@ import net.minecraftforge.fml.common.registry.ForgeRegistries;
 import java.awt.*;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.util.*;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -48,60 +46,6 @@ public class FluidRecipeLoader {
 
 	private File directory;
 
-	private static Set<BlockPos> allLiquidInPool(World world, BlockPos pos, int needed, Fluid fluid) {
-		if (needed <= 0) return Sets.newHashSet();
-
-		Block block = fluid.getBlock();
-		if (block == null) return Sets.newHashSet();
-
-		IBlockState sourceBlock = block.getDefaultState();
-
-		BlockPos.MutableBlockPos topPos = new BlockPos.MutableBlockPos(pos);
-		IBlockState stateAt = world.getBlockState(topPos);
-		boolean lastWasFluid = false;
-		while (stateAt.getBlock() == block) {
-			lastWasFluid = stateAt == sourceBlock;
-			stateAt = world.getBlockState(topPos.setPos(topPos.getX(), topPos.getY() + 1, topPos.getZ()));
-		}
-		topPos.setPos(topPos.getX(), topPos.getY() - 1, topPos.getZ());
-
-		BlockPos.MutableBlockPos tool = new BlockPos.MutableBlockPos();
-		Set<BlockPos> positions = Sets.newHashSet(topPos.toImmutable());
-
-		Set<BlockPos> visited = Sets.newHashSet(positions);
-		Set<BlockPos> resultants = Sets.newHashSet();
-		if (lastWasFluid)
-			resultants.addAll(positions);
-
-		while (resultants.size() < needed && !positions.isEmpty() && visited.size() < 1000) {
-			BlockPos point = positions.iterator().next();
-			positions.remove(point);
-			for (int index = EnumFacing.VALUES.length - 1; index >= 0; index--) {
-				EnumFacing facing = EnumFacing.byIndex(index);
-				tool.setPos(point.getX() + facing.getXOffset(),
-						point.getY() + facing.getYOffset(),
-						point.getZ() + facing.getZOffset());
-
-				if (!visited.contains(tool)) {
-					BlockPos immutable = tool.toImmutable();
-					visited.add(immutable);
-					stateAt = world.getBlockState(tool);
-					if (stateAt.getBlock() == block) {
-						positions.add(immutable);
-						if (stateAt == sourceBlock) {
-							resultants.add(immutable);
-
-							if (resultants.size() >= needed)
-								return resultants;
-						}
-					}
-				}
-			}
-		}
-
-		return resultants;
-	}
-
 	public void setDirectory(File directory) {
 		this.directory = directory;
 	}
@@ -113,37 +57,21 @@ public class FluidRecipeLoader {
 
 		JsonContext context = new JsonContext("minecraft");
 
-		LinkedList<File> recipeFiles = new LinkedList<>();
-		Stack<File> toProcess = new Stack<>();
-		toProcess.push(directory);
-
-		while (!toProcess.isEmpty()) {
-			File file = toProcess.pop();
-			if (file.isDirectory()) {
-				File[] children = file.listFiles();
-				if (children != null) for (File child : children)
-					toProcess.push(child);
-			} else if (file.isFile())
-				if (file.getName().endsWith(".json"))
-					recipeFiles.add(file);
-		}
-
 		fileLoop:
-		for (File file : recipeFiles) {
+		for (StartupLoader.ParsedJson parsed : StartupLoader.parseDirectory(directory, true)) {
+			File file = parsed.file;
 			try {
-				if (!file.exists()) {
+				if (parsed.error instanceof FileNotFoundException) {
 					Wizardry.LOGGER.error("  > SOMETHING WENT WRONG! " + file.getPath() + " can NOT be found. Ignoring file...");
 					continue;
 				}
 
-				JsonElement element;
-				try {
-					element = new JsonParser().parse(new FileReader(file));
-				} catch (FileNotFoundException e) {
-					Wizardry.LOGGER.error("  > SOMETHING WENT WRONG! " + file.getPath() + " can NOT be found. Ignoring file...");
+				if (parsed.error != null) {
+					Wizardry.LOGGER.error("  > WARNING! Skipping " + file.getPath() + " due to error: ", parsed.error);
 					continue;
 				}
 
+				JsonElement element = parsed.element;
 				if (element == null) {
 					Wizardry.LOGGER.error("  > SOMETHING WENT WRONG! Could not parse " + file.getPath() + ". Ignoring file...");
 					continue;
@@ -332,7 +260,7 @@ public class FluidRecipeLoader {
 		List<Ingredient> inputs = Lists.newArrayList(extraInputs);
 
 		return new FluidCrafter((world, pos, items) -> {
-			if (allLiquidInPool(world, pos, required, fluid).size() < required)
+			if (FluidPoolCache.getPool(world, pos, fluid).getSourceCount() < required)
 				return false;
 
 			List<ItemStack> list = items.stream().map(entity -> entity.getItem().copy()).collect(Collectors.toList());
@@ -372,7 +300,7 @@ public class FluidRecipeLoader {
 					if (properties.hasNext())
 						drainState = drainState.cycleProperty(properties.next());
 
-					for (BlockPos position : allLiquidInPool(world, pos, required, fluid))
+					for (BlockPos position : FluidPoolCache.getPool(world, pos, fluid).getSources(required))
 						world.setBlockState(position, drainState);
 				}
 			}
@@ -446,7 +374,7 @@ public class FluidRecipeLoader {
 		List<Ingredient> inputs = Lists.newArrayList(extraInputs);
 
 		FluidCrafter builder = new FluidCrafter((world, pos, items) -> {
-			if (allLiquidInPool(world, pos, required, fluid).size() < required)
+			if (FluidPoolCache.getPool(world, pos, fluid).getSourceCount() < required)
 				return false;
 
 			List<ItemStack> list = items.stream().map(entity -> entity.getItem().copy()).collect(Collectors.toList());
@@ -484,7 +412,7 @@ public class FluidRecipeLoader {
 					if (properties.hasNext())
 						drainState = drainState.cycleProperty(properties.next());
 
-					for (BlockPos position : allLiquidInPool(world, pos, required, fluid))
+					for (BlockPos position : FluidPoolCache.getPool(world, pos, fluid).getSources(required))
 						world.setBlockState(position, drainState);
 				}
 			}
@@ -10,6 +10,8 @@ import com.teamwizardry.wizardry.common.block.fluid.ModFluids;
 import com.teamwizardry.wizardry.init.ModSounds;
 import net.minecraft.block.Block;
 import net.minecraft.entity.item.EntityItem;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.Ingredient;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.util.math.BlockPos;
@@ -17,14 +19,20 @@ import net.minecraft.world.World;
 import net.minecraftforge.common.crafting.CraftingHelper;
 import net.minecraftforge.fml.common.Loader;
 import net.minecraftforge.fml.common.ModContainer;
+import net.minecraftforge.oredict.OreDictionary;
 import org.apache.commons.io.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class ManaRecipes {
 	public static final ManaRecipes INSTANCE = new ManaRecipes();
@@ -34,9 +42,108 @@ public class ManaRecipes {
 
 	public static final String EXPLODABLE = "explodable";
 
+	/**
+	 * Candidate ingredients by item and metadata. Ingredients matching any metadata are stored with {@link OreDictionary#WILDCARD_VALUE}.
+	 */
+	private static final HashMap<Item, HashMap<Integer, List<Ingredient>>> ingredientIndex = new HashMap<>();
+	/**
+	 * Ingredients which can't be indexed by their matching stacks, e.g. NBT sensitive or custom ingredients. Always checked.
+	 */
+	private static final List<Ingredient> fallbackIngredients = new ArrayList<>();
+	private static final Set<Block> recipeFluids = new HashSet<>();
+
 	public void loadRecipes(File directory) {
 		FluidRecipeLoader.INSTANCE.setDirectory(directory);
 		FluidRecipeLoader.INSTANCE.processRecipes(RECIPE_REGISTRY, RECIPES);
+		rebuildIndex();
+	}
+
+	/**
+	 * Rebuilds the lookup index of {@link #RECIPES}. Must be called whenever the recipes change.
+	 */
+	public static void rebuildIndex() {
+		HashMap<Item, HashMap<Integer, LinkedHashSet<Ingredient>>> index = new HashMap<>();
+		LinkedHashSet<Ingredient> fallback = new LinkedHashSet<>();
+
+		for (Ingredient ingredient : RECIPES.keySet()) {
+			ItemStack[] stacks = ingredient.getMatchingStacks();
+			if (!ingredient.isSimple() || stacks.length == 0) {
+				fallback.add(ingredient);
+				continue;
+			}
+
+			for (ItemStack stack : stacks) {
+				if (stack.isEmpty()) {
+					fallback.add(ingredient);
+					continue;
+				}
+				index.computeIfAbsent(stack.getItem(), item -> new HashMap<>())
+						.computeIfAbsent(stack.getMetadata(), meta -> new LinkedHashSet<>())
+						.add(ingredient);
+			}
+		}
+
+		ingredientIndex.clear();
+		index.forEach((item, byMeta) -> {
+			HashMap<Integer, List<Ingredient>> lists = new HashMap<>();
+			byMeta.forEach((meta, ingredients) -> lists.put(meta, new ArrayList<>(ingredients)));
+			ingredientIndex.put(item, lists);
+		});
+
+		fallbackIngredients.clear();
+		fallbackIngredients.addAll(fallback);
+
+		recipeFluids.clear();
+		for (FluidRecipeLoader.FluidCrafter crafter : RECIPES.values())
+			if (crafter.getFluid() != null && crafter.getFluid().getBlock() != null)
+				recipeFluids.add(crafter.getFluid().getBlock());
+	}
+
+	/**
+	 * @param block the block to check.
+	 * @return <code>true</code> iff any recipe is crafted in the given fluid block.
+	 */
+	public static boolean isRecipeFluid(Block block) {
+		return recipeFluids.contains(block);
+	}
+
+	/**
+	 * Returns all crafters with an ingredient matching the given stack, which are crafted in the given fluid.
+	 * Only the ingredients indexed for the item and metadata of the stack and the fallback ingredients are tested.
+	 *
+	 * @param stack      the stack in the fluid.
+	 * @param fluidBlock the fluid block the stack is in.
+	 * @return the matching crafters, or an empty list.
+	 */
+	public static List<FluidRecipeLoader.FluidCrafter> getCrafters(ItemStack stack, Block fluidBlock) {
+		if (!recipeFluids.contains(fluidBlock)) return Collections.emptyList();
+
+		List<FluidRecipeLoader.FluidCrafter> crafters = null;
+		HashMap<Integer, List<Ingredient>> byMeta = stack.isEmpty() ? null : ingredientIndex.get(stack.getItem());
+		if (byMeta != null) {
+			crafters = collectCrafters(byMeta.get(stack.getMetadata()), stack, fluidBlock, crafters);
+			if (stack.getMetadata() != OreDictionary.WILDCARD_VALUE)
+				crafters = collectCrafters(byMeta.get(OreDictionary.WILDCARD_VALUE), stack, fluidBlock, crafters);
+		}
+		crafters = collectCrafters(fallbackIngredients, stack, fluidBlock, crafters);
+
+		return crafters == null ? Collections.emptyList() : crafters;
+	}
+
+	private static List<FluidRecipeLoader.FluidCrafter> collectCrafters(List<Ingredient> ingredients, ItemStack stack, Block fluidBlock, List<FluidRecipeLoader.FluidCrafter> crafters) {
+		if (ingredients == null) return crafters;
+
+		for (Ingredient ingredient : ingredients) {
+			if (!ingredient.apply(stack)) continue;
+
+			for (FluidRecipeLoader.FluidCrafter crafter : RECIPES.get(ingredient)) {
+				if (crafter.getFluid().getBlock() != fluidBlock) continue;
+
+				if (crafters == null) crafters = new ArrayList<>();
+				if (!crafters.contains(crafter)) crafters.add(crafter);
+			}
+		}
+		return crafters;
 	}
 
 	public static String[] getResourceListing(String mod, String path) {
@@ -13,6 +13,7 @@ import com.teamwizardry.wizardry.api.plugin.WizardryPlugin;
 import com.teamwizardry.wizardry.api.spell.ProcessData;
 import com.teamwizardry.wizardry.api.spell.SpellData;
 import com.teamwizardry.wizardry.api.spell.module.ModuleRegistry;
+import com.teamwizardry.wizardry.api.util.StartupLoader;
 import com.teamwizardry.wizardry.client.gui.GuiHandler;
 import com.teamwizardry.wizardry.client.gui.book.PageWizardryStructure;
 import com.teamwizardry.wizardry.common.advancement.AchievementEvents;
@@ -67,9 +68,11 @@ public class CommonProxy {
 		maniUpgrader.changeCategoryName("modules", "wizmodules");
 		maniUpgrader.finalizeUpgrade();
 
+		long manifestStart = System.nanoTime();
 		ManifestHandler.INSTANCE.loadNewInternalManifest("wizmodules", "fluid_recipes", "fire_recipes");
 		ManifestHandler.INSTANCE.loadExternalManifest(directory);
 		ManifestHandler.INSTANCE.processComparisons(directory, "wizmodules", "fluid_recipes", "fire_recipes");
+		StartupLoader.logTiming("Manifest", manifestStart);
 
 		new ModTab();
 		ModBlocks.init();
@@ -102,11 +105,14 @@ public class CommonProxy {
 
 		PacketHandler.register(PacketSendSpellToBook.class, Side.SERVER);
 		PacketHandler.register(PacketRenderSpell.class, Side.CLIENT);
+		PacketHandler.register(PacketRenderSpellBatch.class, Side.CLIENT);
 		PacketHandler.register(PacketExplode.class, Side.CLIENT);
 		PacketHandler.register(PacketFreezePlayer.class, Side.CLIENT);
 		PacketHandler.register(PacketRenderLightningBolt.class, Side.CLIENT);
 		PacketHandler.register(PacketSyncCooldown.class, Side.CLIENT);
 		PacketHandler.register(PacketDevilDustFizzle.class, Side.CLIENT);
+		PacketHandler.register(PacketStructureFlair.class, Side.CLIENT);
+		PacketHandler.register(PacketArenaParticles.class, Side.CLIENT);
 
 
 		PageTypes.INSTANCE.registerPageProvider("wizardry_structure", PageWizardryStructure::new);
@@ -132,9 +138,11 @@ public class CommonProxy {
 					break manaRecipeLoading;
 				}
 			}
+			long start = System.nanoTime();
 			if (ConfigValues.useInternalValues)
 				ManaRecipes.INSTANCE.copyAllRecipes(recipeDirectory);
 			ManaRecipes.INSTANCE.loadRecipes(recipeDirectory);
+			StartupLoader.logTiming("Fluid recipes", start);
 		}
 		fireRecipeLoading:
 		{
@@ -145,9 +153,11 @@ public class CommonProxy {
 					break fireRecipeLoading;
 				}
 			}
+			long start = System.nanoTime();
 			if (ConfigValues.useInternalValues)
 				FireRecipes.INSTANCE.copyAllRecipes(recipeDirectory);
 			FireRecipes.INSTANCE.loadRecipes(recipeDirectory);
+			StartupLoader.logTiming("Fire recipes", start);
 		}
 
 		moduleLoading:
@@ -159,12 +169,15 @@ public class CommonProxy {
 					break moduleLoading;
 				}
 
+			long start = System.nanoTime();
 			ModuleRegistry.INSTANCE.loadUnprocessedModules();
 			ModuleRegistry.INSTANCE.loadOverrideDefaults();
 			if (ConfigValues.useInternalValues)
 				ModuleRegistry.INSTANCE.copyAllModules(moduleDirectory);
 			ModuleRegistry.INSTANCE.loadModules(moduleDirectory);
+			StartupLoader.logTiming("Modules", start);
 		}
+		StartupLoader.finish();
 
 		ProcessData.INSTANCE.registerAnnotatedDataTypes();
 	}
@@ -0,0 +1,164 @@
+package com.teamwizardry.wizardry.api;
+
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
+import net.minecraftforge.common.util.Constants;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the save formats of {@link SpellObjectManager} on spell objects without rings, data or worlds,
+ * and its ring and field tables on plain NBT, as real rings and spell data need a running game.
+ */
+public class SpellObjectManagerTest {
+
+	@Test
+	public void legacySaveIsMigrated() {
+		NBTTagCompound legacy = legacySave();
+
+		SpellObjectManager manager = new SpellObjectManager();
+		manager.fromNbt(legacy);
+		NBTTagCompound compact = manager.toNbt();
+
+		assertEquals(SpellObjectManager.FORMAT_VERSION, compact.getInteger("version"));
+		assertTrue(compact.hasKey("rings"));
+		assertTrue(compact.hasKey("fields"));
+		assertTrue(sameEntries(legacy, compact.getCompoundTag("objects")));
+		assertEquals(2, manager.manager.size());
+	}
+
+	@Test
+	public void compactSaveRoundTrip() {
+		SpellObjectManager migrated = new SpellObjectManager();
+		migrated.fromNbt(legacySave());
+		NBTTagCompound compact = migrated.toNbt();
+
+		SpellObjectManager loaded = new SpellObjectManager();
+		loaded.fromNbt(compact);
+
+		assertTrue(sameEntries(compact.getCompoundTag("objects"), loaded.toNbt().getCompoundTag("objects")));
+		assertTrue(sameEntries(legacySave(), loaded.toLegacyNbt()));
+	}
+
+	@Test
+	public void unknownSpellObjectsAreDropped() {
+		NBTTagCompound legacy = legacySave();
+		legacy.getTagList("entries", Constants.NBT.TAG_COMPOUND).appendTag(entry("wizardry:unknown", 7));
+
+		SpellObjectManager manager = new SpellObjectManager();
+		manager.fromNbt(legacy);
+
+		assertEquals(2, manager.manager.size());
+		assertTrue(sameEntries(legacySave(), manager.toLegacyNbt()));
+	}
+
+	@Test
+	public void equalRingsShareTheirKey() {
+		SpellObjectManager.SaveTables tables = new SpellObjectManager.SaveTables();
+		NBTTagCompound ring = ring("wizardry:shape_projectile");
+		NBTTagCompound other = ring("wizardry:effect_burn");
+
+		int key = tables.putRing(ring);
+		assertEquals(key, tables.putRing(ring.copy()));
+		int otherKey = tables.putRing(other);
+		assertNotEquals(key, otherKey);
+
+		NBTTagList rings = tables.writeRings();
+		assertEquals(2, rings.tagCount());
+
+		SpellObjectManager.SaveTables read = new SpellObjectManager.SaveTables(rings, new NBTTagList());
+		assertEquals(ring, read.getRingNbt(key));
+		assertEquals(other, read.getRingNbt(otherKey));
+	}
+
+	@Test
+	public void fieldNamesRoundTrip() {
+		NBTTagCompound first = new NBTTagCompound();
+		first.setInteger("caster", 5);
+		first.setString("look", "up");
+		NBTTagCompound second = new NBTTagCompound();
+		second.setString("look", "down");
+		second.setDouble("strength", 0.5);
+
+		SpellObjectManager.SaveTables tables = new SpellObjectManager.SaveTables();
+		NBTTagCompound firstEncoded = tables.encodeFields(first);
+		NBTTagCompound secondEncoded = tables.encodeFields(second);
+
+		NBTTagList fields = tables.writeFields();
+		assertEquals(3, fields.tagCount());
+		for (String key : firstEncoded.getKeySet())
+			assertFalse(first.hasKey(key));
+
+		SpellObjectManager.SaveTables read = new SpellObjectManager.SaveTables(new NBTTagList(), fields);
+		assertEquals(first, read.decodeFields(firstEncoded));
+		assertEquals(second, read.decodeFields(secondEncoded));
+	}
+
+	@Test
+	public void unknownFieldIndicesAreDropped() {
+		NBTTagList fields = new NBTTagList();
+		fields.appendTag(new NBTTagString("caster"));
+
+		NBTTagCompound encoded = new NBTTagCompound();
+		encoded.setInteger("0", 5);
+		encoded.setInteger("zz", 6);
+		encoded.setInteger("not a number", 7);
+
+		NBTTagCompound decoded = new SpellObjectManager.SaveTables(new NBTTagList(), fields).decodeFields(encoded);
+		assertEquals(1, decoded.getSize());
+		assertEquals(5, decoded.getInteger("caster"));
+	}
+
+	/**
+	 * @return a save of the legacy format, as written before saves had a version.
+	 */
+	private static NBTTagCompound legacySave() {
+		NBTTagList entries = new NBTTagList();
+		entries.appendTag(entry("wizardry:lingering", 40));
+		entries.appendTag(entry("wizardry:delayed", 300));
+
+		NBTTagCompound compound = new NBTTagCompound();
+		compound.setLong("tick", 120);
+		compound.setTag("entries", entries);
+		return compound;
+	}
+
+	private static NBTTagCompound entry(String type, long ticksLeft) {
+		NBTTagCompound object = new NBTTagCompound();
+		object.setString("type", type);
+		object.setTag("data", new NBTTagCompound());
+
+		NBTTagCompound entry = new NBTTagCompound();
+		entry.setTag("object", object);
+		entry.setLong("tick", ticksLeft);
+		return entry;
+	}
+
+	private static NBTTagCompound ring(String module) {
+		NBTTagCompound ring = new NBTTagCompound();
+		ring.setString("module", module);
+		return ring;
+	}
+
+	/**
+	 * @return whether both lifetime object saves hold the same entries, in any order.
+	 */
+	private static boolean sameEntries(NBTTagCompound first, NBTTagCompound second) {
+		if (first.getLong("tick") != second.getLong("tick")) return false;
+
+		List<NBTBase> entries = new ArrayList<>();
+		for (NBTBase entry : first.getTagList("entries", Constants.NBT.TAG_COMPOUND)) entries.add(entry);
+		for (NBTBase entry : second.getTagList("entries", Constants.NBT.TAG_COMPOUND))
+			if (!entries.remove(entry)) return false;
+		return entries.isEmpty();
+	}
+}
@@ -0,0 +1,183 @@
+package com.teamwizardry.wizardry.api.block;
+
+import com.teamwizardry.wizardry.api.ConfigValues;
+import com.teamwizardry.wizardry.api.block.TileManaNode.SuckRule;
+import net.minecraft.util.math.BlockPos;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the {@link ManaNetwork} solver on thousands of synthetic nodes, and checks that every node ends up with exactly
+ * the mana it would have had if every node polled its neighbours each tick.
+ */
+public class ManaNetworkTest {
+
+	private static final int NODES = 4_000;
+	private static final int AREA = 512;
+	private static final int LINK_DISTANCE = 16;
+	private static final long SEED = 0x5EED;
+
+	private static final SuckRule<TileManaNode, TileManaNode> EQUALIZE = new SuckRule<>(0, 1, true, 1, TileManaNode.class, TileManaNode.class, null);
+	private static final SuckRule<TileManaNode, TileManaNode> PUMP = new SuckRule<>(1, 0.25, false, 4, TileManaNode.class, TileManaNode.class, null);
+
+	private int linkDistance;
+
+	@Before
+	public void setUp() {
+		linkDistance = ConfigValues.networkLinkDistance;
+		ConfigValues.networkLinkDistance = LINK_DISTANCE;
+	}
+
+	@After
+	public void tearDown() {
+		ConfigValues.networkLinkDistance = linkDistance;
+	}
+
+	@Test
+	public void solverMatchesPollingEveryTick() {
+		assertSolverMatchesPolling(1, 600);
+	}
+
+	@Test
+	public void solverMatchesPollingEveryFiveTicks() {
+		assertSolverMatchesPolling(5, 600);
+	}
+
+	@Test
+	public void solverMatchesPollingOverUnevenInterval() {
+		assertSolverMatchesPolling(7, 630);
+	}
+
+	@Test
+	public void transferStopsAtEqualizeTarget() {
+		assertEquals(0, EQUALIZE.getTransferAmount(50, 100, 51), 0);
+		assertEquals(0, EQUALIZE.getTransferAmount(50, 100, 59), 0);
+		assertEquals(1, EQUALIZE.getTransferAmount(50, 100, 61), 0);
+		assertEquals(0, EQUALIZE.getTransferAmount(0, 100, 0.5), 0);
+		assertEquals(1, EQUALIZE.getTransferAmount(0, 100, 5), 0);
+		assertEquals(0, EQUALIZE.getTransferAmount(100, 100, 300), 0);
+		assertEquals(0.25, PUMP.getTransferAmount(50, 100, 1), 0);
+		assertEquals(0.1, PUMP.getTransferAmount(50, 100, 0.1), 0);
+		assertEquals(0, PUMP.getTransferAmount(50, 100, 0), 0);
+	}
+
+	@Test
+	public void idleNodesAreWokenByTransfers() {
+		ManaNetwork network = new ManaNetwork();
+		TestNode source = new TestNode(network, new BlockPos(0, 64, 0), EQUALIZE, 100, 0);
+		TestNode relay = new TestNode(network, new BlockPos(10, 64, 0), EQUALIZE, 100, 0);
+		TestNode sink = new TestNode(network, new BlockPos(20, 64, 0), EQUALIZE, 100, 0);
+		network.addNode(source);
+		network.addNode(relay);
+		network.addNode(sink);
+
+		network.runPass(1, 1);
+		assertEquals(0, network.getActiveCount());
+
+		source.mana = 100;
+		network.wakeNeighbourhood(source);
+		network.runPass(2, 1);
+
+		// The relay got mana from the source, which wakes the sink up in the same tick
+		assertEquals(1, relay.mana, 0);
+		assertTrue(network.getActiveCount() >= 2);
+	}
+
+	private static void assertSolverMatchesPolling(int interval, int ticks) {
+		ManaNetwork pollingNetwork = new ManaNetwork();
+		List<TestNode> polling = createNodes(pollingNetwork);
+
+		for (int tick = 0; tick < ticks; tick++)
+			for (TestNode node : polling)
+				node.tickMana();
+
+		ManaNetwork solverNetwork = new ManaNetwork();
+		List<TestNode> solved = createNodes(solverNetwork);
+
+		for (int time = interval; time <= ticks; time += interval)
+			solverNetwork.runPass(time, interval);
+
+		assertArrayEquals(getMana(polling), getMana(solved), 0);
+		assertTrue("no node went to sleep", solverNetwork.getActiveCount() < solverNetwork.getNodeCount());
+	}
+
+	private static List<TestNode> createNodes(ManaNetwork network) {
+		Random random = new Random(SEED);
+		List<TestNode> nodes = new ArrayList<>(NODES);
+		for (int i = 0; i < NODES; i++) {
+			BlockPos pos = new BlockPos(random.nextInt(AREA), 64 + random.nextInt(8), random.nextInt(AREA));
+			SuckRule<?, ?> rule = random.nextInt(4) == 0 ? PUMP : EQUALIZE;
+			double maxMana = 100 + random.nextInt(900);
+			double mana = random.nextInt(3) == 0 ? 0 : random.nextDouble() * maxMana;
+
+			TestNode node = new TestNode(network, pos, rule, maxMana, mana);
+			network.addNode(node);
+			nodes.add(node);
+		}
+		return nodes;
+	}
+
+	private static double[] getMana(List<TestNode> nodes) {
+		double[] mana = new double[nodes.size()];
+		for (int i = 0; i < mana.length; i++)
+			mana[i] = nodes.get(i).mana;
+		return mana;
+	}
+
+	////////////////////
+
+	/**
+	 * Moves mana the way {@link TileManaNode#suckMana} does, with a single rule and without a world.
+	 */
+	private static final class TestNode implements ManaNetwork.Member {
+		private final ManaNetwork network;
+		private final BlockPos pos;
+		private final SuckRule<?, ?> rule;
+		private final double maxMana;
+		private double mana;
+
+		TestNode(ManaNetwork network, BlockPos pos, SuckRule<?, ?> rule, double maxMana, double mana) {
+			this.network = network;
+			this.pos = pos;
+			this.rule = rule;
+			this.maxMana = maxMana;
+			this.mana = mana;
+		}
+
+		@Nonnull
+		@Override
+		public BlockPos getPos() {
+			return pos;
+		}
+
+		@Override
+		public double tickMana() {
+			double total = 0;
+			int i = 0;
+			for (ManaNetwork.Member member : network.getLinked(this)) {
+				TestNode from = (TestNode) member;
+
+				double amount = rule.getTransferAmount(mana, maxMana, from.mana);
+				if (amount <= 0) continue;
+
+				from.mana -= amount;
+				mana = Math.min(maxMana, mana + amount);
+				network.onTransfer(this, from);
+				total += amount;
+
+				if (++i > rule.getNbOfConnections()) break;
+			}
+			return total;
+		}
+	}
+}
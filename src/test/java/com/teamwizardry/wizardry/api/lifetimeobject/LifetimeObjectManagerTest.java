@@ -0,0 +1,200 @@
+package com.teamwizardry.wizardry.api.lifetimeobject;
+
+import net.minecraft.nbt.NBTTagCompound;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LifetimeObjectManagerTest {
+
+	private static final long SEED = 0x5EED;
+
+	/**
+	 * The lifespans around the span of each level of the wheel, up to the overflow level.
+	 */
+	private static final long[] LIFESPANS = {
+			1, 2, 63, 64, 65, 4_095, 4_096, 4_097, 262_143, 262_144, 262_145,
+			(1 << 24) - 1, 1 << 24, (1 << 24) + 1, (1 << 24) + 4_097
+	};
+
+	private long now = 0;
+	private final List<TestObject> stopped = new ArrayList<>();
+
+	@Test
+	public void objectsStopOnTheTickTheirLifespanEnds() {
+		LifetimeObjectManager<TestObject> manager = new LifetimeObjectManager<>(new TestAdapter());
+		List<TestObject> objects = new ArrayList<>();
+		// Added in reverse, so the order of adding doesn't decide the order of stopping
+		for (int i = LIFESPANS.length - 1; i >= 0; i--) {
+			TestObject object = new TestObject(i, false);
+			objects.add(object);
+			manager.add(object, LIFESPANS[i]);
+		}
+
+		run(manager, LIFESPANS[LIFESPANS.length - 1]);
+
+		assertEquals(0, manager.size());
+		assertEquals(LIFESPANS.length, stopped.size());
+		for (TestObject object : objects) {
+			assertEquals(0, object.startedOn);
+			assertEquals(LIFESPANS[object.id] - 1, object.stoppedOn);
+		}
+		for (int i = 0; i < stopped.size(); i++)
+			assertEquals(i, stopped.get(i).id);
+	}
+
+	@Test
+	public void objectsAddedLaterStopAfterTheirLifespan() {
+		LifetimeObjectManager<TestObject> manager = new LifetimeObjectManager<>(new TestAdapter());
+		Random random = new Random(SEED);
+		Map<TestObject, Long> expected = new HashMap<>();
+
+		for (int tick = 0; tick < 20_000; tick++) {
+			if (tick < 5_000 && random.nextInt(3) == 0) {
+				long lifespan = 1 + random.nextInt(random.nextBoolean() ? 100 : 10_000);
+				TestObject object = new TestObject(expected.size(), random.nextBoolean());
+				manager.add(object, lifespan);
+				// Started on the next tick, which counts towards the lifespan
+				expected.put(object, now + lifespan - 1);
+			}
+			tick(manager);
+		}
+
+		assertEquals(expected.size(), stopped.size());
+		long last = Long.MIN_VALUE;
+		for (TestObject object : stopped) {
+			assertEquals((long) expected.get(object), object.stoppedOn);
+			assertTrue(object.stoppedOn >= last);
+			last = object.stoppedOn;
+		}
+	}
+
+	@Test
+	public void tickingObjectsAreTickedUntilTheyStop() {
+		LifetimeObjectManager<TestObject> manager = new LifetimeObjectManager<>(new TestAdapter());
+		TestObject once = new TestObject(0, true);
+		TestObject often = new TestObject(1, true);
+		manager.add(once, 1);
+		manager.add(often, 100);
+
+		run(manager, 200);
+
+		assertEquals(0, once.ticks);
+		assertEquals(99, often.ticks);
+	}
+
+	@Test
+	public void cancelledObjectsAreNotStopped() {
+		LifetimeObjectManager<TestObject> manager = new LifetimeObjectManager<>(new TestAdapter());
+		TestObject pending = new TestObject(0, true);
+		TestObject started = new TestObject(1, true);
+		TestObject kept = new TestObject(2, true);
+		LifetimeObjectManager.Handle pendingHandle = manager.add(pending, 10);
+		LifetimeObjectManager.Handle startedHandle = manager.add(started, 10);
+		manager.add(kept, 10);
+
+		pendingHandle.cancel();
+		tick(manager);
+		assertEquals(2, manager.size());
+		startedHandle.cancel();
+		assertEquals(1, manager.size());
+
+		run(manager, 20);
+
+		assertFalse(pendingHandle.isAlive());
+		assertFalse(startedHandle.isAlive());
+		assertEquals(-1, pending.startedOn);
+		assertEquals(-1, started.stoppedOn);
+		assertEquals(1, stopped.size());
+		assertEquals(kept, stopped.get(0));
+	}
+
+	@Test
+	public void savedObjectsKeepTheirExpiry() {
+		LifetimeObjectManager<TestObject> manager = new LifetimeObjectManager<>(new TestAdapter());
+		for (int i = 0; i < LIFESPANS.length; i++)
+			manager.add(new TestObject(i, false), LIFESPANS[i] + 1_000);
+		run(manager, 1_000);
+
+		LifetimeObjectManager<TestObject> loaded = new LifetimeObjectManager<>(new TestAdapter());
+		loaded.fromNbt(manager.toNbt());
+		assertEquals(manager.size(), loaded.size());
+
+		run(loaded, LIFESPANS[LIFESPANS.length - 1] + 1);
+
+		assertEquals(LIFESPANS.length, stopped.size());
+		for (TestObject object : stopped)
+			assertEquals(LIFESPANS[object.id] + 999, object.stoppedOn);
+	}
+
+	private void run(LifetimeObjectManager<TestObject> manager, long ticks) {
+		for (long tick = 0; tick < ticks; tick++)
+			tick(manager);
+	}
+
+	private void tick(LifetimeObjectManager<TestObject> manager) {
+		manager.tick(changed -> {
+		});
+		now++;
+	}
+
+	////////////////////
+
+	private final class TestObject implements LifetimeObject {
+		private final int id;
+		private final boolean ticking;
+		private long startedOn = -1;
+		private long stoppedOn = -1;
+		private int ticks = 0;
+
+		TestObject(int id, boolean ticking) {
+			this.id = id;
+			this.ticking = ticking;
+		}
+
+		@Override
+		public void start() {
+			startedOn = now;
+		}
+
+		@Override
+		public void tick() {
+			ticks++;
+		}
+
+		@Override
+		public void stop() {
+			stoppedOn = now;
+			stopped.add(this);
+		}
+
+		@Override
+		public boolean isTicking() {
+			return ticking;
+		}
+	}
+
+	private final class TestAdapter implements LifetimeObjectManager.Adapter<TestObject> {
+		@Override
+		public void toNbt(TestObject object, Consumer<NBTTagCompound> consumer) {
+			NBTTagCompound compound = new NBTTagCompound();
+			compound.setInteger("id", object.id);
+			compound.setBoolean("ticking", object.ticking);
+			consumer.accept(compound);
+		}
+
+		@Override
+		public void fromNbt(NBTTagCompound nbt, Consumer<TestObject> consumer) {
+			consumer.accept(new TestObject(nbt.getInteger("id"), nbt.getBoolean("ticking")));
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package com.teamwizardry.wizardry.api.spell;
+
+import com.teamwizardry.wizardry.api.spell.SpellDataTypes.RingRunSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RingRunSetTest {
+
+	private static final long SEED = 0x5EED;
+
+	@Test
+	public void emptySetContainsNothing() {
+		assertEquals(0, RingRunSet.EMPTY.size());
+		assertTrue(RingRunSet.EMPTY.isEmpty());
+		assertFalse(RingRunSet.EMPTY.contains(UUID.randomUUID()));
+		assertEquals(0, RingRunSet.EMPTY.toIntArray().length);
+		assertSame(RingRunSet.EMPTY, RingRunSet.fromIntArray(new int[0]));
+	}
+
+	@Test
+	public void withKeepsTheOriginalSet() {
+		UUID first = new UUID(1, 2);
+		UUID second = new UUID(3, 4);
+
+		RingRunSet one = RingRunSet.EMPTY.with(first);
+		RingRunSet two = one.with(second);
+
+		assertTrue(RingRunSet.EMPTY.isEmpty());
+		assertEquals(1, one.size());
+		assertTrue(one.contains(first));
+		assertFalse(one.contains(second));
+		assertEquals(2, two.size());
+		assertTrue(two.contains(first));
+		assertTrue(two.contains(second));
+		assertSame(two, two.with(first));
+	}
+
+	@Test
+	public void withoutRemovesOnlyTheGivenId() {
+		UUID first = new UUID(1, 2);
+		UUID second = new UUID(3, 4);
+		RingRunSet two = RingRunSet.EMPTY.with(first).with(second);
+
+		RingRunSet one = two.without(first);
+		assertEquals(1, one.size());
+		assertFalse(one.contains(first));
+		assertTrue(one.contains(second));
+		assertTrue(two.contains(first));
+
+		assertSame(one, one.without(first));
+		assertSame(RingRunSet.EMPTY, one.without(second));
+	}
+
+	@Test
+	public void containsExactlyTheAddedIds() {
+		Random random = new Random(SEED);
+		List<UUID> added = new ArrayList<>();
+		RingRunSet set = RingRunSet.EMPTY;
+		for (int i = 0; i < 1_000; i++) {
+			UUID id = new UUID(random.nextLong(), random.nextLong());
+			added.add(id);
+			set = set.with(id);
+		}
+
+		assertEquals(added.size(), set.size());
+		for (UUID id : added)
+			assertTrue(set.contains(id));
+		for (int i = 0; i < 1_000; i++)
+			assertFalse(set.contains(new UUID(random.nextLong(), random.nextLong())));
+
+		// Ids which only differ in one half still have to be told apart
+		UUID id = added.get(0);
+		assertFalse(set.contains(new UUID(id.getMostSignificantBits(), ~id.getLeastSignificantBits())));
+		assertFalse(set.contains(new UUID(~id.getMostSignificantBits(), id.getLeastSignificantBits())));
+	}
+
+	@Test
+	public void intArrayRoundTrip() {
+		Random random = new Random(SEED);
+		RingRunSet set = RingRunSet.EMPTY;
+		for (int i = 0; i < 100; i++)
+			set = set.with(new UUID(random.nextLong(), random.nextLong()));
+
+		int[] ints = set.toIntArray();
+		assertEquals(set.size() * 4, ints.length);
+
+		RingRunSet read = RingRunSet.fromIntArray(ints);
+		assertEquals(set.size(), read.size());
+		assertEquals(Arrays.toString(ints), Arrays.toString(read.toIntArray()));
+	}
+
+	@Test
+	public void fromIntArrayDropsDuplicatesAndTrailingInts() {
+		int[] id = RingRunSet.EMPTY.with(new UUID(0xDEADBEEFL << 32, -1)).toIntArray();
+
+		int[] ints = new int[id.length * 2 + 3];
+		System.arraycopy(id, 0, ints, 0, id.length);
+		System.arraycopy(id, 0, ints, id.length, id.length);
+		ints[ints.length - 1] = 42;
+
+		RingRunSet read = RingRunSet.fromIntArray(ints);
+		assertEquals(1, read.size());
+		assertTrue(read.contains(new UUID(0xDEADBEEFL << 32, -1)));
+	}
+}
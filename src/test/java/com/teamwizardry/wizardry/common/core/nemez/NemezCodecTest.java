@@ -0,0 +1,155 @@
+package com.teamwizardry.wizardry.common.core.nemez;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class NemezCodecTest {
+
+	private static final long SEED = 0x5EED;
+	private static final int MOMENTS = 40;
+	private static final int ENTITIES = 4;
+
+	/**
+	 * Half of the quantization steps of the codec.
+	 */
+	private static final double POSITION_ERROR = 0.5 / 4096 + 1e-9;
+	private static final double ANGLE_ERROR = 0.5 / 64 + 1e-4;
+
+	@Test
+	public void allMomentsRoundTrip() {
+		NemezManager manager = record();
+
+		NemezManager decoded = new NemezManager();
+		List<String> ids = new ArrayList<>();
+		PacketBuffer buf = new PacketBuffer(Unpooled.buffer());
+		NemezCodec.write(buf, manager, 0, manager.size());
+		NemezCodec.read(buf, decoded, ids);
+
+		assertEquals(0, buf.readableBytes());
+		assertEquals(ENTITIES, ids.size());
+		assertEquals(manager.size(), decoded.size());
+		for (int i = 0; i < manager.size(); i++)
+			assertSameMoment(manager.getMoment(i), decoded.getMoment(i));
+	}
+
+	@Test
+	public void partialWritesDecodeOnTheirOwn() {
+		NemezManager manager = record();
+		int skip = 5;
+		int count = 10;
+
+		NemezManager decoded = new NemezManager();
+		PacketBuffer buf = new PacketBuffer(Unpooled.buffer());
+		NemezCodec.write(buf, manager, skip, count);
+		NemezCodec.read(buf, decoded, new ArrayList<>());
+
+		assertEquals(0, buf.readableBytes());
+		assertEquals(count, decoded.size());
+		int oldest = manager.size() - skip - count;
+		for (int i = 0; i < count; i++)
+			assertSameMoment(manager.getMoment(oldest + i), decoded.getMoment(i));
+	}
+
+	@Test
+	public void emptyWriteDecodesToNothing() {
+		NemezManager manager = record();
+
+		NemezManager decoded = new NemezManager();
+		PacketBuffer buf = new PacketBuffer(Unpooled.buffer());
+		NemezCodec.write(buf, manager, manager.size(), 5);
+		NemezCodec.read(buf, decoded, new ArrayList<>());
+
+		assertEquals(0, buf.readableBytes());
+		assertEquals(0, decoded.size());
+	}
+
+	/**
+	 * @return moments of block changes and entities moving around, some of them with only a part of their fields.
+	 */
+	private static NemezManager record() {
+		Random random = new Random(SEED);
+		NemezManager manager = new NemezManager();
+
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < ENTITIES; i++)
+			ids.add(new UUID(random.nextLong(), random.nextLong()).toString());
+
+		double[] x = new double[ENTITIES], y = new double[ENTITIES], z = new double[ENTITIES];
+		for (int moment = 0; moment < MOMENTS; moment++) {
+			int blocks = random.nextInt(4);
+			for (int i = 0; i < blocks; i++)
+				manager.pushBlockData(random.nextLong(), random.nextInt(1 << 16));
+
+			for (int sample = 0; sample < NemezManager.SAMPLES_PER_MOMENT; sample++) {
+				for (int entity = 0; entity < ENTITIES; entity++) {
+					// The last entity only shows up late, so early partial writes leave it out
+					if (entity == ENTITIES - 1 && moment < MOMENTS / 2) continue;
+					if (random.nextInt(4) == 0) continue;
+
+					x[entity] += random.nextGaussian();
+					y[entity] += random.nextGaussian() * 0.1;
+					z[entity] += random.nextGaussian();
+					int bits = random.nextInt(3) == 0 ? 1 + random.nextInt(NemezManager.EntityTrack.ALL) : NemezManager.EntityTrack.ALL;
+
+					manager.getOrCreateTrack(ids.get(entity)).append(manager.getCurrentSeq(), bits,
+							x[entity], y[entity], z[entity],
+							random.nextFloat() * 360 - 180, random.nextFloat() * 180 - 90,
+							random.nextFloat() * 20, random.nextInt(21), random.nextFloat() * 5, random.nextFloat() * 4);
+				}
+			}
+			manager.pushMoment();
+		}
+		return manager;
+	}
+
+	private static void assertSameMoment(Moment expected, Moment actual) {
+		NemezManager.BlockLog expectedBlocks = expected.manager.getBlocks();
+		NemezManager.BlockLog actualBlocks = actual.manager.getBlocks();
+		int j = actualBlocks.lowerBound(actual.first);
+		for (int i = expectedBlocks.lowerBound(expected.first); i < expectedBlocks.lowerBound(expected.end); i++, j++) {
+			assertEquals(expectedBlocks.pos[i], actualBlocks.pos[j]);
+			assertEquals(expectedBlocks.state[i], actualBlocks.state[j]);
+		}
+		assertEquals(actualBlocks.lowerBound(actual.end), j);
+
+		for (String id : expected.manager.getEntityIds()) {
+			NemezManager.EntityTrack expectedTrack = expected.manager.getTrack(id);
+			int count = expectedTrack.countLive(expected.first, expected.end);
+			if (count == 0) continue;
+
+			NemezManager.EntityTrack actualTrack = actual.manager.getTrack(id);
+			assertNotNull(actualTrack);
+			assertEquals(count, actualTrack.countLive(actual.first, actual.end));
+
+			for (int rank = 0; rank < count; rank++)
+				assertSameSample(expectedTrack, expectedTrack.liveAt(expected.first, expected.end, rank),
+						actualTrack, actualTrack.liveAt(actual.first, actual.end, rank));
+		}
+	}
+
+	/**
+	 * Checks the fields of the expected sample. Fields missing in it keep the previous value when decoded, so they aren't compared.
+	 */
+	private static void assertSameSample(NemezManager.EntityTrack expected, int i, NemezManager.EntityTrack actual, int j) {
+		int bits = expected.mask[i];
+		assertEquals(bits, actual.mask[j] & bits);
+		if ((bits & NemezManager.EntityTrack.X) != 0) assertEquals(expected.x[i], actual.x[j], POSITION_ERROR);
+		if ((bits & NemezManager.EntityTrack.Y) != 0) assertEquals(expected.y[i], actual.y[j], POSITION_ERROR);
+		if ((bits & NemezManager.EntityTrack.Z) != 0) assertEquals(expected.z[i], actual.z[j], POSITION_ERROR);
+		if ((bits & NemezManager.EntityTrack.YAW) != 0) assertEquals(expected.yaw[i], actual.yaw[j], ANGLE_ERROR);
+		if ((bits & NemezManager.EntityTrack.PITCH) != 0) assertEquals(expected.pitch[i], actual.pitch[j], ANGLE_ERROR);
+		if ((bits & NemezManager.EntityTrack.HEALTH) != 0) assertEquals(expected.health[i], actual.health[j], 0);
+		if ((bits & NemezManager.EntityTrack.FOOD) != 0) assertEquals(expected.food[i], actual.food[j]);
+		if ((bits & NemezManager.EntityTrack.SATURATION) != 0) assertEquals(expected.saturation[i], actual.saturation[j], 0);
+		if ((bits & NemezManager.EntityTrack.EXHAUSTION) != 0) assertEquals(expected.exhaustion[i], actual.exhaustion[j], 0);
+	}
+}